@@ -0,0 +1,46 @@
+package com.mediscreen.patientmicroservice.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Search keys of the patient names, shared by the blocking and the reactive service: both search the same
+ * columns.
+ */
+public final class NameNormalizer {
+
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}");
+  private static final Pattern NOT_ALPHANUMERIC = Pattern.compile("[^a-z0-9]");
+  private static final Map<String, String> LIGATURES = Map.of(
+      "ß", "ss", "æ", "ae", "œ", "oe", "ø", "o", "ł", "l", "đ", "d", "þ", "th");
+
+  private NameNormalizer() {
+  }
+
+  public static String normalize(String name) {
+    if (name == null) {
+      return null;
+    }
+    String normalized = DIACRITICS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("")
+        .toLowerCase(Locale.ROOT);
+    for (Map.Entry<String, String> ligature : LIGATURES.entrySet()) {
+      normalized = normalized.replace(ligature.getKey(), ligature.getValue());
+    }
+    return NOT_ALPHANUMERIC.matcher(normalized).replaceAll("");
+  }
+
+  public static String prefixUpperBound(String prefix) {
+    StringBuilder upperBound = new StringBuilder(prefix);
+    for (int i = upperBound.length() - 1; i >= 0; i--) {
+      char c = upperBound.charAt(i);
+      if (c != 'z') {
+        upperBound.setCharAt(i, c == '9' ? 'a' : (char) (c + 1));
+        upperBound.setLength(i + 1);
+        return upperBound.toString();
+      }
+    }
+    return null;
+  }
+}
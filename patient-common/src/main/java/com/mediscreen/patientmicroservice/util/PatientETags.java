@@ -0,0 +1,108 @@
+package com.mediscreen.patientmicroservice.util;
+
+import com.mediscreen.patientmicroservice.exception.PreconditionFailedException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+
+/**
+ * ETags of the patient API, shared by the blocking and the reactive service so that a client can revalidate
+ * against either of them.
+ */
+public final class PatientETags {
+
+  private PatientETags() {
+  }
+
+  public static String of(int id, long version) {
+    return "\"" + id + "-" + version + "\"";
+  }
+
+  public static String of(VersionedPatient patient) {
+    return of(patient.getId(), version(patient));
+  }
+
+  /**
+   * Strong ETag of a list response: a digest of the ids and versions it contains plus anything else
+   * the response carries (cursor, total count, missing ids).
+   */
+  public static String of(Collection<? extends VersionedPatient> patients, Object... extras) {
+    MessageDigest digest = sha256();
+    ByteBuffer buffer = ByteBuffer.allocate(12);
+    for (VersionedPatient patient : patients) {
+      buffer.clear();
+      buffer.putInt(patient.getId()).putLong(version(patient));
+      digest.update(buffer.array());
+    }
+    for (Object extra : extras) {
+      digest.update(String.valueOf(extra).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+    }
+    return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest.digest(), 16)) + "\"";
+  }
+
+  /**
+   * ETag of one representation of the response: the media type, or the content coding, is appended
+   * after a '+' so that two representations never share a strong ETag. JSON keeps the plain tag.
+   */
+  public static String withRepresentation(String etag, String representation) {
+    return etag.substring(0, etag.length() - 1) + "+" + representation + "\"";
+  }
+
+  /**
+   * Weak comparison as required for If-None-Match: only W/ is dropped, so the tag of one representation
+   * never validates another.
+   */
+  public static boolean matches(String ifNoneMatch, String etag) {
+    String opaqueTag = etag.startsWith("W/") ? etag.substring(2) : etag;
+    for (String candidate : ifNoneMatch.split(",")) {
+      String tag = candidate.trim();
+      if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaqueTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Version expected by an If-Match header, null when the header is absent or "*". The tag of any
+   * representation of the patient names its version; anything that cannot be one can never match.
+   */
+  public static Long expectedVersion(String ifMatch, int id) {
+    if (ifMatch == null || ifMatch.trim().equals("*")) {
+      return null;
+    }
+    String prefix = "\"" + id + "-";
+    String tag = withoutRepresentation(ifMatch.trim());
+    if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+      try {
+        return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+      } catch (NumberFormatException e) {
+        // falls through to the precondition failure
+      }
+    }
+    throw new PreconditionFailedException("If-Match " + ifMatch + " does not match patient " + id);
+  }
+
+  private static String withoutRepresentation(String tag) {
+    int plus = tag.indexOf('+');
+    return plus < 0 ? tag : tag.substring(0, plus) + "\"";
+  }
+
+  private static long version(VersionedPatient patient) {
+    return patient.getVersion() == null ? 0 : patient.getVersion();
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package com.mediscreen.patientmicroservice.util;
+
+/**
+ * What {@link PatientETags} needs of a patient, implemented by the model of each service.
+ */
+public interface VersionedPatient {
+
+  Integer getId();
+
+  Long getVersion();
+}
@@ -0,0 +1,13 @@
+package com.mediscreen.patientmicroservice.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class ReactivePatientApplication {
+
+  public static void main(String[] args) {
+    SpringApplication.run(ReactivePatientApplication.class, args);
+  }
+
+}
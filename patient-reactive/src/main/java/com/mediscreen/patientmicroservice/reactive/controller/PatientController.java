@@ -0,0 +1,102 @@
+package com.mediscreen.patientmicroservice.reactive.controller;
+
+import com.mediscreen.patientmicroservice.reactive.model.Patient;
+import com.mediscreen.patientmicroservice.reactive.model.PatientPatch;
+import com.mediscreen.patientmicroservice.reactive.service.PatientService;
+import com.mediscreen.patientmicroservice.util.PatientETags;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.util.List;
+
+/**
+ * The /patientAPI/patients contract of the blocking service on WebFlux. Nothing here blocks a thread: a
+ * request waiting on the database holds a connection from the R2DBC pool and no thread at all.
+ */
+@RestController
+@RequestMapping("/patientAPI")
+public class PatientController {
+
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  private final PatientService service;
+
+  public PatientController(PatientService service) {
+    this.service = service;
+  }
+
+  @GetMapping("")
+  public Mono<ResponseEntity<String>> getWelcome(){
+    return Mono.just(new ResponseEntity<>("Welcome to Mediscreen Patient API", HttpStatus.OK));
+  }
+
+  @GetMapping(value = "/patients", produces = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<ResponseEntity<List<Patient>>> getAllPatients(@RequestParam(required = false) Integer after,
+                                                            @RequestParam(required = false) Integer limit){
+    return service.getPatientPage(after, limit).map(page -> {
+      if (!page.getPatients().isEmpty()){
+        HttpHeaders headers= new HttpHeaders();
+        if (page.getNextCursor()!=null){
+          headers.set(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+        }
+        headers.setETag(PatientETags.of(page.getPatients(), page.getNextCursor()));
+        return new ResponseEntity<>(page.getPatients(),headers,HttpStatus.OK);
+      }
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    });
+  }
+
+  /**
+   * The whole list as NDJSON, from the cursor on. Rows are read as fast as the client takes them: a slow
+   * reader slows the query down instead of filling the server memory.
+   */
+  @GetMapping(value = {"/patients", "/patients/export"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<Patient> streamPatients(@RequestParam(required = false) Integer after){
+    return service.streamPatients(after);
+  }
+
+  @GetMapping("/patients/{id}")
+  public Mono<ResponseEntity<Patient>> getPatientById(@PathVariable int id,
+                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+    return service.getPatientById(id)
+        .map(patient -> {
+          String etag= PatientETags.of(patient);
+          if (ifNoneMatch!=null && PatientETags.matches(ifNoneMatch, etag)){
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<Patient>build();
+          }
+          return ResponseEntity.ok().eTag(etag).body(patient);
+        })
+        .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+  }
+
+  @PostMapping(value = "/patients")
+  public Mono<ResponseEntity<Patient>> addPatient(@Valid @RequestBody Patient patient){
+    return service.addPatient(patient)
+        .map(patientSaved -> new ResponseEntity<>(patientSaved,HttpStatus.CREATED))
+        .defaultIfEmpty(new ResponseEntity<>(HttpStatus.CREATED));
+  }
+
+  @PutMapping("/patients/{id}")
+  public Mono<ResponseEntity<Patient>> updatePatient(@PathVariable int id, @Valid @RequestBody Patient patientToUpdate,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+    return service.updatePatient(id, patientToUpdate, PatientETags.expectedVersion(ifMatch, id))
+        .map(patientUpdated -> ResponseEntity.status(HttpStatus.CREATED).eTag(PatientETags.of(patientUpdated)).body(patientUpdated))
+        .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+  }
+
+  @PatchMapping("/patients/{id}")
+  public Mono<ResponseEntity<Boolean>> patchPatient(@PathVariable int id, @Valid @RequestBody PatientPatch patch){
+    return service.patchPatient(id, patch).map(patientPatched -> new ResponseEntity<>(patientPatched, HttpStatus.OK));
+  }
+
+  @DeleteMapping("/patients/{id}")
+  public Mono<ResponseEntity<Boolean>> getDeletePatient(@PathVariable int id){
+    return service.deletePatient(id).map(patientDeleted -> new ResponseEntity<>(patientDeleted, HttpStatus.OK));
+  }
+}
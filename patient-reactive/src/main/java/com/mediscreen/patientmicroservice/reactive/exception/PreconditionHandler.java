@@ -0,0 +1,31 @@
+package com.mediscreen.patientmicroservice.reactive.exception;
+
+import com.mediscreen.patientmicroservice.exception.PreconditionFailedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.server.ServerWebExchange;
+
+@ControllerAdvice
+public class PreconditionHandler {
+
+  @ExceptionHandler(PreconditionFailedException.class)
+  public ResponseEntity<Void> handlePreconditionFailed() {
+    return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+  }
+
+  /**
+   * A concurrent write got in first: the If-Match the client sent no longer holds, and without one
+   * there is no precondition to fail, only a conflict.
+   */
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<Void> handleOptimisticLockingFailure(ServerWebExchange exchange) {
+    if (exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_MATCH)!=null){
+      return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+    }
+    return new ResponseEntity<>(HttpStatus.CONFLICT);
+  }
+}
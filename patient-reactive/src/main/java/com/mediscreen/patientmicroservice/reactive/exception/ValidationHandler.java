@@ -0,0 +1,27 @@
+package com.mediscreen.patientmicroservice.reactive.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ControllerAdvice
+public class ValidationHandler {
+
+  @ExceptionHandler(WebExchangeBindException.class)
+  public ResponseEntity<Map<String, String>> handleBindException(WebExchangeBindException ex) {
+    Map<String, String> errors = new HashMap<>();
+    ex.getBindingResult().getAllErrors().forEach((error) ->{
+
+      String fieldName = ((FieldError) error).getField();
+      String message = error.getDefaultMessage();
+      errors.put(fieldName, message);
+    });
+    return new ResponseEntity<>(errors, HttpStatus.UNPROCESSABLE_ENTITY);
+  }
+}
@@ -0,0 +1,181 @@
+package com.mediscreen.patientmicroservice.reactive.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.mediscreen.patientmicroservice.util.NameNormalizer;
+import com.mediscreen.patientmicroservice.util.VersionedPatient;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+
+/**
+ * The patient row of the blocking service, mapped for R2DBC. Name keys follow the names: there are no
+ * entity callbacks, so the setters and the builder compute them.
+ */
+@Table("patient")
+public class Patient implements VersionedPatient {
+
+  @Id
+  private Integer id;
+
+  @NotEmpty(message = "FirstName is mandatory")
+  private String firstName;
+
+  @NotEmpty(message = "LastName is mandatory")
+  private String lastName;
+
+  @NotNull(message = "Date of birth is mandatory")
+  private LocalDate dateOfBirth;
+
+  @NotNull(message = "Gender is mandatory")
+  private String gender;
+
+  private String address;
+  private String phone;
+
+  @JsonIgnore
+  private String lastNameKey;
+
+  @JsonIgnore
+  private String firstNameKey;
+
+  @Version
+  @JsonIgnore
+  private Long version;
+
+  public Patient(){}
+
+  private Patient(PatientBuilder builder){
+    this.id=builder.id;
+    this.firstName=builder.firstName;
+    this.lastName=builder.lastName;
+    this.dateOfBirth=builder.dateOfBirth;
+    this.gender=builder.gender;
+    this.address= builder.address;
+    this.phone= builder.phone;
+    this.version= builder.version;
+    this.firstNameKey= NameNormalizer.normalize(firstName);
+    this.lastNameKey= NameNormalizer.normalize(lastName);
+  }
+
+  public Patient withId(Integer id) {
+    return new PatientBuilder().id(id).firstName(firstName).lastName(lastName).dateOfBirth(dateOfBirth)
+        .gender(gender).address(address).phone(phone).version(version).build();
+  }
+
+  public Integer getId() {
+    return id;
+  }
+
+  public String getFirstName() {
+    return firstName;
+  }
+
+  public String getLastName() {
+    return lastName;
+  }
+
+  public LocalDate getDateOfBirth() {
+    return dateOfBirth;
+  }
+
+  public String getGender() {
+    return gender;
+  }
+
+  public String getAddress() {
+    return address;
+  }
+
+  public String getPhone() {
+    return phone;
+  }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  public void setFirstName(String firstName) {
+    this.firstName = firstName;
+    this.firstNameKey = NameNormalizer.normalize(firstName);
+  }
+
+  public void setLastName(String lastName) {
+    this.lastName = lastName;
+    this.lastNameKey = NameNormalizer.normalize(lastName);
+  }
+
+  public void setDateOfBirth(LocalDate dateOfBirth) {
+    this.dateOfBirth = dateOfBirth;
+  }
+
+  public void setGender(String gender) {
+    this.gender = gender;
+  }
+
+  public void setAddress(String address) {
+    this.address = address;
+  }
+
+  public void setPhone(String phone) {
+    this.phone = phone;
+  }
+
+  public static class PatientBuilder{
+    private Integer id;
+    private String firstName;
+    private String lastName;
+    private LocalDate dateOfBirth;
+    private String gender;
+    private String address;
+    private String phone;
+    private Long version;
+
+    public PatientBuilder id(Integer id){
+      this.id=id;
+      return this;
+    }
+
+    public PatientBuilder firstName(String firstName){
+      this.firstName=firstName;
+      return this;
+    }
+
+    public PatientBuilder lastName(String lastName){
+      this.lastName=lastName;
+      return this;
+    }
+
+    public PatientBuilder dateOfBirth(LocalDate DoB){
+      this.dateOfBirth= DoB;
+      return this;
+    }
+
+    public PatientBuilder gender(String gender){
+      this.gender=gender;
+      return this;
+    }
+
+    public PatientBuilder address(String address){
+      this.address=address;
+      return this;
+    }
+
+    public PatientBuilder phone(String phone){
+      this.phone=phone;
+      return this;
+    }
+
+    public PatientBuilder version(Long version){
+      this.version=version;
+      return this;
+    }
+
+    public Patient build(){
+      return new Patient(this);
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package com.mediscreen.patientmicroservice.reactive.model;
+
+import java.util.List;
+
+public class PatientPage {
+
+  private final List<Patient> patients;
+  private final Integer nextCursor;
+
+  public PatientPage(List<Patient> patients, Integer nextCursor) {
+    this.patients = patients;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<Patient> getPatients() {
+    return patients;
+  }
+
+  public Integer getNextCursor() {
+    return nextCursor;
+  }
+}
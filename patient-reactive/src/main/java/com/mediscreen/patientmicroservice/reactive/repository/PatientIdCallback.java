@@ -0,0 +1,62 @@
+package com.mediscreen.patientmicroservice.reactive.repository;
+
+import com.mediscreen.patientmicroservice.reactive.model.Patient;
+import org.reactivestreams.Publisher;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Gives new patients an id from patient_id_seq the way Hibernate's pooled optimizer does for the blocking
+ * service: each sequence value is the top of a block of ALLOCATION_SIZE ids, so both services can insert
+ * into the same table and one sequence call covers fifty inserts.
+ */
+@Component
+public class PatientIdCallback implements BeforeConvertCallback<Patient> {
+
+  static final int ALLOCATION_SIZE = 50;
+
+  private final DatabaseClient databaseClient;
+
+  private int nextId;
+  private int lastId;
+
+  public PatientIdCallback(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  @Override
+  public Publisher<Patient> onBeforeConvert(Patient patient, SqlIdentifier table) {
+    if (patient.getId() != null) {
+      return Mono.just(patient);
+    }
+    return nextId().map(patient::withId);
+  }
+
+  private Mono<Integer> nextId() {
+    Integer id = takeId();
+    if (id != null) {
+      return Mono.just(id);
+    }
+    return databaseClient.sql("select nextval('patient_id_seq')")
+        .map(row -> row.get(0, Long.class))
+        .one()
+        .map(value -> allocate(value.intValue()));
+  }
+
+  private synchronized Integer takeId() {
+    return nextId > 0 && nextId <= lastId ? nextId++ : null;
+  }
+
+  /**
+   * Takes the first id of the block ending at the sequence value, the rest serve the next inserts.
+   */
+  private synchronized int allocate(int sequenceValue) {
+    int firstId = Math.max(1, sequenceValue - ALLOCATION_SIZE + 1);
+    nextId = firstId + 1;
+    lastId = sequenceValue;
+    return firstId;
+  }
+}
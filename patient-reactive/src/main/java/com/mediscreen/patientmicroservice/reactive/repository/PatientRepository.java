@@ -0,0 +1,26 @@
+package com.mediscreen.patientmicroservice.reactive.repository;
+
+import com.mediscreen.patientmicroservice.reactive.model.Patient;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface PatientRepository extends ReactiveCrudRepository<Patient,Integer>, PatientRepositoryCustom {
+
+  @Query("select * from patient where id > :after order by id limit :limit")
+  Flux<Patient> findPage(int after, int limit);
+
+  /**
+   * Every patient after the cursor, rows are read from the connection as the subscriber requests them.
+   */
+  @Query("select * from patient where id > :after order by id")
+  Flux<Patient> streamFrom(int after);
+
+  @Modifying
+  @Query("delete from patient where id = :id")
+  Mono<Integer> deletePatientById(int id);
+}
@@ -0,0 +1,9 @@
+package com.mediscreen.patientmicroservice.reactive.repository;
+
+import com.mediscreen.patientmicroservice.reactive.model.PatientPatch;
+import reactor.core.publisher.Mono;
+
+public interface PatientRepositoryCustom {
+
+  Mono<Integer> patchPatient(int id, PatientPatch patch);
+}
@@ -0,0 +1,54 @@
+package com.mediscreen.patientmicroservice.reactive.repository;
+
+import com.mediscreen.patientmicroservice.reactive.model.PatientPatch;
+import com.mediscreen.patientmicroservice.util.NameNormalizer;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class PatientRepositoryCustomImpl implements PatientRepositoryCustom {
+
+  private final DatabaseClient databaseClient;
+
+  public PatientRepositoryCustomImpl(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  @Override
+  public Mono<Integer> patchPatient(int id, PatientPatch patch) {
+    Map<String, Object> columns = new LinkedHashMap<>();
+    if (patch.getFirstName() != null) {
+      columns.put("first_name", patch.getFirstName());
+      columns.put("first_name_key", NameNormalizer.normalize(patch.getFirstName()));
+    }
+    if (patch.getLastName() != null) {
+      columns.put("last_name", patch.getLastName());
+      columns.put("last_name_key", NameNormalizer.normalize(patch.getLastName()));
+    }
+    if (patch.getDateOfBirth() != null) {
+      columns.put("date_of_birth", patch.getDateOfBirth());
+    }
+    if (patch.getGender() != null) {
+      columns.put("gender", patch.getGender());
+    }
+    if (patch.getAddress() != null) {
+      columns.put("address", patch.getAddress());
+    }
+    if (patch.getPhone() != null) {
+      columns.put("phone", patch.getPhone());
+    }
+
+    StringBuilder sql = new StringBuilder("update patient set ");
+    columns.keySet().forEach(column -> sql.append(column).append(" = :").append(column).append(", "));
+    sql.append("version = version + 1 where id = :id");
+
+    GenericExecuteSpec update = databaseClient.sql(sql.toString()).bind("id", id);
+    for (Map.Entry<String, Object> column : columns.entrySet()) {
+      update = update.bind(column.getKey(), column.getValue());
+    }
+    return update.fetch().rowsUpdated();
+  }
+}
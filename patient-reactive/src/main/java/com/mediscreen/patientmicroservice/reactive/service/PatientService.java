@@ -0,0 +1,104 @@
+package com.mediscreen.patientmicroservice.reactive.service;
+
+import com.mediscreen.patientmicroservice.exception.PreconditionFailedException;
+import com.mediscreen.patientmicroservice.reactive.model.Patient;
+import com.mediscreen.patientmicroservice.reactive.model.PatientPage;
+import com.mediscreen.patientmicroservice.reactive.model.PatientPatch;
+import com.mediscreen.patientmicroservice.reactive.repository.PatientRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@Service
+public class PatientService {
+
+  public static final int DEFAULT_PAGE_SIZE = 50;
+  public static final int MAX_PAGE_SIZE = 500;
+
+  private final PatientRepository repository;
+
+  public PatientService(PatientRepository repository) {
+    this.repository = repository;
+  }
+
+  public Mono<PatientPage> getPatientPage(Integer after, Integer limit) {
+    int cursor= after==null ? 0 : after;
+    int size= pageSize(limit);
+
+    return repository.findPage(cursor, size + 1).collectList().map(patients -> {
+      if (patients.size() > size){
+        List<Patient> page= patients.subList(0, size);
+        return new PatientPage(page, page.get(size - 1).getId());
+      }
+      return new PatientPage(patients, null);
+    });
+  }
+
+  public Flux<Patient> streamPatients(Integer after) {
+    return repository.streamFrom(after==null ? 0 : after);
+  }
+
+  public Mono<Patient> getPatientById(int id) {
+    return repository.findById(id);
+  }
+
+  public Mono<Patient> addPatient(Patient patient) {
+    if (isValid(patient)){
+      return repository.save(patient);
+    }
+    return Mono.empty();
+  }
+
+  @Transactional
+  public Mono<Patient> updatePatient(int id, Patient patientToUpdate, Long expectedVersion) {
+    return repository.findById(id).flatMap(patientIsExist -> {
+      if (expectedVersion!=null && !expectedVersion.equals(patientIsExist.getVersion())){
+        return Mono.error(new PreconditionFailedException("Patient " + id + " is at version " + patientIsExist.getVersion()));
+      }
+      return repository.save(updateInitialPatient(patientToUpdate, patientIsExist));
+    });
+  }
+
+  public Mono<Boolean> patchPatient(int id, PatientPatch patch) {
+    if (patch.isEmpty()){
+      return repository.existsById(id);
+    }
+    return repository.patchPatient(id, patch).map(rows -> rows > 0);
+  }
+
+  public Mono<Boolean> deletePatient(int id) {
+    return repository.deletePatientById(id).map(rows -> rows > 0);
+  }
+
+  private int pageSize(Integer limit) {
+    if (limit==null || limit <= 0){
+      return DEFAULT_PAGE_SIZE;
+    }
+    return Math.min(limit, MAX_PAGE_SIZE);
+  }
+
+  public boolean isValid(Patient patient) {
+    return !(patient.getFirstName() == null |
+        patient.getLastName() == null |
+        patient.getDateOfBirth() == null |
+        patient.getGender() == null);
+  }
+
+  private Patient updateInitialPatient(Patient patientToUpdate, Patient patientIsExist) {
+    patientIsExist.setFirstName(patientToUpdate.getFirstName());
+    patientIsExist.setLastName(patientToUpdate.getLastName());
+    patientIsExist.setDateOfBirth(patientToUpdate.getDateOfBirth());
+    patientIsExist.setGender(patientToUpdate.getGender());
+
+    if(patientToUpdate.getAddress()!=null){
+      patientIsExist.setAddress(patientToUpdate.getAddress());
+    }
+    if (patientToUpdate.getPhone()!=null){
+      patientIsExist.setPhone(patientToUpdate.getPhone());
+    }
+    return patientIsExist;
+  }
+}
@@ -0,0 +1,244 @@
+package com.mediscreen.patientmicroservice.reactive;
+
+import com.mediscreen.patientmicroservice.reactive.model.Patient;
+import com.mediscreen.patientmicroservice.reactive.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.reactive.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "spring.r2dbc.url=r2dbc:h2:mem:///reactive-controller;DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.username=sa",
+    "spring.r2dbc.password=",
+    "spring.sql.init.mode=always"
+})
+@AutoConfigureWebTestClient
+public class PatientControllerTest {
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Autowired
+  private PatientRepository repository;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  @BeforeEach
+  void setUp() {
+    databaseClient.sql("delete from patient").fetch().rowsUpdated().block();
+  }
+
+  @Test
+  void givenMorePatientsThanTheLimitWhenGetAllPatientsThenFirstPageAndNextCursorReturned() {
+    //Given
+    List<Patient> patients= savePatients(3);
+
+    //When
+    webTestClient.get().uri("/patientAPI/patients?limit=2").exchange()
+
+    //Then
+        .expectStatus().isOk()
+        .expectHeader().valueEquals("X-Next-Cursor", String.valueOf(patients.get(1).getId()))
+        .expectHeader().exists(HttpHeaders.ETAG)
+        .expectBody()
+        .jsonPath("$.length()").isEqualTo(2)
+        .jsonPath("$[0].lastName").isEqualTo("Doe0");
+  }
+
+  @Test
+  void givenNoPatientWhenGetAllPatientsThenNoContent() {
+    //When
+    webTestClient.get().uri("/patientAPI/patients").exchange()
+
+    //Then
+        .expectStatus().isNoContent();
+  }
+
+  @Test
+  void givenPatientsWhenStreamedAsNdjsonThenEveryPatientAfterTheCursorIsEmitted() {
+    //Given
+    List<Patient> patients= savePatients(5);
+
+    //When
+    Flux<Patient> actual= webTestClient.get().uri("/patientAPI/patients?after=" + patients.get(1).getId())
+        .accept(MediaType.APPLICATION_NDJSON)
+        .exchange()
+        .expectStatus().isOk()
+        .returnResult(Patient.class)
+        .getResponseBody();
+
+    //Then
+    StepVerifier.create(actual.map(Patient::getLastName))
+        .expectNext("Doe2", "Doe3", "Doe4")
+        .verifyComplete();
+  }
+
+  @Test
+  void givenAPatientWhenGetByIdThenPatientAndETagReturned() {
+    //Given
+    Patient patient= savePatients(1).get(0);
+
+    //When
+    webTestClient.get().uri("/patientAPI/patients/" + patient.getId()).exchange()
+
+    //Then
+        .expectStatus().isOk()
+        .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + patient.getId() + "-0\"")
+        .expectBody()
+        .jsonPath("$.firstName").isEqualTo("John")
+        .jsonPath("$.lastNameKey").doesNotExist();
+  }
+
+  @Test
+  void givenTheCurrentETagWhenGetByIdThenNotModified() {
+    //Given
+    Patient patient= savePatients(1).get(0);
+
+    //When
+    webTestClient.get().uri("/patientAPI/patients/" + patient.getId())
+        .header(HttpHeaders.IF_NONE_MATCH, "\"" + patient.getId() + "-0\"")
+        .exchange()
+
+    //Then
+        .expectStatus().isNotModified();
+  }
+
+  @Test
+  void givenAnUnknownIdWhenGetByIdThenNoContent() {
+    //When
+    webTestClient.get().uri("/patientAPI/patients/999").exchange()
+
+    //Then
+        .expectStatus().isNoContent();
+  }
+
+  @Test
+  void givenAValidPatientWhenAddPatientThenSavedWithSequenceIdAndNameKeys() {
+    //When
+    Patient actual= webTestClient.post().uri("/patientAPI/patients")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"firstName\":\"Élodie\",\"lastName\":\"Dupré\",\"dateOfBirth\":\"1980-01-01\",\"gender\":\"F\"}")
+        .exchange()
+        .expectStatus().isCreated()
+        .expectBody(Patient.class)
+        .returnResult().getResponseBody();
+
+    //Then
+    assertThat(actual.getId()).isPositive();
+    String lastNameKey= databaseClient.sql("select last_name_key from patient where id = :id")
+        .bind("id", actual.getId())
+        .map(row -> row.get(0, String.class))
+        .one().block();
+    assertThat(lastNameKey).isEqualTo("dupre");
+  }
+
+  @Test
+  void givenAPatientWithoutLastNameWhenAddPatientThenUnprocessableEntity() {
+    //When
+    webTestClient.post().uri("/patientAPI/patients")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"firstName\":\"John\",\"dateOfBirth\":\"1980-01-01\",\"gender\":\"M\"}")
+        .exchange()
+
+    //Then
+        .expectStatus().isEqualTo(422)
+        .expectBody()
+        .jsonPath("$.lastName").isEqualTo("LastName is mandatory");
+  }
+
+  @Test
+  void givenAStaleIfMatchWhenUpdatePatientThenPreconditionFailed() {
+    //Given
+    Patient patient= savePatients(1).get(0);
+
+    //When
+    webTestClient.put().uri("/patientAPI/patients/" + patient.getId())
+        .header(HttpHeaders.IF_MATCH, "\"" + patient.getId() + "-7\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"dateOfBirth\":\"1980-01-01\",\"gender\":\"F\"}")
+        .exchange()
+
+    //Then
+        .expectStatus().isEqualTo(412);
+  }
+
+  @Test
+  void givenAPatientWhenUpdatePatientThenVersionIncremented() {
+    //Given
+    Patient patient= savePatients(1).get(0);
+
+    //When
+    webTestClient.put().uri("/patientAPI/patients/" + patient.getId())
+        .header(HttpHeaders.IF_MATCH, "\"" + patient.getId() + "-0\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"dateOfBirth\":\"1980-01-01\",\"gender\":\"F\"}")
+        .exchange()
+
+    //Then
+        .expectStatus().isCreated()
+        .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + patient.getId() + "-1\"")
+        .expectBody()
+        .jsonPath("$.firstName").isEqualTo("Jane");
+  }
+
+  @Test
+  void givenAPatientWhenPatchedThenOnlyGivenFieldsChange() {
+    //Given
+    Patient patient= savePatients(1).get(0);
+
+    //When
+    webTestClient.patch().uri("/patientAPI/patients/" + patient.getId())
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"phone\":\"111-222-3333\"}")
+        .exchange()
+
+    //Then
+        .expectStatus().isOk()
+        .expectBody(Boolean.class).isEqualTo(true);
+    Patient actual= repository.findById(patient.getId()).block();
+    assertThat(actual.getPhone()).isEqualTo("111-222-3333");
+    assertThat(actual.getFirstName()).isEqualTo("John");
+    assertThat(actual.getVersion()).isEqualTo(1);
+  }
+
+  @Test
+  void givenAPatientWhenDeletedTwiceThenOnlyTheFirstDeleteReturnsTrue() {
+    //Given
+    Patient patient= savePatients(1).get(0);
+
+    //When
+    webTestClient.delete().uri("/patientAPI/patients/" + patient.getId()).exchange()
+        .expectBody(Boolean.class).isEqualTo(true);
+
+    //Then
+    webTestClient.delete().uri("/patientAPI/patients/" + patient.getId()).exchange()
+        .expectBody(Boolean.class).isEqualTo(false);
+  }
+
+  private List<Patient> savePatients(int count) {
+    return Flux.range(0, count)
+        .concatMap(i -> repository.save(new PatientBuilder()
+            .firstName("John")
+            .lastName("Doe" + i)
+            .dateOfBirth(LocalDate.of(1980,1,1))
+            .gender("M")
+            .build()))
+        .collectList()
+        .block();
+  }
+}
@@ -0,0 +1,260 @@
+package com.mediscreen.patientmicroservice.reactive;
+
+import com.mediscreen.patientmicroservice.util.NameNormalizer;
+import io.r2dbc.spi.Statement;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The blocking service load test against the reactive stack: same closed-loop clients, same system
+ * properties and the same report, so the two summaries compare line by line (compareStacks in the root
+ * project). There is no search endpoint here, SEARCH is not a valid operation of load.mix.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.r2dbc.url=r2dbc:h2:mem:///load-test;DB_CLOSE_DELAY=-1",
+    "spring.r2dbc.username=sa",
+    "spring.r2dbc.password=",
+    "spring.sql.init.mode=always",
+    "logging.level.root=warn"
+})
+public class PatientLoadTest {
+
+  private static final int PATIENTS= Integer.getInteger("load.patients",10_000);
+  private static final int CLIENTS= Integer.getInteger("load.clients",16);
+  private static final Duration WARMUP= Duration.parse(System.getProperty("load.warmup","PT5S"));
+  private static final Duration DURATION= Duration.parse(System.getProperty("load.duration","PT30S"));
+  private static final String MIX= System.getProperty("load.mix","read=70,page=15,create=5,update=10");
+  private static final Path REPORT_DIR= Paths.get(System.getProperty("load.report-dir","build/reports/load-test"));
+
+  private static final long HIGHEST_LATENCY_MICROS= Duration.ofMinutes(1).toNanos() / 1000;
+  private static final int SEED_BATCH_SIZE= 1000;
+
+  private static final String[] LAST_NAMES= {"Ferguson", "Rees", "Arnold", "Sharp", "Ince", "Ross", "Wilson",
+      "Buckland", "Clark", "Bailey", "Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit"};
+
+  private static final String[] FIRST_NAMES= {"Lucas", "Pippa", "Edward", "Anthony", "Wendy", "Tracey", "Claire",
+      "Max", "Natalie", "Piers", "Emma", "Louis", "Jade", "Gabriel", "Louise", "Arthur", "Alice"};
+
+  enum Operation { READ, PAGE, CREATE, UPDATE }
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  private final HttpClient httpClient= HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(Duration.ofSeconds(5))
+      .build();
+
+  @Test
+  void givenSeededPatientsWhenClientsRunTheMixThenLatencyReportWritten() throws Exception {
+    //Given
+    int maxId= seed(PATIENTS);
+    Operation[] mix= parseMix(MIX);
+    AtomicInteger errors= new AtomicInteger();
+
+    //When
+    long measureFrom= System.nanoTime() + WARMUP.toNanos();
+    long end= measureFrom + DURATION.toNanos();
+    ExecutorService executor= Executors.newFixedThreadPool(CLIENTS);
+    List<Future<Map<Operation, Histogram>>> clients= new ArrayList<>();
+    for (int client = 0; client < CLIENTS; client++) {
+      int clientIndex= client;
+      clients.add(executor.submit(() -> runClient(clientIndex, mix, maxId, measureFrom, end, errors)));
+    }
+    Map<Operation, Histogram> histograms= new EnumMap<>(Operation.class);
+    for (Future<Map<Operation, Histogram>> client : clients) {
+      client.get().forEach((operation, histogram) ->
+          histograms.computeIfAbsent(operation, key -> newHistogram()).add(histogram));
+    }
+    executor.shutdown();
+    writeReport(histograms, errors.get());
+
+    //Then
+    assertThat(errors.get()).isZero();
+    assertThat(histograms.values().stream().mapToLong(Histogram::getTotalCount).sum()).isPositive();
+  }
+
+  /**
+   * Patients 1 to count in batches, then the id sequence moved past them.
+   */
+  private int seed(int count) {
+    Random random= new Random(42);
+    Flux.range(0, (count + SEED_BATCH_SIZE - 1) / SEED_BATCH_SIZE)
+        .concatMap(batch -> databaseClient.inConnectionMany(connection -> {
+          Statement insert= connection.createStatement("insert into patient (id,last_name,first_name,date_of_birth,"
+              + "gender,address,phone,last_name_key,first_name_key,version) values ($1,$2,$3,$4,$5,$6,$7,$8,$9,0)");
+          int last= Math.min(count, (batch + 1) * SEED_BATCH_SIZE);
+          for (int id = batch * SEED_BATCH_SIZE + 1; id <= last; id++) {
+            String lastName= pick(random, LAST_NAMES);
+            String firstName= pick(random, FIRST_NAMES);
+            insert.bind(0, id).bind(1, lastName).bind(2, firstName)
+                .bind(3, LocalDate.of(1930,1,1).plusDays(random.nextInt(80 * 365)))
+                .bind(4, random.nextBoolean() ? "M" : "F").bind(5, (1 + random.nextInt(2000)) + " Vale St")
+                .bind(6, phone(random))
+                .bind(7, NameNormalizer.normalize(lastName)).bind(8, NameNormalizer.normalize(firstName));
+            if (id < last){
+              insert.add();
+            }
+          }
+          return Flux.from(insert.execute()).flatMap(result -> Mono.from(result.getRowsUpdated()));
+        }))
+        .blockLast();
+    databaseClient.sql("alter sequence patient_id_seq restart with " + (count + 50)).then().block();
+    return count;
+  }
+
+  private Map<Operation, Histogram> runClient(int client, Operation[] mix, int maxId, long measureFrom, long end,
+                                              AtomicInteger errors) throws Exception {
+    Random random= new Random(client);
+    Map<Operation, Histogram> histograms= new EnumMap<>(Operation.class);
+
+    long now;
+    while ((now= System.nanoTime()) < end) {
+      Operation operation= mix[random.nextInt(mix.length)];
+      HttpRequest request= request(operation, client, random, maxId);
+
+      long start= System.nanoTime();
+      HttpResponse<byte[]> response= httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+      long micros= (System.nanoTime() - start) / 1000;
+
+      if (now >= measureFrom){
+        histograms.computeIfAbsent(operation, key -> newHistogram()).recordValue(Math.min(micros, HIGHEST_LATENCY_MICROS));
+        if (response.statusCode() >= 400){
+          errors.incrementAndGet();
+        }
+      }
+    }
+    return histograms;
+  }
+
+  private HttpRequest request(Operation operation, int client, Random random, int maxId) {
+    int id= 1 + random.nextInt(maxId);
+    switch (operation) {
+      case READ:
+        return get("/patients/" + id);
+      case PAGE:
+        return get("/patients?after=" + id + "&limit=50");
+      case CREATE:
+        return send("POST", "/patients", "{\"firstName\":\"" + pick(random, FIRST_NAMES)
+            + "\",\"lastName\":\"" + pick(random, LAST_NAMES)
+            + "\",\"dateOfBirth\":\"" + LocalDate.of(1930,1,1).plusDays(random.nextInt(80 * 365))
+            + "\",\"gender\":\"" + (random.nextBoolean() ? "M" : "F")
+            + "\",\"phone\":\"" + phone(random) + "\"}");
+      default:
+        // each client updates its own ids, as in the blocking load test
+        int ownId= 1 + client + CLIENTS * random.nextInt(Math.max(1, maxId / CLIENTS));
+        return send("PATCH", "/patients/" + ownId, "{\"phone\":\"" + phone(random) + "\"}");
+    }
+  }
+
+  private HttpRequest get(String path) {
+    return HttpRequest.newBuilder(uri(path)).header("Accept", "application/json").GET().build();
+  }
+
+  private HttpRequest send(String method, String path, String json) {
+    return HttpRequest.newBuilder(uri(path))
+        .header("Content-Type", "application/json")
+        .method(method, HttpRequest.BodyPublishers.ofString(json))
+        .build();
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://localhost:" + port + "/patientAPI" + path);
+  }
+
+  private static Operation[] parseMix(String mix) {
+    List<Operation> slots= new ArrayList<>();
+    for (String entry : mix.split(",")) {
+      String[] weight= entry.trim().split("=");
+      Operation operation= Operation.valueOf(weight[0].trim().toUpperCase());
+      for (int i = 0; i < Integer.parseInt(weight[1].trim()); i++) {
+        slots.add(operation);
+      }
+    }
+    return slots.toArray(new Operation[0]);
+  }
+
+  private static String pick(Random random, String[] values) {
+    return values[random.nextInt(values.length)];
+  }
+
+  private static String phone(Random random) {
+    return String.format("%03d-%03d-%04d", random.nextInt(1000), random.nextInt(1000), random.nextInt(10000));
+  }
+
+  private static Histogram newHistogram() {
+    return new Histogram(HIGHEST_LATENCY_MICROS, 3);
+  }
+
+  private void writeReport(Map<Operation, Histogram> histograms, int errors) throws IOException {
+    Files.createDirectories(REPORT_DIR);
+    Histogram all= newHistogram();
+    histograms.values().forEach(all::add);
+
+    StringBuilder summary= new StringBuilder();
+    summary.append(String.format("patients=%d clients=%d warmup=%s duration=%s mix=%s errors=%d%n%n",
+        PATIENTS, CLIENTS, WARMUP, DURATION, MIX, errors));
+    summary.append(String.format("%-8s %10s %10s %10s %10s %10s %10s%n",
+        "op", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+    for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+      summary.append(line(entry.getKey().name().toLowerCase(), entry.getValue()));
+      writeDistribution(entry.getKey().name().toLowerCase(), entry.getValue());
+    }
+    summary.append(line("all", all));
+    writeDistribution("all", all);
+
+    Files.writeString(REPORT_DIR.resolve("summary.txt"), summary);
+    System.out.print(summary);
+  }
+
+  private String line(String name, Histogram histogram) {
+    return String.format("%-8s %10d %10.1f %10.3f %10.3f %10.3f %10.3f%n", name, histogram.getTotalCount(),
+        histogram.getTotalCount() / (DURATION.toMillis() / 1000d),
+        millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+        millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+  }
+
+  private void writeDistribution(String name, Histogram histogram) throws IOException {
+    try (PrintStream out= new PrintStream(Files.newOutputStream(REPORT_DIR.resolve(name + ".hgrm")))) {
+      histogram.outputPercentileDistribution(out, 1000.0);
+    }
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000d;
+  }
+}
@@ -0,0 +1,14 @@
+create sequence if not exists patient_id_seq start with 1 increment by 50;
+
+create table if not exists patient (
+  id integer primary key,
+  first_name varchar(255),
+  last_name varchar(255),
+  date_of_birth date,
+  gender varchar(1),
+  address varchar(255),
+  phone varchar(255),
+  last_name_key varchar(255),
+  first_name_key varchar(255),
+  version bigint
+);
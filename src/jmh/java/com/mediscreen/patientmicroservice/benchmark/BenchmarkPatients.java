@@ -0,0 +1,43 @@
+package com.mediscreen.patientmicroservice.benchmark;
+
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkPatients {
+
+  private BenchmarkPatients() {
+  }
+
+  static Patient patient(int id) {
+    return builder(id).id(id).version(0L).build();
+  }
+
+  /**
+   * A patient not yet stored, without id nor version.
+   */
+  static Patient newPatient(int n) {
+    return builder(n).build();
+  }
+
+  static List<Patient> patients(int count) {
+    List<Patient> patients = new ArrayList<>(count);
+    for (int id = 1; id <= count; id++) {
+      patients.add(patient(id));
+    }
+    return patients;
+  }
+
+  private static PatientBuilder builder(int id) {
+    return new PatientBuilder()
+        .firstName("John" + id)
+        .lastName("Doe" + id)
+        .dateOfBirth(LocalDate.of(1950, 1, 1).plusDays(id))
+        .gender(id % 2 == 0 ? "F" : "M")
+        .address(id + ", Grande Avenue")
+        .phone("123-456-" + (1000 + id % 9000));
+  }
+}
@@ -0,0 +1,73 @@
+package com.mediscreen.patientmicroservice.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.service.PatientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Patient JSON on the request and response paths, with the mapper configured as Spring Boot does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PatientJsonBenchmark {
+
+  private ObjectWriter patientWriter;
+  private ObjectWriter pageWriter;
+  private ObjectReader patientReader;
+  private ObjectReader pageReader;
+
+  private Patient patient;
+  private List<Patient> page;
+  private byte[] patientJson;
+  private byte[] pageJson;
+
+  @Setup
+  public void setUp() throws Exception {
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    TypeReference<List<Patient>> pageType = new TypeReference<>() {};
+    patientWriter = objectMapper.writerFor(Patient.class);
+    pageWriter = objectMapper.writerFor(pageType);
+    patientReader = objectMapper.readerFor(Patient.class);
+    pageReader = objectMapper.readerFor(pageType);
+
+    patient = BenchmarkPatients.patient(1);
+    page = BenchmarkPatients.patients(PatientService.DEFAULT_PAGE_SIZE);
+    patientJson = patientWriter.writeValueAsBytes(patient);
+    pageJson = pageWriter.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public byte[] serializePatient() throws Exception {
+    return patientWriter.writeValueAsBytes(patient);
+  }
+
+  @Benchmark
+  public Patient deserializePatient() throws Exception {
+    return patientReader.readValue(patientJson);
+  }
+
+  @Benchmark
+  public byte[] serializePage() throws Exception {
+    return pageWriter.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public List<Patient> deserializePage() throws Exception {
+    return pageReader.readValue(pageJson);
+  }
+}
@@ -0,0 +1,114 @@
+package com.mediscreen.patientmicroservice.benchmark;
+
+import com.mediscreen.patientmicroservice.PatientMicroserviceApplication;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.PatientPage;
+import com.mediscreen.patientmicroservice.model.PatientSearchCriteria;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.service.PatientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Reads and writes through the application context against an embedded H2 database, with and without
+ * the Hibernate second-level cache. The application caches in front of the repository are bypassed for
+ * reads: findById goes to the repository so the database path is what gets measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PatientRepositoryBenchmark {
+
+  @Param("10000")
+  public int rows;
+
+  @Param({"true", "false"})
+  public boolean secondLevelCache;
+
+  private ConfigurableApplicationContext context;
+  private PatientRepository repository;
+  private PatientService service;
+  private int[] ids;
+  private PatientSearchCriteria criteria;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(PatientMicroserviceApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(
+            "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.sql.init.mode=never",
+            "--logging.level.root=warn",
+            "--patient.suggest.enabled=false",
+            "--patient.second-level-cache.enabled=" + secondLevelCache,
+            "--patient.second-level-cache.uri=benchmark-" + secondLevelCache);
+    repository = context.getBean(PatientRepository.class);
+    service = context.getBean(PatientService.class);
+
+    List<Patient> saved = repository.saveAll(IntStream.rangeClosed(1, rows)
+        .mapToObj(BenchmarkPatients::newPatient)
+        .collect(Collectors.toList()));
+    ids = saved.stream().mapToInt(Patient::getId).toArray();
+
+    criteria = new PatientSearchCriteria();
+    criteria.setLastName("Doe1");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Optional<Patient> findById() {
+    return repository.findById(randomId());
+  }
+
+  @Benchmark
+  public PatientPage readPage() {
+    return service.getPatientPage(randomId(), PatientService.DEFAULT_PAGE_SIZE);
+  }
+
+  @Benchmark
+  public Page<Patient> search() {
+    return service.searchPatients(criteria, 0, PatientService.DEFAULT_PAGE_SIZE, null);
+  }
+
+  @Benchmark
+  public Patient insert() {
+    return service.addPatient(BenchmarkPatients.newPatient(0));
+  }
+
+  @Benchmark
+  public Patient update() {
+    int id = randomId();
+    return service.updatePatient(id, BenchmarkPatients.patient(id));
+  }
+
+  private int randomId() {
+    return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+  }
+}
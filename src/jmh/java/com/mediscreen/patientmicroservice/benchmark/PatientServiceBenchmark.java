@@ -0,0 +1,92 @@
+package com.mediscreen.patientmicroservice.benchmark;
+
+import com.mediscreen.patientmicroservice.cache.PatientCache;
+import com.mediscreen.patientmicroservice.cache.PatientInvalidator;
+import com.mediscreen.patientmicroservice.cache.PatientResponseCache;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.service.PatientService;
+import com.mediscreen.patientmicroservice.stats.PatientStatsCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.util.unit.DataSize;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service logic without the database: the repository answers from memory, so the update measures the
+ * merge of the request into the stored patient, the cache evictions and the change event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PatientServiceBenchmark {
+
+  private PatientService service;
+  private Patient stored;
+  private Patient update;
+  private Patient invalid;
+
+  @Setup
+  public void setUp() {
+    stored = BenchmarkPatients.patient(1);
+    update = BenchmarkPatients.patient(2);
+    invalid = new Patient.PatientBuilder().firstName("John").build();
+
+    PatientRepository repository = (PatientRepository) Proxy.newProxyInstance(
+        PatientRepository.class.getClassLoader(), new Class<?>[]{PatientRepository.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "findById":
+              return Optional.of(stored);
+            case "save":
+              return args[0];
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+    Cache secondLevelCache = (Cache) Proxy.newProxyInstance(
+        Cache.class.getClassLoader(), new Class<?>[]{Cache.class}, (proxy, method, args) -> null);
+    EntityManagerFactory entityManagerFactory = (EntityManagerFactory) Proxy.newProxyInstance(
+        EntityManagerFactory.class.getClassLoader(), new Class<?>[]{EntityManagerFactory.class},
+        (proxy, method, args) -> {
+          if (method.getName().equals("getCache")) {
+            return secondLevelCache;
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+    PatientCache cache = new PatientCache(10_000, Duration.ofMinutes(10));
+    service = new PatientService(repository, cache,
+        new PatientInvalidator(cache,
+            new PatientResponseCache(true, DataSize.ofMegabytes(32), Duration.ofMinutes(10), DataSize.ofKilobytes(1)),
+            entityManagerFactory, false, List.of()),
+        event -> { },
+        new PatientStatsCounters(true, new int[]{18, 30, 40, 50, 60, 70, 80}));
+  }
+
+  @Benchmark
+  public Patient updatePatient() {
+    return service.updatePatient(1, update);
+  }
+
+  @Benchmark
+  public boolean isValid() {
+    return service.isValid(update);
+  }
+
+  @Benchmark
+  public boolean isValidRejected() {
+    return service.isValid(invalid);
+  }
+}
@@ -0,0 +1,86 @@
+package com.mediscreen.patientmicroservice.benchmark;
+
+import com.mediscreen.patientmicroservice.controller.PatientController;
+import com.mediscreen.patientmicroservice.exception.ValidationHandler;
+import com.mediscreen.patientmicroservice.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The @Valid request body path: bean validation of a patient, then the mapping of the rejected fields to
+ * the 422 error body by ValidationHandler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ValidationBenchmark {
+
+  private LocalValidatorFactoryBean validator;
+  private ValidationHandler handler;
+  private MethodParameter body;
+  private WebRequest request;
+
+  private Patient valid;
+  private Patient invalid;
+  private MethodArgumentNotValidException invalidException;
+
+  @Setup
+  public void setUp() throws Exception {
+    validator = new LocalValidatorFactoryBean();
+    validator.afterPropertiesSet();
+    handler = new ValidationHandler();
+    body = new MethodParameter(PatientController.class.getMethod("addPatient", Patient.class, String.class), 0);
+    request = new ServletWebRequest(new MockHttpServletRequest("POST", "/patientAPI/patients"));
+
+    valid = BenchmarkPatients.patient(1);
+    invalid = new Patient.PatientBuilder().address("23, Grande Avenue").build();
+    invalidException = new MethodArgumentNotValidException(body, validate(invalid));
+  }
+
+  @TearDown
+  public void tearDown() {
+    validator.close();
+  }
+
+  @Benchmark
+  public BeanPropertyBindingResult validateValid() {
+    return validate(valid);
+  }
+
+  @Benchmark
+  public BeanPropertyBindingResult validateInvalid() {
+    return validate(invalid);
+  }
+
+  @Benchmark
+  public ResponseEntity<Object> mapErrors() throws Exception {
+    return handler.handleException(invalidException, request);
+  }
+
+  @Benchmark
+  public ResponseEntity<Object> validateAndMapErrors() throws Exception {
+    return handler.handleException(new MethodArgumentNotValidException(body, validate(invalid)), request);
+  }
+
+  private BeanPropertyBindingResult validate(Patient patient) {
+    BeanPropertyBindingResult result = new BeanPropertyBindingResult(patient, "patient");
+    validator.validate(patient, result);
+    return result;
+  }
+}
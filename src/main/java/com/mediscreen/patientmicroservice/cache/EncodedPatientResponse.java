@@ -0,0 +1,48 @@
+package com.mediscreen.patientmicroservice.cache;
+
+/**
+ * Response body as it went on the wire, with the headers needed to replay it.
+ */
+public final class EncodedPatientResponse {
+
+  private final String contentType;
+  private final byte[] body;
+  private final byte[] gzipBody;
+  private final String eTag;
+  private final String nextCursor;
+
+  public EncodedPatientResponse(String contentType, byte[] body, byte[] gzipBody, String eTag, String nextCursor) {
+    this.contentType = contentType;
+    this.body = body;
+    this.gzipBody = gzipBody;
+    this.eTag = eTag;
+    this.nextCursor = nextCursor;
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  public byte[] getBody() {
+    return body;
+  }
+
+  /**
+   * Pre-compressed body, null when the body is too small to be worth compressing.
+   */
+  public byte[] getGzipBody() {
+    return gzipBody;
+  }
+
+  public String getETag() {
+    return eTag;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  int weight() {
+    return 128 + body.length + (gzipBody == null ? 0 : gzipBody.length);
+  }
+}
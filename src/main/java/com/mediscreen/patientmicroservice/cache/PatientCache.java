@@ -0,0 +1,150 @@
+package com.mediscreen.patientmicroservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mediscreen.patientmicroservice.datasource.ReplicaRoutingContext;
+import com.mediscreen.patientmicroservice.model.Patient;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Local cache of patients by id. Concurrent misses on the same id share one load through a
+ * {@link SingleFlight}, so a burst of reads of a patient just evicted hits the database once. A client
+ * pinned to the primary after a write reads through: an entry may have been loaded from a replica that
+ * had not replayed the write yet.
+ */
+@Component
+public class PatientCache implements MeterBinder {
+
+  private final Cache<Integer, Patient> cache;
+  private final SingleFlight<Integer, Patient> loads = new SingleFlight<>();
+  private final AtomicLong evictions = new AtomicLong();
+
+  public PatientCache(@Value("${patient.cache.maximum-size:10000}") long maximumSize,
+                      @Value("${patient.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .recordStats()
+        .build();
+  }
+
+  public Optional<Patient> get(int id, IntFunction<Optional<Patient>> loader) {
+    if (ReplicaRoutingContext.isPinnedToPrimary()) {
+      return loader.apply(id);
+    }
+    // the quiet lookup keeps misses counted once, by the load below
+    if (cache.policy().getIfPresentQuietly(id) != null) {
+      Patient cached = cache.getIfPresent(id);
+      if (cached != null) {
+        return Optional.of(cached);
+      }
+    }
+    return Optional.ofNullable(loads.execute(id, () -> load(id, loader)));
+  }
+
+  /*
+   * The load runs outside any Caffeine compute, which would hold the key's lock and block its eviction
+   * until the database answers. As in getAll, the patient is put first and dropped again when an eviction
+   * landed during the load.
+   */
+  private Patient load(int id, IntFunction<Optional<Patient>> loader) {
+    Patient cached = cache.getIfPresent(id);
+    if (cached != null) {
+      return cached;
+    }
+    long generation = evictions.get();
+    Patient loaded = loader.apply(id).orElse(null);
+    if (loaded != null) {
+      cache.put(id, loaded);
+      if (evictions.get() != generation) {
+        cache.invalidate(id);
+      }
+    }
+    return loaded;
+  }
+
+  public Optional<Patient> getIfPresent(int id) {
+    return Optional.ofNullable(cache.getIfPresent(id));
+  }
+
+  public Map<Integer, Patient> getAll(Collection<Integer> ids, Function<Set<Integer>, List<Patient>> loader) {
+    if (ReplicaRoutingContext.isPinnedToPrimary()) {
+      return loader.apply(new HashSet<>(ids)).stream()
+          .collect(Collectors.toMap(Patient::getId, Function.identity()));
+    }
+    Map<Integer, Patient> patients = new HashMap<>(cache.getAllPresent(ids));
+    Set<Integer> missingIds = new HashSet<>(ids);
+    missingIds.removeAll(patients.keySet());
+    if (missingIds.isEmpty()) {
+      return patients;
+    }
+    long generation = evictions.get();
+    Map<Integer, Patient> loaded = loads.executeAll(missingIds, idsToQuery -> loader.apply(idsToQuery).stream()
+        .collect(Collectors.toMap(Patient::getId, Function.identity())));
+    cache.putAll(loaded);
+    // an eviction during the load may have been for a row of the batch read before the write: put
+    // first, then drop the batch, so an eviction landing in between is not missed
+    if (evictions.get() != generation) {
+      cache.invalidateAll(loaded.keySet());
+    }
+    patients.putAll(loaded);
+    return patients;
+  }
+
+  /**
+   * Called through PatientInvalidator, which evicts the other caches of the patient with it.
+   */
+  public void evict(int id) {
+    // forgotten first: a caller that reads the new generation cannot join a load started before it
+    loads.forget(id);
+    evictions.incrementAndGet();
+    cache.invalidate(id);
+  }
+
+  public long size() {
+    cache.cleanUp();
+    return cache.estimatedSize();
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  public long loadCount() {
+    return loads.executedCount();
+  }
+
+  public long collapsedLoadCount() {
+    return loads.collapsedCount();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("patient.cache.loads", this, PatientCache::loadCount)
+        .description("Patient loads run against the database")
+        .tag("result", "executed")
+        .register(registry);
+    FunctionCounter.builder("patient.cache.loads", this, PatientCache::collapsedLoadCount)
+        .description("Patient loads served by a load already running for the same id")
+        .tag("result", "collapsed")
+        .register(registry);
+  }
+}
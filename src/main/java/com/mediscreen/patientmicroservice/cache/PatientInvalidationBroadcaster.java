@@ -0,0 +1,11 @@
+package com.mediscreen.patientmicroservice.cache;
+
+/**
+ * Tells the other nodes about a write; their receiver calls the matching PatientInvalidator local method.
+ */
+public interface PatientInvalidationBroadcaster {
+
+  void broadcastInvalidation(int id);
+
+  void broadcastPageInvalidation();
+}
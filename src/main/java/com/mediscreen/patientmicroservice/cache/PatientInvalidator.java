@@ -0,0 +1,71 @@
+package com.mediscreen.patientmicroservice.cache;
+
+import com.mediscreen.patientmicroservice.model.Patient;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+/**
+ * Evicts a patient from every cache of the node at once: PatientCache, the encoded responses and the
+ * Hibernate second-level cache, whose stale entry would otherwise answer the reload. Writes call invalidate,
+ * which also broadcasts the invalidation; the receiver of a broadcast calls invalidateLocally, so other
+ * nodes drop the same entries.
+ */
+@Component
+public class PatientInvalidator {
+
+  private final PatientCache cache;
+  private final PatientResponseCache responseCache;
+  private final EntityManagerFactory entityManagerFactory;
+  private final boolean queryCache;
+  private final List<PatientInvalidationBroadcaster> broadcasters;
+
+  public PatientInvalidator(PatientCache cache, PatientResponseCache responseCache,
+                            EntityManagerFactory entityManagerFactory,
+                            @Value("${patient.second-level-cache.query-cache:false}") boolean queryCache,
+                            List<PatientInvalidationBroadcaster> broadcasters) {
+    this.cache = cache;
+    this.responseCache = responseCache;
+    this.entityManagerFactory = entityManagerFactory;
+    this.queryCache = queryCache;
+    this.broadcasters = broadcasters;
+  }
+
+  public void invalidate(int id) {
+    invalidateLocally(id);
+    broadcasters.forEach(broadcaster -> broadcaster.broadcastInvalidation(id));
+  }
+
+  public void invalidateLocally(int id) {
+    cache.evict(id);
+    responseCache.evict(id);
+    entityManagerFactory.getCache().evict(Patient.class, id);
+    evictQueryResults();
+  }
+
+  /**
+   * For writes adding patients: the list pages change, no cached patient does.
+   */
+  public void invalidatePages() {
+    invalidatePagesLocally();
+    broadcasters.forEach(PatientInvalidationBroadcaster::broadcastPageInvalidation);
+  }
+
+  public void invalidatePagesLocally() {
+    responseCache.evictPages();
+    evictQueryResults();
+  }
+
+  /**
+   * Row statements and writes of other nodes do not reach the update timestamps the cached searches are
+   * checked against.
+   */
+  private void evictQueryResults() {
+    if (queryCache) {
+      entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+    }
+  }
+}
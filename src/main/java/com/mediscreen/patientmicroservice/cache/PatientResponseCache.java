@@ -0,0 +1,184 @@
+package com.mediscreen.patientmicroservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded bodies of GET /patients/{id} and of the patient list pages, one variant per content type. Any
+ * write evicts the patient and every list page, through PatientInvalidator for writes of other nodes; a
+ * response encoded while an eviction was in flight is not stored, so a hit never replays bytes older than
+ * the last write this node made or was told of.
+ */
+@Component
+public class PatientResponseCache {
+
+  private final boolean enabled;
+  private final int gzipMinSize;
+  private final Cache<Integer, Variants> patients;
+  private final Cache<String, Variants> pages;
+  private final AtomicLong generation = new AtomicLong();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public PatientResponseCache(@Value("${patient.response-cache.enabled:true}") boolean enabled,
+                              @Value("${patient.response-cache.maximum-size:32MB}") DataSize maximumSize,
+                              @Value("${patient.response-cache.expire-after-write:10m}") Duration expireAfterWrite,
+                              @Value("${patient.response-cache.gzip-min-size:1KB}") DataSize gzipMinSize) {
+    this.enabled = enabled;
+    this.gzipMinSize = (int) gzipMinSize.toBytes();
+    this.patients = Caffeine.newBuilder()
+        .maximumWeight(maximumSize.toBytes())
+        .weigher((Integer id, Variants variants) -> variants.weight)
+        .expireAfterWrite(expireAfterWrite)
+        .build();
+    this.pages = Caffeine.newBuilder()
+        .maximumWeight(maximumSize.toBytes())
+        .weigher((String page, Variants variants) -> variants.weight)
+        .expireAfterWrite(expireAfterWrite)
+        .build();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Read before encoding a response and handed back to put, which drops the response if a write happened
+   * in between.
+   */
+  public long generation() {
+    return generation.get();
+  }
+
+  public EncodedPatientResponse getPatient(int id, String contentType) {
+    return record(find(patients.getIfPresent(id), contentType));
+  }
+
+  public EncodedPatientResponse getPage(String page, String contentType) {
+    return record(find(pages.getIfPresent(page), contentType));
+  }
+
+  public void putPatient(int id, long generation, EncodedPatientResponse response) {
+    put(patients, id, generation, response);
+  }
+
+  public void putPage(String page, long generation, EncodedPatientResponse response) {
+    put(pages, page, generation, response);
+  }
+
+  public void evict(int id) {
+    generation.incrementAndGet();
+    patients.invalidate(id);
+    pages.invalidateAll();
+  }
+
+  public void evictPages() {
+    generation.incrementAndGet();
+    pages.invalidateAll();
+  }
+
+  public EncodedPatientResponse encode(String contentType, byte[] body, String eTag, String nextCursor) {
+    return new EncodedPatientResponse(contentType, body, body.length >= gzipMinSize ? gzip(body) : null,
+        eTag, nextCursor);
+  }
+
+  public long size() {
+    patients.cleanUp();
+    pages.cleanUp();
+    return patients.estimatedSize() + pages.estimatedSize();
+  }
+
+  public long weight() {
+    return weight(patients) + weight(pages);
+  }
+
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  private <K> void put(Cache<K, Variants> cache, K key, long generation, EncodedPatientResponse response) {
+    if (!enabled || generation != this.generation.get()) {
+      return;
+    }
+    cache.asMap().compute(key, (k, variants) -> variants == null ? new Variants(response) : variants.with(response));
+    // an eviction that raced with the compute may have run before it
+    if (generation != this.generation.get()) {
+      cache.invalidate(key);
+    }
+  }
+
+  private static long weight(Cache<?, Variants> cache) {
+    return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+  }
+
+  private EncodedPatientResponse record(EncodedPatientResponse response) {
+    if (response == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return response;
+  }
+
+  private static EncodedPatientResponse find(Variants variants, String contentType) {
+    if (variants == null || contentType == null) {
+      return null;
+    }
+    for (EncodedPatientResponse response : variants.responses) {
+      if (response.getContentType().equals(contentType)) {
+        return response;
+      }
+    }
+    return null;
+  }
+
+  private static byte[] gzip(byte[] body) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4 + 64);
+    try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+      out.write(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static final class Variants {
+
+    private final EncodedPatientResponse[] responses;
+    private final int weight;
+
+    private Variants(EncodedPatientResponse... responses) {
+      this.responses = responses;
+      this.weight = Arrays.stream(responses).mapToInt(EncodedPatientResponse::weight).sum();
+    }
+
+    private Variants with(EncodedPatientResponse response) {
+      for (int i = 0; i < responses.length; i++) {
+        if (responses[i].getContentType().equals(response.getContentType())) {
+          EncodedPatientResponse[] next = responses.clone();
+          next[i] = response;
+          return new Variants(next);
+        }
+      }
+      EncodedPatientResponse[] next = Arrays.copyOf(responses, responses.length + 1);
+      next[responses.length] = response;
+      return new Variants(next);
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package com.mediscreen.patientmicroservice.cache;
+
+import com.mediscreen.patientmicroservice.controller.PatientController;
+import com.mediscreen.patientmicroservice.datasource.ReplicaRoutingContext;
+import com.mediscreen.patientmicroservice.util.PatientETags;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves GET /patients/{id} and the patient list pages from {@link PatientResponseCache}: a hit writes
+ * the stored bytes, gzipped ones when the client accepts them, without reaching the controller. A miss
+ * goes through the controller and its 200 response is stored. The content type a given Accept header
+ * negotiates to is learnt from those misses, so the filter never duplicates content negotiation.
+ */
+@Component
+@Order(PatientResponseCacheFilter.ORDER)
+public class PatientResponseCacheFilter extends OncePerRequestFilter {
+
+  public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
+  private static final String PATIENTS_PATH = "/patientAPI/patients";
+  private static final String VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+  private static final int MAX_ACCEPT_HEADERS = 64;
+
+  private final PatientResponseCache responseCache;
+  private final Map<String, String> negotiated = new ConcurrentHashMap<>();
+
+  public PatientResponseCacheFilter(PatientResponseCache responseCache) {
+    this.responseCache = responseCache;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !responseCache.isEnabled() || !HttpMethod.GET.matches(request.getMethod())
+        || ReplicaRoutingContext.isPinnedToPrimary();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    int id = -1;
+    String page = null;
+    if (path.equals(PATIENTS_PATH)) {
+      if (request.getParameter("ids") == null) {
+        page = request.getQueryString() == null ? "" : request.getQueryString();
+      }
+    } else if (path.startsWith(PATIENTS_PATH) && path.charAt(PATIENTS_PATH.length()) == '/') {
+      id = parseId(path, PATIENTS_PATH.length() + 1);
+    }
+    if (id < 0 && page == null) {
+      chain.doFilter(request, response);
+      return;
+    }
+    response.setHeader(HttpHeaders.VARY, VARY);
+
+    String accept = request.getHeader(HttpHeaders.ACCEPT);
+    if (accept == null) {
+      accept = "";
+    }
+    String contentType = negotiated.get(accept);
+    EncodedPatientResponse cached = page == null ? responseCache.getPatient(id, contentType)
+        : responseCache.getPage(page, contentType);
+    if (cached != null) {
+      write(request, response, cached);
+      return;
+    }
+
+    long generation = responseCache.generation();
+    ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+    try {
+      chain.doFilter(request, wrapper);
+      if (wrapper.getStatus() == HttpServletResponse.SC_OK && wrapper.getContentType() != null
+          && wrapper.getContentSize() > 0 && wrapper.getHeader(HttpHeaders.CONTENT_ENCODING) == null) {
+        if (negotiated.size() < MAX_ACCEPT_HEADERS) {
+          negotiated.putIfAbsent(accept, wrapper.getContentType());
+        }
+        EncodedPatientResponse encoded = responseCache.encode(wrapper.getContentType(),
+            wrapper.getContentAsByteArray(), wrapper.getHeader(HttpHeaders.ETAG),
+            wrapper.getHeader(PatientController.NEXT_CURSOR_HEADER));
+        if (page == null) {
+          responseCache.putPatient(id, generation, encoded);
+        } else {
+          responseCache.putPage(page, generation, encoded);
+        }
+      }
+    } finally {
+      wrapper.copyBodyToResponse();
+    }
+  }
+
+  private void write(HttpServletRequest request, HttpServletResponse response, EncodedPatientResponse cached)
+      throws IOException {
+    byte[] body = cached.getBody();
+    String etag = cached.getETag();
+    String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    boolean gzip = cached.getGzipBody() != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+    if (gzip) {
+      body = cached.getGzipBody();
+      etag = etag == null ? null : PatientETags.withRepresentation(etag, "gzip");
+    }
+    if (etag != null) {
+      response.setHeader(HttpHeaders.ETAG, etag);
+      String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+      if (ifNoneMatch != null && PatientETags.matches(ifNoneMatch, etag)) {
+        response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        return;
+      }
+    }
+    if (cached.getNextCursor() != null) {
+      response.setHeader(PatientController.NEXT_CURSOR_HEADER, cached.getNextCursor());
+    }
+    if (gzip) {
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setContentType(cached.getContentType());
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+
+  /**
+   * The id in a path such as /patientAPI/patients/42, -1 for anything else (search, suggest, changes...).
+   */
+  private static int parseId(String path, int start) {
+    int length = path.length();
+    if (start == length || length - start > 9) {
+      return -1;
+    }
+    int id = 0;
+    for (int i = start; i < length; i++) {
+      char c = path.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      id = id * 10 + (c - '0');
+    }
+    return id;
+  }
+}
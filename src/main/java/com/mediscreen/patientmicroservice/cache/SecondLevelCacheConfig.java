@@ -0,0 +1,94 @@
+package com.mediscreen.patientmicroservice.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.mediscreen.patientmicroservice.model.Patient;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.CompleteConfiguration;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.expiry.CreatedExpiryPolicy;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache on JCache. Any JCache provider can be plugged in through
+ * patient.second-level-cache.provider; the regions are created here so their size and expiry come from
+ * the application properties. Sizes only apply to Caffeine, other providers bound the regions through
+ * their own configuration.
+ */
+@Configuration
+@ConditionalOnProperty(name = "patient.second-level-cache.enabled", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+  private static final String CAFFEINE = "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider";
+
+  @Bean(destroyMethod = "close")
+  public CacheManager secondLevelCacheManager(
+      @Value("${patient.second-level-cache.provider:" + CAFFEINE + "}") String provider,
+      @Value("${patient.second-level-cache.uri:}") String uri,
+      @Value("${patient.second-level-cache.maximum-size:10000}") long maximumSize,
+      @Value("${patient.second-level-cache.expire-after-write:10m}") Duration expireAfterWrite,
+      @Value("${patient.second-level-cache.query-maximum-size:1000}") long queryMaximumSize) {
+    CachingProvider cachingProvider = Caching.getCachingProvider(provider);
+    CacheManager cacheManager = cachingProvider.getCacheManager(
+        uri.isEmpty() ? cachingProvider.getDefaultURI() : URI.create(uri), getClass().getClassLoader());
+    boolean caffeine = cachingProvider instanceof CaffeineCachingProvider;
+    createIfAbsent(cacheManager, Patient.CACHE_REGION, region(caffeine, maximumSize, expireAfterWrite));
+    createIfAbsent(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+        region(caffeine, queryMaximumSize, expireAfterWrite));
+    // must outlive every cached query result: no expiry, one entry per table
+    createIfAbsent(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+        region(caffeine, 0, null));
+    return cacheManager;
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer secondLevelCacheProperties(CacheManager secondLevelCacheManager,
+      @Value("${patient.second-level-cache.query-cache:false}") boolean queryCache) {
+    return properties -> {
+      properties.put("hibernate.cache.use_second_level_cache", true);
+      properties.put("hibernate.cache.use_query_cache", queryCache);
+      properties.put("hibernate.cache.region.factory_class", "jcache");
+      properties.put("hibernate.javax.cache.cache_manager", secondLevelCacheManager);
+      properties.put("hibernate.generate_statistics", true);
+    };
+  }
+
+  private static void createIfAbsent(CacheManager cacheManager, String region, CompleteConfiguration<Object, Object> configuration) {
+    if (cacheManager.getCache(region) == null) {
+      cacheManager.createCache(region, configuration);
+    }
+  }
+
+  private static CompleteConfiguration<Object, Object> region(boolean caffeine, long maximumSize, Duration expireAfterWrite) {
+    if (caffeine) {
+      CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+      if (maximumSize > 0) {
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+      }
+      if (expireAfterWrite != null) {
+        configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+      }
+      configuration.setStatisticsEnabled(true);
+      return configuration;
+    }
+    MutableConfiguration<Object, Object> configuration = new MutableConfiguration<>();
+    if (expireAfterWrite != null) {
+      configuration.setExpiryPolicyFactory(CreatedExpiryPolicy.factoryOf(
+          new javax.cache.expiry.Duration(TimeUnit.MILLISECONDS, expireAfterWrite.toMillis())));
+    }
+    configuration.setStatisticsEnabled(true);
+    return configuration;
+  }
+}
@@ -0,0 +1,80 @@
+package com.mediscreen.patientmicroservice.cache;
+
+import com.mediscreen.patientmicroservice.model.Patient;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hit, miss and put counts come from Hibernate; evictions are only known to the JCache provider, which
+ * publishes them through its standard statistics MXBean.
+ */
+@Component
+public class SecondLevelCacheStatistics {
+
+  private final Statistics statistics;
+  private final ObjectProvider<CacheManager> cacheManager;
+  private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+  public SecondLevelCacheStatistics(EntityManagerFactory entityManagerFactory, ObjectProvider<CacheManager> cacheManager) {
+    this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    this.cacheManager = cacheManager;
+  }
+
+  public Map<String, Object> toMap() {
+    Map<String, Object> patients = region(Patient.CACHE_REGION);
+
+    Map<String, Object> queries = new LinkedHashMap<>();
+    queries.put("hitCount", statistics.getQueryCacheHitCount());
+    queries.put("missCount", statistics.getQueryCacheMissCount());
+    queries.put("putCount", statistics.getQueryCachePutCount());
+    queries.put("evictionCount", evictions(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME));
+
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("enabled", statistics.isStatisticsEnabled() && cacheManager.getIfAvailable() != null);
+    stats.put("patients", patients);
+    stats.put("queries", queries);
+    return stats;
+  }
+
+  private Map<String, Object> region(String name) {
+    CacheRegionStatistics region = statistics.isStatisticsEnabled() ? statistics.getCacheRegionStatistics(name) : null;
+
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("hitCount", region == null ? 0 : region.getHitCount());
+    stats.put("missCount", region == null ? 0 : region.getMissCount());
+    stats.put("putCount", region == null ? 0 : region.getPutCount());
+    stats.put("evictionCount", evictions(name));
+    return stats;
+  }
+
+  private long evictions(String cacheName) {
+    CacheManager manager = cacheManager.getIfAvailable();
+    if (manager == null) {
+      return 0;
+    }
+    try {
+      for (ObjectName name : mBeanServer.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null)) {
+        if (cacheName.equals(name.getKeyProperty("Cache"))
+            && manager.getURI().toString().equals(name.getKeyProperty("CacheManager"))) {
+          return ((Number) mBeanServer.getAttribute(name, "CacheEvictions")).longValue();
+        }
+      }
+    } catch (JMException e) {
+      // the provider does not publish statistics
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,153 @@
+package com.mediscreen.patientmicroservice.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of one key into a single call: the first caller runs the load, callers
+ * arriving while it runs wait for its result, or get its exception. A load that was cancelled, because
+ * its caller was interrupted, is not shared: the waiting callers start a new one instead. Forgetting a key
+ * detaches the running load, so callers arriving after a write never get a result read before it.
+ */
+public class SingleFlight<K, V> {
+
+  private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder executed = new LongAdder();
+  private final LongAdder collapsed = new LongAdder();
+
+  public V execute(K key, Supplier<V> loader) {
+    while (true) {
+      CompletableFuture<V> flight = new CompletableFuture<>();
+      CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+      if (running == null) {
+        return lead(key, flight, loader);
+      }
+      collapsed.increment();
+      try {
+        return await(running);
+      } catch (CancellationException e) {
+        if (Thread.currentThread().isInterrupted()) {
+          throw e;
+        }
+        // the leader was cancelled, this caller still wants the value
+      }
+    }
+  }
+
+  /**
+   * Batch form: keys already loading are awaited, the others are loaded together in one call whose
+   * result misses the keys that have no value.
+   */
+  public Map<K, V> executeAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+    Map<K, CompletableFuture<V>> led = new LinkedHashMap<>();
+    Map<K, CompletableFuture<V>> joined = new HashMap<>();
+    for (K key : keys) {
+      CompletableFuture<V> flight = new CompletableFuture<>();
+      CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+      if (running == null) {
+        led.put(key, flight);
+      } else {
+        joined.put(key, running);
+      }
+    }
+
+    Map<K, V> values = new HashMap<>();
+    if (!led.isEmpty()) {
+      executed.increment();
+      try {
+        Map<K, V> loaded = loader.apply(led.keySet());
+        led.forEach((key, flight) -> flight.complete(loaded.get(key)));
+        values.putAll(loaded);
+      } catch (RuntimeException | Error e) {
+        led.values().forEach(flight -> fail(flight, e));
+        throw e;
+      } finally {
+        // a key forgotten during the load may already lead a newer flight, which must stay
+        led.forEach((key, flight) -> inFlight.remove(key, flight));
+      }
+    }
+    for (Map.Entry<K, CompletableFuture<V>> entry : joined.entrySet()) {
+      collapsed.increment();
+      V value;
+      try {
+        value = await(entry.getValue());
+      } catch (CancellationException e) {
+        if (Thread.currentThread().isInterrupted()) {
+          throw e;
+        }
+        value = execute(entry.getKey(), () -> loader.apply(Set.of(entry.getKey())).get(entry.getKey()));
+      }
+      if (value != null) {
+        values.put(entry.getKey(), value);
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Lets the next caller of this key start a new load, the running one still completes for its callers.
+   */
+  public void forget(K key) {
+    inFlight.remove(key);
+  }
+
+  public long executedCount() {
+    return executed.sum();
+  }
+
+  public long collapsedCount() {
+    return collapsed.sum();
+  }
+
+  private V lead(K key, CompletableFuture<V> flight, Supplier<V> loader) {
+    executed.increment();
+    try {
+      V value = loader.get();
+      flight.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      fail(flight, e);
+      throw e;
+    } finally {
+      inFlight.remove(key, flight);
+    }
+  }
+
+  private static <V> void fail(CompletableFuture<V> flight, Throwable e) {
+    if (e instanceof CancellationException || Thread.currentThread().isInterrupted()) {
+      flight.cancel(false);
+    } else {
+      flight.completeExceptionally(e);
+    }
+  }
+
+  private static <V> V await(CompletableFuture<V> flight) {
+    try {
+      return flight.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      CancellationException cancelled = new CancellationException("Interrupted while waiting for a shared load");
+      cancelled.initCause(e);
+      throw cancelled;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+}
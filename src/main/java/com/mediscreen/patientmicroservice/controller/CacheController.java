@@ -0,0 +1,52 @@
+package com.mediscreen.patientmicroservice.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mediscreen.patientmicroservice.cache.PatientCache;
+import com.mediscreen.patientmicroservice.cache.PatientResponseCache;
+import com.mediscreen.patientmicroservice.cache.SecondLevelCacheStatistics;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/patientAPI/cache")
+public class CacheController {
+
+  private final PatientCache patientCache;
+  private final PatientResponseCache responseCache;
+  private final SecondLevelCacheStatistics secondLevelCacheStatistics;
+
+  public CacheController(PatientCache patientCache, PatientResponseCache responseCache,
+                         SecondLevelCacheStatistics secondLevelCacheStatistics) {
+    this.patientCache = patientCache;
+    this.responseCache = responseCache;
+    this.secondLevelCacheStatistics = secondLevelCacheStatistics;
+  }
+
+  @GetMapping("/stats")
+  public ResponseEntity<Map<String, Object>> getCacheStats(){
+    CacheStats stats= patientCache.stats();
+
+    Map<String, Object> patients= new LinkedHashMap<>();
+    patients.put("size", patientCache.size());
+    patients.put("hitCount", stats.hitCount());
+    patients.put("missCount", stats.missCount());
+    patients.put("hitRate", stats.hitRate());
+    patients.put("evictionCount", stats.evictionCount());
+    patients.put("loadCount", patientCache.loadCount());
+    patients.put("collapsedLoadCount", patientCache.collapsedLoadCount());
+
+    Map<String, Object> responses= new LinkedHashMap<>();
+    responses.put("size", responseCache.size());
+    responses.put("bytes", responseCache.weight());
+    responses.put("hitCount", responseCache.hitCount());
+    responses.put("missCount", responseCache.missCount());
+    return new ResponseEntity<>(Map.of("patients", patients, "responses", responses,
+        "hibernate", secondLevelCacheStatistics.toMap()),HttpStatus.OK);
+  }
+}
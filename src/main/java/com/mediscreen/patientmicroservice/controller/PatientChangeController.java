@@ -0,0 +1,46 @@
+package com.mediscreen.patientmicroservice.controller;
+
+import com.mediscreen.patientmicroservice.event.PatientEventStream;
+import com.mediscreen.patientmicroservice.model.PatientChangeFeed;
+import com.mediscreen.patientmicroservice.service.PatientChangeFeedService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/patientAPI")
+public class PatientChangeController {
+
+  public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+  private final PatientChangeFeedService changeFeedService;
+  private final PatientEventStream eventStream;
+
+  public PatientChangeController(PatientChangeFeedService changeFeedService, PatientEventStream eventStream) {
+    this.changeFeedService = changeFeedService;
+    this.eventStream = eventStream;
+  }
+
+  @GetMapping("/patients/changes")
+  public ResponseEntity<PatientChangeFeed> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                      @RequestParam(required = false) Integer limit,
+                                                      @RequestParam(required = false) String consumer){
+    PatientChangeFeed feed= changeFeedService.getChanges(since, limit, consumer);
+
+    if (feed.getChanges().isEmpty()){
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    return new ResponseEntity<>(feed,HttpStatus.OK);
+  }
+
+  @GetMapping(value = "/patients/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamEvents(@RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId){
+    return eventStream.subscribe(lastEventId);
+  }
+}
@@ -1,7 +1,21 @@
 package com.mediscreen.patientmicroservice.controller;
 
 import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.PatientBatch;
+import com.mediscreen.patientmicroservice.model.PatientCreation;
+import com.mediscreen.patientmicroservice.model.PatientDuplicate;
+import com.mediscreen.patientmicroservice.model.PatientIdempotencyKey;
+import com.mediscreen.patientmicroservice.model.PatientPage;
+import com.mediscreen.patientmicroservice.model.PatientPatch;
+import com.mediscreen.patientmicroservice.model.PatientSearchCriteria;
+import com.mediscreen.patientmicroservice.model.PatientSuggestion;
+import com.mediscreen.patientmicroservice.service.PatientDuplicateService;
+import com.mediscreen.patientmicroservice.service.PatientIdempotencyService;
 import com.mediscreen.patientmicroservice.service.PatientService;
+import com.mediscreen.patientmicroservice.service.PatientSuggestService;
+import com.mediscreen.patientmicroservice.util.PatientETags;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -10,15 +24,29 @@ import javax.validation.Valid;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/patientAPI")
 public class PatientController {
 
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+  public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+  public static final String POSSIBLE_DUPLICATES_HEADER = "X-Possible-Duplicates";
+
   private final PatientService service;
+  private final PatientSuggestService suggestService;
+  private final PatientIdempotencyService idempotencyService;
+  private final PatientDuplicateService duplicateService;
 
-  public PatientController(PatientService service) {
+  public PatientController(PatientService service, PatientSuggestService suggestService,
+                           PatientIdempotencyService idempotencyService, PatientDuplicateService duplicateService) {
     this.service = service;
+    this.suggestService = suggestService;
+    this.idempotencyService = idempotencyService;
+    this.duplicateService = duplicateService;
   }
 
   @GetMapping("")
@@ -27,38 +55,139 @@ public class PatientController {
   }
 
   @GetMapping("/patients")
-  public ResponseEntity getAllPatients(){
-    List<Patient> patients= service.getAllPatient();
+  public ResponseEntity<List<Patient>> getAllPatients(@RequestParam(required = false) Integer after,
+                                                      @RequestParam(required = false) Integer limit){
+    PatientPage page= service.getPatientPage(after, limit);
+
+    if (!page.getPatients().isEmpty()){
+      HttpHeaders headers= new HttpHeaders();
+      if (page.getNextCursor()!=null){
+        headers.set(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()));
+      }
+      headers.setETag(PatientETags.of(page.getPatients(), page.getNextCursor()));
+      return new ResponseEntity<>(page.getPatients(),headers,HttpStatus.OK);
+    }
+    return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+  }
+
+  @GetMapping("/patients/search")
+  public ResponseEntity<List<Patient>> searchPatients(PatientSearchCriteria criteria,
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(required = false) Integer size,
+                                                      @RequestParam(defaultValue = "lastName") String sort){
+    Page<Patient> patients= service.searchPatients(criteria, page, size, sort);
+
+    if (patients.hasContent()){
+      HttpHeaders headers= new HttpHeaders();
+      headers.set(TOTAL_COUNT_HEADER, String.valueOf(patients.getTotalElements()));
+      headers.setETag(PatientETags.of(patients.getContent(), patients.getTotalElements()));
+      return new ResponseEntity<>(patients.getContent(),headers,HttpStatus.OK);
+    }
+    return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+  }
 
-    if (!patients.isEmpty()){
-      return new ResponseEntity<>(patients,HttpStatus.OK);
+  @GetMapping("/patients/suggest")
+  public ResponseEntity<List<PatientSuggestion>> suggestPatients(@RequestParam String q,
+                                                                 @RequestParam(required = false) Integer limit){
+    List<PatientSuggestion> suggestions= suggestService.suggest(q, limit);
+
+    if (!suggestions.isEmpty()){
+      return new ResponseEntity<>(suggestions,HttpStatus.OK);
     }
     return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
 
+  @GetMapping(value = "/patients", params = "ids")
+  public ResponseEntity<PatientBatch> getPatientsByIds(@RequestParam List<Integer> ids){
+    ResponseEntity<PatientBatch> response= lookupPatients(ids);
+    PatientBatch batch= response.getBody();
+
+    if (batch!=null){
+      return ResponseEntity.ok().eTag(PatientETags.of(batch.getPatients(), batch.getMissingIds())).body(batch);
+    }
+    return response;
+  }
+
+  @PostMapping("/patients/lookup")
+  public ResponseEntity<PatientBatch> lookupPatients(@RequestBody List<Integer> ids){
+    if (ids.size() > PatientService.MAX_BATCH_SIZE){
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+    return new ResponseEntity<>(service.getPatientsByIds(ids),HttpStatus.OK);
+  }
+
   @GetMapping("/patients/{id}")
-  public ResponseEntity getPatientById(@PathVariable int id){
+  public ResponseEntity<Patient> getPatientById(@PathVariable int id,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch){
+    if (ifNoneMatch!=null){
+      Optional<Long> version= service.getPatientVersion(id);
+
+      if (version.isPresent() && PatientETags.matches(ifNoneMatch, PatientETags.of(id, version.get()))){
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(PatientETags.of(id, version.get())).build();
+      }
+    }
     Optional<Patient> patient=service.getPatientById(id);
 
     if (patient.isPresent()){
-      return new ResponseEntity<>(patient.get(),HttpStatus.OK);
+      return ResponseEntity.ok().eTag(PatientETags.of(patient.get())).body(patient.get());
     }return new ResponseEntity<>(HttpStatus.NO_CONTENT);
   }
 
   @PostMapping(value = "/patients")
-  public ResponseEntity<Patient> addPatient(@Valid @RequestBody Patient patient){
+  public ResponseEntity<Patient> addPatient(@Valid @RequestBody Patient patient,
+                                            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey){
+    if (idempotencyKey!=null){
+      if (idempotencyKey.isBlank() || idempotencyKey.length() > PatientIdempotencyKey.MAX_KEY_LENGTH){
+        return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+      }
+      PatientCreation creation= idempotencyService.addPatient(idempotencyKey, patient);
+
+      if (creation!=null && creation.isReplayed()){
+        return ResponseEntity.status(HttpStatus.CREATED).header(IDEMPOTENT_REPLAYED_HEADER, "true").body(creation.getPatient());
+      }
+      return created(creation==null ? null : creation.getPatient());
+    }
     Patient patientSaved=service.addPatient(patient);
+    return created(patientSaved);
+  }
+
+  /**
+   * The new patient, with the ids of the patients it may duplicate, best match first, in X-Possible-Duplicates.
+   */
+  private ResponseEntity<Patient> created(Patient patientSaved){
+    if (patientSaved!=null){
+      List<PatientDuplicate> duplicates= duplicateService.findPossibleDuplicates(patientSaved);
+
+      if (!duplicates.isEmpty()){
+        HttpHeaders headers= new HttpHeaders();
+        headers.set(POSSIBLE_DUPLICATES_HEADER, duplicates.stream()
+            .map(duplicate -> String.valueOf(duplicate.getDuplicateId()))
+            .collect(Collectors.joining(",")));
+        return new ResponseEntity<>(patientSaved,headers,HttpStatus.CREATED);
+      }
+    }
     return new ResponseEntity<>(patientSaved,HttpStatus.CREATED);
   }
 
   @PutMapping("/patients/{id}")
-  public ResponseEntity<Patient> updatePatient(@PathVariable int id, @Valid @RequestBody Patient patientToUpdate){
-    Patient patientUpdated= service.updatePatient(id, patientToUpdate);
+  public ResponseEntity<Patient> updatePatient(@PathVariable int id, @Valid @RequestBody Patient patientToUpdate,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+    Patient patientUpdated= service.updatePatient(id, patientToUpdate, PatientETags.expectedVersion(ifMatch, id));
 
     if (Objects.isNull(patientUpdated)) {
       return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
-    return new ResponseEntity<>(patientUpdated,HttpStatus.CREATED);
+    return ResponseEntity.status(HttpStatus.CREATED).eTag(PatientETags.of(patientUpdated)).body(patientUpdated);
+  }
+
+  @PatchMapping("/patients/{id}")
+  public ResponseEntity<Boolean> patchPatient(@PathVariable int id, @Valid @RequestBody PatientPatch patch){
+    boolean patientPatched= service.patchPatient(id, patch);
+
+    if (patientPatched){
+      return new ResponseEntity<>(true, HttpStatus.OK);
+    }
+    return new ResponseEntity<>(false, HttpStatus.OK);
   }
 
   @DeleteMapping("/patients/{id}")
@@ -0,0 +1,25 @@
+package com.mediscreen.patientmicroservice.controller;
+
+import com.mediscreen.patientmicroservice.model.PatientDuplicateReport;
+import com.mediscreen.patientmicroservice.service.PatientDuplicateService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/patientAPI")
+public class PatientDuplicateController {
+
+  private final PatientDuplicateService duplicateService;
+
+  public PatientDuplicateController(PatientDuplicateService duplicateService) {
+    this.duplicateService = duplicateService;
+  }
+
+  @GetMapping("/patients/duplicates")
+  public ResponseEntity<PatientDuplicateReport> getDuplicates(){
+    return new ResponseEntity<>(duplicateService.findDuplicates(),HttpStatus.OK);
+  }
+}
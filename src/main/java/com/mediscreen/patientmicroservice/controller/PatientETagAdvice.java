@@ -0,0 +1,64 @@
+package com.mediscreen.patientmicroservice.controller;
+
+import com.mediscreen.patientmicroservice.util.PatientETags;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Patient responses are negotiated between JSON, CBOR and protobuf: the ETag set by the controller is made
+ * specific to the media type chosen, and Vary: Accept tells shared caches to keep one copy per type.
+ * Spring compares If-None-Match with the controller's ETag only, so the advice answers 304 for the others.
+ */
+@ControllerAdvice(assignableTypes = PatientController.class)
+public class PatientETagAdvice implements ResponseBodyAdvice<Object> {
+
+  @Override
+  public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                ServerHttpRequest request, ServerHttpResponse response) {
+    HttpHeaders headers= response.getHeaders();
+    if (!headers.getVary().contains(HttpHeaders.ACCEPT)){
+      headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+    String etag= headers.getETag();
+    if (etag==null || MediaType.APPLICATION_JSON.isCompatibleWith(selectedContentType)
+        || !(response instanceof ServletServerHttpResponse)){
+      return body;
+    }
+    // the controller's ETag may already be on the servlet response, from Spring's not-modified check
+    HttpServletResponse servletResponse= ((ServletServerHttpResponse) response).getServletResponse();
+    String representationETag= PatientETags.withRepresentation(etag, representation(selectedContentType));
+    headers.remove(HttpHeaders.ETAG);
+    servletResponse.setHeader(HttpHeaders.ETAG, representationETag);
+
+    String ifNoneMatch= request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+    if (body!=null && ifNoneMatch!=null && request.getMethod()==HttpMethod.GET
+        && servletResponse.getStatus()==HttpServletResponse.SC_OK
+        && PatientETags.matches(ifNoneMatch, representationETag)){
+      response.setStatusCode(HttpStatus.NOT_MODIFIED);
+      return null;
+    }
+    return body;
+  }
+
+  private static String representation(MediaType mediaType) {
+    String subtype= mediaType.getSubtype();
+    return subtype.startsWith("x-") ? subtype.substring(2) : subtype;
+  }
+}
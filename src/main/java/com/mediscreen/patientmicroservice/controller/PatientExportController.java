@@ -0,0 +1,28 @@
+package com.mediscreen.patientmicroservice.controller;
+
+import com.mediscreen.patientmicroservice.service.PatientExportService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/patientAPI")
+public class PatientExportController {
+
+  public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+  private final PatientExportService exportService;
+
+  public PatientExportController(PatientExportService exportService) {
+    this.exportService = exportService;
+  }
+
+  @GetMapping(value = "/patients/export", produces = APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> exportPatients(){
+    StreamingResponseBody body= exportService::exportPatients;
+    return new ResponseEntity<>(body,HttpStatus.OK);
+  }
+}
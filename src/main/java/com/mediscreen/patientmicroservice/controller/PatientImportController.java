@@ -0,0 +1,33 @@
+package com.mediscreen.patientmicroservice.controller;
+
+import com.mediscreen.patientmicroservice.model.PatientImportResult;
+import com.mediscreen.patientmicroservice.service.PatientImportService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.List;
+
+import static com.mediscreen.patientmicroservice.controller.PatientExportController.APPLICATION_NDJSON_VALUE;
+
+@RestController
+@RequestMapping("/patientAPI")
+public class PatientImportController {
+
+  private final PatientImportService importService;
+
+  public PatientImportController(PatientImportService importService) {
+    this.importService = importService;
+  }
+
+  @PostMapping(value = "/patients/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<List<PatientImportResult>> importPatients(HttpServletRequest request) throws IOException {
+    List<PatientImportResult> results= importService.importPatients(request.getInputStream());
+    return new ResponseEntity<>(results,HttpStatus.OK);
+  }
+}
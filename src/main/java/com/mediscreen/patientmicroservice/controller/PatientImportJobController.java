@@ -0,0 +1,53 @@
+package com.mediscreen.patientmicroservice.controller;
+
+import com.mediscreen.patientmicroservice.model.PatientImportJob;
+import com.mediscreen.patientmicroservice.model.PatientImportJobStatus;
+import com.mediscreen.patientmicroservice.service.PatientImportJobService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+import static com.mediscreen.patientmicroservice.controller.PatientExportController.APPLICATION_NDJSON_VALUE;
+
+@RestController
+@RequestMapping("/patientAPI")
+public class PatientImportJobController {
+
+  public static final String TEXT_CSV_VALUE = "text/csv";
+
+  private final PatientImportJobService jobService;
+
+  public PatientImportJobController(PatientImportJobService jobService) {
+    this.jobService = jobService;
+  }
+
+  @PostMapping(value = "/jobs", consumes = {TEXT_CSV_VALUE, APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<PatientImportJobStatus> submitJob(HttpServletRequest request) throws IOException {
+    PatientImportJob.Format format= MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))
+        ? PatientImportJob.Format.CSV : PatientImportJob.Format.NDJSON;
+    PatientImportJob job= jobService.submit(request.getInputStream(), format);
+    return ResponseEntity.accepted()
+        .location(URI.create("/patientAPI/jobs/" + job.getId()))
+        .body(new PatientImportJobStatus(job, List.of()));
+  }
+
+  @GetMapping("/jobs/{id}")
+  public ResponseEntity<PatientImportJobStatus> getJob(@PathVariable String id) {
+    PatientImportJobStatus status= jobService.getStatus(id);
+
+    if (status==null){
+      return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+    return new ResponseEntity<>(status,HttpStatus.OK);
+  }
+}
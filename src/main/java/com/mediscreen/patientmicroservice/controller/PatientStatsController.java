@@ -0,0 +1,32 @@
+package com.mediscreen.patientmicroservice.controller;
+
+import com.mediscreen.patientmicroservice.model.PatientStats;
+import com.mediscreen.patientmicroservice.service.PatientStatsService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/patientAPI")
+public class PatientStatsController {
+
+  private final PatientStatsService statsService;
+
+  public PatientStatsController(PatientStatsService statsService) {
+    this.statsService = statsService;
+  }
+
+  /**
+   * Patient counts by age band and gender; source=database skips the in-memory counters.
+   */
+  @GetMapping("/patients/stats")
+  public ResponseEntity<PatientStats> getStats(@RequestParam(required = false) String source){
+    if ("database".equalsIgnoreCase(source)){
+      return new ResponseEntity<>(statsService.getStatsFromDatabase(),HttpStatus.OK);
+    }
+    return new ResponseEntity<>(statsService.getStats(),HttpStatus.OK);
+  }
+}
@@ -0,0 +1,113 @@
+package com.mediscreen.patientmicroservice.datasource;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+
+/**
+ * Read-your-writes across nodes: a request that committed a patient write gets a cookie pinning the
+ * client's reads to the primary for the sticky window, long enough for any replica still in use to have
+ * replayed the write. The cookie is added before the response is committed, after the write committed.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  public static final String COOKIE_NAME = "patient-primary-until";
+
+  private final Duration stickyWindow;
+
+  public ReadYourWritesFilter(Duration stickyWindow) {
+    this.stickyWindow = stickyWindow;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    ReplicaRoutingContext.startRequest(isPinnedToPrimary(request));
+    StickyResponse stickyResponse = new StickyResponse(response);
+    try {
+      chain.doFilter(request, stickyResponse);
+      stickyResponse.stick();
+    } finally {
+      ReplicaRoutingContext.endRequest();
+    }
+  }
+
+  private boolean isPinnedToPrimary(HttpServletRequest request) {
+    Cookie cookie = WebUtils.getCookie(request, COOKIE_NAME);
+    if (cookie == null) {
+      return false;
+    }
+    try {
+      return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  private final class StickyResponse extends HttpServletResponseWrapper {
+
+    private boolean stuck;
+
+    private StickyResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      stick();
+      return super.getOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      stick();
+      return super.getWriter();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      stick();
+      super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+      stick();
+      super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+      stick();
+      super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+      stick();
+      super.sendRedirect(location);
+    }
+
+    private void stick() {
+      if (stuck || isCommitted() || !ReplicaRoutingContext.hasWritten()) {
+        return;
+      }
+      stuck = true;
+      Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(System.currentTimeMillis() + stickyWindow.toMillis()));
+      cookie.setMaxAge((int) Math.max(1, (stickyWindow.toMillis() + 999) / 1000));
+      cookie.setPath("/");
+      cookie.setHttpOnly(true);
+      addCookie(cookie);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.mediscreen.patientmicroservice.datasource;
+
+import com.mediscreen.patientmicroservice.metrics.RequestTimingMetricsTrackerFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primary plus read replicas, enabled by patient.datasource.replica-urls. The primary keeps the
+ * spring.datasource settings; replicas share its credentials unless replica-username/password are set.
+ * The pools are not beans, so they get their metrics tracker here.
+ */
+@Configuration
+@ConditionalOnProperty("patient.datasource.replica-urls")
+public class ReplicaDataSourceConfig {
+
+  @Bean
+  public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties,
+      @Value("${patient.datasource.replica-urls}") List<String> replicaUrls,
+      @Value("${patient.datasource.replica-username:${spring.datasource.username:}}") String replicaUsername,
+      @Value("${patient.datasource.replica-password:${spring.datasource.password:}}") String replicaPassword,
+      @Value("${patient.datasource.replica-max-lag:5s}") Duration maxLag,
+      @Value("${patient.datasource.primary-position-query:}") String primaryPositionQuery,
+      @Value("${patient.datasource.replica-lag-query:}") String lagQuery,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    primary.setPoolName("patient-primary");
+    meterRegistry.ifAvailable(registry -> primary.setMetricsTrackerFactory(new RequestTimingMetricsTrackerFactory(registry)));
+
+    List<DataSource> replicas = new ArrayList<>(replicaUrls.size());
+    for (String replicaUrl : replicaUrls) {
+      HikariDataSource replica = DataSourceBuilder.create()
+          .type(HikariDataSource.class)
+          .url(replicaUrl.trim())
+          .username(replicaUsername)
+          .password(replicaPassword)
+          .build();
+      replica.setPoolName("patient-replica-" + replicas.size());
+      replica.setReadOnly(true);
+      meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new RequestTimingMetricsTrackerFactory(registry)));
+      replicas.add(replica);
+    }
+    return new ReplicaRoutingDataSource(primary, replicas, maxLag,
+        primaryPositionQuery.isEmpty() ? ReplicaRoutingDataSource.POSTGRES_PRIMARY_POSITION_QUERY : primaryPositionQuery,
+        lagQuery.isEmpty() ? ReplicaRoutingDataSource.POSTGRES_LAG_QUERY : lagQuery);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+    return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+  }
+
+  /**
+   * Runs ahead of the other filters, so the response cache filter can skip its entries for a pinned client.
+   */
+  @Bean
+  public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+      @Value("${patient.datasource.replica-max-lag:5s}") Duration maxLag,
+      @Value("${patient.datasource.replica-lag-check-interval:PT0.5S}") Duration lagCheckInterval) {
+    FilterRegistrationBean<ReadYourWritesFilter> registration =
+        new FilterRegistrationBean<>(new ReadYourWritesFilter(maxLag.plus(lagCheckInterval)));
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+    return registration;
+  }
+}
@@ -0,0 +1,21 @@
+package com.mediscreen.patientmicroservice.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+public class ReplicaReadAspect {
+
+  @Around("@annotation(com.mediscreen.patientmicroservice.datasource.ReadFromReplica)")
+  public Object readFromReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+    Boolean previous = ReplicaRoutingContext.allowReplicaReads();
+    try {
+      return joinPoint.proceed();
+    } finally {
+      ReplicaRoutingContext.restoreReplicaReads(previous);
+    }
+  }
+}
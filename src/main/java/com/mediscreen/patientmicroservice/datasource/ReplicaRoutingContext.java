@@ -0,0 +1,68 @@
+package com.mediscreen.patientmicroservice.datasource;
+
+/**
+ * Per-thread routing state: whether the running method allows replica reads, and for an HTTP request
+ * whether the client must read from the primary because it wrote recently or during this request. Only
+ * the pinning is public, for the caches to skip their entries, which may be as old as a replica read.
+ */
+public final class ReplicaRoutingContext {
+
+  private static final ThreadLocal<Boolean> REPLICA_READS = new ThreadLocal<>();
+  private static final ThreadLocal<Client> CLIENT = new ThreadLocal<>();
+
+  private ReplicaRoutingContext() {
+  }
+
+  static Boolean allowReplicaReads() {
+    Boolean previous = REPLICA_READS.get();
+    REPLICA_READS.set(Boolean.TRUE);
+    return previous;
+  }
+
+  static void restoreReplicaReads(Boolean previous) {
+    if (previous == null) {
+      REPLICA_READS.remove();
+    } else {
+      REPLICA_READS.set(previous);
+    }
+  }
+
+  static boolean isReplicaReadAllowed() {
+    return REPLICA_READS.get() != null;
+  }
+
+  static void startRequest(boolean pinnedToPrimary) {
+    CLIENT.set(new Client(pinnedToPrimary));
+  }
+
+  static void endRequest() {
+    CLIENT.remove();
+  }
+
+  public static boolean isPinnedToPrimary() {
+    Client client = CLIENT.get();
+    return client != null && (client.pinnedToPrimary || client.written);
+  }
+
+  static void markWritten() {
+    Client client = CLIENT.get();
+    if (client != null) {
+      client.written = true;
+    }
+  }
+
+  static boolean hasWritten() {
+    Client client = CLIENT.get();
+    return client != null && client.written;
+  }
+
+  private static final class Client {
+
+    private final boolean pinnedToPrimary;
+    private boolean written;
+
+    private Client(boolean pinnedToPrimary) {
+      this.pinnedToPrimary = pinnedToPrimary;
+    }
+  }
+}
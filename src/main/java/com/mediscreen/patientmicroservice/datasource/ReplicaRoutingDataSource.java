@@ -0,0 +1,175 @@
+package com.mediscreen.patientmicroservice.datasource;
+
+import com.mediscreen.patientmicroservice.event.PatientChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions of {@link ReadFromReplica} methods to a replica, round robin, and
+ * everything else to the primary. A replica is skipped while its lag exceeds the maximum, when its lag
+ * cannot be measured or it no longer receives the primary's changes, and until it has replayed the last
+ * patient write committed on this node, so an
+ * evicted cache entry is never refilled with the row it replaced. Must be wrapped in a
+ * LazyConnectionDataSourceProxy: the routing decision needs the transaction's read-only flag, which is
+ * only known once the transaction has begun.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+  private static final String PRIMARY = "primary";
+
+  /**
+   * The primary's WAL position, read before each replica is probed.
+   */
+  public static final String POSTGRES_PRIMARY_POSITION_QUERY = "SELECT pg_current_wal_lsn()::text";
+
+  /**
+   * Seconds the replica is behind, 0 once it has replayed the primary's position passed as parameter:
+   * without new writes the last replay timestamp ages and would read as lag. Null while the replica has no
+   * WAL receiver streaming, whose last replay would otherwise read as caught up forever.
+   */
+  public static final String POSTGRES_LAG_QUERY = "SELECT CASE "
+      + "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL "
+      + "WHEN pg_last_wal_replay_lsn() >= CAST(? AS pg_lsn) THEN 0 "
+      + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+  private final DataSource primary;
+  private final JdbcTemplate primaryJdbcTemplate;
+  private final List<Replica> replicas = new ArrayList<>();
+  private final long maxLagMillis;
+  private final String primaryPositionQuery;
+  private final String lagQuery;
+  private final AtomicInteger next = new AtomicInteger();
+  private volatile Replica[] usable = new Replica[0];
+  private volatile long lastWriteAt;
+
+  public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources, Duration maxLag,
+                                  String primaryPositionQuery, String lagQuery) {
+    this.primary = primary;
+    this.primaryJdbcTemplate = new JdbcTemplate(primary);
+    this.maxLagMillis = maxLag.toMillis();
+    this.primaryPositionQuery = primaryPositionQuery;
+    this.lagQuery = lagQuery;
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    for (int i = 0; i < replicaDataSources.size(); i++) {
+      Replica replica = new Replica("replica-" + i, replicaDataSources.get(i));
+      replicas.add(replica);
+      targets.put(replica.key, replica.dataSource);
+    }
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+        || !ReplicaRoutingContext.isReplicaReadAllowed()
+        || ReplicaRoutingContext.isPinnedToPrimary()) {
+      return PRIMARY;
+    }
+    Replica[] candidates = usable;
+    long watermark = lastWriteAt;
+    int start = next.getAndIncrement() & Integer.MAX_VALUE;
+    for (int i = 0; i < candidates.length; i++) {
+      Replica replica = candidates[(start + i) % candidates.length];
+      if (replica.caughtUpTo >= watermark) {
+        return replica.key;
+      }
+    }
+    return PRIMARY;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPatientChange(PatientChangeEvent event) {
+    lastWriteAt = System.currentTimeMillis();
+    ReplicaRoutingContext.markWritten();
+  }
+
+  /**
+   * Measures each replica's lag against the primary's position. A replica with lag L measured at time T
+   * holds every commit made before T - L.
+   */
+  @Scheduled(fixedDelayString = "${patient.datasource.replica-lag-check-interval:PT0.5S}")
+  public void checkLag() {
+    List<Replica> nextUsable = new ArrayList<>(replicas.size());
+    for (Replica replica : replicas) {
+      boolean wasUsable = replica.usable;
+      long probedAt = System.currentTimeMillis();
+      try {
+        String primaryPosition = primaryJdbcTemplate.queryForObject(primaryPositionQuery, String.class);
+        Number lagSeconds = replica.jdbcTemplate.queryForObject(lagQuery, Number.class, primaryPosition);
+        if (lagSeconds == null) {
+          replica.usable = false;
+          if (wasUsable) {
+            LOGGER.warn("Replica {} does not receive the primary's changes, reads fall back to the primary", replica.key);
+          }
+        } else {
+          long lag = Math.max(0, Math.round(lagSeconds.doubleValue() * 1000));
+          replica.caughtUpTo = probedAt - lag;
+          replica.usable = lag <= maxLagMillis;
+          if (replica.usable != wasUsable) {
+            LOGGER.info("Replica {} is {} ms behind, {}", replica.key, lag,
+                replica.usable ? "serving reads" : "reads fall back to the primary");
+          }
+        }
+      } catch (DataAccessException e) {
+        replica.usable = false;
+        if (wasUsable) {
+          LOGGER.warn("Replica {} lag could not be measured, reads fall back to the primary", replica.key, e);
+        }
+      }
+      if (replica.usable) {
+        nextUsable.add(replica);
+      }
+    }
+    usable = nextUsable.toArray(new Replica[0]);
+  }
+
+  /**
+   * Closes the pools; Spring calls it when the context shuts down, as the inferred destroy method of the bean.
+   */
+  public void close() throws IOException {
+    close(primary);
+    for (Replica replica : replicas) {
+      close(replica.dataSource);
+    }
+  }
+
+  private static void close(DataSource dataSource) throws IOException {
+    if (dataSource instanceof Closeable) {
+      ((Closeable) dataSource).close();
+    }
+  }
+
+  private static final class Replica {
+
+    private final String key;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private volatile long caughtUpTo = Long.MIN_VALUE;
+    private volatile boolean usable;
+
+    private Replica(String key, DataSource dataSource) {
+      this.key = key;
+      this.dataSource = dataSource;
+      this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+  }
+}
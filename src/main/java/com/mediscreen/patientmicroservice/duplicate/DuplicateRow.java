@@ -0,0 +1,55 @@
+package com.mediscreen.patientmicroservice.duplicate;
+
+import com.mediscreen.patientmicroservice.util.NameNormalizer;
+
+import java.time.LocalDate;
+
+final class DuplicateRow {
+
+  private final int id;
+  private final LocalDate dateOfBirth;
+  private final String lastName;
+  private final String firstName;
+  private final String lastNameCode;
+  private final String firstNameCode;
+
+  DuplicateRow(int id, LocalDate dateOfBirth, String lastName, String firstName) {
+    this.id = id;
+    this.dateOfBirth = dateOfBirth;
+    this.lastName = orEmpty(NameNormalizer.normalize(lastName));
+    this.firstName = orEmpty(NameNormalizer.normalize(firstName));
+    this.lastNameCode = NameSimilarity.soundex(this.lastName);
+    this.firstNameCode = NameSimilarity.soundex(this.firstName);
+  }
+
+  int getId() {
+    return id;
+  }
+
+  LocalDate getDateOfBirth() {
+    return dateOfBirth;
+  }
+
+  String getLastNameCode() {
+    return lastNameCode;
+  }
+
+  String getFirstNameCode() {
+    return firstNameCode;
+  }
+
+  /**
+   * Names compared as given and crossed, the clinics do not all fill first and last name the same way.
+   */
+  double similarity(DuplicateRow other) {
+    double given = (NameSimilarity.jaroWinkler(lastName, other.lastName)
+        + NameSimilarity.jaroWinkler(firstName, other.firstName)) / 2;
+    double crossed = (NameSimilarity.jaroWinkler(lastName, other.firstName)
+        + NameSimilarity.jaroWinkler(firstName, other.lastName)) / 2;
+    return Math.max(given, crossed);
+  }
+
+  private static String orEmpty(String name) {
+    return name == null ? "" : name;
+  }
+}
@@ -0,0 +1,97 @@
+package com.mediscreen.patientmicroservice.duplicate;
+
+/**
+ * Phonetic code and fuzzy comparison of names already passed through NameNormalizer, so only a-z and 0-9.
+ */
+final class NameSimilarity {
+
+  private static final String SOUNDEX_CODES = "01230120022455012623010202";
+  private static final int SOUNDEX_LENGTH = 4;
+  private static final double WINKLER_SCALE = 0.1;
+  private static final int WINKLER_PREFIX = 4;
+
+  private NameSimilarity() {
+  }
+
+  /**
+   * American Soundex: Dupont, Dupond and Dupon share D153. Empty when the name has no letter.
+   */
+  static String soundex(String name) {
+    StringBuilder code = new StringBuilder(SOUNDEX_LENGTH);
+    char previous = 0;
+    for (int i = 0; i < name.length() && code.length() < SOUNDEX_LENGTH; i++) {
+      char c = name.charAt(i);
+      if (c < 'a' || c > 'z') {
+        continue;
+      }
+      char digit = SOUNDEX_CODES.charAt(c - 'a');
+      if (code.length() == 0) {
+        code.append(Character.toUpperCase(c));
+      } else if (digit != '0' && digit != previous) {
+        code.append(digit);
+      }
+      // h and w do not separate two letters with the same code, vowels do
+      if (c != 'h' && c != 'w') {
+        previous = digit;
+      }
+    }
+    if (code.length() == 0) {
+      return "";
+    }
+    while (code.length() < SOUNDEX_LENGTH) {
+      code.append('0');
+    }
+    return code.toString();
+  }
+
+  /**
+   * Jaro-Winkler similarity, 1 for equal names and 0 when nothing matches.
+   */
+  static double jaroWinkler(String a, String b) {
+    if (a.equals(b)) {
+      return 1;
+    }
+    if (a.isEmpty() || b.isEmpty()) {
+      return 0;
+    }
+    int window = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+    boolean[] aMatched = new boolean[a.length()];
+    boolean[] bMatched = new boolean[b.length()];
+    int matches = 0;
+    for (int i = 0; i < a.length(); i++) {
+      int from = Math.max(0, i - window);
+      int to = Math.min(b.length(), i + window + 1);
+      for (int j = from; j < to; j++) {
+        if (!bMatched[j] && a.charAt(i) == b.charAt(j)) {
+          aMatched[i] = true;
+          bMatched[j] = true;
+          matches++;
+          break;
+        }
+      }
+    }
+    if (matches == 0) {
+      return 0;
+    }
+    int transpositions = 0;
+    for (int i = 0, j = 0; i < a.length(); i++) {
+      if (aMatched[i]) {
+        while (!bMatched[j]) {
+          j++;
+        }
+        if (a.charAt(i) != b.charAt(j)) {
+          transpositions++;
+        }
+        j++;
+      }
+    }
+    double m = matches;
+    double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2d) / m) / 3;
+
+    int prefix = 0;
+    while (prefix < Math.min(WINKLER_PREFIX, Math.min(a.length(), b.length())) && a.charAt(prefix) == b.charAt(prefix)) {
+      prefix++;
+    }
+    return jaro + prefix * WINKLER_SCALE * (1 - jaro);
+  }
+}
@@ -0,0 +1,201 @@
+package com.mediscreen.patientmicroservice.duplicate;
+
+import com.mediscreen.patientmicroservice.model.PatientDuplicate;
+import com.mediscreen.patientmicroservice.model.PatientDuplicateReport;
+import com.mediscreen.patientmicroservice.model.PatientIdentity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Finds patients recorded more than once with slightly different names. Comparing every pair is out of
+ * reach, so patients are first grouped in blocks sharing a date of birth and the Soundex code of one of
+ * their names; only patients of a same block are compared, by Jaro-Winkler similarity of their names.
+ *
+ * Blocks are matched in parallel on a pool of patient.duplicates.parallelism threads, all cores by default,
+ * and the rows of a large block are themselves split across the pool. A block over
+ * patient.duplicates.max-block-size, a placeholder birth date shared by thousands of patients for instance,
+ * is skipped rather than matched in quadratic time.
+ */
+@Component
+public class PatientDuplicateMatcher {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PatientDuplicateMatcher.class);
+  private static final int PARALLEL_BLOCK_SIZE = 64;
+  private static final Comparator<PatientDuplicate> ORDER = Comparator.comparingDouble(PatientDuplicate::getScore)
+      .reversed()
+      .thenComparingInt(PatientDuplicate::getPatientId)
+      .thenComparingInt(PatientDuplicate::getDuplicateId);
+
+  private final double threshold;
+  private final int maxBlockSize;
+  private final ForkJoinPool pool;
+
+  public PatientDuplicateMatcher(@Value("${patient.duplicates.threshold:0.9}") double threshold,
+                                 @Value("${patient.duplicates.max-block-size:500}") int maxBlockSize,
+                                 @Value("${patient.duplicates.parallelism:0}") int parallelism) {
+    this.threshold = threshold;
+    this.maxBlockSize = maxBlockSize;
+    this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  public int getMaxBlockSize() {
+    return maxBlockSize;
+  }
+
+  public PatientDuplicateReport findDuplicates(Stream<PatientIdentity> patients) {
+    long start = System.nanoTime();
+    int[] patientCount = new int[1];
+    Map<String, List<DuplicateRow>> blocks = new HashMap<>();
+    patients.forEach(patient -> {
+      patientCount[0]++;
+      DuplicateRow row = row(patient);
+      if (row.getDateOfBirth() == null) {
+        return;
+      }
+      for (String code : codes(row)) {
+        blocks.computeIfAbsent(blockKey(row.getDateOfBirth(), code), key -> new ArrayList<>(2)).add(row);
+      }
+    });
+
+    List<Map.Entry<String, List<DuplicateRow>>> toMatch = new ArrayList<>();
+    int oversized = 0;
+    for (Map.Entry<String, List<DuplicateRow>> block : blocks.entrySet()) {
+      if (block.getValue().size() > maxBlockSize) {
+        oversized++;
+        LOGGER.warn("Duplicate block {} skipped, {} patients", block.getKey(), block.getValue().size());
+      } else if (block.getValue().size() > 1) {
+        toMatch.add(block);
+      }
+    }
+
+    LongAdder comparisons = new LongAdder();
+    List<PatientDuplicate> duplicates = inPool(() -> toMatch.parallelStream()
+        .flatMap(block -> matchBlock(codeOf(block.getKey()), block.getValue(), comparisons).stream())
+        .sorted(ORDER)
+        .collect(Collectors.toList()));
+
+    LOGGER.info("Duplicate detection over {} patients: {} blocks, {} comparisons, {} duplicates in {} ms",
+        patientCount[0], blocks.size(), comparisons.sum(), duplicates.size(), (System.nanoTime() - start) / 1_000_000);
+    return new PatientDuplicateReport(patientCount[0], blocks.size(), comparisons.sum(), oversized, duplicates);
+  }
+
+  /**
+   * Possible duplicates of one patient among candidates, the patients born the same day, best match first.
+   */
+  public List<PatientDuplicate> match(int patientId, LocalDate dateOfBirth, String lastName, String firstName,
+                                      List<? extends PatientIdentity> candidates) {
+    DuplicateRow row = new DuplicateRow(patientId, dateOfBirth, lastName, firstName);
+    List<PatientDuplicate> duplicates = new ArrayList<>();
+    for (PatientIdentity candidate : candidates) {
+      DuplicateRow other = row(candidate);
+      if (other.getId() != patientId && Objects.equals(other.getDateOfBirth(), dateOfBirth)
+          && sharedCode(row, other) != null) {
+        double score = row.similarity(other);
+        if (score >= threshold) {
+          duplicates.add(new PatientDuplicate(patientId, other.getId(), score));
+        }
+      }
+    }
+    duplicates.sort(ORDER);
+    return duplicates;
+  }
+
+  private List<PatientDuplicate> matchBlock(String code, List<DuplicateRow> block, LongAdder comparisons) {
+    IntStream rows = IntStream.range(0, block.size() - 1);
+    if (block.size() >= PARALLEL_BLOCK_SIZE) {
+      rows = rows.parallel();
+    }
+    return rows.mapToObj(i -> {
+      DuplicateRow row = block.get(i);
+      List<PatientDuplicate> duplicates = new ArrayList<>(0);
+      for (int j = i + 1; j < block.size(); j++) {
+        DuplicateRow other = block.get(j);
+        // a pair sharing both codes is in two blocks, only the block of the smaller code matches it
+        if (!code.equals(sharedCode(row, other))) {
+          continue;
+        }
+        comparisons.increment();
+        double score = row.similarity(other);
+        if (score >= threshold) {
+          duplicates.add(new PatientDuplicate(Math.min(row.getId(), other.getId()),
+              Math.max(row.getId(), other.getId()), score));
+        }
+      }
+      return duplicates;
+    }).flatMap(List::stream).collect(Collectors.toList());
+  }
+
+  private <T> T inPool(Callable<T> task) {
+    try {
+      return pool.submit(task).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Duplicate detection interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private static DuplicateRow row(PatientIdentity patient) {
+    return new DuplicateRow(patient.getId(), patient.getDateOfBirth(), patient.getLastName(), patient.getFirstName());
+  }
+
+  private static List<String> codes(DuplicateRow row) {
+    List<String> codes = new ArrayList<>(2);
+    if (!row.getLastNameCode().isEmpty()) {
+      codes.add(row.getLastNameCode());
+    }
+    if (!row.getFirstNameCode().isEmpty() && !row.getFirstNameCode().equals(row.getLastNameCode())) {
+      codes.add(row.getFirstNameCode());
+    }
+    return codes;
+  }
+
+  /**
+   * The smallest code of one row also found in the other, null when they share none.
+   */
+  private static String sharedCode(DuplicateRow row, DuplicateRow other) {
+    String shared = null;
+    for (String code : codes(row)) {
+      if ((code.equals(other.getLastNameCode()) || code.equals(other.getFirstNameCode()))
+          && (shared == null || code.compareTo(shared) < 0)) {
+        shared = code;
+      }
+    }
+    return shared;
+  }
+
+  private static String blockKey(LocalDate dateOfBirth, String code) {
+    return dateOfBirth + "/" + code;
+  }
+
+  private static String codeOf(String blockKey) {
+    return blockKey.substring(blockKey.indexOf('/') + 1);
+  }
+}
@@ -0,0 +1,55 @@
+package com.mediscreen.patientmicroservice.event;
+
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.PatientPatch;
+
+public class PatientChangeEvent {
+
+  public enum Type {
+    CREATED, UPDATED, DELETED
+  }
+
+  private final Type type;
+  private final int patientId;
+  private final Patient patient;
+  private final PatientPatch patch;
+
+  private PatientChangeEvent(Type type, int patientId, Patient patient, PatientPatch patch) {
+    this.type = type;
+    this.patientId = patientId;
+    this.patient = patient;
+    this.patch = patch;
+  }
+
+  public static PatientChangeEvent created(Patient patient) {
+    return new PatientChangeEvent(Type.CREATED, patient.getId(), patient, null);
+  }
+
+  public static PatientChangeEvent updated(int patientId, Patient patient) {
+    return new PatientChangeEvent(Type.UPDATED, patientId, patient, null);
+  }
+
+  public static PatientChangeEvent patched(int patientId, PatientPatch patch) {
+    return new PatientChangeEvent(Type.UPDATED, patientId, null, patch);
+  }
+
+  public static PatientChangeEvent deleted(int patientId) {
+    return new PatientChangeEvent(Type.DELETED, patientId, null, null);
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public int getPatientId() {
+    return patientId;
+  }
+
+  public Patient getPatient() {
+    return patient;
+  }
+
+  public PatientPatch getPatch() {
+    return patch;
+  }
+}
@@ -0,0 +1,288 @@
+package com.mediscreen.patientmicroservice.event;
+
+import com.mediscreen.patientmicroservice.model.PatientChange;
+import com.mediscreen.patientmicroservice.model.PatientChangeEntry;
+import com.mediscreen.patientmicroservice.repository.PatientChangeRepository;
+import com.mediscreen.patientmicroservice.service.PatientChangeFeedService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes the patient change log to SSE subscribers. One thread per node tails patient_change, so writes
+ * made on other nodes are pushed too, and event ids are change ids: a reconnecting client sends
+ * Last-Event-ID and gets the missed changes replayed from the log. Connections are async requests, a
+ * subscriber only costs its bounded queue; a subscriber whose queue overflows is dropped and resumes
+ * through replay when it reconnects.
+ */
+@Component
+public class PatientEventStream {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PatientEventStream.class);
+  private static final int BATCH_SIZE = PatientChangeFeedService.MAX_LIMIT;
+  private static final Object HEARTBEAT = new Object();
+  private static final Object RESET = new Object();
+
+  private final PatientChangeRepository changeRepository;
+  private final PatientChangeFeedService changeFeedService;
+  private final Duration timeout;
+  private final int bufferSize;
+  private final int maxReplay;
+
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+      runnable -> daemon(runnable, "patient-events"));
+  private final ExecutorService senders;
+  private final AtomicBoolean wakeUpScheduled = new AtomicBoolean();
+  private final Object tailLock = new Object();
+  private long cursor = -1;
+
+  public PatientEventStream(PatientChangeRepository changeRepository, PatientChangeFeedService changeFeedService,
+                            @Value("${patient.events.timeout:30m}") Duration timeout,
+                            @Value("${patient.events.poll-interval:500ms}") Duration pollInterval,
+                            @Value("${patient.events.heartbeat-interval:15s}") Duration heartbeatInterval,
+                            @Value("${patient.events.buffer-size:256}") int bufferSize,
+                            @Value("${patient.events.max-replay:10000}") int maxReplay,
+                            @Value("${patient.events.sender-threads:8}") int senderThreads) {
+    this.changeRepository = changeRepository;
+    this.changeFeedService = changeFeedService;
+    this.timeout = timeout;
+    this.bufferSize = bufferSize;
+    this.maxReplay = maxReplay;
+    AtomicInteger senderCount = new AtomicInteger();
+    this.senders = Executors.newFixedThreadPool(senderThreads,
+        runnable -> daemon(runnable, "patient-events-sender-" + senderCount.incrementAndGet()));
+    scheduler.scheduleWithFixedDelay(this::pollQuietly, pollInterval.toMillis(), pollInterval.toMillis(),
+        TimeUnit.MILLISECONDS);
+    scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(),
+        TimeUnit.MILLISECONDS);
+  }
+
+  public SseEmitter subscribe(Long lastEventId) {
+    return subscribe(lastEventId, new SseEmitter(timeout.toMillis()));
+  }
+
+  public SseEmitter subscribe(Long lastEventId, SseEmitter emitter) {
+    Subscriber subscriber = new Subscriber(emitter);
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> subscribers.remove(subscriber));
+    emitter.onError(error -> subscribers.remove(subscriber));
+
+    synchronized (tailLock) {
+      if (cursor < 0) {
+        cursor = changeRepository.findMaxId();
+      }
+      if (lastEventId != null && lastEventId < cursor) {
+        subscriber.offer(cursor - lastEventId > maxReplay ? RESET : new Replay(lastEventId, cursor));
+      }
+      subscribers.add(subscriber);
+    }
+    return emitter;
+  }
+
+  public int subscriberCount() {
+    return subscribers.size();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPatientChange(PatientChangeEvent event) {
+    wakeUp();
+  }
+
+  /**
+   * Delivers the changes after the cursor. Ids are taken in commit order, so a gap is a rollback and the
+   * cursor moves past it.
+   */
+  public void poll() {
+    synchronized (tailLock) {
+      if (subscribers.isEmpty()) {
+        cursor = -1;
+        return;
+      }
+      List<PatientChange> ready = changeRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, BATCH_SIZE));
+      if (ready.isEmpty()) {
+        return;
+      }
+      cursor = ready.get(ready.size() - 1).getId();
+      List<PatientChangeEntry> entries = changeFeedService.toEntries(ready);
+      subscribers.forEach(subscriber -> entries.forEach(subscriber::offer));
+      if (ready.size() == BATCH_SIZE) {
+        wakeUp();
+      }
+    }
+  }
+
+  public void heartbeat() {
+    subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+    senders.shutdownNow();
+    subscribers.forEach(subscriber -> subscriber.emitter.complete());
+  }
+
+  private void wakeUp() {
+    if (!subscribers.isEmpty() && wakeUpScheduled.compareAndSet(false, true)) {
+      scheduler.execute(() -> {
+        wakeUpScheduled.set(false);
+        pollQuietly();
+      });
+    }
+  }
+
+  private void pollQuietly() {
+    try {
+      poll();
+    } catch (RuntimeException e) {
+      LOGGER.warn("Patient change log could not be read for event subscribers", e);
+    }
+  }
+
+  private static Thread daemon(Runnable runnable, String name) {
+    Thread thread = new Thread(runnable, name);
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  private static final class Replay {
+
+    private final long after;
+    private final long upTo;
+
+    private Replay(long after, long upTo) {
+      this.after = after;
+      this.upTo = upTo;
+    }
+  }
+
+  private final class Subscriber {
+
+    private final SseEmitter emitter;
+    private final Deque<Object> queue = new ArrayDeque<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private boolean closed;
+    private long lastSentId = -1;
+
+    private Subscriber(SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    private void offer(Object message) {
+      synchronized (queue) {
+        if (closed) {
+          return;
+        }
+        if (queue.size() >= bufferSize) {
+          close();
+          return;
+        }
+        queue.add(message);
+      }
+      scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+      if (draining.compareAndSet(false, true)) {
+        senders.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      try {
+        Object message;
+        while ((message = next()) != null) {
+          send(message);
+        }
+      } catch (IOException | IllegalStateException e) {
+        synchronized (queue) {
+          close();
+        }
+      } finally {
+        draining.set(false);
+      }
+      synchronized (queue) {
+        if (closed || queue.isEmpty()) {
+          return;
+        }
+      }
+      scheduleDrain();
+    }
+
+    private Object next() {
+      synchronized (queue) {
+        return closed ? null : queue.poll();
+      }
+    }
+
+    private void send(Object message) throws IOException {
+      if (message == HEARTBEAT) {
+        emitter.send(SseEmitter.event().comment("heartbeat"));
+      } else if (message == RESET) {
+        emitter.send(SseEmitter.event().name("reset").data("replay window exceeded, reload patients"));
+      } else if (message instanceof Replay) {
+        replay((Replay) message);
+      } else {
+        send((PatientChangeEntry) message);
+      }
+    }
+
+    private void replay(Replay replay) throws IOException {
+      long after = replay.after;
+      while (after < replay.upTo) {
+        List<PatientChange> changes = changeRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, BATCH_SIZE));
+        if (changes.isEmpty()) {
+          break;
+        }
+        for (PatientChangeEntry entry : changeFeedService.toEntries(changes)) {
+          if (entry.getId() > replay.upTo) {
+            break;
+          }
+          send(entry);
+        }
+        after = changes.get(changes.size() - 1).getId();
+      }
+      lastSentId = Math.max(lastSentId, replay.upTo);
+    }
+
+    private void send(PatientChangeEntry entry) throws IOException {
+      if (entry.getId() <= lastSentId) {
+        return;
+      }
+      emitter.send(SseEmitter.event()
+          .id(String.valueOf(entry.getId()))
+          .name(entry.getType().name().toLowerCase(Locale.ROOT))
+          .data(entry, MediaType.APPLICATION_JSON));
+      lastSentId = entry.getId();
+    }
+
+    private void close() {
+      closed = true;
+      queue.clear();
+      subscribers.remove(this);
+      senders.execute(emitter::complete);
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.mediscreen.patientmicroservice.exception;
+
+public class ChangesCompactedException extends RuntimeException {
+
+  private final long next;
+
+  public ChangesCompactedException(String message, long next) {
+    super(message);
+    this.next = next;
+  }
+
+  /**
+   * Where to resume once the patients are reloaded.
+   */
+  public long getNext() {
+    return next;
+  }
+}
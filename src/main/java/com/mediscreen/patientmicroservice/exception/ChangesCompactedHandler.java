@@ -0,0 +1,17 @@
+package com.mediscreen.patientmicroservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import java.util.Map;
+
+@ControllerAdvice
+public class ChangesCompactedHandler {
+
+  @ExceptionHandler(ChangesCompactedException.class)
+  public ResponseEntity<Map<String, Object>> handleChangesCompacted(ChangesCompactedException ex) {
+    return new ResponseEntity<>(Map.of("reset", ex.getMessage(), "next", ex.getNext()), HttpStatus.GONE);
+  }
+}
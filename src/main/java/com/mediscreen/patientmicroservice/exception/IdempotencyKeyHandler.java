@@ -0,0 +1,17 @@
+package com.mediscreen.patientmicroservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import java.util.Map;
+
+@ControllerAdvice
+public class IdempotencyKeyHandler {
+
+  @ExceptionHandler(IdempotencyKeyReusedException.class)
+  public ResponseEntity<Map<String, String>> handleKeyReused(IdempotencyKeyReusedException ex) {
+    return new ResponseEntity<>(Map.of("Idempotency-Key", ex.getMessage()), HttpStatus.UNPROCESSABLE_ENTITY);
+  }
+}
@@ -0,0 +1,8 @@
+package com.mediscreen.patientmicroservice.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+  public IdempotencyKeyReusedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,147 @@
+package com.mediscreen.patientmicroservice.job;
+
+import com.mediscreen.patientmicroservice.model.Patient;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * RFC 4180 rows under a header naming the columns, in any order and case: firstName, lastName, dateOfBirth
+ * (yyyy-MM-dd), gender, address and phone. Quoted fields may hold commas, doubled quotes and line breaks.
+ * Resuming at an offset reads the header first, then the rows from there.
+ */
+final class CsvPatientReader implements PatientRowReader {
+
+  private static final List<String> REQUIRED_COLUMNS = List.of("firstname", "lastname", "dateofbirth", "gender");
+
+  private final FileChannel channel;
+  private final Map<String, Integer> columns = new HashMap<>();
+  private OffsetLineReader lines;
+
+  CsvPatientReader(FileChannel channel, long offset) throws IOException {
+    this.channel = channel;
+    this.lines = new OffsetLineReader(Channels.newInputStream(channel), 0);
+    String header = lines.readLine();
+    if (header == null) {
+      throw new IllegalArgumentException("CSV header row missing");
+    }
+    List<String> names = fields(header);
+    if (names == null) {
+      throw new IllegalArgumentException("CSV header row has an unterminated quoted field");
+    }
+    for (int i = 0; i < names.size(); i++) {
+      columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+    }
+    List<String> missing = new ArrayList<>(REQUIRED_COLUMNS);
+    missing.removeAll(columns.keySet());
+    if (!missing.isEmpty()) {
+      throw new IllegalArgumentException("CSV header misses the columns " + missing);
+    }
+    if (offset > lines.offset()) {
+      lines = new OffsetLineReader(Channels.newInputStream(channel.position(offset)), offset);
+    }
+  }
+
+  @Override
+  public PatientRow next() throws IOException {
+    String line;
+    do {
+      line = lines.readLine();
+      if (line == null) {
+        return null;
+      }
+    } while (line.isEmpty());
+
+    List<String> fields = fields(line);
+    if (fields == null) {
+      return PatientRow.unreadable("Unterminated quoted field");
+    }
+    Patient patient = new Patient();
+    patient.setFirstName(value(fields, "firstname"));
+    patient.setLastName(value(fields, "lastname"));
+    patient.setGender(value(fields, "gender"));
+    patient.setAddress(value(fields, "address"));
+    patient.setPhone(value(fields, "phone"));
+    String dateOfBirth = value(fields, "dateofbirth");
+    if (dateOfBirth != null) {
+      try {
+        patient.setDateOfBirth(LocalDate.parse(dateOfBirth));
+      } catch (DateTimeParseException e) {
+        return PatientRow.unreadable("Invalid date of birth: " + dateOfBirth);
+      }
+    }
+    return PatientRow.of(patient);
+  }
+
+  @Override
+  public long offset() {
+    return lines.offset();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private String value(List<String> fields, String column) {
+    Integer index = columns.get(column);
+    if (index == null || index >= fields.size()) {
+      return null;
+    }
+    String value = fields.get(index).trim();
+    return value.isEmpty() ? null : value;
+  }
+
+  /**
+   * The fields of the record starting at this line, reading the next lines while a quote is open; null
+   * when the file ends inside a quote.
+   */
+  private List<String> fields(String line) throws IOException {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    int i = 0;
+    while (true) {
+      if (i == line.length()) {
+        if (!quoted) {
+          break;
+        }
+        line = lines.readLine();
+        if (line == null) {
+          return null;
+        }
+        field.append('\n');
+        i = 0;
+        continue;
+      }
+      char c = line.charAt(i++);
+      if (quoted) {
+        if (c != '"') {
+          field.append(c);
+        } else if (i < line.length() && line.charAt(i) == '"') {
+          field.append('"');
+          i++;
+        } else {
+          quoted = false;
+        }
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else if (c == '"' && field.length() == 0) {
+        quoted = true;
+      } else {
+        field.append(c);
+      }
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+}
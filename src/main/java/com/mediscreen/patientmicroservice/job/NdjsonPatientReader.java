@@ -0,0 +1,51 @@
+package com.mediscreen.patientmicroservice.job;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mediscreen.patientmicroservice.model.Patient;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+/**
+ * One patient object per line, blank lines skipped.
+ */
+final class NdjsonPatientReader implements PatientRowReader {
+
+  private final OffsetLineReader lines;
+  private final ObjectReader patientReader;
+
+  NdjsonPatientReader(FileChannel channel, long offset, ObjectReader patientReader) throws IOException {
+    this.lines = new OffsetLineReader(Channels.newInputStream(channel.position(offset)), offset);
+    this.patientReader = patientReader;
+  }
+
+  @Override
+  public PatientRow next() throws IOException {
+    String line;
+    do {
+      line = lines.readLine();
+      if (line == null) {
+        return null;
+      }
+    } while (line.isBlank());
+
+    try {
+      Patient patient = patientReader.readValue(line);
+      return patient == null ? PatientRow.unreadable("Not a patient: " + line) : PatientRow.of(patient);
+    } catch (JsonProcessingException e) {
+      return PatientRow.unreadable(e.getOriginalMessage());
+    }
+  }
+
+  @Override
+  public long offset() {
+    return lines.offset();
+  }
+
+  @Override
+  public void close() throws IOException {
+    lines.close();
+  }
+}
@@ -0,0 +1,80 @@
+package com.mediscreen.patientmicroservice.job;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * UTF-8 lines of a file with the byte offset after the last one read, so a job can reopen the file there.
+ */
+final class OffsetLineReader implements Closeable {
+
+  private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+  private final InputStream in;
+  private final byte[] buffer = new byte[64 * 1024];
+  private int position;
+  private int limit;
+  private long offset;
+  private byte[] line = new byte[256];
+
+  OffsetLineReader(InputStream in, long offset) {
+    this.in = in;
+    this.offset = offset;
+  }
+
+  /**
+   * The next line without its \n or \r\n, null at the end of the file.
+   */
+  String readLine() throws IOException {
+    long start = offset;
+    int length = 0;
+    while (true) {
+      if (position == limit) {
+        limit = Math.max(in.read(buffer), 0);
+        position = 0;
+        if (limit == 0) {
+          if (offset == start) {
+            return null;
+          }
+          break;
+        }
+      }
+      int from = position;
+      while (position < limit && buffer[position] != '\n') {
+        position++;
+      }
+      length = append(length, from, position - from);
+      offset += position - from;
+      if (position < limit) {
+        position++;
+        offset++;
+        break;
+      }
+    }
+    if (length > 0 && line[length - 1] == '\r') {
+      length--;
+    }
+    String decoded = new String(line, 0, length, StandardCharsets.UTF_8);
+    return start == 0 && decoded.startsWith(BYTE_ORDER_MARK) ? decoded.substring(1) : decoded;
+  }
+
+  long offset() {
+    return offset;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+
+  private int append(int length, int from, int count) {
+    if (length + count > line.length) {
+      line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+    }
+    System.arraycopy(buffer, from, line, length, count);
+    return length + count;
+  }
+}
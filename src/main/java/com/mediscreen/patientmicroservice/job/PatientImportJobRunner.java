@@ -0,0 +1,306 @@
+package com.mediscreen.patientmicroservice.job;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mediscreen.patientmicroservice.job.PatientRowReader.PatientRow;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.PatientImportJob;
+import com.mediscreen.patientmicroservice.model.PatientImportJobError;
+import com.mediscreen.patientmicroservice.model.PatientImportResult;
+import com.mediscreen.patientmicroservice.repository.PatientImportJobErrorRepository;
+import com.mediscreen.patientmicroservice.repository.PatientImportJobRepository;
+import com.mediscreen.patientmicroservice.service.PatientImportService;
+import com.mediscreen.patientmicroservice.service.PatientService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs import jobs on a bounded pool of workers. A worker claims a job with a lease, streams its file and
+ * commits every patient.import.batch-size rows: the valid patients, the rejected rows and the checkpoint go
+ * in one transaction, which holds a lock on the job row and rolls back if another worker owns it.
+ *
+ * The lease is renewed at each checkpoint. A job whose lease is older than patient.import.jobs.lease-timeout,
+ * because its worker crashed or the instance stopped, is claimed again and resumes from its checkpoint; the
+ * timeout must exceed the time to import one chunk. With several instances the job directory must be shared.
+ */
+@Component
+public class PatientImportJobRunner {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PatientImportJobRunner.class);
+  private static final int CLAIM_CANDIDATES = 10;
+
+  private final PatientImportJobRepository jobRepository;
+  private final PatientImportJobErrorRepository errorRepository;
+  private final PatientImportService importService;
+  private final PatientService patientService;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectReader patientReader;
+  private final int batchSize;
+  private final Duration leaseTimeout;
+  private final int maxErrors;
+
+  private final String owner = UUID.randomUUID().toString();
+  private final Semaphore idleWorkers;
+  private final ExecutorService workers;
+
+  public PatientImportJobRunner(PatientImportJobRepository jobRepository,
+                                PatientImportJobErrorRepository errorRepository,
+                                PatientImportService importService, PatientService patientService,
+                                PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                @Value("${patient.import.batch-size:500}") int batchSize,
+                                @Value("${patient.import.jobs.workers:2}") int workers,
+                                @Value("${patient.import.jobs.lease-timeout:1m}") Duration leaseTimeout,
+                                @Value("${patient.import.jobs.max-errors:1000}") int maxErrors) {
+    this.jobRepository = jobRepository;
+    this.errorRepository = errorRepository;
+    this.importService = importService;
+    this.patientService = patientService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.patientReader = objectMapper.readerFor(Patient.class);
+    this.batchSize = batchSize;
+    this.leaseTimeout = leaseTimeout;
+    this.maxErrors = maxErrors;
+    this.idleWorkers = new Semaphore(workers);
+    AtomicInteger workerCount = new AtomicInteger();
+    this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+      Thread thread = new Thread(runnable, "patient-import-" + workerCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Hands claimable jobs to the idle workers; also called when a job is submitted.
+   */
+  @Scheduled(initialDelayString = "${patient.import.jobs.poll-interval:PT5S}",
+      fixedDelayString = "${patient.import.jobs.poll-interval:PT5S}")
+  public synchronized void dispatch() {
+    while (idleWorkers.tryAcquire()) {
+      String id = claimNext();
+      if (id == null) {
+        idleWorkers.release();
+        return;
+      }
+      try {
+        workers.execute(() -> {
+          try {
+            run(id);
+          } finally {
+            idleWorkers.release();
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        idleWorkers.release();
+        return;
+      }
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    workers.shutdownNow();
+  }
+
+  /**
+   * Null when no job is claimable, or the database cannot be reached until the next poll.
+   */
+  private String claimNext() {
+    Instant now = Instant.now();
+    Instant staleBefore = now.minus(leaseTimeout);
+    try {
+      List<String> candidates = jobRepository.findClaimable(PatientImportJob.Status.QUEUED,
+          PatientImportJob.Status.RUNNING, staleBefore, PageRequest.of(0, CLAIM_CANDIDATES));
+      for (String id : candidates) {
+        if (jobRepository.claim(id, owner, now, staleBefore, PatientImportJob.Status.QUEUED,
+            PatientImportJob.Status.RUNNING) == 1) {
+          return id;
+        }
+      }
+    } catch (DataAccessException e) {
+      LOGGER.warn("Import jobs not dispatched: {}", e.getMessage());
+    }
+    return null;
+  }
+
+  private void run(String id) {
+    PatientImportJob job = jobRepository.findById(id).orElse(null);
+    if (job == null) {
+      return;
+    }
+    long rows = job.getRowsRead();
+    Chunk chunk = new Chunk();
+    long lap = System.nanoTime();
+
+    try (PatientRowReader reader = open(job)) {
+      PatientRow row;
+      while ((row = reader.next()) != null) {
+        int index = (int) rows++;
+        if (row.getError() != null) {
+          chunk.errors.add(PatientImportResult.invalid(index, row.getError()));
+        } else if (!patientService.isValid(row.getPatient())) {
+          chunk.errors.add(PatientImportResult.invalid(index, PatientImportService.INVALID_PATIENT));
+        } else {
+          chunk.patients.add(row.getPatient());
+          chunk.indexes.add(index);
+        }
+
+        if (chunk.size() == batchSize) {
+          long now = System.nanoTime();
+          checkpoint(id, chunk, rows, reader.offset(), TimeUnit.NANOSECONDS.toMillis(now - lap), false);
+          lap = now;
+          if (Thread.currentThread().isInterrupted()) {
+            return;
+          }
+        }
+      }
+      checkpoint(id, chunk, rows, reader.offset(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lap), true);
+      deleteFile(job);
+    } catch (LeaseLostException e) {
+      LOGGER.info("Import job {} is owned by another worker, stopped", id);
+    } catch (IOException | RuntimeException e) {
+      if (Thread.currentThread().isInterrupted()) {
+        LOGGER.info("Import job {} interrupted, it resumes from its checkpoint once its lease expires", id);
+        return;
+      }
+      LOGGER.warn("Import job {} failed", id, e);
+      if (fail(id, e)) {
+        deleteFile(job);
+      }
+    }
+  }
+
+  private PatientRowReader open(PatientImportJob job) throws IOException {
+    FileChannel channel = FileChannel.open(Path.of(job.getFile()), StandardOpenOption.READ);
+    try {
+      return job.getFormat() == PatientImportJob.Format.CSV
+          ? new CsvPatientReader(channel, job.getCheckpointOffset())
+          : new NdjsonPatientReader(channel, job.getCheckpointOffset(), patientReader);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Commits the chunk with the checkpoint. When its patients cannot be inserted they are recorded as failed
+   * and the job moves past them, as the synchronous import does.
+   */
+  private void checkpoint(String id, Chunk chunk, long rows, long offset, long elapsedMillis, boolean last) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        // locked first: a worker that lost the job must not insert the chunk its new owner inserts again
+        lease(id);
+        if (!chunk.patients.isEmpty()) {
+          importService.persistChunk(chunk.patients);
+        }
+        // read again, persistChunk clears the persistence context
+        record(lease(id), chunk, chunk.patients.size(), rows, offset, elapsedMillis, last);
+      });
+    } catch (LeaseLostException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      for (Integer index : chunk.indexes) {
+        chunk.errors.add(PatientImportResult.failed(index, e.getMessage()));
+      }
+      transactionTemplate.executeWithoutResult(status ->
+          record(lease(id), chunk, 0, rows, offset, elapsedMillis, last));
+    }
+    chunk.clear();
+  }
+
+  private void record(PatientImportJob job, Chunk chunk, int created, long rows, long offset,
+                      long elapsedMillis, boolean last) {
+    long stored = job.getInvalidCount() + job.getFailedCount();
+    List<PatientImportJobError> errors = new ArrayList<>();
+    int invalid = 0;
+    for (PatientImportResult error : chunk.errors) {
+      if (error.getStatus() == PatientImportResult.Status.INVALID) {
+        invalid++;
+      }
+      if (stored + errors.size() < maxErrors) {
+        errors.add(new PatientImportJobError(job.getId(), error));
+      }
+    }
+    errorRepository.saveAll(errors);
+
+    Instant now = Instant.now();
+    job.checkpoint(rows, offset, created, invalid, chunk.errors.size() - invalid, elapsedMillis, now);
+    if (last) {
+      job.complete(now);
+    }
+  }
+
+  /**
+   * The job locked until the transaction ends, if this worker still owns it.
+   */
+  private PatientImportJob lease(String id) {
+    PatientImportJob job = jobRepository.findForUpdate(id).orElseThrow(LeaseLostException::new);
+    if (job.getStatus() != PatientImportJob.Status.RUNNING || !owner.equals(job.getOwner())) {
+      throw new LeaseLostException();
+    }
+    return job;
+  }
+
+  private boolean fail(String id, Exception cause) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> lease(id).fail(String.valueOf(cause.getMessage()), Instant.now()));
+      return true;
+    } catch (RuntimeException e) {
+      LOGGER.warn("Import job {} could not be marked failed", id, e);
+      return false;
+    }
+  }
+
+  private static void deleteFile(PatientImportJob job) {
+    try {
+      Files.deleteIfExists(Path.of(job.getFile()));
+    } catch (IOException e) {
+      LOGGER.warn("Import file {} could not be deleted", job.getFile(), e);
+    }
+  }
+
+  private static final class Chunk {
+
+    private final List<Patient> patients = new ArrayList<>();
+    private final List<Integer> indexes = new ArrayList<>();
+    private final List<PatientImportResult> errors = new ArrayList<>();
+
+    private int size() {
+      return patients.size() + errors.size();
+    }
+
+    private void clear() {
+      patients.clear();
+      indexes.clear();
+      errors.clear();
+    }
+  }
+
+  private static final class LeaseLostException extends RuntimeException {
+  }
+}
@@ -0,0 +1,49 @@
+package com.mediscreen.patientmicroservice.job;
+
+import com.mediscreen.patientmicroservice.model.Patient;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+interface PatientRowReader extends Closeable {
+
+  /**
+   * The next row, null at the end of the file.
+   */
+  PatientRow next() throws IOException;
+
+  /**
+   * The byte offset of the row after the last one returned, where a resumed job starts reading.
+   */
+  long offset();
+
+  final class PatientRow {
+
+    private final Patient patient;
+    private final String error;
+
+    private PatientRow(Patient patient, String error) {
+      this.patient = patient;
+      this.error = error;
+    }
+
+    static PatientRow of(Patient patient) {
+      return new PatientRow(patient, null);
+    }
+
+    static PatientRow unreadable(String error) {
+      return new PatientRow(null, error);
+    }
+
+    Patient getPatient() {
+      return patient;
+    }
+
+    /**
+     * Why the row could not be read as a patient, null when it was.
+     */
+    String getError() {
+      return error;
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package com.mediscreen.patientmicroservice.limit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gradient concurrency limit: the limit follows the ratio between the long-term latency, what the service
+ * does when healthy, and the recent latency. When requests queue somewhere (Tomcat, the Hikari pool, the
+ * database) the recent latency rises and the limit shrinks; while they do not, it grows by about its square
+ * root per sample, so a bit of queueing is always allowed. Server errors cut the limit multiplicatively.
+ *
+ * Bulk requests only get a share of the limit, the rest is kept for critical ones. Nothing waits: a request
+ * over the limit is rejected at once.
+ */
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+  public enum Priority { CRITICAL, BULK }
+
+  private static final int SHORT_WINDOW = 10;
+  private static final int LONG_WINDOW = 600;
+  private static final double TOLERANCE = 1.5;
+  private static final double SMOOTHING = 0.2;
+  private static final double BACKOFF = 0.9;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double bulkRatio;
+
+  private final AtomicInteger inflight = new AtomicInteger();
+  private final Map<Priority, LongAdder> rejected = new EnumMap<>(Priority.class);
+  private volatile double limit;
+  private double shortRtt;
+  private double longRtt;
+
+  public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double bulkRatio) {
+    this.limit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.bulkRatio = bulkRatio;
+    for (Priority priority : Priority.values()) {
+      rejected.put(priority, new LongAdder());
+    }
+  }
+
+  /**
+   * A permit to run the request, null when it must be rejected.
+   */
+  public Permit tryAcquire(Priority priority) {
+    int allowed = allowed(priority);
+    while (true) {
+      int current = inflight.get();
+      if (current >= allowed) {
+        rejected.get(priority).increment();
+        return null;
+      }
+      if (inflight.compareAndSet(current, current + 1)) {
+        return new Permit(current + 1);
+      }
+    }
+  }
+
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  public int getInflight() {
+    return inflight.get();
+  }
+
+  public long getRejected(Priority priority) {
+    return rejected.get(priority).sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("patient.limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+        .description("Current adaptive concurrency limit")
+        .register(registry);
+    Gauge.builder("patient.limiter.inflight", this, AdaptiveConcurrencyLimiter::getInflight)
+        .description("Requests holding a permit")
+        .register(registry);
+    for (Priority priority : Priority.values()) {
+      FunctionCounter.builder("patient.limiter.rejected", this, limiter -> limiter.getRejected(priority))
+          .description("Requests shed with 503")
+          .tag("priority", priority.name().toLowerCase())
+          .register(registry);
+    }
+  }
+
+  private int allowed(Priority priority) {
+    int current = (int) limit;
+    return priority == Priority.CRITICAL ? current : Math.max(1, (int) (current * bulkRatio));
+  }
+
+  private synchronized void onSample(long rttNanos, int inflightAtStart) {
+    shortRtt = shortRtt == 0 ? rttNanos : shortRtt + (rttNanos - shortRtt) / SHORT_WINDOW;
+    longRtt = longRtt == 0 ? rttNanos : longRtt + (rttNanos - longRtt) / LONG_WINDOW;
+    // after a long overload the baseline itself is inflated, pull it back so the limit can recover
+    if (longRtt > 2 * shortRtt) {
+      longRtt *= 0.95;
+    }
+    // below half the limit the latency says nothing about it
+    if (inflightAtStart < limit / 2) {
+      return;
+    }
+    double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+    double target = limit * gradient + Math.sqrt(limit);
+    update(limit * (1 - SMOOTHING) + target * SMOOTHING);
+  }
+
+  private synchronized void onDropped() {
+    update(limit * BACKOFF);
+  }
+
+  private void update(double newLimit) {
+    limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+  }
+
+  public final class Permit {
+
+    private final long start = System.nanoTime();
+    private final int inflightAtStart;
+    private boolean released;
+
+    private Permit(int inflightAtStart) {
+      this.inflightAtStart = inflightAtStart;
+    }
+
+    /**
+     * The request completed, its latency is a sample for the limit.
+     */
+    public void success() {
+      if (release()) {
+        onSample(System.nanoTime() - start, inflightAtStart);
+      }
+    }
+
+    /**
+     * The request failed on the server side, a sign of overload.
+     */
+    public void dropped() {
+      if (release()) {
+        onDropped();
+      }
+    }
+
+    /**
+     * The request ended without a meaningful latency, streaming responses for example.
+     */
+    public void ignore() {
+      release();
+    }
+
+    private synchronized boolean release() {
+      if (released) {
+        return false;
+      }
+      released = true;
+      inflight.decrementAndGet();
+      return true;
+    }
+  }
+}
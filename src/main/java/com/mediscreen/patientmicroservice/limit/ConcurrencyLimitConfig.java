@@ -0,0 +1,40 @@
+package com.mediscreen.patientmicroservice.limit;
+
+import com.mediscreen.patientmicroservice.cache.PatientResponseCacheFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Adaptive concurrency limit on /patientAPI, disabled with patient.limiter.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "patient.limiter.enabled", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+  @Bean
+  public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(
+      @Value("${patient.limiter.initial-limit:20}") int initialLimit,
+      @Value("${patient.limiter.min-limit:4}") int minLimit,
+      @Value("${patient.limiter.max-limit:200}") int maxLimit,
+      @Value("${patient.limiter.bulk-ratio:0.75}") double bulkRatio) {
+    return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, bulkRatio);
+  }
+
+  /**
+   * Runs after the response cache filter: a cached response costs nothing and is never shed.
+   */
+  @Bean
+  public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+      @Value("${patient.limiter.retry-after:1s}") Duration retryAfter) {
+    FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+        new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limiter, retryAfter));
+    registration.addUrlPatterns("/patientAPI/*");
+    registration.setOrder(PatientResponseCacheFilter.ORDER + 1);
+    return registration;
+  }
+}
@@ -0,0 +1,115 @@
+package com.mediscreen.patientmicroservice.limit;
+
+import com.mediscreen.patientmicroservice.limit.AdaptiveConcurrencyLimiter.Permit;
+import com.mediscreen.patientmicroservice.limit.AdaptiveConcurrencyLimiter.Priority;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Sheds /patientAPI requests over the adaptive limit with 503 and Retry-After. Writes and single-patient
+ * reads are critical; lists, searches, batches, export, import and the change feed are bulk. The event
+ * stream is long-lived and not limited.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+  private static final Pattern SINGLE_PATIENT = Pattern.compile("/patientAPI/patients/\\d+");
+  private static final String PATIENTS = "/patientAPI/patients";
+  private static final String EVENTS = "/patientAPI/patients/events";
+
+  private final AdaptiveConcurrencyLimiter limiter;
+  private final String retryAfter;
+
+  public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, Duration retryAfter) {
+    this.limiter = limiter;
+    this.retryAfter = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return EVENTS.equals(path(request));
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    Permit permit = limiter.tryAcquire(priority(request));
+    if (permit == null) {
+      response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+      response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Too many concurrent requests");
+      return;
+    }
+    boolean completed = false;
+    try {
+      chain.doFilter(request, response);
+      completed = true;
+    } finally {
+      if (!completed) {
+        permit.dropped();
+      } else if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new ReleaseOnComplete(permit));
+      } else if (response.getStatus() >= 500) {
+        permit.dropped();
+      } else {
+        permit.success();
+      }
+    }
+  }
+
+  static Priority priority(HttpServletRequest request) {
+    String path = path(request);
+    if (SINGLE_PATIENT.matcher(path).matches()) {
+      return Priority.CRITICAL;
+    }
+    if (PATIENTS.equals(path) && HttpMethod.POST.matches(request.getMethod())) {
+      return Priority.CRITICAL;
+    }
+    return Priority.BULK;
+  }
+
+  private static String path(HttpServletRequest request) {
+    return request.getRequestURI().substring(request.getContextPath().length());
+  }
+
+  /**
+   * Streaming responses keep their permit until the stream ends, without a latency sample.
+   */
+  private static final class ReleaseOnComplete implements AsyncListener {
+
+    private final Permit permit;
+
+    private ReleaseOnComplete(Permit permit) {
+      this.permit = permit;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      permit.ignore();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      permit.ignore();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      permit.ignore();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.mediscreen.patientmicroservice.metrics;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Installs the request-timing tracker on the pools declared as beans, before Spring Boot would bind its
+ * plain Micrometer tracker. Pools built by hand, like the read replicas, set it themselves.
+ */
+@Component
+public class ConnectionPoolMetricsPostProcessor implements BeanPostProcessor {
+
+  private final ObjectProvider<MeterRegistry> registry;
+
+  public ConnectionPoolMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (bean instanceof HikariDataSource) {
+      HikariDataSource dataSource = (HikariDataSource) bean;
+      MeterRegistry meterRegistry = registry.getIfAvailable();
+      if (meterRegistry != null && dataSource.getMetricRegistry() == null && dataSource.getMetricsTrackerFactory() == null) {
+        dataSource.setMetricsTrackerFactory(new RequestTimingMetricsTrackerFactory(meterRegistry));
+      }
+    }
+    return bean;
+  }
+}
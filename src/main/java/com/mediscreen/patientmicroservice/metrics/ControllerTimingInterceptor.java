@@ -0,0 +1,32 @@
+package com.mediscreen.patientmicroservice.metrics;
+
+import com.mediscreen.patientmicroservice.metrics.RequestTimings.Layer;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Charges the handler to the controller layer. Response bodies are written before the handler returns,
+ * so serialization is part of it.
+ */
+class ControllerTimingInterceptor implements AsyncHandlerInterceptor {
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    RequestTimings.enter(Layer.CONTROLLER);
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                              Exception ex) {
+    RequestTimings.exit();
+  }
+
+  @Override
+  public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                             Object handler) {
+    RequestTimings.exit();
+  }
+}
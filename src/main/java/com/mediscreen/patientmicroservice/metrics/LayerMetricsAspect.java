@@ -0,0 +1,95 @@
+package com.mediscreen.patientmicroservice.metrics;
+
+import com.mediscreen.patientmicroservice.metrics.RequestTimings.Layer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every public service method and every repository call, and counts the rows repository reads
+ * return. Percentile histograms are enabled through management.metrics.distribution.percentiles-histogram.
+ */
+@Aspect
+@Component
+public class LayerMetricsAspect {
+
+  static final String SERVICE_TIMER = "patient.service";
+  static final String REPOSITORY_TIMER = "patient.repository";
+  static final String REPOSITORY_ROWS = "patient.repository.rows";
+
+  private final MeterRegistry registry;
+  private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+  public LayerMetricsAspect(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Around("within(com.mediscreen.patientmicroservice.service..*) && execution(public * *(..))")
+  public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(joinPoint, SERVICE_TIMER, joinPoint.getSignature().getDeclaringType().getSimpleName(), Layer.SERVICE);
+  }
+
+  @Around("this(org.springframework.data.repository.Repository) && execution(* *(..))")
+  public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+    String repository = repositoryNames.computeIfAbsent(joinPoint.getThis().getClass(), proxyClass -> {
+      Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+      return interfaces.length > 0 ? interfaces[0].getSimpleName() : proxyClass.getSimpleName();
+    });
+    Object result = time(joinPoint, REPOSITORY_TIMER, repository, Layer.REPOSITORY);
+
+    String method = joinPoint.getSignature().getName();
+    long rows = rows(result);
+    if (rows >= 0 && !method.startsWith("save") && !method.startsWith("delete")) {
+      DistributionSummary.builder(REPOSITORY_ROWS)
+          .description("Rows returned by a repository read")
+          .tags("class", repository, "method", method)
+          .register(registry)
+          .record(rows);
+    }
+    return result;
+  }
+
+  private Object time(ProceedingJoinPoint joinPoint, String name, String className, Layer layer) throws Throwable {
+    String exception = "none";
+    RequestTimings.enter(layer);
+    Timer.Sample sample = Timer.start(registry);
+    try {
+      return joinPoint.proceed();
+    } catch (Throwable e) {
+      exception = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      sample.stop(Timer.builder(name)
+          .tags("class", className, "method", joinPoint.getSignature().getName(), "exception", exception)
+          .register(registry));
+      RequestTimings.exit();
+    }
+  }
+
+  /**
+   * Row count of a read result, -1 for results that are not rows (counts, streams, single values).
+   */
+  private static long rows(Object result) {
+    if (result instanceof Collection) {
+      return ((Collection<?>) result).size();
+    }
+    if (result instanceof Slice) {
+      return ((Slice<?>) result).getNumberOfElements();
+    }
+    if (result instanceof Optional) {
+      return ((Optional<?>) result).isPresent() ? 1 : 0;
+    }
+    return -1;
+  }
+}
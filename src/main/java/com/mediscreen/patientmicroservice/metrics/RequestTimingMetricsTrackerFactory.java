@@ -0,0 +1,54 @@
+package com.mediscreen.patientmicroservice.metrics;
+
+import com.mediscreen.patientmicroservice.metrics.RequestTimings.Layer;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Hikari's Micrometer metrics (hikaricp.connections.acquire is the pool wait), plus each wait charged
+ * to the connection layer of the request that waited.
+ */
+public class RequestTimingMetricsTrackerFactory implements MetricsTrackerFactory {
+
+  private final MetricsTrackerFactory delegate;
+
+  public RequestTimingMetricsTrackerFactory(MeterRegistry registry) {
+    this.delegate = new MicrometerMetricsTrackerFactory(registry);
+  }
+
+  @Override
+  public IMetricsTracker create(String poolName, PoolStats poolStats) {
+    IMetricsTracker tracker = delegate.create(poolName, poolStats);
+    return new IMetricsTracker() {
+
+      @Override
+      public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+        tracker.recordConnectionCreatedMillis(connectionCreatedMillis);
+      }
+
+      @Override
+      public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        tracker.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+        RequestTimings.reassign(Layer.CONNECTION, elapsedAcquiredNanos);
+      }
+
+      @Override
+      public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        tracker.recordConnectionUsageMillis(elapsedBorrowedMillis);
+      }
+
+      @Override
+      public void recordConnectionTimeout() {
+        tracker.recordConnectionTimeout();
+      }
+
+      @Override
+      public void close() {
+        tracker.close();
+      }
+    };
+  }
+}
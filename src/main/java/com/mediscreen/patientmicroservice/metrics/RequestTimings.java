@@ -0,0 +1,86 @@
+package com.mediscreen.patientmicroservice.metrics;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Per-thread breakdown of an HTTP request by layer. Time is charged to the innermost layer running, so
+ * the layers add up to the request total: service time excludes the repository calls it makes, and
+ * repository time excludes the wait for a pooled connection.
+ */
+final class RequestTimings {
+
+  enum Layer { HTTP, CONTROLLER, SERVICE, CONNECTION, REPOSITORY }
+
+  private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+  private final long[] nanos = new long[Layer.values().length];
+  private final Deque<Layer> outer = new ArrayDeque<>();
+  private final long start;
+  private Layer layer = Layer.HTTP;
+  private long since;
+
+  private RequestTimings(long start) {
+    this.start = start;
+    this.since = start;
+  }
+
+  static void startRequest() {
+    CURRENT.set(new RequestTimings(System.nanoTime()));
+  }
+
+  /**
+   * Ends the request on this thread and returns its breakdown, null when no request was started.
+   */
+  static RequestTimings endRequest() {
+    RequestTimings timings = CURRENT.get();
+    CURRENT.remove();
+    if (timings != null) {
+      timings.charge(System.nanoTime());
+    }
+    return timings;
+  }
+
+  static void enter(Layer layer) {
+    RequestTimings timings = CURRENT.get();
+    if (timings != null) {
+      timings.charge(System.nanoTime());
+      timings.outer.push(timings.layer);
+      timings.layer = layer;
+    }
+  }
+
+  static void exit() {
+    RequestTimings timings = CURRENT.get();
+    if (timings != null && !timings.outer.isEmpty()) {
+      timings.charge(System.nanoTime());
+      timings.layer = timings.outer.pop();
+    }
+  }
+
+  /**
+   * Moves time already spent in the running layer to another one, for waits only known once they ended.
+   */
+  static void reassign(Layer layer, long waitNanos) {
+    RequestTimings timings = CURRENT.get();
+    if (timings != null) {
+      timings.charge(System.nanoTime());
+      long moved = Math.min(waitNanos, timings.nanos[timings.layer.ordinal()]);
+      timings.nanos[timings.layer.ordinal()] -= moved;
+      timings.nanos[layer.ordinal()] += moved;
+    }
+  }
+
+  long totalNanos() {
+    return since - start;
+  }
+
+  long nanos(Layer layer) {
+    return nanos[layer.ordinal()];
+  }
+
+  private void charge(long now) {
+    nanos[layer.ordinal()] += now - since;
+    since = now;
+  }
+}
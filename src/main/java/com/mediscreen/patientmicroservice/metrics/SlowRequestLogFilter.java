@@ -0,0 +1,59 @@
+package com.mediscreen.patientmicroservice.metrics;
+
+import com.mediscreen.patientmicroservice.metrics.RequestTimings.Layer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs requests slower than patient.metrics.slow-request-threshold with their time per layer: http
+ * (filters and the container, outside the handler), controller (handler, JSON reading and writing
+ * included), service, connection (pool wait) and repository (Hibernate and JDBC).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SlowRequestLogFilter extends OncePerRequestFilter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SlowRequestLogFilter.class);
+
+  private final long thresholdNanos;
+
+  public SlowRequestLogFilter(@Value("${patient.metrics.slow-request-threshold:500ms}") Duration threshold) {
+    this.thresholdNanos = threshold.toNanos();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    RequestTimings.startRequest();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      RequestTimings timings = RequestTimings.endRequest();
+      // streaming responses outlive this thread, their time is not a request latency
+      if (timings != null && timings.totalNanos() >= thresholdNanos && !request.isAsyncStarted()) {
+        LOGGER.warn("Slow request {} {} -> {} in {} ms: http={} controller={} service={} connection={} repository={}",
+            request.getMethod(), request.getRequestURI(), response.getStatus(), millis(timings.totalNanos()),
+            millis(timings.nanos(Layer.HTTP)), millis(timings.nanos(Layer.CONTROLLER)),
+            millis(timings.nanos(Layer.SERVICE)), millis(timings.nanos(Layer.CONNECTION)),
+            millis(timings.nanos(Layer.REPOSITORY)));
+      }
+    }
+  }
+
+  private static long millis(long nanos) {
+    return TimeUnit.NANOSECONDS.toMillis(nanos);
+  }
+}
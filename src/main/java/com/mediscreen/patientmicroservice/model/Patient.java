@@ -1,16 +1,33 @@
 package com.mediscreen.patientmicroservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.mediscreen.patientmicroservice.util.NameNormalizer;
+import com.mediscreen.patientmicroservice.util.VersionedPatient;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import java.time.LocalDate;
 
-@Table(name = "patient")
+@Table(name = "patient", indexes = {
+    @Index(name = "idx_patient_last_name_key", columnList = "lastNameKey, firstNameKey"),
+    @Index(name = "idx_patient_first_name_key", columnList = "firstNameKey"),
+    @Index(name = "idx_patient_date_of_birth", columnList = "dateOfBirth")
+})
 @Entity
-public class Patient {
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Patient.CACHE_REGION)
+public class Patient implements VersionedPatient {
+
+  public static final String CACHE_REGION = "patient";
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_id_seq")
+  @SequenceGenerator(name = "patient_id_seq", sequenceName = "patient_id_seq", allocationSize = 50)
   private Integer id;
 
   @NotEmpty(message = "FirstName is mandatory")
@@ -29,6 +46,16 @@ public class Patient {
   private String address;
   private String phone;
 
+  @JsonIgnore
+  private String lastNameKey;
+
+  @JsonIgnore
+  private String firstNameKey;
+
+  @Version
+  @JsonIgnore
+  private Long version;
+
   public Patient(){}
 
   private Patient(PatientBuilder builder){
@@ -39,6 +66,7 @@ public class Patient {
     this.gender=builder.gender;
     this.address= builder.address;
     this.phone= builder.phone;
+    this.version= builder.version;
   }
 
   public Integer getId() {
@@ -69,6 +97,10 @@ public class Patient {
     return phone;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
   public void setFirstName(String firstName) {
     this.firstName = firstName;
   }
@@ -93,6 +125,13 @@ public class Patient {
     this.phone = phone;
   }
 
+  @PrePersist
+  @PreUpdate
+  private void updateNameKeys() {
+    this.lastNameKey = NameNormalizer.normalize(lastName);
+    this.firstNameKey = NameNormalizer.normalize(firstName);
+  }
+
   public static class PatientBuilder{
     private Integer id;
     private String firstName;
@@ -101,6 +140,7 @@ public class Patient {
     private String gender;
     private String address;
     private String phone;
+    private Long version;
 
     public PatientBuilder id(Integer id){
       this.id=id;
@@ -137,6 +177,11 @@ public class Patient {
       return this;
     }
 
+    public PatientBuilder version(Long version){
+      this.version=version;
+      return this;
+    }
+
     public Patient build(){
       return new Patient(this);
     }
@@ -0,0 +1,22 @@
+package com.mediscreen.patientmicroservice.model;
+
+import java.util.List;
+
+public class PatientBatch {
+
+  private final List<Patient> patients;
+  private final List<Integer> missingIds;
+
+  public PatientBatch(List<Patient> patients, List<Integer> missingIds) {
+    this.patients = patients;
+    this.missingIds = missingIds;
+  }
+
+  public List<Patient> getPatients() {
+    return patients;
+  }
+
+  public List<Integer> getMissingIds() {
+    return missingIds;
+  }
+}
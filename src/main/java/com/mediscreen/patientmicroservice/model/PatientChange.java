@@ -0,0 +1,49 @@
+package com.mediscreen.patientmicroservice.model;
+
+import com.mediscreen.patientmicroservice.event.PatientChangeEvent;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+@Table(name = "patient_change")
+@Entity
+public class PatientChange {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private int patientId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private PatientChangeEvent.Type type;
+
+  @Column(nullable = false)
+  private Instant changedAt;
+
+  public PatientChange(){}
+
+  public PatientChange(int patientId, PatientChangeEvent.Type type, Instant changedAt) {
+    this.patientId = patientId;
+    this.type = type;
+    this.changedAt = changedAt;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public int getPatientId() {
+    return patientId;
+  }
+
+  public PatientChangeEvent.Type getType() {
+    return type;
+  }
+
+  public Instant getChangedAt() {
+    return changedAt;
+  }
+}
@@ -0,0 +1,47 @@
+package com.mediscreen.patientmicroservice.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.Instant;
+
+@Table(name = "patient_change_consumer")
+@Entity
+public class PatientChangeConsumer {
+
+  @Id
+  private String name;
+
+  @Column(nullable = false)
+  private long position;
+
+  @Column(nullable = false)
+  private Instant updatedAt;
+
+  public PatientChangeConsumer(){}
+
+  public PatientChangeConsumer(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getPosition() {
+    return position;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setPosition(long position) {
+    this.position = position;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+}
@@ -0,0 +1,42 @@
+package com.mediscreen.patientmicroservice.model;
+
+import com.mediscreen.patientmicroservice.event.PatientChangeEvent;
+
+import java.time.Instant;
+
+public class PatientChangeEntry {
+
+  private final long id;
+  private final int patientId;
+  private final PatientChangeEvent.Type type;
+  private final Instant changedAt;
+  private final Patient patient;
+
+  public PatientChangeEntry(PatientChange change, Patient patient) {
+    this.id = change.getId();
+    this.patientId = change.getPatientId();
+    this.type = change.getType();
+    this.changedAt = change.getChangedAt();
+    this.patient = patient;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public int getPatientId() {
+    return patientId;
+  }
+
+  public PatientChangeEvent.Type getType() {
+    return type;
+  }
+
+  public Instant getChangedAt() {
+    return changedAt;
+  }
+
+  public Patient getPatient() {
+    return patient;
+  }
+}
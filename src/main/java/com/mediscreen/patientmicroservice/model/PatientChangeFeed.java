@@ -0,0 +1,28 @@
+package com.mediscreen.patientmicroservice.model;
+
+import java.util.List;
+
+public class PatientChangeFeed {
+
+  private final List<PatientChangeEntry> changes;
+  private final long next;
+  private final boolean hasMore;
+
+  public PatientChangeFeed(List<PatientChangeEntry> changes, long next, boolean hasMore) {
+    this.changes = changes;
+    this.next = next;
+    this.hasMore = hasMore;
+  }
+
+  public List<PatientChangeEntry> getChanges() {
+    return changes;
+  }
+
+  public long getNext() {
+    return next;
+  }
+
+  public boolean isHasMore() {
+    return hasMore;
+  }
+}
@@ -0,0 +1,38 @@
+package com.mediscreen.patientmicroservice.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * The single row holding the highest change id compaction removed: a consumer resuming below it would
+ * miss the tombstones deleted with it.
+ */
+@Table(name = "patient_change_horizon")
+@Entity
+public class PatientChangeHorizon {
+
+  public static final int ID = 1;
+
+  @Id
+  private Integer id;
+
+  @Column(nullable = false)
+  private long compactedUpTo;
+
+  public PatientChangeHorizon(){}
+
+  public PatientChangeHorizon(long compactedUpTo) {
+    this.id = ID;
+    this.compactedUpTo = compactedUpTo;
+  }
+
+  public long getCompactedUpTo() {
+    return compactedUpTo;
+  }
+
+  public void setCompactedUpTo(long compactedUpTo) {
+    this.compactedUpTo = compactedUpTo;
+  }
+}
@@ -0,0 +1,20 @@
+package com.mediscreen.patientmicroservice.model;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * The single row PatientChangeLog locks until commit, so patient_change ids are taken in commit order.
+ */
+@Table(name = "patient_change_lock")
+@Entity
+public class PatientChangeLock {
+
+  public static final int ID = 1;
+
+  @Id
+  private Integer id;
+
+  public PatientChangeLock(){}
+}
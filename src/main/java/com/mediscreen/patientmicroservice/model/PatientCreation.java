@@ -0,0 +1,23 @@
+package com.mediscreen.patientmicroservice.model;
+
+public class PatientCreation {
+
+  private final Patient patient;
+  private final boolean replayed;
+
+  public PatientCreation(Patient patient, boolean replayed) {
+    this.patient = patient;
+    this.replayed = replayed;
+  }
+
+  public Patient getPatient() {
+    return patient;
+  }
+
+  /**
+   * True when the patient was created by an earlier request with the same key.
+   */
+  public boolean isReplayed() {
+    return replayed;
+  }
+}
@@ -0,0 +1,26 @@
+package com.mediscreen.patientmicroservice.model;
+
+public class PatientDuplicate {
+
+  private final int patientId;
+  private final int duplicateId;
+  private final double score;
+
+  public PatientDuplicate(int patientId, int duplicateId, double score) {
+    this.patientId = patientId;
+    this.duplicateId = duplicateId;
+    this.score = score;
+  }
+
+  public int getPatientId() {
+    return patientId;
+  }
+
+  public int getDuplicateId() {
+    return duplicateId;
+  }
+
+  public double getScore() {
+    return score;
+  }
+}
@@ -0,0 +1,44 @@
+package com.mediscreen.patientmicroservice.model;
+
+import java.util.List;
+
+public class PatientDuplicateReport {
+
+  private final int patientCount;
+  private final int blockCount;
+  private final long comparisons;
+  private final int oversizedBlocks;
+  private final List<PatientDuplicate> duplicates;
+
+  public PatientDuplicateReport(int patientCount, int blockCount, long comparisons, int oversizedBlocks,
+                                List<PatientDuplicate> duplicates) {
+    this.patientCount = patientCount;
+    this.blockCount = blockCount;
+    this.comparisons = comparisons;
+    this.oversizedBlocks = oversizedBlocks;
+    this.duplicates = duplicates;
+  }
+
+  public int getPatientCount() {
+    return patientCount;
+  }
+
+  public int getBlockCount() {
+    return blockCount;
+  }
+
+  public long getComparisons() {
+    return comparisons;
+  }
+
+  /**
+   * Blocks over patient.duplicates.max-block-size, left unmatched.
+   */
+  public int getOversizedBlocks() {
+    return oversizedBlocks;
+  }
+
+  public List<PatientDuplicate> getDuplicates() {
+    return duplicates;
+  }
+}
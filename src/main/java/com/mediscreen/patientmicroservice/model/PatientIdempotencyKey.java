@@ -0,0 +1,92 @@
+package com.mediscreen.patientmicroservice.model;
+
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+import java.time.Instant;
+
+/**
+ * The response of a POST /patients made with an Idempotency-Key, kept to answer its retries.
+ */
+@Table(name = "patient_idempotency_key", indexes = @Index(name = "idx_patient_idempotency_key_created_at", columnList = "createdAt"))
+@Entity
+public class PatientIdempotencyKey implements Persistable<String> {
+
+  public static final int MAX_KEY_LENGTH = 255;
+
+  @Id
+  @Column(name = "idempotency_key", length = MAX_KEY_LENGTH)
+  private String key;
+
+  @Column(nullable = false, length = 64)
+  private String fingerprint;
+
+  @Column(nullable = false)
+  private int patientId;
+
+  @Column(nullable = false, length = 4000)
+  private String response;
+
+  @Column(nullable = false)
+  private Instant createdAt;
+
+  @Transient
+  private boolean persisted;
+
+  public PatientIdempotencyKey(){}
+
+  public PatientIdempotencyKey(String key, String fingerprint, int patientId, String response, Instant createdAt) {
+    this.key = key;
+    this.fingerprint = fingerprint;
+    this.patientId = patientId;
+    this.response = response;
+    this.createdAt = createdAt;
+  }
+
+  @Override
+  public String getId() {
+    return key;
+  }
+
+  /**
+   * Keys are only ever inserted: saving one must not look it up first, a concurrent insert of the same key
+   * fails on the primary key instead.
+   */
+  @Override
+  public boolean isNew() {
+    return !persisted;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  public int getPatientId() {
+    return patientId;
+  }
+
+  public String getResponse() {
+    return response;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  @PostLoad
+  @PostPersist
+  private void markPersisted() {
+    this.persisted = true;
+  }
+}
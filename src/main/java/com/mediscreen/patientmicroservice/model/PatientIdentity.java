@@ -0,0 +1,8 @@
+package com.mediscreen.patientmicroservice.model;
+
+import java.time.LocalDate;
+
+public interface PatientIdentity extends PatientName {
+
+  LocalDate getDateOfBirth();
+}
@@ -0,0 +1,153 @@
+package com.mediscreen.patientmicroservice.model;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * An import of an uploaded file, run in chunks by PatientImportJobRunner. Each chunk commits its patients
+ * with the new checkpoint: the rows read and the byte offset of the next one in the file.
+ */
+@Table(name = "patient_import_job", indexes = @Index(name = "idx_patient_import_job_status", columnList = "status, heartbeatAt"))
+@Entity
+public class PatientImportJob {
+
+  public enum Format {
+    CSV, NDJSON
+  }
+
+  public enum Status {
+    QUEUED, RUNNING, COMPLETED, FAILED
+  }
+
+  @Id
+  @Column(length = 36)
+  private String id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 8)
+  private Format format;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private Status status;
+
+  @Column(nullable = false, length = 1000)
+  private String file;
+
+  private long rowsRead;
+  private long checkpointOffset;
+  private long createdCount;
+  private long invalidCount;
+  private long failedCount;
+  private long elapsedMillis;
+
+  @Column(length = 36)
+  private String owner;
+
+  private Instant heartbeatAt;
+
+  @Column(nullable = false)
+  private Instant createdAt;
+
+  private Instant startedAt;
+  private Instant finishedAt;
+
+  @Column(length = 1000)
+  private String message;
+
+  public PatientImportJob(){}
+
+  public PatientImportJob(String id, Format format, String file, Instant createdAt) {
+    this.id = id;
+    this.format = format;
+    this.status = Status.QUEUED;
+    this.file = file;
+    this.createdAt = createdAt;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public Format getFormat() {
+    return format;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public String getFile() {
+    return file;
+  }
+
+  public long getRowsRead() {
+    return rowsRead;
+  }
+
+  public long getCheckpointOffset() {
+    return checkpointOffset;
+  }
+
+  public long getCreatedCount() {
+    return createdCount;
+  }
+
+  public long getInvalidCount() {
+    return invalidCount;
+  }
+
+  public long getFailedCount() {
+    return failedCount;
+  }
+
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  public String getOwner() {
+    return owner;
+  }
+
+  public Instant getHeartbeatAt() {
+    return heartbeatAt;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public void checkpoint(long rowsRead, long checkpointOffset, int created, int invalid, int failed,
+                         long elapsedMillis, Instant now) {
+    this.rowsRead = rowsRead;
+    this.checkpointOffset = checkpointOffset;
+    this.createdCount += created;
+    this.invalidCount += invalid;
+    this.failedCount += failed;
+    this.elapsedMillis += elapsedMillis;
+    this.heartbeatAt = now;
+  }
+
+  public void complete(Instant now) {
+    this.status = Status.COMPLETED;
+    this.finishedAt = now;
+  }
+
+  public void fail(String message, Instant now) {
+    this.status = Status.FAILED;
+    this.message = message.length() <= 1000 ? message : message.substring(0, 1000);
+    this.finishedAt = now;
+  }
+}
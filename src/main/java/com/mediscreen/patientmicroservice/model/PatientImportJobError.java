@@ -0,0 +1,41 @@
+package com.mediscreen.patientmicroservice.model;
+
+import javax.persistence.*;
+
+@Table(name = "patient_import_job_error", indexes = @Index(name = "idx_patient_import_job_error_job", columnList = "jobId, rowIndex"))
+@Entity
+public class PatientImportJobError {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false, length = 36)
+  private String jobId;
+
+  @Column(nullable = false)
+  private int rowIndex;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private PatientImportResult.Status status;
+
+  @Column(length = 1000)
+  private String message;
+
+  public PatientImportJobError(){}
+
+  public PatientImportJobError(String jobId, PatientImportResult result) {
+    this.jobId = jobId;
+    this.rowIndex = result.getIndex();
+    this.status = result.getStatus();
+    this.message = result.getMessage()==null || result.getMessage().length() <= 1000
+        ? result.getMessage() : result.getMessage().substring(0, 1000);
+  }
+
+  public PatientImportResult toResult() {
+    return status == PatientImportResult.Status.FAILED
+        ? PatientImportResult.failed(rowIndex, message)
+        : PatientImportResult.invalid(rowIndex, message);
+  }
+}
@@ -0,0 +1,98 @@
+package com.mediscreen.patientmicroservice.model;
+
+import java.time.Instant;
+import java.util.List;
+
+public class PatientImportJobStatus {
+
+  private final String id;
+  private final PatientImportJob.Format format;
+  private final PatientImportJob.Status status;
+  private final long rowsRead;
+  private final long created;
+  private final long invalid;
+  private final long failed;
+  private final double rowsPerSecond;
+  private final Instant createdAt;
+  private final Instant startedAt;
+  private final Instant finishedAt;
+  private final String message;
+  private final List<PatientImportResult> errors;
+
+  public PatientImportJobStatus(PatientImportJob job, List<PatientImportResult> errors) {
+    this.id = job.getId();
+    this.format = job.getFormat();
+    this.status = job.getStatus();
+    this.rowsRead = job.getRowsRead();
+    this.created = job.getCreatedCount();
+    this.invalid = job.getInvalidCount();
+    this.failed = job.getFailedCount();
+    this.rowsPerSecond = job.getElapsedMillis() > 0 ? job.getRowsRead() * 1000d / job.getElapsedMillis() : 0;
+    this.createdAt = job.getCreatedAt();
+    this.startedAt = job.getStartedAt();
+    this.finishedAt = job.getFinishedAt();
+    this.message = job.getMessage();
+    this.errors = errors;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public PatientImportJob.Format getFormat() {
+    return format;
+  }
+
+  public PatientImportJob.Status getStatus() {
+    return status;
+  }
+
+  /**
+   * Rows read up to the last checkpoint.
+   */
+  public long getRowsRead() {
+    return rowsRead;
+  }
+
+  public long getCreated() {
+    return created;
+  }
+
+  public long getInvalid() {
+    return invalid;
+  }
+
+  public long getFailed() {
+    return failed;
+  }
+
+  /**
+   * Rows read per second of processing, time between a crash and the resume not included.
+   */
+  public double getRowsPerSecond() {
+    return rowsPerSecond;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public Instant getStartedAt() {
+    return startedAt;
+  }
+
+  public Instant getFinishedAt() {
+    return finishedAt;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  /**
+   * The first rows rejected, by row index; invalid and failed give the full counts.
+   */
+  public List<PatientImportResult> getErrors() {
+    return errors;
+  }
+}
@@ -0,0 +1,48 @@
+package com.mediscreen.patientmicroservice.model;
+
+public class PatientImportResult {
+
+  public enum Status {
+    CREATED, INVALID, FAILED
+  }
+
+  private final int index;
+  private final Status status;
+  private final Integer id;
+  private final String message;
+
+  private PatientImportResult(int index, Status status, Integer id, String message) {
+    this.index = index;
+    this.status = status;
+    this.id = id;
+    this.message = message;
+  }
+
+  public static PatientImportResult created(int index, Integer id) {
+    return new PatientImportResult(index, Status.CREATED, id, null);
+  }
+
+  public static PatientImportResult invalid(int index, String message) {
+    return new PatientImportResult(index, Status.INVALID, null, message);
+  }
+
+  public static PatientImportResult failed(int index, String message) {
+    return new PatientImportResult(index, Status.FAILED, null, message);
+  }
+
+  public int getIndex() {
+    return index;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public Integer getId() {
+    return id;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+}
@@ -0,0 +1,10 @@
+package com.mediscreen.patientmicroservice.model;
+
+public interface PatientName {
+
+  Integer getId();
+
+  String getLastName();
+
+  String getFirstName();
+}
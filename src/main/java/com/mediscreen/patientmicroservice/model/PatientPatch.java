@@ -0,0 +1,74 @@
+package com.mediscreen.patientmicroservice.model;
+
+import javax.validation.constraints.Size;
+import java.time.LocalDate;
+
+public class PatientPatch {
+
+  @Size(min = 1, message = "FirstName must not be empty")
+  private String firstName;
+
+  @Size(min = 1, message = "LastName must not be empty")
+  private String lastName;
+
+  private LocalDate dateOfBirth;
+
+  @Size(min = 1, max = 1, message = "Gender must be one character")
+  private String gender;
+
+  private String address;
+  private String phone;
+
+  public boolean isEmpty() {
+    return firstName == null && lastName == null && dateOfBirth == null && gender == null
+        && address == null && phone == null;
+  }
+
+  public String getFirstName() {
+    return firstName;
+  }
+
+  public String getLastName() {
+    return lastName;
+  }
+
+  public LocalDate getDateOfBirth() {
+    return dateOfBirth;
+  }
+
+  public String getGender() {
+    return gender;
+  }
+
+  public String getAddress() {
+    return address;
+  }
+
+  public String getPhone() {
+    return phone;
+  }
+
+  public void setFirstName(String firstName) {
+    this.firstName = firstName;
+  }
+
+  public void setLastName(String lastName) {
+    this.lastName = lastName;
+  }
+
+  public void setDateOfBirth(LocalDate dateOfBirth) {
+    this.dateOfBirth = dateOfBirth;
+  }
+
+  public void setGender(String gender) {
+    this.gender = gender;
+  }
+
+  public void setAddress(String address) {
+    this.address = address;
+  }
+
+  public void setPhone(String phone) {
+    this.phone = phone;
+  }
+}
@@ -0,0 +1,70 @@
+package com.mediscreen.patientmicroservice.model;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+public class PatientSearchCriteria {
+
+  private String lastName;
+  private String firstName;
+
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate dateOfBirth;
+
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate bornAfter;
+
+  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+  private LocalDate bornBefore;
+
+  private String gender;
+
+  public String getLastName() {
+    return lastName;
+  }
+
+  public String getFirstName() {
+    return firstName;
+  }
+
+  public LocalDate getDateOfBirth() {
+    return dateOfBirth;
+  }
+
+  public LocalDate getBornAfter() {
+    return bornAfter;
+  }
+
+  public LocalDate getBornBefore() {
+    return bornBefore;
+  }
+
+  public String getGender() {
+    return gender;
+  }
+
+  public void setLastName(String lastName) {
+    this.lastName = lastName;
+  }
+
+  public void setFirstName(String firstName) {
+    this.firstName = firstName;
+  }
+
+  public void setDateOfBirth(LocalDate dateOfBirth) {
+    this.dateOfBirth = dateOfBirth;
+  }
+
+  public void setBornAfter(LocalDate bornAfter) {
+    this.bornAfter = bornAfter;
+  }
+
+  public void setBornBefore(LocalDate bornBefore) {
+    this.bornBefore = bornBefore;
+  }
+
+  public void setGender(String gender) {
+    this.gender = gender;
+  }
+}
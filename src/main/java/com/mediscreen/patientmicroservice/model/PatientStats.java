@@ -0,0 +1,45 @@
+package com.mediscreen.patientmicroservice.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class PatientStats {
+
+  public enum Source {
+    DATABASE, COUNTERS
+  }
+
+  private final LocalDate asOf;
+  private final Source source;
+  private final long total;
+  private final List<PatientStatsGroup> groups;
+
+  public PatientStats(LocalDate asOf, Source source, List<PatientStatsGroup> groups) {
+    this.asOf = asOf;
+    this.source = source;
+    this.total = groups.stream().mapToLong(PatientStatsGroup::getCount).sum();
+    this.groups = groups;
+  }
+
+  /**
+   * The day ages are computed for.
+   */
+  public LocalDate getAsOf() {
+    return asOf;
+  }
+
+  public Source getSource() {
+    return source;
+  }
+
+  public long getTotal() {
+    return total;
+  }
+
+  /**
+   * Patient count per age band and gender, youngest band first; groups without patients are left out.
+   */
+  public List<PatientStatsGroup> getGroups() {
+    return groups;
+  }
+}
@@ -0,0 +1,26 @@
+package com.mediscreen.patientmicroservice.model;
+
+public class PatientStatsGroup {
+
+  private final String ageBand;
+  private final String gender;
+  private final long count;
+
+  public PatientStatsGroup(String ageBand, String gender, long count) {
+    this.ageBand = ageBand;
+    this.gender = gender;
+    this.count = count;
+  }
+
+  public String getAgeBand() {
+    return ageBand;
+  }
+
+  public String getGender() {
+    return gender;
+  }
+
+  public long getCount() {
+    return count;
+  }
+}
@@ -0,0 +1,26 @@
+package com.mediscreen.patientmicroservice.model;
+
+public class PatientSuggestion {
+
+  private final int id;
+  private final String firstName;
+  private final String lastName;
+
+  public PatientSuggestion(int id, String firstName, String lastName) {
+    this.id = id;
+    this.firstName = firstName;
+    this.lastName = lastName;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  public String getFirstName() {
+    return firstName;
+  }
+
+  public String getLastName() {
+    return lastName;
+  }
+}
@@ -0,0 +1,21 @@
+package com.mediscreen.patientmicroservice.repository;
+
+import com.mediscreen.patientmicroservice.model.PatientChangeConsumer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface PatientChangeConsumerRepository extends JpaRepository<PatientChangeConsumer,String> {
+
+  @Query("select min(c.position) from PatientChangeConsumer c")
+  Long findMinPosition();
+
+  @Modifying
+  @Query("delete from PatientChangeConsumer c where c.updatedAt < :before")
+  int deleteNotSeenSince(@Param("before") Instant before);
+}
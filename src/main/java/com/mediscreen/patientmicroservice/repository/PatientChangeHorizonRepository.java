@@ -0,0 +1,9 @@
+package com.mediscreen.patientmicroservice.repository;
+
+import com.mediscreen.patientmicroservice.model.PatientChangeHorizon;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PatientChangeHorizonRepository extends JpaRepository<PatientChangeHorizon,Integer> {
+}
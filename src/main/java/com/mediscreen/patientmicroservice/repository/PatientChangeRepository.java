@@ -0,0 +1,24 @@
+package com.mediscreen.patientmicroservice.repository;
+
+import com.mediscreen.patientmicroservice.model.PatientChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PatientChangeRepository extends JpaRepository<PatientChange,Long> {
+
+  List<PatientChange> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+  @Query("select coalesce(max(c.id), 0) from PatientChange c")
+  long findMaxId();
+
+  @Modifying
+  @Query("delete from PatientChange c where c.id <= :id")
+  int deleteUpTo(@Param("id") long id);
+}
@@ -0,0 +1,18 @@
+package com.mediscreen.patientmicroservice.repository;
+
+import com.mediscreen.patientmicroservice.model.PatientIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface PatientIdempotencyKeyRepository extends JpaRepository<PatientIdempotencyKey,String> {
+
+  @Modifying
+  @Query("delete from PatientIdempotencyKey k where k.createdAt < :before")
+  int deleteCreatedBefore(@Param("before") Instant before);
+}
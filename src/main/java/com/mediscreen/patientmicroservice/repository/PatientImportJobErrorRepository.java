@@ -0,0 +1,14 @@
+package com.mediscreen.patientmicroservice.repository;
+
+import com.mediscreen.patientmicroservice.model.PatientImportJobError;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PatientImportJobErrorRepository extends JpaRepository<PatientImportJobError,Long> {
+
+  List<PatientImportJobError> findByJobIdOrderByRowIndex(String jobId, Pageable pageable);
+}
@@ -0,0 +1,45 @@
+package com.mediscreen.patientmicroservice.repository;
+
+import com.mediscreen.patientmicroservice.model.PatientImportJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.LockModeType;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PatientImportJobRepository extends JpaRepository<PatientImportJob,String> {
+
+  /**
+   * Queued jobs, and running jobs whose owner stopped sending heartbeats, oldest first.
+   */
+  @Query("select j.id from PatientImportJob j where j.status = :queued"
+      + " or (j.status = :running and j.heartbeatAt < :staleBefore) order by j.createdAt")
+  List<String> findClaimable(@Param("queued") PatientImportJob.Status queued,
+                             @Param("running") PatientImportJob.Status running,
+                             @Param("staleBefore") Instant staleBefore, Pageable pageable);
+
+  /**
+   * 1 when this owner took the job, 0 when it is not claimable any more.
+   */
+  @Transactional
+  @Modifying
+  @Query("update PatientImportJob j set j.status = :running, j.owner = :owner, j.heartbeatAt = :now,"
+      + " j.startedAt = coalesce(j.startedAt, :now) where j.id = :id"
+      + " and (j.status = :queued or (j.status = :running and j.heartbeatAt < :staleBefore))")
+  int claim(@Param("id") String id, @Param("owner") String owner, @Param("now") Instant now,
+            @Param("staleBefore") Instant staleBefore, @Param("queued") PatientImportJob.Status queued,
+            @Param("running") PatientImportJob.Status running);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select j from PatientImportJob j where j.id = :id")
+  Optional<PatientImportJob> findForUpdate(@Param("id") String id);
+}
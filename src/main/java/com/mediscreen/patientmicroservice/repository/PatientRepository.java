@@ -1,9 +1,75 @@
 package com.mediscreen.patientmicroservice.repository;
 
 import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.PatientIdentity;
+import com.mediscreen.patientmicroservice.model.PatientName;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface PatientRepository extends JpaRepository<Patient,Integer> {
+public interface PatientRepository extends JpaRepository<Patient,Integer>, JpaSpecificationExecutor<Patient>,
+    PatientRepositoryCustom {
+
+  int EXPORT_FETCH_SIZE = 500;
+
+  List<Patient> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable pageable);
+
+  /**
+   * Search page and its count, both served from the query cache when patient.second-level-cache.query-cache is on.
+   */
+  @Override
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  Page<Patient> findAll(Specification<Patient> specification, Pageable pageable);
+
+  @Query("select p.version from Patient p where p.id = :id")
+  @Transactional(readOnly = true)
+  Optional<Long> findVersionById(@Param("id") int id);
+
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+      @QueryHint(name = HINT_READONLY, value = "true"),
+      // an export must not flush the hot entries out of the second-level cache
+      @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")
+  })
+  @Query("select p from Patient p order by p.id")
+  Stream<Patient> streamAll();
+
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+      @QueryHint(name = HINT_READONLY, value = "true")
+  })
+  @Query("select p.id as id, p.lastName as lastName, p.firstName as firstName from Patient p")
+  Stream<PatientName> streamNames();
+
+  @QueryHints({
+      @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+      @QueryHint(name = HINT_READONLY, value = "true")
+  })
+  @Query("select p.id as id, p.lastName as lastName, p.firstName as firstName, p.dateOfBirth as dateOfBirth"
+      + " from Patient p")
+  Stream<PatientIdentity> streamIdentities();
+
+  @Query("select p.id as id, p.lastName as lastName, p.firstName as firstName, p.dateOfBirth as dateOfBirth"
+      + " from Patient p where p.dateOfBirth = :dateOfBirth")
+  @Transactional(readOnly = true)
+  List<PatientIdentity> findIdentitiesByDateOfBirth(@Param("dateOfBirth") LocalDate dateOfBirth, Pageable pageable);
 }
@@ -0,0 +1,17 @@
+package com.mediscreen.patientmicroservice.repository;
+
+import com.mediscreen.patientmicroservice.model.PatientPatch;
+import com.mediscreen.patientmicroservice.model.PatientStatsGroup;
+import com.mediscreen.patientmicroservice.stats.AgeBands;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PatientRepositoryCustom {
+
+  int patchPatient(int id, PatientPatch patch);
+
+  int deletePatientById(int id);
+
+  List<PatientStatsGroup> countByAgeBandAndGender(AgeBands ageBands, LocalDate day);
+}
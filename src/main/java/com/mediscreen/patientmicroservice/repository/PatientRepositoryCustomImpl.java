@@ -0,0 +1,115 @@
+package com.mediscreen.patientmicroservice.repository;
+
+import com.mediscreen.patientmicroservice.model.PatientPatch;
+import com.mediscreen.patientmicroservice.model.PatientStatsGroup;
+import com.mediscreen.patientmicroservice.stats.AgeBands;
+import com.mediscreen.patientmicroservice.util.NameNormalizer;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PatientRepositoryCustomImpl implements PatientRepositoryCustom {
+
+  private static final String ROW_STATEMENT_SPACE = "patient_row";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * One UPDATE, the version bumped as the entity write would. Row statements leave the second-level cache to
+   * the caller, which evicts the one patient.
+   */
+  @Override
+  @Transactional
+  public int patchPatient(int id, PatientPatch patch) {
+    StringBuilder sql = new StringBuilder("update patient set version = version + 1");
+    List<Object> parameters = new ArrayList<>();
+
+    if (patch.getFirstName() != null) {
+      set(sql, parameters, "first_name", patch.getFirstName());
+      set(sql, parameters, "first_name_key", NameNormalizer.normalize(patch.getFirstName()));
+    }
+    if (patch.getLastName() != null) {
+      set(sql, parameters, "last_name", patch.getLastName());
+      set(sql, parameters, "last_name_key", NameNormalizer.normalize(patch.getLastName()));
+    }
+    if (patch.getDateOfBirth() != null) {
+      set(sql, parameters, "date_of_birth", patch.getDateOfBirth());
+    }
+    if (patch.getGender() != null) {
+      set(sql, parameters, "gender", patch.getGender());
+    }
+    if (patch.getAddress() != null) {
+      set(sql, parameters, "address", patch.getAddress());
+    }
+    if (patch.getPhone() != null) {
+      set(sql, parameters, "phone", patch.getPhone());
+    }
+    parameters.add(id);
+    sql.append(" where id = ?").append(parameters.size());
+
+    return executeRowStatement(sql.toString(), parameters);
+  }
+
+  @Override
+  @Transactional
+  public int deletePatientById(int id) {
+    return executeRowStatement("delete from patient where id = ?1", List.of(id));
+  }
+
+  /**
+   * One row per age band and gender, grouped by the database. The band is computed from birth date bounds
+   * of the day, in a derived table: grouping on the CASE itself would make PostgreSQL compare two copies of
+   * its bind parameters.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public List<PatientStatsGroup> countByAgeBandAndGender(AgeBands ageBands, LocalDate day) {
+    LocalDate[] boundaries = ageBands.boundaries(day);
+    StringBuilder band = new StringBuilder(boundaries.length == 0 ? "0" : "case");
+    for (int i = 0; i < boundaries.length; i++) {
+      band.append(" when date_of_birth > ?").append(i + 1).append(" then ").append(i);
+    }
+    if (boundaries.length > 0) {
+      band.append(" else ").append(boundaries.length).append(" end");
+    }
+
+    Query query = entityManager.createNativeQuery("select band, gender, count(*) from (select " + band
+        + " as band, gender from patient) bands group by band, gender order by band, gender");
+    for (int i = 0; i < boundaries.length; i++) {
+      query.setParameter(i + 1, boundaries[i]);
+    }
+
+    List<PatientStatsGroup> groups = new ArrayList<>();
+    for (Object result : query.getResultList()) {
+      Object[] row = (Object[]) result;
+      groups.add(new PatientStatsGroup(ageBands.label(((Number) row[0]).intValue()), (String) row[1],
+          ((Number) row[2]).longValue()));
+    }
+    return groups;
+  }
+
+  private static void set(StringBuilder sql, List<Object> parameters, String column, Object value) {
+    parameters.add(value);
+    sql.append(", ").append(column).append(" = ?").append(parameters.size());
+  }
+
+  /**
+   * A JPQL bulk statement, or a native one on the patient table, makes Hibernate evict the whole patient
+   * region of the second-level cache. This one is synchronized on a query space no entity maps to.
+   */
+  private int executeRowStatement(String sql, List<Object> parameters) {
+    NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+    query.addSynchronizedQuerySpace(ROW_STATEMENT_SPACE);
+    for (int i = 0; i < parameters.size(); i++) {
+      query.setParameter(i + 1, parameters.get(i));
+    }
+    return query.executeUpdate();
+  }
+}
@@ -0,0 +1,72 @@
+package com.mediscreen.patientmicroservice.repository;
+
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.PatientSearchCriteria;
+import com.mediscreen.patientmicroservice.util.NameNormalizer;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+public final class PatientSpecifications {
+
+  private PatientSpecifications() {
+  }
+
+  public static Specification<Patient> matching(PatientSearchCriteria criteria) {
+    return Specification.where(nameStartsWith("lastNameKey", criteria.getLastName()))
+        .and(nameStartsWith("firstNameKey", criteria.getFirstName()))
+        .and(bornOn(criteria.getDateOfBirth()))
+        .and(bornBetween(criteria.getBornAfter(), criteria.getBornBefore()))
+        .and(hasGender(criteria.getGender()));
+  }
+
+  /**
+   * Patients whose last or first name starts with the prefix, the database side of the suggest index.
+   */
+  public static Specification<Patient> anyNameStartsWith(String prefix) {
+    Specification<Patient> lastName = nameStartsWith("lastNameKey", prefix);
+    return lastName == null ? null : lastName.or(nameStartsWith("firstNameKey", prefix));
+  }
+
+  private static Specification<Patient> nameStartsWith(String keyAttribute, String prefix) {
+    String key = NameNormalizer.normalize(prefix);
+    if (key == null || key.isEmpty()) {
+      return null;
+    }
+    String upperBound = NameNormalizer.prefixUpperBound(key);
+    return (root, query, builder) -> upperBound == null
+        ? builder.greaterThanOrEqualTo(root.get(keyAttribute), key)
+        : builder.and(
+            builder.greaterThanOrEqualTo(root.get(keyAttribute), key),
+            builder.lessThan(root.get(keyAttribute), upperBound));
+  }
+
+  private static Specification<Patient> bornOn(LocalDate dateOfBirth) {
+    if (dateOfBirth == null) {
+      return null;
+    }
+    return (root, query, builder) -> builder.equal(root.get("dateOfBirth"), dateOfBirth);
+  }
+
+  private static Specification<Patient> bornBetween(LocalDate bornAfter, LocalDate bornBefore) {
+    if (bornAfter == null && bornBefore == null) {
+      return null;
+    }
+    return (root, query, builder) -> {
+      if (bornAfter == null) {
+        return builder.lessThanOrEqualTo(root.get("dateOfBirth"), bornBefore);
+      }
+      if (bornBefore == null) {
+        return builder.greaterThanOrEqualTo(root.get("dateOfBirth"), bornAfter);
+      }
+      return builder.between(root.get("dateOfBirth"), bornAfter, bornBefore);
+    };
+  }
+
+  private static Specification<Patient> hasGender(String gender) {
+    if (gender == null || gender.isEmpty()) {
+      return null;
+    }
+    return (root, query, builder) -> builder.equal(root.get("gender"), gender);
+  }
+}
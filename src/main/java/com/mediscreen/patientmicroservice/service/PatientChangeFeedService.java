@@ -0,0 +1,141 @@
+package com.mediscreen.patientmicroservice.service;
+
+import com.mediscreen.patientmicroservice.event.PatientChangeEvent;
+import com.mediscreen.patientmicroservice.exception.ChangesCompactedException;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.PatientChange;
+import com.mediscreen.patientmicroservice.model.PatientChangeConsumer;
+import com.mediscreen.patientmicroservice.model.PatientChangeEntry;
+import com.mediscreen.patientmicroservice.model.PatientChangeFeed;
+import com.mediscreen.patientmicroservice.model.PatientChangeHorizon;
+import com.mediscreen.patientmicroservice.repository.PatientChangeConsumerRepository;
+import com.mediscreen.patientmicroservice.repository.PatientChangeHorizonRepository;
+import com.mediscreen.patientmicroservice.repository.PatientChangeRepository;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class PatientChangeFeedService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PatientChangeFeedService.class);
+
+  public static final int DEFAULT_LIMIT = 100;
+  public static final int MAX_LIMIT = 1000;
+
+  private final PatientChangeRepository changeRepository;
+  private final PatientChangeConsumerRepository consumerRepository;
+  private final PatientChangeHorizonRepository horizonRepository;
+  private final PatientRepository patientRepository;
+  private final Duration consumerExpiry;
+
+  public PatientChangeFeedService(PatientChangeRepository changeRepository,
+                                  PatientChangeConsumerRepository consumerRepository,
+                                  PatientChangeHorizonRepository horizonRepository,
+                                  PatientRepository patientRepository,
+                                  @Value("${patient.changes.consumer-expiry:30d}") Duration consumerExpiry) {
+    this.changeRepository = changeRepository;
+    this.consumerRepository = consumerRepository;
+    this.horizonRepository = horizonRepository;
+    this.patientRepository = patientRepository;
+    this.consumerExpiry = consumerExpiry;
+  }
+
+  /**
+   * Changes after the since token. PatientChangeLog takes ids in commit order, so no lower id can commit
+   * after a page is read. A named consumer acknowledges everything up to since, which is what compaction
+   * waits for. A since below the compacted changes is refused: the consumer reloads the patients and
+   * resumes from the next position given.
+   */
+  @Transactional
+  public PatientChangeFeed getChanges(long since, Integer limit, String consumer) {
+    long compactedUpTo= horizonRepository.findById(PatientChangeHorizon.ID)
+        .map(PatientChangeHorizon::getCompactedUpTo).orElse(0L);
+    if (since < compactedUpTo){
+      throw new ChangesCompactedException("changes up to " + compactedUpTo + " were compacted, reload patients",
+          changeRepository.findMaxId());
+    }
+    if (consumer!=null && !consumer.isBlank()){
+      acknowledge(consumer, since);
+    }
+    int size= limit==null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+    List<PatientChange> page= new ArrayList<>(size);
+    boolean hasMore= false;
+    for (PatientChange change : changeRepository.findByIdGreaterThanOrderByIdAsc(since, PageRequest.of(0, size + 1))) {
+      if (page.size()==size){
+        hasMore= true;
+        break;
+      }
+      page.add(change);
+    }
+
+    List<PatientChangeEntry> entries= toEntries(page);
+    long next= page.isEmpty() ? since : page.get(page.size() - 1).getId();
+    return new PatientChangeFeed(entries, next, hasMore);
+  }
+
+  /**
+   * The patients are read from the primary, bypassing the caches and replicas, so an entry is never older
+   * than the change it reports.
+   */
+  public List<PatientChangeEntry> toEntries(List<PatientChange> changes) {
+    Set<Integer> liveIds= changes.stream()
+        .filter(change -> change.getType()!=PatientChangeEvent.Type.DELETED)
+        .map(PatientChange::getPatientId)
+        .collect(Collectors.toCollection(TreeSet::new));
+    Map<Integer, Patient> patients= liveIds.isEmpty() ? Map.of() : patientRepository.findAllById(liveIds)
+        .stream().collect(Collectors.toMap(Patient::getId, Function.identity()));
+
+    List<PatientChangeEntry> entries= new ArrayList<>(changes.size());
+    for (PatientChange change : changes) {
+      Patient patient= change.getType()==PatientChangeEvent.Type.DELETED ? null : patients.get(change.getPatientId());
+      entries.add(new PatientChangeEntry(change, patient));
+    }
+    return entries;
+  }
+
+  @Scheduled(initialDelayString = "${patient.changes.compaction-interval:PT10M}",
+      fixedDelayString = "${patient.changes.compaction-interval:PT10M}")
+  @Transactional
+  public int compact() {
+    int expired= consumerRepository.deleteNotSeenSince(Instant.now().minus(consumerExpiry));
+    Long position= consumerRepository.findMinPosition();
+    int removed= 0;
+    if (position!=null){
+      removed= changeRepository.deleteUpTo(position);
+      PatientChangeHorizon horizon= horizonRepository.findById(PatientChangeHorizon.ID)
+          .orElseGet(() -> new PatientChangeHorizon(position));
+      horizon.setCompactedUpTo(Math.max(horizon.getCompactedUpTo(), position));
+      horizonRepository.save(horizon);
+    }
+    LOGGER.info("Patient change log compacted: {} changes removed, {} stale consumers dropped", removed, expired);
+    return removed;
+  }
+
+  private void acknowledge(String name, long since) {
+    PatientChangeConsumer consumer= consumerRepository.findById(name).orElseGet(() -> {
+      PatientChangeConsumer created= new PatientChangeConsumer(name);
+      created.setPosition(since);
+      return created;
+    });
+    consumer.setPosition(Math.max(consumer.getPosition(), since));
+    consumer.setUpdatedAt(Instant.now());
+    consumerRepository.save(consumer);
+  }
+}
@@ -0,0 +1,115 @@
+package com.mediscreen.patientmicroservice.service;
+
+import com.mediscreen.patientmicroservice.event.PatientChangeEvent;
+import com.mediscreen.patientmicroservice.model.PatientChangeLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appends every patient change to patient_change in the transaction that made it. Changes are buffered
+ * per transaction and written as one JDBC batch just before commit, so an import chunk costs a single
+ * multi-row insert.
+ *
+ * The insert first locks the patient_change_lock row, held until the commit: ids are taken in commit
+ * order, so once a reader sees an id every lower id is committed or rolled back, and the cursor of a
+ * consumer never passes a change still committing. The persistence context is flushed before the lock,
+ * so it is held for the insert and the commit only, not while the patient rows wait for their own locks.
+ */
+@Service
+public class PatientChangeLog {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PatientChangeLog.class);
+
+  private static final String LOCK_CHANGES =
+      "update patient_change_lock set id = id where id = " + PatientChangeLock.ID;
+  private static final String INSERT_LOCK =
+      "insert into patient_change_lock (id) values (" + PatientChangeLock.ID + ")";
+  private static final String INSERT_CHANGE =
+      "insert into patient_change (patient_id, type, changed_at) values (?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactionTemplate;
+
+  public PatientChangeLog(JdbcTemplate jdbcTemplate, EntityManager entityManager,
+                          PlatformTransactionManager transactionManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /**
+   * Creates the lock row on databases built from the entities; db/upgrade-patient-changes.sql creates it
+   * otherwise.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void createLockRow() {
+    try {
+      if (jdbcTemplate.update(LOCK_CHANGES) == 0) {
+        jdbcTemplate.update(INSERT_LOCK);
+      }
+    } catch (DataAccessException e) {
+      LOGGER.warn("Patient change lock row not checked: {}", e.getMessage());
+    }
+  }
+
+  @EventListener
+  public void onPatientChange(PatientChangeEvent event) {
+    if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+      transactionTemplate.executeWithoutResult(status -> write(List.of(event)));
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    List<PatientChangeEvent> pending = (List<PatientChangeEvent>) TransactionSynchronizationManager.getResource(this);
+    if (pending == null) {
+      List<PatientChangeEvent> changes = new ArrayList<>();
+      TransactionSynchronizationManager.bindResource(this, changes);
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void beforeCommit(boolean readOnly) {
+          if (!changes.isEmpty()) {
+            entityManager.flush();
+          }
+          write(changes);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+          TransactionSynchronizationManager.unbindResourceIfPossible(PatientChangeLog.this);
+        }
+      });
+      pending = changes;
+    }
+    pending.add(event);
+  }
+
+  private void write(List<PatientChangeEvent> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+    if (jdbcTemplate.update(LOCK_CHANGES) == 0) {
+      jdbcTemplate.update(INSERT_LOCK);
+    }
+    Timestamp changedAt = Timestamp.from(Instant.now());
+    jdbcTemplate.batchUpdate(INSERT_CHANGE, changes, changes.size(), (statement, change) -> {
+      statement.setInt(1, change.getPatientId());
+      statement.setString(2, change.getType().name());
+      statement.setTimestamp(3, changedAt);
+    });
+  }
+}
@@ -0,0 +1,60 @@
+package com.mediscreen.patientmicroservice.service;
+
+import com.mediscreen.patientmicroservice.datasource.ReadFromReplica;
+import com.mediscreen.patientmicroservice.duplicate.PatientDuplicateMatcher;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.PatientDuplicate;
+import com.mediscreen.patientmicroservice.model.PatientDuplicateReport;
+import com.mediscreen.patientmicroservice.model.PatientIdentity;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+public class PatientDuplicateService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PatientDuplicateService.class);
+
+  private final PatientRepository repository;
+  private final PatientDuplicateMatcher matcher;
+
+  public PatientDuplicateService(PatientRepository repository, PatientDuplicateMatcher matcher) {
+    this.repository = repository;
+    this.matcher = matcher;
+  }
+
+  @ReadFromReplica
+  @Transactional(readOnly = true)
+  public PatientDuplicateReport findDuplicates() {
+    try (Stream<PatientIdentity> patients = repository.streamIdentities()) {
+      return matcher.findDuplicates(patients);
+    }
+  }
+
+  /**
+   * Read on the primary: the duplicate of a patient just added is most often a patient added moments ago.
+   * Like the blocks of findDuplicates, a birth date shared by more than patient.duplicates.max-block-size
+   * patients is not matched.
+   */
+  public List<PatientDuplicate> findPossibleDuplicates(Patient patient) {
+    if (patient.getId()==null || patient.getDateOfBirth()==null){
+      return List.of();
+    }
+    int maxBlockSize= matcher.getMaxBlockSize();
+    List<PatientIdentity> candidates= repository.findIdentitiesByDateOfBirth(patient.getDateOfBirth(),
+        PageRequest.of(0, maxBlockSize + 1));
+    if (candidates.size() > maxBlockSize){
+      LOGGER.warn("Duplicate check of patient {} skipped, more than {} patients born {}", patient.getId(),
+          maxBlockSize, patient.getDateOfBirth());
+      return List.of();
+    }
+    return matcher.match(patient.getId(), patient.getDateOfBirth(), patient.getLastName(), patient.getFirstName(),
+        candidates);
+  }
+}
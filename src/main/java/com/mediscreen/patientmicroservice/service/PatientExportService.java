@@ -0,0 +1,59 @@
+package com.mediscreen.patientmicroservice.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mediscreen.patientmicroservice.datasource.ReadFromReplica;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class PatientExportService {
+
+  private static final int FLUSH_INTERVAL = PatientRepository.EXPORT_FETCH_SIZE;
+
+  private final PatientRepository repository;
+  private final EntityManager entityManager;
+  private final ObjectMapper objectMapper;
+
+  public PatientExportService(PatientRepository repository, EntityManager entityManager, ObjectMapper objectMapper) {
+    this.repository = repository;
+    this.entityManager = entityManager;
+    this.objectMapper = objectMapper;
+  }
+
+  @ReadFromReplica
+  @Transactional(readOnly = true)
+  public long exportPatients(OutputStream out) throws IOException {
+    long count = 0;
+    // the cache mode hint of streamAll only holds while the query opens, the rows are read after it
+    entityManager.setProperty("javax.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+
+    try (Stream<Patient> patients = repository.streamAll();
+         JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.setRootValueSeparator(null);
+
+      Iterator<Patient> iterator = patients.iterator();
+      while (iterator.hasNext()) {
+        Patient patient = iterator.next();
+        generator.writeObject(patient);
+        generator.writeRaw('\n');
+        entityManager.detach(patient);
+
+        if (++count % FLUSH_INTERVAL == 0) {
+          generator.flush();
+        }
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,154 @@
+package com.mediscreen.patientmicroservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mediscreen.patientmicroservice.cache.SingleFlight;
+import com.mediscreen.patientmicroservice.exception.IdempotencyKeyReusedException;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.PatientCreation;
+import com.mediscreen.patientmicroservice.model.PatientIdempotencyKey;
+import com.mediscreen.patientmicroservice.repository.PatientIdempotencyKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Makes POST /patients safe to retry with an Idempotency-Key. The first request stores its response under
+ * the key in patient_idempotency_key, in the transaction that inserts the patient; retries get that
+ * response back, from memory while the key is recent, without touching the patient table.
+ *
+ * Concurrent requests with one key share a single creation on this instance. Across instances the primary
+ * key decides: the loser rolls its patient back and answers with the winner's response. Keys are honored
+ * for patient.idempotency.ttl at least, until the next purge.
+ */
+@Service
+public class PatientIdempotencyService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PatientIdempotencyService.class);
+
+  private final PatientService patientService;
+  private final PatientIdempotencyKeyRepository repository;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final Duration ttl;
+  private final Cache<String, PatientIdempotencyKey> keys;
+  private final SingleFlight<String, PatientIdempotencyKey> creations = new SingleFlight<>();
+
+  public PatientIdempotencyService(PatientService patientService, PatientIdempotencyKeyRepository repository,
+                                   PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                   @Value("${patient.idempotency.ttl:24h}") Duration ttl,
+                                   @Value("${patient.idempotency.maximum-size:100000}") long maximumSize) {
+    this.patientService = patientService;
+    this.repository = repository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.objectMapper = objectMapper;
+    this.ttl = ttl;
+    this.keys = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(ttl)
+        .build();
+  }
+
+  /**
+   * Null, like PatientService.addPatient, when the patient is not valid; nothing is stored then.
+   */
+  public PatientCreation addPatient(String key, Patient patient) {
+    String fingerprint= fingerprint(patient);
+    AtomicBoolean created= new AtomicBoolean();
+
+    PatientIdempotencyKey stored= keys.getIfPresent(key);
+    if (stored==null){
+      stored= creations.execute(key, () -> findOrCreate(key, patient, fingerprint, created));
+    }
+    if (stored==null){
+      return null;
+    }
+    if (!stored.getFingerprint().equals(fingerprint)){
+      throw new IdempotencyKeyReusedException("Key already used for another patient");
+    }
+    return new PatientCreation(readResponse(stored), !created.get());
+  }
+
+  @Scheduled(initialDelayString = "${patient.idempotency.purge-interval:PT10M}",
+      fixedDelayString = "${patient.idempotency.purge-interval:PT10M}")
+  @Transactional
+  public int purgeExpired() {
+    int purged= repository.deleteCreatedBefore(Instant.now().minus(ttl));
+    LOGGER.info("Idempotency keys purged: {}", purged);
+    return purged;
+  }
+
+  private PatientIdempotencyKey findOrCreate(String key, Patient patient, String fingerprint, AtomicBoolean created) {
+    Optional<PatientIdempotencyKey> existing= repository.findById(key);
+    PatientIdempotencyKey stored;
+    if (existing.isPresent()){
+      stored= existing.get();
+    } else {
+      try {
+        stored= transactionTemplate.execute(status -> {
+          Patient patientSaved= patientService.addPatient(patient);
+          if (patientSaved==null){
+            return null;
+          }
+          return repository.saveAndFlush(new PatientIdempotencyKey(key, fingerprint, patientSaved.getId(),
+              writeResponse(patientSaved), Instant.now()));
+        });
+        created.set(stored!=null);
+      } catch (DataIntegrityViolationException e) {
+        // committed by another instance since the lookup, its patient is the one to answer with
+        stored= repository.findById(key).orElseThrow(() -> e);
+      }
+    }
+    if (stored!=null){
+      keys.put(key, stored);
+    }
+    return stored;
+  }
+
+  private String fingerprint(Patient patient) {
+    try {
+      byte[] digest= MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(patient));
+      StringBuilder hex= new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        hex.append(String.format("%02x", b));
+      }
+      return hex.toString();
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private String writeResponse(Patient patient) {
+    try {
+      return objectMapper.writeValueAsString(patient);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Patient readResponse(PatientIdempotencyKey stored) {
+    try {
+      return objectMapper.readValue(stored.getResponse(), Patient.class);
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
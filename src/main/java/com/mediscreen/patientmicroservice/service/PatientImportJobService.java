@@ -0,0 +1,71 @@
+package com.mediscreen.patientmicroservice.service;
+
+import com.mediscreen.patientmicroservice.job.PatientImportJobRunner;
+import com.mediscreen.patientmicroservice.model.PatientImportJob;
+import com.mediscreen.patientmicroservice.model.PatientImportJobError;
+import com.mediscreen.patientmicroservice.model.PatientImportJobStatus;
+import com.mediscreen.patientmicroservice.repository.PatientImportJobErrorRepository;
+import com.mediscreen.patientmicroservice.repository.PatientImportJobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+public class PatientImportJobService {
+
+  public static final int MAX_ERRORS_SHOWN = 100;
+
+  private final PatientImportJobRepository jobRepository;
+  private final PatientImportJobErrorRepository errorRepository;
+  private final PatientImportJobRunner runner;
+  private final Path directory;
+
+  public PatientImportJobService(PatientImportJobRepository jobRepository,
+                                 PatientImportJobErrorRepository errorRepository, PatientImportJobRunner runner,
+                                 @Value("${patient.import.jobs.directory:${java.io.tmpdir}/patient-import-jobs}") String directory) {
+    this.jobRepository = jobRepository;
+    this.errorRepository = errorRepository;
+    this.runner = runner;
+    this.directory = Path.of(directory);
+  }
+
+  /**
+   * Stores the upload in the job directory and queues its import.
+   */
+  public PatientImportJob submit(InputStream in, PatientImportJob.Format format) throws IOException {
+    String id = UUID.randomUUID().toString();
+    Files.createDirectories(directory);
+    Path file = directory.resolve(id + "." + format.name().toLowerCase(Locale.ROOT));
+    try {
+      Files.copy(in, file);
+    } catch (IOException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+    PatientImportJob job = jobRepository.save(new PatientImportJob(id, format, file.toString(), Instant.now()));
+    runner.dispatch();
+    return job;
+  }
+
+  /**
+   * Null when there is no such job.
+   */
+  public PatientImportJobStatus getStatus(String id) {
+    return jobRepository.findById(id)
+        .map(job -> new PatientImportJobStatus(job, errorRepository
+            .findByJobIdOrderByRowIndex(id, PageRequest.of(0, MAX_ERRORS_SHOWN)).stream()
+            .map(PatientImportJobError::toResult)
+            .collect(Collectors.toList())))
+        .orElse(null);
+  }
+}
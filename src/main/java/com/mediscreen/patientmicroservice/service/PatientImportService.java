@@ -0,0 +1,117 @@
+package com.mediscreen.patientmicroservice.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mediscreen.patientmicroservice.event.PatientChangeEvent;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.PatientImportResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+public class PatientImportService {
+
+  public static final String INVALID_PATIENT = "FirstName, LastName, Date of birth and Gender are mandatory";
+
+  private final PatientService patientService;
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ObjectReader patientReader;
+  private final int batchSize;
+
+  public PatientImportService(PatientService patientService, EntityManager entityManager,
+                              PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                              ObjectMapper objectMapper, @Value("${patient.import.batch-size:500}") int batchSize) {
+    this.patientService = patientService;
+    this.entityManager = entityManager;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.eventPublisher = eventPublisher;
+    this.patientReader = objectMapper.readerFor(Patient.class);
+    this.batchSize = batchSize;
+  }
+
+  public List<PatientImportResult> importPatients(InputStream in) throws IOException {
+    List<PatientImportResult> results = new ArrayList<>();
+    List<Patient> chunk = new ArrayList<>(batchSize);
+    List<Integer> chunkIndexes = new ArrayList<>(batchSize);
+    int index = 0;
+
+    try (MappingIterator<Patient> patients = patientReader.readValues(in)) {
+      while (true) {
+        Patient patient;
+        try {
+          if (!patients.hasNextValue()) {
+            break;
+          }
+          patient = patients.nextValue();
+        } catch (JsonParseException e) {
+          results.add(PatientImportResult.invalid(index, e.getOriginalMessage()));
+          break;
+        } catch (JsonMappingException e) {
+          results.add(PatientImportResult.invalid(index++, e.getOriginalMessage()));
+          continue;
+        }
+
+        if (patientService.isValid(patient)) {
+          chunk.add(patient);
+          chunkIndexes.add(index);
+        } else {
+          results.add(PatientImportResult.invalid(index, INVALID_PATIENT));
+        }
+        index++;
+
+        if (chunk.size() == batchSize) {
+          insertChunk(chunk, chunkIndexes, results);
+        }
+      }
+    }
+    insertChunk(chunk, chunkIndexes, results);
+
+    results.sort(Comparator.comparingInt(PatientImportResult::getIndex));
+    return results;
+  }
+
+  private void insertChunk(List<Patient> chunk, List<Integer> chunkIndexes, List<PatientImportResult> results) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    try {
+      transactionTemplate.executeWithoutResult(status -> persistChunk(chunk));
+      for (int i = 0; i < chunk.size(); i++) {
+        results.add(PatientImportResult.created(chunkIndexes.get(i), chunk.get(i).getId()));
+      }
+    } catch (RuntimeException e) {
+      for (Integer chunkIndex : chunkIndexes) {
+        results.add(PatientImportResult.failed(chunkIndex, e.getMessage()));
+      }
+    }
+    chunk.clear();
+    chunkIndexes.clear();
+  }
+
+  /**
+   * Inserts valid patients within the caller's transaction, batched by hibernate.jdbc.batch_size.
+   */
+  public void persistChunk(List<Patient> chunk) {
+    chunk.forEach(entityManager::persist);
+    entityManager.flush();
+    entityManager.clear();
+    patientService.evictPages();
+    patientService.countAdded(chunk);
+    chunk.forEach(patient -> eventPublisher.publishEvent(PatientChangeEvent.created(patient)));
+  }
+}
@@ -1,59 +1,305 @@
 package com.mediscreen.patientmicroservice.service;
 
+import com.mediscreen.patientmicroservice.cache.PatientCache;
+import com.mediscreen.patientmicroservice.cache.PatientInvalidator;
+import com.mediscreen.patientmicroservice.datasource.ReadFromReplica;
+import com.mediscreen.patientmicroservice.datasource.ReplicaRoutingContext;
+import com.mediscreen.patientmicroservice.event.PatientChangeEvent;
+import com.mediscreen.patientmicroservice.exception.PreconditionFailedException;
 import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.PatientBatch;
+import com.mediscreen.patientmicroservice.model.PatientPage;
+import com.mediscreen.patientmicroservice.model.PatientPatch;
+import com.mediscreen.patientmicroservice.model.PatientSearchCriteria;
 import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.repository.PatientSpecifications;
+import com.mediscreen.patientmicroservice.stats.PatientStatsCounters;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class PatientService {
 
+  public static final int DEFAULT_PAGE_SIZE = 50;
+  public static final int MAX_PAGE_SIZE = 500;
+  public static final int MAX_BATCH_SIZE = 1000;
+
   private final PatientRepository repository;
+  private final PatientCache cache;
+  private final PatientInvalidator invalidator;
+  private final ApplicationEventPublisher eventPublisher;
+  private final PatientStatsCounters statsCounters;
 
-  public PatientService(PatientRepository repository) {
+  public PatientService(PatientRepository repository, PatientCache cache, PatientInvalidator invalidator,
+                        ApplicationEventPublisher eventPublisher, PatientStatsCounters statsCounters) {
     this.repository = repository;
+    this.cache = cache;
+    this.invalidator = invalidator;
+    this.eventPublisher = eventPublisher;
+    this.statsCounters = statsCounters;
   }
 
+  @ReadFromReplica
+  @Transactional(readOnly = true)
   public List<Patient> getAllPatient() {
     return repository.findAll();
   }
 
+  @ReadFromReplica
+  @Transactional(readOnly = true)
+  public PatientPage getPatientPage(Integer after, Integer limit) {
+    int cursor= after==null ? 0 : after;
+    int size= pageSize(limit);
+
+    List<Patient> patients= repository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, size + 1));
+
+    if (patients.size() > size){
+      List<Patient> page= patients.subList(0, size);
+      return new PatientPage(page, page.get(size - 1).getId());
+    }
+    return new PatientPage(patients, null);
+  }
+
+  @ReadFromReplica
   public Optional<Patient> getPatientById(int id) {
-    return repository.findById(id);
+    return cache.get(id, repository::findById);
+  }
+
+  @ReadFromReplica
+  public Optional<Long> getPatientVersion(int id) {
+    Optional<Patient> patientCached= ReplicaRoutingContext.isPinnedToPrimary()
+        ? Optional.empty() : cache.getIfPresent(id);
+
+    if (patientCached.isPresent() && patientCached.get().getVersion()!=null){
+      return Optional.of(patientCached.get().getVersion());
+    }
+    return repository.findVersionById(id);
+  }
+
+  @ReadFromReplica
+  @Transactional(readOnly = true)
+  public Page<Patient> searchPatients(PatientSearchCriteria criteria, int page, Integer size, String sort) {
+    PageRequest pageRequest= PageRequest.of(Math.max(page, 0), pageSize(size), searchSort(sort));
+    return repository.findAll(PatientSpecifications.matching(criteria), pageRequest);
+  }
+
+  @ReadFromReplica
+  @Transactional(readOnly = true)
+  public List<Patient> searchPatientsByName(String prefix, int size) {
+    PageRequest pageRequest= PageRequest.of(0, pageSize(size), searchSort("lastName"));
+    return repository.findAll(PatientSpecifications.anyNameStartsWith(prefix), pageRequest).getContent();
   }
 
+  @ReadFromReplica
+  public PatientBatch getPatientsByIds(Collection<Integer> ids) {
+    Set<Integer> uniqueIds= new LinkedHashSet<>(ids);
+    uniqueIds.remove(null);
+    Map<Integer, Patient> patientsFound= cache.getAll(uniqueIds, repository::findAllById);
+
+    List<Patient> patients= new ArrayList<>(patientsFound.size());
+    List<Integer> missingIds= new ArrayList<>();
+    for (Integer id : uniqueIds) {
+      Patient patient= patientsFound.get(id);
+      if (patient!=null){
+        patients.add(patient);
+      } else {
+        missingIds.add(id);
+      }
+    }
+    return new PatientBatch(patients, missingIds);
+  }
+
+  @Transactional
   public Patient addPatient(Patient patient) {
     boolean patientIsValid= isValid(patient);
 
     if (patientIsValid){
-      return repository.save(patient);
+      Patient patientSaved= repository.save(patient);
+      evictPages();
+      countAdded(List.of(patientSaved));
+      eventPublisher.publishEvent(PatientChangeEvent.created(patientSaved));
+      return patientSaved;
     }
     return null;
   }
 
+  @Transactional
   public Patient updatePatient(int id, Patient patientToUpdate) {
+    return updatePatient(id, patientToUpdate, null);
+  }
+
+  @Transactional
+  public Patient updatePatient(int id, Patient patientToUpdate, Long expectedVersion) {
     Optional<Patient> patientIsExist= repository.findById(id);
 
     if (patientIsExist.isPresent()){
+      if (expectedVersion!=null && !expectedVersion.equals(patientIsExist.get().getVersion())){
+        throw new PreconditionFailedException("Patient " + id + " is at version " + patientIsExist.get().getVersion());
+      }
+      LocalDate dateOfBirth= patientIsExist.get().getDateOfBirth();
+      String gender= patientIsExist.get().getGender();
       Patient patient= updateInitialPatient(patientToUpdate, patientIsExist.get());
-      return repository.save(patient);
+      Patient patientSaved= repository.save(patient);
+      countMoved(dateOfBirth, gender, patient);
+      evict(id);
+      eventPublisher.publishEvent(PatientChangeEvent.updated(id, patientSaved));
+      return patientSaved;
     }
     return null;
   }
 
+  @Transactional
+  public boolean patchPatient(int id, PatientPatch patch) {
+    if (patch.isEmpty()){
+      return repository.existsById(id);
+    }
+    Optional<Patient> patientCached= cache.getIfPresent(id);
+    boolean patientPatched= repository.patchPatient(id, patch) > 0;
+
+    if (patientPatched){
+      if (patch.getDateOfBirth()!=null || patch.getGender()!=null){
+        countPatched(patientCached, patch);
+      }
+      evict(id);
+      eventPublisher.publishEvent(PatientChangeEvent.patched(id, patch));
+    }
+    return patientPatched;
+  }
+
+  @Transactional
   public boolean deletePatient(int id) {
-    Optional<Patient> patient= repository.findById(id);
+    Optional<Patient> patientCached= cache.getIfPresent(id);
+    boolean patientDeleted= repository.deletePatientById(id) > 0;
 
-    if(patient.isPresent()){
-      repository.deleteById(id);
+    if(patientDeleted){
+      countDeleted(patientCached);
+      evict(id);
+      eventPublisher.publishEvent(PatientChangeEvent.deleted(id));
       return true;
     }
     return false;
   }
 
-  private boolean isValid(Patient patient) {
+  /*
+   * Patch and delete are single statements that do not read the row: the stats counters move from the
+   * cached patient when there is one, and are reloaded otherwise.
+   */
+  private void countPatched(Optional<Patient> patientCached, PatientPatch patch) {
+    if (patientCached.isEmpty()){
+      countAfterCommit(statsCounters::invalidate);
+      return;
+    }
+    Patient patient= patientCached.get();
+    LocalDate dateOfBirth= patient.getDateOfBirth();
+    String gender= patient.getGender();
+    LocalDate newDateOfBirth= patch.getDateOfBirth()!=null ? patch.getDateOfBirth() : dateOfBirth;
+    String newGender= patch.getGender()!=null ? patch.getGender() : gender;
+    countAfterCommit(() -> {
+      statsCounters.removed(dateOfBirth, gender);
+      statsCounters.added(newDateOfBirth, newGender);
+    });
+  }
+
+  private void countDeleted(Optional<Patient> patientCached) {
+    if (patientCached.isEmpty()){
+      countAfterCommit(statsCounters::invalidate);
+      return;
+    }
+    LocalDate dateOfBirth= patientCached.get().getDateOfBirth();
+    String gender= patientCached.get().getGender();
+    countAfterCommit(() -> statsCounters.removed(dateOfBirth, gender));
+  }
+
+  /**
+   * Evicts the cached list pages, for writes that add patients outside this service.
+   */
+  public void evictPages() {
+    invalidator.invalidatePages();
+    afterCommit(invalidator::invalidatePages);
+  }
+
+  /**
+   * Counts patients in the stats once the transaction commits, for writes that add patients outside this service too.
+   */
+  public void countAdded(Collection<Patient> patients) {
+    for (Patient patient : patients) {
+      LocalDate dateOfBirth= patient.getDateOfBirth();
+      String gender= patient.getGender();
+      countAfterCommit(() -> statsCounters.added(dateOfBirth, gender));
+    }
+  }
+
+  private void countMoved(LocalDate dateOfBirth, String gender, Patient patient) {
+    LocalDate newDateOfBirth= patient.getDateOfBirth();
+    String newGender= patient.getGender();
+
+    if (!Objects.equals(dateOfBirth, newDateOfBirth) || !Objects.equals(gender, newGender)){
+      countAfterCommit(() -> {
+        statsCounters.removed(dateOfBirth, gender);
+        statsCounters.added(newDateOfBirth, newGender);
+      });
+    }
+  }
+
+  private void countAfterCommit(Runnable count) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()){
+      afterCommit(count);
+    } else {
+      count.run();
+    }
+  }
+
+  private void evict(int id) {
+    invalidator.invalidate(id);
+    // a read between here and the commit would cache the old row again
+    afterCommit(() -> invalidator.invalidate(id));
+  }
+
+  private void afterCommit(Runnable eviction) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()){
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          eviction.run();
+        }
+      });
+    }
+  }
+
+  private int pageSize(Integer limit) {
+    if (limit==null || limit <= 0){
+      return DEFAULT_PAGE_SIZE;
+    }
+    return Math.min(limit, MAX_PAGE_SIZE);
+  }
+
+  private Sort searchSort(String sort) {
+    if ("firstName".equals(sort)){
+      return Sort.by("firstNameKey", "lastNameKey", "id");
+    }
+    if ("dateOfBirth".equals(sort)){
+      return Sort.by("dateOfBirth", "id");
+    }
+    return Sort.by("lastNameKey", "firstNameKey", "id");
+  }
+
+  public boolean isValid(Patient patient) {
     return !(patient.getFirstName() == null |
         patient.getLastName() == null |
         patient.getDateOfBirth() == null |
@@ -0,0 +1,58 @@
+package com.mediscreen.patientmicroservice.service;
+
+import com.mediscreen.patientmicroservice.datasource.ReadFromReplica;
+import com.mediscreen.patientmicroservice.model.PatientStats;
+import com.mediscreen.patientmicroservice.model.PatientStatsGroup;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.stats.PatientStatsCounters;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+public class PatientStatsService {
+
+  private final PatientRepository repository;
+  private final PatientStatsCounters counters;
+
+  public PatientStatsService(PatientRepository repository, PatientStatsCounters counters) {
+    this.repository = repository;
+    this.counters = counters;
+  }
+
+  /**
+   * From the counters when they are enabled, loading them on the primary the first time of the day.
+   */
+  public PatientStats getStats() {
+    if (!counters.isEnabled()){
+      return getStatsFromDatabase();
+    }
+    LocalDate today= LocalDate.now();
+    PatientStats stats= counters.snapshot(today);
+
+    if (stats==null){
+      List<PatientStatsGroup> groups= repository.countByAgeBandAndGender(counters.getAgeBands(), today);
+      counters.load(today, groups);
+      return new PatientStats(today, PatientStats.Source.DATABASE, groups);
+    }
+    return stats;
+  }
+
+  @ReadFromReplica
+  public PatientStats getStatsFromDatabase() {
+    LocalDate today= LocalDate.now();
+    return new PatientStats(today, PatientStats.Source.DATABASE,
+        repository.countByAgeBandAndGender(counters.getAgeBands(), today));
+  }
+
+  @Scheduled(initialDelayString = "${patient.stats.counters.refresh-interval:PT5M}",
+      fixedDelayString = "${patient.stats.counters.refresh-interval:PT5M}")
+  public void refreshCounters() {
+    if (counters.isEnabled()){
+      LocalDate today= LocalDate.now();
+      counters.load(today, repository.countByAgeBandAndGender(counters.getAgeBands(), today));
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package com.mediscreen.patientmicroservice.service;
+
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.PatientSuggestion;
+import com.mediscreen.patientmicroservice.suggest.PatientSuggestIndex;
+import com.mediscreen.patientmicroservice.util.NameNormalizer;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class PatientSuggestService {
+
+  public static final int DEFAULT_LIMIT = 10;
+  public static final int MAX_LIMIT = 50;
+
+  private final PatientSuggestIndex index;
+  private final PatientService patientService;
+
+  public PatientSuggestService(PatientSuggestIndex index, PatientService patientService) {
+    this.index = index;
+    this.patientService = patientService;
+  }
+
+  public List<PatientSuggestion> suggest(String query, Integer limit) {
+    int size= limit==null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+    if (index.isReady()){
+      return index.suggest(query, size);
+    }
+    String prefix= NameNormalizer.normalize(query);
+    if (prefix==null || prefix.isEmpty()){
+      return List.of();
+    }
+    List<PatientSuggestion> suggestions= new ArrayList<>();
+    for (Patient patient : patientService.searchPatientsByName(prefix, size)) {
+      suggestions.add(new PatientSuggestion(patient.getId(), patient.getFirstName(), patient.getLastName()));
+    }
+    return suggestions;
+  }
+}
@@ -0,0 +1,60 @@
+package com.mediscreen.patientmicroservice.stats;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Age bands from their lower bounds in years: 18,30,80 gives 0-17, 18-29, 30-79 and 80+. A patient is in a
+ * band from the birthday the age is reached, so the band of a birth date only depends on the day.
+ */
+public final class AgeBands {
+
+  private final int[] lowerBounds;
+  private final String[] labels;
+
+  public AgeBands(int... lowerBounds) {
+    this.lowerBounds = lowerBounds.clone();
+    for (int i = 0; i < this.lowerBounds.length; i++) {
+      if (this.lowerBounds[i] <= (i == 0 ? 0 : this.lowerBounds[i - 1])) {
+        throw new IllegalArgumentException("Age band bounds must be positive and increasing: "
+            + Arrays.toString(lowerBounds));
+      }
+    }
+    this.labels = new String[this.lowerBounds.length + 1];
+    int from = 0;
+    for (int i = 0; i < this.lowerBounds.length; i++) {
+      labels[i] = from + "-" + (this.lowerBounds[i] - 1);
+      from = this.lowerBounds[i];
+    }
+    labels[this.lowerBounds.length] = from + "+";
+  }
+
+  public int count() {
+    return labels.length;
+  }
+
+  public String label(int band) {
+    return labels[band];
+  }
+
+  /**
+   * The latest birth date of each band but the youngest, on the given day: born after boundaries[i], a
+   * patient is in a band younger than i + 1.
+   */
+  public LocalDate[] boundaries(LocalDate day) {
+    LocalDate[] boundaries = new LocalDate[lowerBounds.length];
+    for (int i = 0; i < lowerBounds.length; i++) {
+      boundaries[i] = day.minusYears(lowerBounds[i]);
+    }
+    return boundaries;
+  }
+
+  public int band(LocalDate dateOfBirth, LocalDate day) {
+    for (int i = 0; i < lowerBounds.length; i++) {
+      if (dateOfBirth.isAfter(day.minusYears(lowerBounds[i]))) {
+        return i;
+      }
+    }
+    return lowerBounds.length;
+  }
+}
@@ -0,0 +1,125 @@
+package com.mediscreen.patientmicroservice.stats;
+
+import com.mediscreen.patientmicroservice.model.PatientStats;
+import com.mediscreen.patientmicroservice.model.PatientStatsGroup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Patient counts per age band and gender kept in memory, so the stats are read without a query. They are
+ * loaded from the database aggregate, then moved by PatientService as patients are written; ages shift
+ * every day, so counters loaded another day are reloaded rather than used.
+ *
+ * Only writes made through this instance move the counters: writes of other instances, and a write
+ * committing while the counters are reloaded, show up at the next reload, every
+ * patient.stats.counters.refresh-interval.
+ */
+@Component
+public class PatientStatsCounters {
+
+  private final boolean enabled;
+  private final AgeBands ageBands;
+
+  private volatile State state;
+
+  public PatientStatsCounters(@Value("${patient.stats.counters.enabled:true}") boolean enabled,
+                              @Value("${patient.stats.age-bands:18,30,40,50,60,70,80}") int[] ageBands) {
+    this.enabled = enabled;
+    this.ageBands = new AgeBands(ageBands);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public AgeBands getAgeBands() {
+    return ageBands;
+  }
+
+  /**
+   * The counters as stats, null when they are disabled, not loaded or loaded another day.
+   */
+  public PatientStats snapshot(LocalDate day) {
+    State current = state;
+    if (current == null || !current.day.equals(day)) {
+      return null;
+    }
+    List<PatientStatsGroup> groups = new ArrayList<>();
+    for (int band = 0; band < ageBands.count(); band++) {
+      for (Map.Entry<String, LongAdder> gender : current.counts.get(band).entrySet()) {
+        long count = gender.getValue().sum();
+        if (count > 0) {
+          groups.add(new PatientStatsGroup(ageBands.label(band), gender.getKey(), count));
+        }
+      }
+    }
+    return new PatientStats(day, PatientStats.Source.COUNTERS, groups);
+  }
+
+  /**
+   * Replaces the counters with the aggregate of the day.
+   */
+  public void load(LocalDate day, List<PatientStatsGroup> groups) {
+    if (!enabled) {
+      return;
+    }
+    Map<String, Integer> bands = new HashMap<>();
+    for (int band = 0; band < ageBands.count(); band++) {
+      bands.put(ageBands.label(band), band);
+    }
+    State loaded = new State(day, ageBands.count());
+    for (PatientStatsGroup group : groups) {
+      loaded.counter(bands.get(group.getAgeBand()), group.getGender()).add(group.getCount());
+    }
+    state = loaded;
+  }
+
+  public void added(LocalDate dateOfBirth, String gender) {
+    move(dateOfBirth, gender, 1);
+  }
+
+  public void removed(LocalDate dateOfBirth, String gender) {
+    move(dateOfBirth, gender, -1);
+  }
+
+  /**
+   * For writes whose previous values are unknown: the next read reloads the counters.
+   */
+  public void invalidate() {
+    state = null;
+  }
+
+  private void move(LocalDate dateOfBirth, String gender, long delta) {
+    State current = state;
+    if (current == null || dateOfBirth == null || gender == null) {
+      return;
+    }
+    current.counter(ageBands.band(dateOfBirth, current.day), gender).add(delta);
+  }
+
+  private static final class State {
+
+    private final LocalDate day;
+    private final List<Map<String, LongAdder>> counts;
+
+    private State(LocalDate day, int bands) {
+      this.day = day;
+      this.counts = new ArrayList<>(bands);
+      for (int band = 0; band < bands; band++) {
+        counts.add(new ConcurrentSkipListMap<>());
+      }
+    }
+
+    private LongAdder counter(int band, String gender) {
+      return counts.get(band).computeIfAbsent(gender, key -> new LongAdder());
+    }
+  }
+}
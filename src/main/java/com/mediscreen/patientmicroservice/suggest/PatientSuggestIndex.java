@@ -0,0 +1,285 @@
+package com.mediscreen.patientmicroservice.suggest;
+
+import com.mediscreen.patientmicroservice.event.PatientChangeEvent;
+import com.mediscreen.patientmicroservice.model.PatientName;
+import com.mediscreen.patientmicroservice.model.PatientPatch;
+import com.mediscreen.patientmicroservice.model.PatientSuggestion;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.util.NameNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+@Component
+public class PatientSuggestIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PatientSuggestIndex.class);
+  private static final char KEY_SEPARATOR = '\u0000';
+
+  private final PatientRepository repository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final boolean enabled;
+  private final int compactionThreshold;
+  private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "patient-suggest-index");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final AtomicBoolean building = new AtomicBoolean();
+  private final Object writeLock = new Object();
+
+  private volatile State state = new State(SuggestSnapshot.EMPTY);
+  private volatile boolean ready;
+
+  public PatientSuggestIndex(PatientRepository repository, PlatformTransactionManager transactionManager,
+                             @Value("${patient.suggest.enabled:true}") boolean enabled,
+                             @Value("${patient.suggest.compaction-threshold:10000}") int compactionThreshold) {
+    this.repository = repository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.enabled = enabled;
+    this.compactionThreshold = compactionThreshold;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void buildOnStartup() {
+    if (enabled) {
+      submit(this::rebuild);
+    }
+  }
+
+  public void rebuild() {
+    try {
+      long start = System.nanoTime();
+      SuggestSnapshot.Builder snapshot = new SuggestSnapshot.Builder();
+      readOnlyTransaction.executeWithoutResult(status -> {
+        try (Stream<PatientName> names = repository.streamNames()) {
+          names.forEach(name -> snapshot.add(new SuggestRow(name.getId(), name.getLastName(), name.getFirstName())));
+        }
+      });
+      install(snapshot.build(), Map.of());
+      ready = true;
+      LOGGER.info("Patient suggest index built with {} patients in {} ms",
+          state.snapshot.patientCount(), (System.nanoTime() - start) / 1_000_000);
+    } catch (RuntimeException e) {
+      LOGGER.warn("Patient suggest index could not be built, suggestions fall back to the database", e);
+    }
+  }
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  public List<PatientSuggestion> suggest(String query, int limit) {
+    String prefix = NameNormalizer.normalize(query);
+    if (prefix == null || prefix.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    State current = state;
+    int max = 2 * limit;
+
+    List<SuggestCandidate> candidates = new ArrayList<>(2 * max);
+    current.snapshot.scan(prefix, id -> !current.overrides.containsKey(id), max, candidates);
+
+    String upperBound = NameNormalizer.prefixUpperBound(prefix);
+    NavigableMap<String, Integer> delta = upperBound == null
+        ? current.deltaKeys.tailMap(prefix, true)
+        : current.deltaKeys.subMap(prefix, true, upperBound, false);
+    int found = 0;
+    for (Map.Entry<String, Integer> entry : delta.entrySet()) {
+      if (found++ == max) {
+        break;
+      }
+      candidates.add(new SuggestCandidate(entry.getKey().substring(0, entry.getKey().indexOf(KEY_SEPARATOR)),
+          entry.getValue()));
+    }
+    candidates.sort(SuggestCandidate.ORDER);
+
+    List<PatientSuggestion> suggestions = new ArrayList<>(limit);
+    Set<Integer> seen = new HashSet<>();
+    for (SuggestCandidate candidate : candidates) {
+      if (suggestions.size() == limit) {
+        break;
+      }
+      if (seen.add(candidate.getId())) {
+        PatientSuggestion suggestion = suggestion(current, candidate.getId());
+        if (suggestion != null) {
+          suggestions.add(suggestion);
+        }
+      }
+    }
+    return suggestions;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPatientChange(PatientChangeEvent event) {
+    if (event.getType() == PatientChangeEvent.Type.DELETED) {
+      remove(event.getPatientId());
+    } else if (event.getPatient() != null) {
+      put(event.getPatientId(), event.getPatient().getLastName(), event.getPatient().getFirstName());
+    } else if (event.getPatch() != null) {
+      rename(event.getPatientId(), event.getPatch());
+    }
+  }
+
+  public void put(int id, String lastName, String firstName) {
+    write(id, new Change(lastName, firstName, false));
+  }
+
+  public void remove(int id) {
+    write(id, new Change(null, null, true));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    builder.shutdownNow();
+  }
+
+  private void rename(int id, PatientPatch patch) {
+    if (!enabled || (patch.getLastName() == null && patch.getFirstName() == null)) {
+      return;
+    }
+    synchronized (writeLock) {
+      PatientSuggestion current = suggestion(state, id);
+      if (current != null) {
+        write(id, renamed(patch, current));
+        return;
+      }
+    }
+    // not indexed yet, or the index is still loading: the committed row has both names
+    repository.findById(id).ifPresent(patient -> put(id, patient.getLastName(), patient.getFirstName()));
+  }
+
+  private static Change renamed(PatientPatch patch, PatientSuggestion current) {
+    String lastName = patch.getLastName() != null ? patch.getLastName() : current.getLastName();
+    String firstName = patch.getFirstName() != null ? patch.getFirstName() : current.getFirstName();
+    return new Change(lastName, firstName, false);
+  }
+
+  private void write(int id, Change change) {
+    if (!enabled) {
+      return;
+    }
+    synchronized (writeLock) {
+      State current = state;
+      current.apply(id, change);
+      if (ready && current.overrides.size() >= compactionThreshold) {
+        submit(this::compact);
+      }
+    }
+  }
+
+  private void compact() {
+    State current = state;
+    Map<Integer, Change> folded = new HashMap<>(current.overrides);
+
+    SuggestSnapshot.Builder snapshot = new SuggestSnapshot.Builder();
+    current.snapshot.forEachPatient(id -> !folded.containsKey(id), snapshot::add);
+    folded.forEach((id, change) -> {
+      if (!change.deleted) {
+        snapshot.add(new SuggestRow(id, change.lastName, change.firstName));
+      }
+    });
+    install(snapshot.build(), folded);
+  }
+
+  private void install(SuggestSnapshot snapshot, Map<Integer, Change> folded) {
+    synchronized (writeLock) {
+      State next = new State(snapshot);
+      state.overrides.forEach((id, change) -> {
+        if (folded.get(id) != change) {
+          next.apply(id, change);
+        }
+      });
+      state = next;
+    }
+  }
+
+  private void submit(Runnable task) {
+    if (building.compareAndSet(false, true)) {
+      builder.execute(() -> {
+        try {
+          task.run();
+        } finally {
+          building.set(false);
+        }
+      });
+    }
+  }
+
+  private PatientSuggestion suggestion(State current, int id) {
+    Change change = current.overrides.get(id);
+    if (change != null) {
+      return change.deleted ? null : new PatientSuggestion(id, change.firstName, change.lastName);
+    }
+    String[] names = current.snapshot.names(id);
+    return names == null ? null : new PatientSuggestion(id, names[1], names[0]);
+  }
+
+  private static String deltaKey(String key, int id) {
+    return key + KEY_SEPARATOR + id;
+  }
+
+  private static final class State {
+
+    private final SuggestSnapshot snapshot;
+    private final Map<Integer, Change> overrides = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Integer> deltaKeys = new ConcurrentSkipListMap<>();
+
+    private State(SuggestSnapshot snapshot) {
+      this.snapshot = snapshot;
+    }
+
+    private void apply(int id, Change change) {
+      Change previous = overrides.put(id, change);
+      if (previous != null) {
+        previous.keys.forEach(key -> deltaKeys.remove(deltaKey(key, id)));
+      }
+      change.keys.forEach(key -> deltaKeys.put(deltaKey(key, id), id));
+    }
+  }
+
+  private static final class Change {
+
+    private final String lastName;
+    private final String firstName;
+    private final boolean deleted;
+    private final Set<String> keys = new HashSet<>(2);
+
+    private Change(String lastName, String firstName, boolean deleted) {
+      this.lastName = lastName;
+      this.firstName = firstName;
+      this.deleted = deleted;
+      addKey(lastName);
+      addKey(firstName);
+    }
+
+    private void addKey(String name) {
+      String key = NameNormalizer.normalize(name);
+      if (key != null && !key.isEmpty()) {
+        keys.add(key);
+      }
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.mediscreen.patientmicroservice.suggest;
+
+import java.util.Comparator;
+
+final class SuggestCandidate {
+
+  static final Comparator<SuggestCandidate> ORDER = Comparator.comparing(SuggestCandidate::getKey)
+      .thenComparingInt(SuggestCandidate::getId);
+
+  private final String key;
+  private final int id;
+
+  SuggestCandidate(String key, int id) {
+    this.key = key;
+    this.id = id;
+  }
+
+  String getKey() {
+    return key;
+  }
+
+  int getId() {
+    return id;
+  }
+}
@@ -0,0 +1,26 @@
+package com.mediscreen.patientmicroservice.suggest;
+
+final class SuggestRow {
+
+  private final int id;
+  private final String lastName;
+  private final String firstName;
+
+  SuggestRow(int id, String lastName, String firstName) {
+    this.id = id;
+    this.lastName = lastName;
+    this.firstName = firstName;
+  }
+
+  int getId() {
+    return id;
+  }
+
+  String getLastName() {
+    return lastName;
+  }
+
+  String getFirstName() {
+    return firstName;
+  }
+}
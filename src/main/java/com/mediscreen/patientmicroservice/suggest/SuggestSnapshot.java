@@ -0,0 +1,167 @@
+package com.mediscreen.patientmicroservice.suggest;
+
+import com.mediscreen.patientmicroservice.util.NameNormalizer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+final class SuggestSnapshot {
+
+  static final SuggestSnapshot EMPTY = new Builder().build();
+
+  private final byte[] keyBytes;
+  private final int[] keyOffsets;
+  private final int[] entryIds;
+
+  private final int[] patientIds;
+  private final byte[] nameBytes;
+  private final int[] nameOffsets;
+
+  private SuggestSnapshot(byte[] keyBytes, int[] keyOffsets, int[] entryIds,
+                          int[] patientIds, byte[] nameBytes, int[] nameOffsets) {
+    this.keyBytes = keyBytes;
+    this.keyOffsets = keyOffsets;
+    this.entryIds = entryIds;
+    this.patientIds = patientIds;
+    this.nameBytes = nameBytes;
+    this.nameOffsets = nameOffsets;
+  }
+
+  int patientCount() {
+    return patientIds.length;
+  }
+
+  void scan(String prefix, IntPredicate accept, int max, List<SuggestCandidate> candidates) {
+    byte[] prefixBytes = prefix.getBytes(StandardCharsets.US_ASCII);
+    int found = 0;
+
+    for (int entry = lowerBound(prefixBytes); entry < entryIds.length && found < max; entry++) {
+      if (!startsWith(entry, prefixBytes)) {
+        break;
+      }
+      if (accept.test(entryIds[entry])) {
+        candidates.add(new SuggestCandidate(key(entry), entryIds[entry]));
+        found++;
+      }
+    }
+  }
+
+  String[] names(int patientId) {
+    int index = Arrays.binarySearch(patientIds, patientId);
+    if (index < 0) {
+      return null;
+    }
+    return new String[]{name(2 * index), name(2 * index + 1)};
+  }
+
+  void forEachPatient(IntPredicate accept, Consumer<SuggestRow> consumer) {
+    for (int index = 0; index < patientIds.length; index++) {
+      if (accept.test(patientIds[index])) {
+        consumer.accept(new SuggestRow(patientIds[index], name(2 * index), name(2 * index + 1)));
+      }
+    }
+  }
+
+  private int lowerBound(byte[] prefix) {
+    int low = 0;
+    int high = entryIds.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (compareKey(middle, prefix) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private int compareKey(int entry, byte[] other) {
+    int from = keyOffsets[entry];
+    return Arrays.compare(keyBytes, from, keyOffsets[entry + 1], other, 0, other.length);
+  }
+
+  private boolean startsWith(int entry, byte[] prefix) {
+    int from = keyOffsets[entry];
+    int length = keyOffsets[entry + 1] - from;
+    return length >= prefix.length && Arrays.equals(keyBytes, from, from + prefix.length, prefix, 0, prefix.length);
+  }
+
+  private String key(int entry) {
+    return new String(keyBytes, keyOffsets[entry], keyOffsets[entry + 1] - keyOffsets[entry], StandardCharsets.US_ASCII);
+  }
+
+  private String name(int slot) {
+    return new String(nameBytes, nameOffsets[slot], nameOffsets[slot + 1] - nameOffsets[slot], StandardCharsets.UTF_8);
+  }
+
+  static final class Builder {
+
+    private final List<SuggestRow> rows = new ArrayList<>();
+
+    Builder add(SuggestRow row) {
+      rows.add(row);
+      return this;
+    }
+
+    SuggestSnapshot build() {
+      rows.sort(Comparator.comparingInt(SuggestRow::getId));
+
+      int[] patientIds = new int[rows.size()];
+      byte[][] names = new byte[2 * rows.size()][];
+      List<SuggestCandidate> entries = new ArrayList<>(2 * rows.size());
+      for (int index = 0; index < rows.size(); index++) {
+        SuggestRow row = rows.get(index);
+        patientIds[index] = row.getId();
+        names[2 * index] = bytes(row.getLastName());
+        names[2 * index + 1] = bytes(row.getFirstName());
+        addEntry(entries, row.getLastName(), row.getId());
+        addEntry(entries, row.getFirstName(), row.getId());
+      }
+      entries.sort(SuggestCandidate.ORDER);
+
+      byte[][] keys = new byte[entries.size()][];
+      int[] entryIds = new int[entries.size()];
+      for (int entry = 0; entry < entries.size(); entry++) {
+        keys[entry] = entries.get(entry).getKey().getBytes(StandardCharsets.US_ASCII);
+        entryIds[entry] = entries.get(entry).getId();
+      }
+
+      int[] keyOffsets = new int[keys.length + 1];
+      int[] nameOffsets = new int[names.length + 1];
+      return new SuggestSnapshot(pack(keys, keyOffsets), keyOffsets, entryIds,
+          patientIds, pack(names, nameOffsets), nameOffsets);
+    }
+
+    private static void addEntry(List<SuggestCandidate> entries, String name, int id) {
+      String key = NameNormalizer.normalize(name);
+      if (key != null && !key.isEmpty()) {
+        entries.add(new SuggestCandidate(key, id));
+      }
+    }
+
+    private static byte[] bytes(String name) {
+      return name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] pack(byte[][] values, int[] offsets) {
+      int length = 0;
+      for (int index = 0; index < values.length; index++) {
+        offsets[index] = length;
+        length += values[index].length;
+      }
+      offsets[values.length] = length;
+
+      byte[] packed = new byte[length];
+      for (int index = 0; index < values.length; index++) {
+        System.arraycopy(values[index], 0, packed, offsets[index], values[index].length);
+      }
+      return packed;
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package com.mediscreen.patientmicroservice.wire;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.model.PatientBatch;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Protocol buffers encoding of the messages in proto/patient.proto, written against the wire format
+ * directly so the build needs no protoc step.
+ */
+public final class PatientProtobufCodec {
+
+  private static final int ID = 1;
+  private static final int FIRST_NAME = 2;
+  private static final int LAST_NAME = 3;
+  private static final int DATE_OF_BIRTH = 4;
+  private static final int GENDER = 5;
+  private static final int ADDRESS = 6;
+  private static final int PHONE = 7;
+
+  private static final int PATIENTS = 1;
+  private static final int MISSING_IDS = 2;
+
+  private PatientProtobufCodec() {
+  }
+
+  public static void writePatient(Patient patient, CodedOutputStream output) throws IOException {
+    if (patient.getId() != null) {
+      output.writeInt32(ID, patient.getId());
+    }
+    writeString(output, FIRST_NAME, patient.getFirstName());
+    writeString(output, LAST_NAME, patient.getLastName());
+    if (patient.getDateOfBirth() != null) {
+      output.writeSInt32(DATE_OF_BIRTH, Math.toIntExact(patient.getDateOfBirth().toEpochDay()));
+    }
+    writeString(output, GENDER, patient.getGender());
+    writeString(output, ADDRESS, patient.getAddress());
+    writeString(output, PHONE, patient.getPhone());
+  }
+
+  public static void writePatients(Collection<Patient> patients, CodedOutputStream output) throws IOException {
+    for (Patient patient : patients) {
+      output.writeTag(PATIENTS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+      output.writeUInt32NoTag(patientSize(patient));
+      writePatient(patient, output);
+    }
+  }
+
+  public static void writeBatch(PatientBatch batch, CodedOutputStream output) throws IOException {
+    writePatients(batch.getPatients(), output);
+    if (!batch.getMissingIds().isEmpty()) {
+      int size = 0;
+      for (Integer id : batch.getMissingIds()) {
+        size += CodedOutputStream.computeInt32SizeNoTag(id);
+      }
+      output.writeTag(MISSING_IDS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+      output.writeUInt32NoTag(size);
+      for (Integer id : batch.getMissingIds()) {
+        output.writeInt32NoTag(id);
+      }
+    }
+  }
+
+  public static Patient readPatient(CodedInputStream input) throws IOException {
+    PatientBuilder patient = new PatientBuilder();
+    int tag;
+    while ((tag = input.readTag()) != 0) {
+      switch (WireFormat.getTagFieldNumber(tag)) {
+        case ID:
+          patient.id(input.readInt32());
+          break;
+        case FIRST_NAME:
+          patient.firstName(input.readStringRequireUtf8());
+          break;
+        case LAST_NAME:
+          patient.lastName(input.readStringRequireUtf8());
+          break;
+        case DATE_OF_BIRTH:
+          patient.dateOfBirth(LocalDate.ofEpochDay(input.readSInt32()));
+          break;
+        case GENDER:
+          patient.gender(input.readStringRequireUtf8());
+          break;
+        case ADDRESS:
+          patient.address(input.readStringRequireUtf8());
+          break;
+        case PHONE:
+          patient.phone(input.readStringRequireUtf8());
+          break;
+        default:
+          input.skipField(tag);
+      }
+    }
+    return patient.build();
+  }
+
+  public static List<Patient> readPatients(CodedInputStream input) throws IOException {
+    return readBatch(input).getPatients();
+  }
+
+  public static PatientBatch readBatch(CodedInputStream input) throws IOException {
+    List<Patient> patients = new ArrayList<>();
+    List<Integer> missingIds = new ArrayList<>();
+    int tag;
+    while ((tag = input.readTag()) != 0) {
+      int field = WireFormat.getTagFieldNumber(tag);
+      if (field == PATIENTS) {
+        int limit = input.pushLimit(input.readRawVarint32());
+        patients.add(readPatient(input));
+        input.popLimit(limit);
+      } else if (field == MISSING_IDS && WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+        int limit = input.pushLimit(input.readRawVarint32());
+        while (input.getBytesUntilLimit() > 0) {
+          missingIds.add(input.readInt32());
+        }
+        input.popLimit(limit);
+      } else if (field == MISSING_IDS) {
+        missingIds.add(input.readInt32());
+      } else {
+        input.skipField(tag);
+      }
+    }
+    return new PatientBatch(patients, missingIds);
+  }
+
+  private static int patientSize(Patient patient) {
+    int size = 0;
+    if (patient.getId() != null) {
+      size += CodedOutputStream.computeInt32Size(ID, patient.getId());
+    }
+    size += stringSize(FIRST_NAME, patient.getFirstName());
+    size += stringSize(LAST_NAME, patient.getLastName());
+    if (patient.getDateOfBirth() != null) {
+      size += CodedOutputStream.computeSInt32Size(DATE_OF_BIRTH, Math.toIntExact(patient.getDateOfBirth().toEpochDay()));
+    }
+    size += stringSize(GENDER, patient.getGender());
+    size += stringSize(ADDRESS, patient.getAddress());
+    size += stringSize(PHONE, patient.getPhone());
+    return size;
+  }
+
+  private static void writeString(CodedOutputStream output, int field, String value) throws IOException {
+    if (value != null) {
+      output.writeString(field, value);
+    }
+  }
+
+  private static int stringSize(int field, String value) {
+    return value == null ? 0 : CodedOutputStream.computeStringSize(field, value);
+  }
+}
@@ -0,0 +1,104 @@
+package com.mediscreen.patientmicroservice.wire;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.PatientBatch;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reads and writes Patient, PatientBatch and collections of Patient as application/x-protobuf.
+ */
+public class PatientProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+  public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+  public static final MediaType APPLICATION_PROTOBUF = MediaType.valueOf(APPLICATION_PROTOBUF_VALUE);
+
+  public PatientProtobufHttpMessageConverter() {
+    super(APPLICATION_PROTOBUF);
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return Patient.class == clazz || PatientBatch.class == clazz;
+  }
+
+  @Override
+  public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+    return (supports(ResolvableType.forType(type)) && canRead(mediaType));
+  }
+
+  @Override
+  public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+    ResolvableType resolved = type == null ? ResolvableType.forClass(clazz) : ResolvableType.forType(type);
+    return supports(resolved) && canWrite(mediaType);
+  }
+
+  @Override
+  public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+    // collections are only told apart by their generic type, which canWrite(Type, ...) has already checked
+    return Collection.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : super.getSupportedMediaTypes(clazz);
+  }
+
+  @Override
+  protected void writeInternal(Object body, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+    CodedOutputStream output = CodedOutputStream.newInstance(outputMessage.getBody());
+    if (body instanceof Patient) {
+      PatientProtobufCodec.writePatient((Patient) body, output);
+    } else if (body instanceof PatientBatch) {
+      PatientProtobufCodec.writeBatch((PatientBatch) body, output);
+    } else {
+      @SuppressWarnings("unchecked")
+      Collection<Patient> patients = (Collection<Patient>) body;
+      PatientProtobufCodec.writePatients(patients, output);
+    }
+    output.flush();
+  }
+
+  @Override
+  protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+    return read(ResolvableType.forClass(clazz), inputMessage);
+  }
+
+  @Override
+  public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+    return read(ResolvableType.forType(type), inputMessage);
+  }
+
+  private Object read(ResolvableType type, HttpInputMessage inputMessage) throws IOException {
+    CodedInputStream input = CodedInputStream.newInstance(inputMessage.getBody());
+    try {
+      if (type.resolve() == Patient.class) {
+        return PatientProtobufCodec.readPatient(input);
+      }
+      if (type.resolve() == PatientBatch.class) {
+        return PatientProtobufCodec.readBatch(input);
+      }
+      return PatientProtobufCodec.readPatients(input);
+    } catch (IOException e) {
+      throw new HttpMessageNotReadableException("Invalid protobuf patient payload: " + e.getMessage(), e, inputMessage);
+    }
+  }
+
+  private boolean supports(ResolvableType type) {
+    Class<?> clazz = type.resolve();
+    if (clazz == null) {
+      return false;
+    }
+    if (Collection.class.isAssignableFrom(clazz)) {
+      return type.asCollection().resolveGeneric(0) == Patient.class;
+    }
+    return supports(clazz);
+  }
+}
@@ -1,12 +1,14 @@
-insert into patient (last_name,first_name,date_of_birth,gender,address,phone)
+insert into patient (id,last_name,first_name,date_of_birth,gender,address,phone,last_name_key,first_name_key,version)
 values
-('Ferguson','Lucas','1968-06-22','M','2 Warren Street','387-866-1399'),
-('Rees','Pippa','1952-09-27','F','745 West Valley Farms Drive','628-423-0993'),
-('Arnold' ,'Edward' ,'1952-11-11','M' ,'599 East Garden Ave' ,'123-727-2779'),
-('Sharp' ,'Anthony','1946-11-26','M','894 Hall Street','451-761-8383'),
-('Ince' ,'Wendy' ,'1958-06-29','F' ,'4 Southampton Road' ,'802-911-9975'),
-('Ross','Tracey','1949-12-07','F','40 Sulphur Springs Dr','131-396-5049'),
-('Wilson','Claire','1966-12-31','F' ,'12 Cobblestone St' ,'300-452-1091'),
-('Buckland' ,'Max' ,'1945-06-24','M' ,'193 Vale St' ,'833-534-0864'),
-('Clark' ,'Natalie' ,'1964-06-18','F','12 Beechwood Road','241-467-9197'),
-('Bailey' ,'Piers' ,'1959-06-28','M' ,'1202 Bumble Dr' ,'747-815-0557');
\ No newline at end of file
+(1,'Ferguson','Lucas','1968-06-22','M','2 Warren Street','387-866-1399','ferguson','lucas',0),
+(2,'Rees','Pippa','1952-09-27','F','745 West Valley Farms Drive','628-423-0993','rees','pippa',0),
+(3,'Arnold' ,'Edward' ,'1952-11-11','M' ,'599 East Garden Ave' ,'123-727-2779','arnold','edward',0),
+(4,'Sharp' ,'Anthony','1946-11-26','M','894 Hall Street','451-761-8383','sharp','anthony',0),
+(5,'Ince' ,'Wendy' ,'1958-06-29','F' ,'4 Southampton Road' ,'802-911-9975','ince','wendy',0),
+(6,'Ross','Tracey','1949-12-07','F','40 Sulphur Springs Dr','131-396-5049','ross','tracey',0),
+(7,'Wilson','Claire','1966-12-31','F' ,'12 Cobblestone St' ,'300-452-1091','wilson','claire',0),
+(8,'Buckland' ,'Max' ,'1945-06-24','M' ,'193 Vale St' ,'833-534-0864','buckland','max',0),
+(9,'Clark' ,'Natalie' ,'1964-06-18','F','12 Beechwood Road','241-467-9197','clark','natalie',0),
+(10,'Bailey' ,'Piers' ,'1959-06-28','M' ,'1202 Bumble Dr' ,'747-815-0557','bailey','piers',0);
+
+select setval('patient_id_seq', (select max(id) from patient) + 50);
\ No newline at end of file
@@ -0,0 +1,26 @@
+-- Change log behind GET /patientAPI/patients/changes and the positions of its registered consumers.
+create table if not exists patient_change (
+    id bigint generated by default as identity primary key,
+    patient_id integer not null,
+    type varchar(16) not null,
+    changed_at timestamp not null
+);
+
+create table if not exists patient_change_consumer (
+    name varchar(255) primary key,
+    position bigint not null,
+    updated_at timestamp not null
+);
+
+-- Locked by every transaction logging changes until it commits, so ids are taken in commit order.
+create table if not exists patient_change_lock (
+    id integer primary key
+);
+
+insert into patient_change_lock (id) values (1) on conflict do nothing;
+
+-- Highest change id compaction removed, a consumer resuming below it is asked to reload.
+create table if not exists patient_change_horizon (
+    id integer primary key,
+    compacted_up_to bigint not null
+);
@@ -0,0 +1,8 @@
+-- Moves patient ids to the pooled patient_id_seq of Patient, which reserves allocationSize ids per call:
+-- a sequence still incrementing by 1 would hand out overlapping ranges and fail inserts on duplicate ids.
+create sequence if not exists patient_id_seq;
+
+alter sequence patient_id_seq increment by 50;
+
+-- the next call returns at least max(id) + 50, whose range starts past the ids already used
+select setval('patient_id_seq', (select coalesce(max(id), 1) from patient));
@@ -0,0 +1,10 @@
+-- Responses of POST /patientAPI/patients made with an Idempotency-Key, purged after patient.idempotency.ttl.
+create table if not exists patient_idempotency_key (
+    idempotency_key varchar(255) primary key,
+    fingerprint varchar(64) not null,
+    patient_id integer not null,
+    response varchar(4000) not null,
+    created_at timestamp not null
+);
+
+create index if not exists idx_patient_idempotency_key_created_at on patient_idempotency_key (created_at);
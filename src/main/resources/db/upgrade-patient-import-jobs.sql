@@ -0,0 +1,32 @@
+-- Import jobs of POST /patientAPI/jobs with their checkpoint, and the first patient.import.jobs.max-errors
+-- rows each job rejected.
+create table if not exists patient_import_job (
+    id varchar(36) primary key,
+    format varchar(8) not null,
+    status varchar(16) not null,
+    file varchar(1000) not null,
+    rows_read bigint not null,
+    checkpoint_offset bigint not null,
+    created_count bigint not null,
+    invalid_count bigint not null,
+    failed_count bigint not null,
+    elapsed_millis bigint not null,
+    owner varchar(36),
+    heartbeat_at timestamp,
+    created_at timestamp not null,
+    started_at timestamp,
+    finished_at timestamp,
+    message varchar(1000)
+);
+
+create index if not exists idx_patient_import_job_status on patient_import_job (status, heartbeat_at);
+
+create table if not exists patient_import_job_error (
+    id bigint generated by default as identity primary key,
+    job_id varchar(36) not null,
+    row_index integer not null,
+    status varchar(16) not null,
+    message varchar(1000)
+);
+
+create index if not exists idx_patient_import_job_error_job on patient_import_job_error (job_id, row_index);
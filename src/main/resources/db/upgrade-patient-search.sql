@@ -0,0 +1,15 @@
+-- Adds the normalized name keys and the search indexes to an existing patient table.
+-- New and updated rows get their keys from Patient, this only backfills the rows already there.
+create extension if not exists unaccent;
+
+alter table patient add column if not exists last_name_key varchar(255);
+alter table patient add column if not exists first_name_key varchar(255);
+
+update patient
+set last_name_key = regexp_replace(lower(unaccent(last_name)), '[^a-z0-9]', '', 'g'),
+    first_name_key = regexp_replace(lower(unaccent(first_name)), '[^a-z0-9]', '', 'g')
+where last_name_key is null or first_name_key is null;
+
+create index if not exists idx_patient_last_name_key on patient (last_name_key, first_name_key);
+create index if not exists idx_patient_first_name_key on patient (first_name_key);
+create index if not exists idx_patient_date_of_birth on patient (date_of_birth);
@@ -0,0 +1,2 @@
+-- Adds the optimistic locking version used for ETags and If-Match to an existing patient table.
+alter table patient add column if not exists version bigint not null default 0;
@@ -0,0 +1,151 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.limit.AdaptiveConcurrencyLimiter;
+import com.mediscreen.patientmicroservice.limit.AdaptiveConcurrencyLimiter.Permit;
+import com.mediscreen.patientmicroservice.limit.AdaptiveConcurrencyLimiter.Priority;
+import com.mediscreen.patientmicroservice.limit.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+  private final AdaptiveConcurrencyLimiter classUnderTest= new AdaptiveConcurrencyLimiter(8, 2, 100, 0.5);
+
+  @Test
+  void givenBulkRequestsAtTheirShareWhenMoreArriveThenOnlyCriticalOnesAreAdmitted() {
+    //Given
+    List<Permit> permits= new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      permits.add(classUnderTest.tryAcquire(Priority.BULK));
+    }
+
+    //When
+    Permit bulk= classUnderTest.tryAcquire(Priority.BULK);
+    Permit critical= classUnderTest.tryAcquire(Priority.CRITICAL);
+
+    //Then
+    assertThat(permits).doesNotContainNull();
+    assertThat(bulk).isNull();
+    assertThat(critical).isNotNull();
+    assertThat(classUnderTest.getRejected(Priority.BULK)).isEqualTo(1);
+    assertThat(classUnderTest.getRejected(Priority.CRITICAL)).isZero();
+  }
+
+  @Test
+  void givenTheLimitReachedWhenCriticalRequestArrivesThenItIsRejectedUntilAPermitIsReleased() {
+    //Given
+    List<Permit> permits= new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      permits.add(classUnderTest.tryAcquire(Priority.CRITICAL));
+    }
+
+    //When
+    Permit rejected= classUnderTest.tryAcquire(Priority.CRITICAL);
+    permits.get(0).ignore();
+    permits.get(0).ignore();
+    Permit admitted= classUnderTest.tryAcquire(Priority.CRITICAL);
+
+    //Then
+    assertThat(rejected).isNull();
+    assertThat(admitted).isNotNull();
+    assertThat(classUnderTest.getInflight()).isEqualTo(8);
+  }
+
+  @Test
+  void givenSteadyLatencyAtFullConcurrencyWhenSampledThenTheLimitGrows() {
+    //When
+    runAtLimit(20, Duration.ofMillis(1));
+
+    //Then
+    assertThat(classUnderTest.getLimit()).isGreaterThan(8);
+  }
+
+  @Test
+  void givenLatencyRisingWhenSampledThenTheLimitShrinks() {
+    //Given
+    runAtLimit(30, Duration.ofMillis(1));
+    int grownLimit= classUnderTest.getLimit();
+
+    //When
+    runAtLimit(30, Duration.ofMillis(10));
+
+    //Then
+    assertThat(classUnderTest.getLimit()).isLessThan(grownLimit);
+  }
+
+  @Test
+  void givenServerErrorsWhenDroppedThenTheLimitBacksOffDownToTheMinimum() {
+    //When
+    for (int i = 0; i < 50; i++) {
+      classUnderTest.tryAcquire(Priority.CRITICAL).dropped();
+    }
+
+    //Then
+    assertThat(classUnderTest.getLimit()).isEqualTo(2);
+  }
+
+  @Test
+  void givenAMeterRegistryWhenBoundThenLimitAndShedCountsAreExposed() {
+    //Given
+    SimpleMeterRegistry registry= new SimpleMeterRegistry();
+    classUnderTest.bindTo(registry);
+    for (int i = 0; i < 5; i++) {
+      classUnderTest.tryAcquire(Priority.BULK);
+    }
+
+    //Then
+    assertThat(registry.get("patient.limiter.limit").gauge().value()).isEqualTo(8);
+    assertThat(registry.get("patient.limiter.inflight").gauge().value()).isEqualTo(4);
+    assertThat(registry.get("patient.limiter.rejected").tag("priority","bulk").functionCounter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void givenTheLimitReachedWhenFilteredThenRequestShedWith503AndRetryAfter() throws Exception {
+    //Given
+    ConcurrencyLimitFilter filter= new ConcurrencyLimitFilter(classUnderTest, Duration.ofSeconds(2));
+    for (int i = 0; i < 4; i++) {
+      classUnderTest.tryAcquire(Priority.BULK);
+    }
+    MockHttpServletResponse listResponse= new MockHttpServletResponse();
+    MockHttpServletResponse readResponse= new MockHttpServletResponse();
+    MockFilterChain listChain= new MockFilterChain();
+    MockFilterChain readChain= new MockFilterChain();
+
+    //When
+    filter.doFilter(new MockHttpServletRequest("GET","/patientAPI/patients"), listResponse, listChain);
+    filter.doFilter(new MockHttpServletRequest("GET","/patientAPI/patients/3"), readResponse, readChain);
+
+    //Then
+    assertThat(listResponse.getStatus()).isEqualTo(503);
+    assertThat(listResponse.getHeader("Retry-After")).isEqualTo("2");
+    assertThat(listChain.getRequest()).isNull();
+    assertThat(readResponse.getStatus()).isEqualTo(200);
+    assertThat(readChain.getRequest()).isNotNull();
+    assertThat(classUnderTest.getInflight()).isEqualTo(4);
+  }
+
+  /**
+   * Rounds of requests filling the current limit, each taking the given latency.
+   */
+  private void runAtLimit(int rounds, Duration latency) {
+    for (int round = 0; round < rounds; round++) {
+      List<Permit> permits= new ArrayList<>();
+      Permit permit;
+      while ((permit= classUnderTest.tryAcquire(Priority.CRITICAL)) != null) {
+        permits.add(permit);
+      }
+      LockSupport.parkNanos(latency.toNanos());
+      permits.forEach(Permit::success);
+    }
+  }
+}
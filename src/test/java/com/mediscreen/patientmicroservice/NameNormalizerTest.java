@@ -0,0 +1,25 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.util.NameNormalizer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class NameNormalizerTest {
+
+  @Test
+  void givenANameWithAccentsCaseAndPunctuationWhenNormalizeThenReturnLowerCaseAlphanumericKey() {
+    assertThat(NameNormalizer.normalize("Jean-Édouard O'Brien")).isEqualTo("jeanedouardobrien");
+    assertThat(NameNormalizer.normalize("Straße Æsir")).isEqualTo("strasseaesir");
+    assertNull(NameNormalizer.normalize(null));
+  }
+
+  @Test
+  void givenAPrefixWhenPrefixUpperBoundThenReturnSmallestKeyAfterAllKeysWithThatPrefix() {
+    assertThat(NameNormalizer.prefixUpperBound("fer")).isEqualTo("fes");
+    assertThat(NameNormalizer.prefixUpperBound("a9")).isEqualTo("aa");
+    assertThat(NameNormalizer.prefixUpperBound("fz")).isEqualTo("g");
+    assertNull(NameNormalizer.prefixUpperBound("zz"));
+  }
+}
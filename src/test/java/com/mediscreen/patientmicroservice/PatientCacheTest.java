@@ -0,0 +1,294 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.cache.PatientCache;
+import com.mediscreen.patientmicroservice.datasource.ReadYourWritesFilter;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.Cookie;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PatientCacheTest {
+
+  private final PatientCache classUnderTest= new PatientCache(2, Duration.ofMinutes(1));
+
+  private final AtomicInteger loads= new AtomicInteger();
+
+  private final ExecutorService executor= Executors.newFixedThreadPool(8);
+
+  @AfterEach
+  void shutdownExecutor() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void givenAPatientLoadedOnceWhenGetThenLoaderIsNotCalledAgain() {
+    //Given
+    classUnderTest.get(1,this::load);
+
+    //When
+    Optional<Patient> actual= classUnderTest.get(1,this::load);
+
+    //Then
+    assertThat(actual.get().getId()).isEqualTo(1);
+    assertThat(loads.get()).isEqualTo(1);
+    assertThat(classUnderTest.stats().hitCount()).isEqualTo(1);
+    assertThat(classUnderTest.stats().missCount()).isEqualTo(1);
+  }
+
+  @Test
+  void givenAnUnknownPatientWhenGetThenAbsenceIsNotCached() {
+    //Given
+    classUnderTest.get(1,id -> Optional.empty());
+
+    //When
+    Optional<Patient> actual= classUnderTest.get(1,this::load);
+
+    //Then
+    assertThat(actual).isPresent();
+    assertThat(loads.get()).isEqualTo(1);
+  }
+
+  @Test
+  void givenMorePatientsThanTheMaximumSizeWhenGetThenCacheStaysBounded() {
+    //Given
+    for (int id = 1; id <= 10; id++) {
+      classUnderTest.get(id,this::load);
+    }
+
+    //When
+    long actual= classUnderTest.size();
+
+    //Then
+    assertThat(actual).isLessThanOrEqualTo(2);
+    assertThat(classUnderTest.stats().evictionCount()).isPositive();
+  }
+
+  @Test
+  void givenAPatientCachedWhenEvictThenNextGetLoadsItAgain() {
+    //Given
+    classUnderTest.get(1,this::load);
+
+    //When
+    classUnderTest.evict(1);
+
+    //Then
+    assertThat(classUnderTest.size()).isZero();
+    assertTrue(classUnderTest.get(1,this::load).isPresent());
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  void givenConcurrentReadsOfAnUncachedPatientWhenGetThenOneLoadIsShared() throws Exception {
+    //Given
+    CountDownLatch release= new CountDownLatch(1);
+    List<Future<Optional<Patient>>> reads= new ArrayList<>();
+
+    //When
+    for (int i = 0; i < 8; i++) {
+      reads.add(executor.submit(() -> classUnderTest.get(1,blockingLoad(release))));
+    }
+    awaitCollapsedLoads(7);
+    release.countDown();
+
+    //Then
+    for (Future<Optional<Patient>> read : reads) {
+      assertThat(read.get(5,TimeUnit.SECONDS).get().getId()).isEqualTo(1);
+    }
+    assertThat(loads.get()).isEqualTo(1);
+    assertThat(classUnderTest.loadCount()).isEqualTo(1);
+    assertThat(classUnderTest.collapsedLoadCount()).isEqualTo(7);
+  }
+
+  @Test
+  void givenASharedLoadFailingWhenGetThenEveryWaitingReaderGetsTheError() throws Exception {
+    //Given
+    CountDownLatch release= new CountDownLatch(1);
+    IntFunction<Optional<Patient>> failingLoad= id -> {
+      await(release);
+      loads.incrementAndGet();
+      throw new IllegalStateException("database down");
+    };
+    List<Future<Optional<Patient>>> reads= new ArrayList<>();
+
+    //When
+    for (int i = 0; i < 4; i++) {
+      reads.add(executor.submit(() -> classUnderTest.get(1,failingLoad)));
+    }
+    awaitCollapsedLoads(3);
+    release.countDown();
+
+    //Then
+    for (Future<Optional<Patient>> read : reads) {
+      assertThatThrownBy(() -> read.get(5,TimeUnit.SECONDS))
+          .isInstanceOf(ExecutionException.class)
+          .hasCauseInstanceOf(IllegalStateException.class)
+          .hasRootCauseMessage("database down");
+    }
+    assertThat(loads.get()).isEqualTo(1);
+    assertThat(classUnderTest.get(1,this::load)).isPresent();
+  }
+
+  @Test
+  void givenABatchLoadRunningWhenEvictThenLaterReadersStartANewLoad() throws Exception {
+    //Given
+    CountDownLatch release= new CountDownLatch(1);
+    IntFunction<Optional<Patient>> blockingLoad= blockingLoad(release);
+    Future<Map<Integer, Patient>> staleRead= executor.submit(() -> classUnderTest.getAll(List.of(1),
+        ids -> List.of(blockingLoad.apply(1).get())));
+    awaitLoads(1);
+
+    //When
+    classUnderTest.evict(1);
+    Optional<Patient> freshRead= executor.submit(() -> classUnderTest.get(1,this::load)).get(5,TimeUnit.SECONDS);
+    release.countDown();
+
+    //Then
+    assertThat(freshRead).isPresent();
+    assertThat(staleRead.get(5,TimeUnit.SECONDS)).containsOnlyKeys(1);
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(classUnderTest.collapsedLoadCount()).isZero();
+  }
+
+  @Test
+  void givenABatchLoadRunningWhenEvictThenTheBatchResultIsNotLeftInTheCache() throws Exception {
+    //Given
+    CountDownLatch release= new CountDownLatch(1);
+    IntFunction<Optional<Patient>> blockingLoad= blockingLoad(release);
+    Future<Map<Integer, Patient>> staleRead= executor.submit(() -> classUnderTest.getAll(List.of(1),
+        ids -> List.of(blockingLoad.apply(1).get())));
+    awaitLoads(1);
+
+    //When
+    classUnderTest.evict(1);
+    release.countDown();
+    staleRead.get(5,TimeUnit.SECONDS);
+
+    //Then
+    assertThat(classUnderTest.getIfPresent(1)).isEmpty();
+  }
+
+  @Test
+  void givenABatchLoadEndingAfterAnEvictionWhenGetThenTheNewerLoadIsStillShared() throws Exception {
+    //Given
+    CountDownLatch releaseBatch= new CountDownLatch(1);
+    CountDownLatch releaseReload= new CountDownLatch(1);
+    IntFunction<Optional<Patient>> batchLoad= blockingLoad(releaseBatch);
+    Future<Map<Integer, Patient>> batch= executor.submit(() -> classUnderTest.getAll(List.of(1),
+        ids -> List.of(batchLoad.apply(1).get())));
+    awaitLoads(1);
+    classUnderTest.evict(1);
+    Future<Optional<Patient>> reload= executor.submit(() -> classUnderTest.get(1,blockingLoad(releaseReload)));
+    awaitLoads(2);
+    releaseBatch.countDown();
+    batch.get(5,TimeUnit.SECONDS);
+
+    //When
+    Future<Optional<Patient>> read= executor.submit(() -> classUnderTest.get(1,this::load));
+    awaitCollapsedLoads(1);
+    releaseReload.countDown();
+
+    //Then
+    assertThat(read.get(5,TimeUnit.SECONDS)).isPresent();
+    assertThat(reload.get(5,TimeUnit.SECONDS)).isPresent();
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(classUnderTest.collapsedLoadCount()).isEqualTo(1);
+  }
+
+  @Test
+  void givenAPatientLoadingWhenGetAllThenTheBatchJoinsItAndLoadsOnlyTheOthers() throws Exception {
+    //Given
+    CountDownLatch release= new CountDownLatch(1);
+    Future<Optional<Patient>> read= executor.submit(() -> classUnderTest.get(1,blockingLoad(release)));
+    awaitLoads(1);
+    List<Integer> batchIds= new ArrayList<>();
+
+    //When
+    Future<Map<Integer, Patient>> batch= executor.submit(() -> classUnderTest.getAll(List.of(1,2), ids -> {
+      batchIds.addAll(ids);
+      return List.of(load(2).get());
+    }));
+    awaitCollapsedLoads(1);
+    release.countDown();
+
+    //Then
+    assertThat(batch.get(5,TimeUnit.SECONDS)).containsOnlyKeys(1,2);
+    assertThat(read.get(5,TimeUnit.SECONDS)).isPresent();
+    assertThat(batchIds).containsExactly(2);
+  }
+
+  @Test
+  void givenAClientPinnedToThePrimaryWhenGetThenTheCachedPatientIsSkipped() throws Exception {
+    //Given
+    classUnderTest.get(1,this::load);
+    MockHttpServletRequest request= new MockHttpServletRequest("GET", "/patientAPI/patients/1");
+    request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME,
+        String.valueOf(System.currentTimeMillis() + 60_000)));
+    List<Optional<Patient>> actual= new ArrayList<>();
+
+    //When
+    new ReadYourWritesFilter(Duration.ofSeconds(5)).doFilter(request, new MockHttpServletResponse(),
+        (pinnedRequest, pinnedResponse) -> actual.add(classUnderTest.get(1,this::load)));
+
+    //Then
+    assertThat(actual.get(0)).isPresent();
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(classUnderTest.stats().hitCount()).isZero();
+  }
+
+  /**
+   * A loader counting its call at once, then holding the load until released.
+   */
+  private IntFunction<Optional<Patient>> blockingLoad(CountDownLatch release) {
+    return id -> {
+      Optional<Patient> patient= load(id);
+      await(release);
+      return patient;
+    };
+  }
+
+  private void awaitLoads(int count) throws InterruptedException {
+    while (loads.get() < count) {
+      Thread.sleep(5);
+    }
+  }
+
+  private void awaitCollapsedLoads(long count) throws InterruptedException {
+    while (classUnderTest.collapsedLoadCount() < count) {
+      Thread.sleep(5);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5,TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private Optional<Patient> load(int id) {
+    loads.incrementAndGet();
+    return Optional.of(new PatientBuilder().id(id).firstName("John").lastName("Doe").build());
+  }
+}
@@ -0,0 +1,164 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.event.PatientChangeEvent;
+import com.mediscreen.patientmicroservice.exception.ChangesCompactedException;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.model.PatientChange;
+import com.mediscreen.patientmicroservice.model.PatientChangeConsumer;
+import com.mediscreen.patientmicroservice.model.PatientChangeEntry;
+import com.mediscreen.patientmicroservice.model.PatientChangeFeed;
+import com.mediscreen.patientmicroservice.model.PatientChangeHorizon;
+import com.mediscreen.patientmicroservice.repository.PatientChangeConsumerRepository;
+import com.mediscreen.patientmicroservice.repository.PatientChangeHorizonRepository;
+import com.mediscreen.patientmicroservice.repository.PatientChangeRepository;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.service.PatientChangeFeedService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class PatientChangeFeedServiceTest {
+
+  PatientChangeRepository changeRepository= mock(PatientChangeRepository.class);
+  PatientChangeConsumerRepository consumerRepository= mock(PatientChangeConsumerRepository.class);
+  PatientChangeHorizonRepository horizonRepository= mock(PatientChangeHorizonRepository.class);
+  PatientRepository patientRepository= mock(PatientRepository.class);
+
+  PatientChangeFeedService classUnderTest= new PatientChangeFeedService(changeRepository, consumerRepository,
+      horizonRepository, patientRepository, Duration.ofDays(30));
+
+  Instant settled= Instant.now().minusSeconds(60);
+  Patient patient1= new PatientBuilder().id(1).lastName("Doe").build();
+
+  @Test
+  void givenChangesWhenGetChangesThenReturnEntriesWithCurrentPatientsAndTombstones() {
+    //Given
+    when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(10L),any()))
+        .thenReturn(List.of(change(11,1,PatientChangeEvent.Type.UPDATED,settled),
+            change(12,2,PatientChangeEvent.Type.DELETED,settled)));
+    when(patientRepository.findAllById(Set.of(1))).thenReturn(List.of(patient1));
+
+    //When
+    PatientChangeFeed actual= classUnderTest.getChanges(10,null,null);
+
+    //Then
+    assertThat(actual.getChanges()).extracting(PatientChangeEntry::getId).containsExactly(11L,12L);
+    assertThat(actual.getChanges()).extracting(PatientChangeEntry::getPatient).containsExactly(patient1,null);
+    assertThat(actual.getNext()).isEqualTo(12);
+    assertThat(actual.isHasMore()).isFalse();
+  }
+
+  @Test
+  void givenMoreChangesThanTheLimitWhenGetChangesThenReturnOnePageAndHasMore() {
+    //Given
+    when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(0L),any()))
+        .thenReturn(List.of(change(1,9,PatientChangeEvent.Type.DELETED,settled),
+            change(2,9,PatientChangeEvent.Type.DELETED,settled)));
+
+    //When
+    PatientChangeFeed actual= classUnderTest.getChanges(0,1,null);
+
+    //Then
+    assertThat(actual.getChanges()).extracting(PatientChangeEntry::getId).containsExactly(1L);
+    assertThat(actual.getNext()).isEqualTo(1);
+    assertThat(actual.isHasMore()).isTrue();
+  }
+
+  @Test
+  void givenAJustCommittedChangeWhenGetChangesThenReturnedWithoutWaiting() {
+    //Given
+    when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(0L),any()))
+        .thenReturn(List.of(change(1,9,PatientChangeEvent.Type.DELETED,settled),
+            change(3,9,PatientChangeEvent.Type.DELETED,Instant.now())));
+
+    //When
+    PatientChangeFeed actual= classUnderTest.getChanges(0,10,null);
+
+    //Then
+    assertThat(actual.getChanges()).extracting(PatientChangeEntry::getId).containsExactly(1L,3L);
+    assertThat(actual.getNext()).isEqualTo(3);
+    assertThat(actual.isHasMore()).isFalse();
+  }
+
+  @Test
+  void givenASinceBelowTheCompactedChangesWhenGetChangesThenAskedToReload() {
+    //Given
+    when(horizonRepository.findById(PatientChangeHorizon.ID)).thenReturn(Optional.of(new PatientChangeHorizon(42)));
+    when(changeRepository.findMaxId()).thenReturn(50L);
+
+    //When
+    Throwable actual= catchThrowable(() -> classUnderTest.getChanges(10,null,"assessment"));
+
+    //Then
+    assertThat(actual).isInstanceOf(ChangesCompactedException.class);
+    assertThat(((ChangesCompactedException) actual).getNext()).isEqualTo(50);
+    verify(changeRepository,never()).findByIdGreaterThanOrderByIdAsc(anyLong(),any());
+  }
+
+  @Test
+  void givenANamedConsumerWhenGetChangesThenPositionIsAcknowledged() {
+    //Given
+    PatientChangeConsumer consumer= new PatientChangeConsumer("assessment");
+    consumer.setPosition(5);
+    when(consumerRepository.findById("assessment")).thenReturn(Optional.of(consumer));
+
+    //When
+    classUnderTest.getChanges(8,null,"assessment");
+
+    //Then
+    ArgumentCaptor<PatientChangeConsumer> saved= ArgumentCaptor.forClass(PatientChangeConsumer.class);
+    verify(consumerRepository).save(saved.capture());
+    assertThat(saved.getValue().getPosition()).isEqualTo(8);
+    assertThat(saved.getValue().getUpdatedAt()).isNotNull();
+  }
+
+  @Test
+  void givenRegisteredConsumersWhenCompactThenDeleteChangesAllOfThemHavePassed() {
+    //Given
+    when(consumerRepository.findMinPosition()).thenReturn(42L);
+    when(changeRepository.deleteUpTo(42L)).thenReturn(7);
+
+    //When
+    int actual= classUnderTest.compact();
+
+    //Then
+    assertThat(actual).isEqualTo(7);
+    verify(consumerRepository).deleteNotSeenSince(any());
+    ArgumentCaptor<PatientChangeHorizon> horizon= ArgumentCaptor.forClass(PatientChangeHorizon.class);
+    verify(horizonRepository).save(horizon.capture());
+    assertThat(horizon.getValue().getCompactedUpTo()).isEqualTo(42);
+  }
+
+  @Test
+  void givenNoRegisteredConsumerWhenCompactThenKeepEveryChange() {
+    //Given
+    when(consumerRepository.findMinPosition()).thenReturn(null);
+
+    //When
+    int actual= classUnderTest.compact();
+
+    //Then
+    assertThat(actual).isZero();
+    verify(changeRepository,never()).deleteUpTo(anyLong());
+  }
+
+  private PatientChange change(long id, int patientId, PatientChangeEvent.Type type, Instant changedAt) {
+    PatientChange change= new PatientChange(patientId,type,changedAt);
+    ReflectionTestUtils.setField(change,"id",id);
+    return change;
+  }
+}
@@ -0,0 +1,130 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.event.PatientChangeEvent;
+import com.mediscreen.patientmicroservice.model.PatientChange;
+import com.mediscreen.patientmicroservice.repository.PatientChangeRepository;
+import com.mediscreen.patientmicroservice.service.PatientChangeLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.sql.init.mode=never"
+})
+@Import(PatientChangeLog.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PatientChangeLogTest {
+
+  @Autowired
+  private PatientChangeLog classUnderTest;
+
+  @Autowired
+  private PatientChangeRepository changeRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @AfterEach
+  void tearDown() {
+    changeRepository.deleteAllInBatch();
+  }
+
+  @Test
+  void givenChangesInATransactionWhenCommitThenChangesAreLoggedInOrder() {
+    //When
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      classUnderTest.onPatientChange(PatientChangeEvent.updated(1,null));
+      classUnderTest.onPatientChange(PatientChangeEvent.deleted(2));
+      assertThat(changeRepository.count()).isZero();
+    });
+
+    //Then
+    List<PatientChange> actual= changeRepository.findAll(Sort.by("id"));
+    assertThat(actual).extracting(PatientChange::getPatientId).containsExactly(1,2);
+    assertThat(actual).extracting(PatientChange::getType)
+        .containsExactly(PatientChangeEvent.Type.UPDATED,PatientChangeEvent.Type.DELETED);
+    assertThat(actual.get(0).getId()).isLessThan(actual.get(1).getId());
+  }
+
+  @Test
+  void givenChangesInATransactionWhenRollbackThenNothingIsLogged() {
+    //When
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      classUnderTest.onPatientChange(PatientChangeEvent.deleted(2));
+      status.setRollbackOnly();
+    });
+
+    //Then
+    assertThat(changeRepository.count()).isZero();
+  }
+
+  @Test
+  void givenNoTransactionWhenPatientChangeThenChangeIsLoggedImmediately() {
+    //When
+    classUnderTest.onPatientChange(PatientChangeEvent.deleted(2));
+
+    //Then
+    assertThat(changeRepository.count()).isEqualTo(1);
+  }
+
+  @Test
+  void givenATransactionCommittingSlowlyWhenAnotherLogsAChangeThenIdsFollowCommitOrder() throws Exception {
+    //Given
+    CountDownLatch locked= new CountDownLatch(1);
+    CountDownLatch release= new CountDownLatch(1);
+    ExecutorService executor= Executors.newFixedThreadPool(2);
+    Future<?> slow= executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+      classUnderTest.onPatientChange(PatientChangeEvent.deleted(1));
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void beforeCommit(boolean readOnly) {
+          locked.countDown();
+          awaitQuietly(release);
+        }
+      });
+    }));
+    locked.await(5, TimeUnit.SECONDS);
+
+    //When
+    Future<?> fast= executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+        classUnderTest.onPatientChange(PatientChangeEvent.deleted(2))));
+    Thread.sleep(200);
+    boolean fastCommittedFirst= fast.isDone();
+    release.countDown();
+    slow.get(5, TimeUnit.SECONDS);
+    fast.get(5, TimeUnit.SECONDS);
+    executor.shutdown();
+
+    //Then
+    assertThat(fastCommittedFirst).isFalse();
+    assertThat(changeRepository.findAll(Sort.by("id"))).extracting(PatientChange::getPatientId).containsExactly(1,2);
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
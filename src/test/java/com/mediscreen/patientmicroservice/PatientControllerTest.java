@@ -1,29 +1,62 @@
 package com.mediscreen.patientmicroservice;
 
+import com.mediscreen.patientmicroservice.cache.PatientResponseCache;
+import com.mediscreen.patientmicroservice.exception.IdempotencyKeyReusedException;
+import com.mediscreen.patientmicroservice.exception.PreconditionFailedException;
 import com.mediscreen.patientmicroservice.model.Patient;
 import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.model.PatientBatch;
+import com.mediscreen.patientmicroservice.model.PatientCreation;
+import com.mediscreen.patientmicroservice.model.PatientDuplicate;
+import com.mediscreen.patientmicroservice.model.PatientPage;
+import com.mediscreen.patientmicroservice.model.PatientSuggestion;
+import com.mediscreen.patientmicroservice.service.PatientDuplicateService;
+import com.mediscreen.patientmicroservice.service.PatientIdempotencyService;
 import com.mediscreen.patientmicroservice.service.PatientService;
+import com.mediscreen.patientmicroservice.service.PatientSuggestService;
+import com.mediscreen.patientmicroservice.controller.PatientController;
+import com.mediscreen.patientmicroservice.wire.PatientProtobufCodec;
+import com.mediscreen.patientmicroservice.wire.PatientProtobufHttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest
+@WebMvcTest(PatientController.class)
 public class PatientControllerTest {
 
   @Autowired
@@ -32,6 +65,24 @@ public class PatientControllerTest {
   @MockBean
   private PatientService service;
 
+  @MockBean
+  private PatientSuggestService suggestService;
+
+  @MockBean
+  private PatientResponseCache responseCache;
+
+  @MockBean
+  private PatientIdempotencyService idempotencyService;
+
+  @MockBean
+  private PatientDuplicateService duplicateService;
+
+  private static final String VALID_UPDATE= "{"+
+      "\"firstName\":\"Johnny\"," +
+      "\"lastName\":\"Clash\"," +
+      "\"dateOfBirth\":\"2022-02-02\"," +
+      "\"gender\":\"F\"}";
+
   Patient patient1= new PatientBuilder()
       .id(1)
       .firstName("John")
@@ -62,7 +113,7 @@ public class PatientControllerTest {
   @Test
   void givenTwoPatientsWhenGetAllThenReturnListOfPatientsWithStatus200() throws Exception {
     //Given
-    when(service.getAllPatient()).thenReturn(List.of(patient1,patient2));
+    when(service.getPatientPage(any(),any())).thenReturn(new PatientPage(List.of(patient1,patient2),null));
 
     //When
     mockMvc.perform(get("/patientAPI/patients"))
@@ -84,19 +135,142 @@ public class PatientControllerTest {
                 "\"gender\":\"F\"," +
                 "\"address\":null," +
                 "\"phone\":null}]"
-        ));
+        ))
+        .andExpect(header().doesNotExist("X-Next-Cursor"));
+  }
+
+  @Test
+  void givenMorePatientsThanTheLimitWhenGetAllPatientsThenReturnFirstPageWithNextCursor() throws Exception {
+    //Given
+    when(service.getPatientPage(eq(null),eq(1))).thenReturn(new PatientPage(List.of(patient1),1));
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients").param("limit","1"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Next-Cursor","1"))
+        .andExpect(content().json("[{\"id\":1,\"firstName\":\"John\"}]"));
+  }
+
+  @Test
+  void givenACursorWhenGetAllPatientsThenReturnPageAfterCursor() throws Exception {
+    //Given
+    when(service.getPatientPage(eq(1),eq(1))).thenReturn(new PatientPage(List.of(patient2),null));
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients").param("after","1").param("limit","1"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("X-Next-Cursor"))
+        .andExpect(content().json("[{\"id\":2,\"firstName\":\"Jane\"}]"));
   }
 
   @Test
   void givenNoPatientWhenGetAllPatientsThenReturnAnEmptyListWithStatus204() throws Exception {
     //Given
-    when(service.getAllPatient()).thenReturn(Collections.emptyList());
+    when(service.getPatientPage(any(),any())).thenReturn(new PatientPage(Collections.emptyList(),null));
 
     //When
     mockMvc.perform(get("/patientAPI/patients"))
         .andExpect(status().isNoContent());
   }
 
+  @Test
+  void givenSearchParametersWhenSearchPatientsThenReturnMatchingPatientsWithTotalCountAndStatus200() throws Exception {
+    //Given
+    when(service.searchPatients(argThat(criteria -> "do".equals(criteria.getLastName())
+            && LocalDate.of(2022,1,1).equals(criteria.getDateOfBirth())
+            && "M".equals(criteria.getGender())),
+        eq(0),eq(10),eq("firstName")))
+        .thenReturn(new PageImpl<>(List.of(patient1),PageRequest.of(0,10),1));
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients/search")
+        .param("lastName","do")
+        .param("dateOfBirth","2022-01-01")
+        .param("gender","M")
+        .param("size","10")
+        .param("sort","firstName"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-Total-Count","1"))
+        .andExpect(content().json("[{\"id\":1,\"lastName\":\"Doe\"}]"));
+  }
+
+  @Test
+  void givenNoMatchingPatientWhenSearchPatientsThenReturnStatus204() throws Exception {
+    //Given
+    when(service.searchPatients(any(),anyInt(),any(),any())).thenReturn(Page.empty());
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients/search").param("lastName","zz"))
+        .andExpect(status().isNoContent());
+  }
+
+  @Test
+  void givenAQueryWhenSuggestPatientsThenReturnSuggestionsWithStatus200() throws Exception {
+    //Given
+    when(suggestService.suggest("do",5)).thenReturn(List.of(
+        new PatientSuggestion(2,"Jane","Doe"),
+        new PatientSuggestion(1,"John","Doe")));
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients/suggest").param("q","do").param("limit","5"))
+        .andExpect(status().isOk())
+        .andExpect(content().json(
+            "[{\"id\":2,\"firstName\":\"Jane\",\"lastName\":\"Doe\"}," +
+                "{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\"}]"
+        ));
+  }
+
+  @Test
+  void givenAQueryWithoutMatchWhenSuggestPatientsThenReturnStatus204() throws Exception {
+    //Given
+    when(suggestService.suggest(any(),any())).thenReturn(List.of());
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients/suggest").param("q","zz"))
+        .andExpect(status().isNoContent());
+  }
+
+  @Test
+  void givenSomeIdsWhenGetPatientsByIdsThenReturnPatientsAndMissingIdsWithStatus200() throws Exception {
+    //Given
+    when(service.getPatientsByIds(List.of(2,1,3))).thenReturn(new PatientBatch(List.of(patient2,patient1),List.of(3)));
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients").param("ids","2,1,3"))
+        .andExpect(status().isOk())
+        .andExpect(content().json(
+            "{\"patients\":[{\"id\":2},{\"id\":1}]," +
+                "\"missingIds\":[3]}"
+        ));
+  }
+
+  @Test
+  void givenSomeIdsWhenLookupPatientsThenReturnPatientsAndMissingIdsWithStatus200() throws Exception {
+    //Given
+    when(service.getPatientsByIds(List.of(1,3))).thenReturn(new PatientBatch(List.of(patient1),List.of(3)));
+
+    //When
+    mockMvc.perform(post("/patientAPI/patients/lookup")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[1,3]"))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{\"patients\":[{\"id\":1}],\"missingIds\":[3]}"));
+  }
+
+  @Test
+  void givenTooManyIdsWhenLookupPatientsThenReturnStatus400() throws Exception {
+    //Given
+    String ids= IntStream.rangeClosed(1,PatientService.MAX_BATCH_SIZE + 1)
+        .mapToObj(String::valueOf)
+        .collect(Collectors.joining(",","[","]"));
+
+    //When
+    mockMvc.perform(post("/patientAPI/patients/lookup")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(ids))
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   void givenAPatientExistingWhenGetPatientByIdThenReturnPatientFoundWithStatus200() throws Exception {
     //Given
@@ -115,6 +289,209 @@ public class PatientControllerTest {
         ));
   }
 
+  @Test
+  void givenAPatientExistingWhenGetPatientByIdThenReturnAnETag() throws Exception {
+    //Given
+    when(service.getPatientById(anyInt())).thenReturn(Optional.of(new PatientBuilder().id(1).version(4L).build()));
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients/1"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG,"\"1-4\""))
+        .andExpect(header().string(HttpHeaders.VARY,HttpHeaders.ACCEPT));
+  }
+
+  @Test
+  void givenAnUnchangedVersionWhenGetPatientByIdThenReturnStatus304WithoutLoadingThePatient() throws Exception {
+    //Given
+    when(service.getPatientVersion(1)).thenReturn(Optional.of(4L));
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients/1").header(HttpHeaders.IF_NONE_MATCH,"\"1-4\""))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG,"\"1-4\""))
+        .andExpect(content().string(""));
+
+    //Then
+    verify(service,never()).getPatientById(anyInt());
+  }
+
+  @Test
+  void givenAStaleETagWhenGetPatientByIdThenReturnThePatient() throws Exception {
+    //Given
+    when(service.getPatientVersion(1)).thenReturn(Optional.of(5L));
+    when(service.getPatientById(1)).thenReturn(Optional.of(new PatientBuilder().id(1).version(5L).build()));
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients/1").header(HttpHeaders.IF_NONE_MATCH,"\"1-4\""))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG,"\"1-5\""));
+  }
+
+  @Test
+  void givenACborAcceptHeaderWhenGetPatientByIdThenReturnAnETagOfTheCborRepresentation() throws Exception {
+    //Given
+    when(service.getPatientById(anyInt())).thenReturn(Optional.of(new PatientBuilder().id(1).version(4L).build()));
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients/1").accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG,"\"1-4+cbor\""))
+        .andExpect(header().string(HttpHeaders.VARY,HttpHeaders.ACCEPT));
+  }
+
+  @Test
+  void givenTheETagOfTheCborRepresentationWhenGetPatientByIdThenReturnStatus304() throws Exception {
+    //Given
+    when(service.getPatientVersion(1)).thenReturn(Optional.of(4L));
+    when(service.getPatientById(1)).thenReturn(Optional.of(new PatientBuilder().id(1).version(4L).build()));
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients/1").accept(MediaType.APPLICATION_CBOR)
+            .header(HttpHeaders.IF_NONE_MATCH,"\"1-4+cbor\""))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG,"\"1-4+cbor\""));
+  }
+
+  @Test
+  void givenTheETagOfTheCborRepresentationWhenGetPatientByIdAsJsonThenReturnThePatient() throws Exception {
+    //Given
+    when(service.getPatientVersion(1)).thenReturn(Optional.of(4L));
+    when(service.getPatientById(1)).thenReturn(Optional.of(new PatientBuilder().id(1).version(4L).build()));
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients/1").accept(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.IF_NONE_MATCH,"\"1-4+cbor\""))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG,"\"1-4\""));
+  }
+
+  @Test
+  void givenTheETagOfTheProtobufListWhenGetAllPatientsThenReturnStatus304() throws Exception {
+    //Given
+    when(service.getPatientPage(any(),any())).thenReturn(new PatientPage(List.of(patient1,patient2),null));
+    String etag= mockMvc.perform(get("/patientAPI/patients").accept(PatientProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients").accept(PatientProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+            .header(HttpHeaders.IF_NONE_MATCH,etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG,etag))
+        .andExpect(content().string(""));
+
+    //Then
+    assertThat(etag).endsWith("+protobuf\"");
+  }
+
+  @Test
+  void givenTheETagOfAListWhenGetAllPatientsThenReturnStatus304() throws Exception {
+    //Given
+    when(service.getPatientPage(any(),any())).thenReturn(new PatientPage(List.of(patient1,patient2),null));
+    String etag= mockMvc.perform(get("/patientAPI/patients"))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients").header(HttpHeaders.IF_NONE_MATCH,etag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  void givenACborAcceptHeaderWhenGetPatientByIdThenReturnCbor() throws Exception {
+    //Given
+    when(service.getPatientById(anyInt())).thenReturn(Optional.ofNullable(patient1));
+
+    //When
+    byte[] body= mockMvc.perform(get("/patientAPI/patients/1").accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    //Then
+    Patient actual= new ObjectMapper(new CBORFactory()).findAndRegisterModules().readValue(body,Patient.class);
+    assertThat(actual.getLastName()).isEqualTo("Doe");
+    assertThat(actual.getDateOfBirth()).isEqualTo(LocalDate.of(2022,1,1));
+  }
+
+  @Test
+  void givenAProtobufAcceptHeaderWhenGetAllPatientsThenReturnAPatientList() throws Exception {
+    //Given
+    when(service.getPatientPage(any(),any())).thenReturn(new PatientPage(List.of(patient1,patient2),null));
+
+    //When
+    byte[] body= mockMvc.perform(get("/patientAPI/patients").accept(PatientProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(PatientProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+        .andReturn().getResponse().getContentAsByteArray();
+
+    //Then
+    List<Patient> actual= PatientProtobufCodec.readPatients(CodedInputStream.newInstance(body));
+    assertThat(actual).extracting(Patient::getFirstName).containsExactly("John","Jane");
+  }
+
+  @Test
+  void givenAProtobufAcceptHeaderWhenSuggestPatientsThenReturnStatus406() throws Exception {
+    //Given
+    when(suggestService.suggest(any(),any())).thenReturn(List.of(new PatientSuggestion(1,"John","Doe")));
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients/suggest?q=do").accept(PatientProtobufHttpMessageConverter.APPLICATION_PROTOBUF))
+        .andExpect(status().isNotAcceptable());
+  }
+
+  @Test
+  void givenAProtobufPatientWhenAddPatientThenPatientIsDecoded() throws Exception {
+    //Given
+    ByteArrayOutputStream content= new ByteArrayOutputStream();
+    CodedOutputStream output= CodedOutputStream.newInstance(content);
+    PatientProtobufCodec.writePatient(patient1,output);
+    output.flush();
+    when(service.addPatient(any())).thenReturn(patient1);
+
+    //When
+    mockMvc.perform(post("/patientAPI/patients")
+        .contentType(PatientProtobufHttpMessageConverter.APPLICATION_PROTOBUF)
+        .content(content.toByteArray()))
+        .andExpect(status().isCreated());
+
+    //Then
+    verify(service).addPatient(argThat(patient -> "Doe".equals(patient.getLastName())
+        && LocalDate.of(2022,1,1).equals(patient.getDateOfBirth())));
+  }
+
+  @Test
+  void givenARetriedIdempotencyKeyWhenAddPatientThenOriginalPatientReplayedWithStatus201() throws Exception {
+    //Given
+    when(idempotencyService.addPatient(eq("retry-1"),any())).thenReturn(new PatientCreation(patient1,true));
+
+    //When
+    mockMvc.perform(post("/patientAPI/patients")
+        .header(PatientController.IDEMPOTENCY_KEY_HEADER,"retry-1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(VALID_UPDATE))
+        .andExpect(status().isCreated())
+        .andExpect(header().string(PatientController.IDEMPOTENT_REPLAYED_HEADER,"true"))
+        .andExpect(content().string(containsString("\"id\":1")));
+
+    //Then
+    verify(service,never()).addPatient(any());
+  }
+
+  @Test
+  void givenAnIdempotencyKeyUsedForAnotherPatientWhenAddPatientThenReturnStatus422() throws Exception {
+    //Given
+    when(idempotencyService.addPatient(eq("retry-1"),any()))
+        .thenThrow(new IdempotencyKeyReusedException("Key already used for another patient"));
+
+    //Then
+    mockMvc.perform(post("/patientAPI/patients")
+        .header(PatientController.IDEMPOTENCY_KEY_HEADER,"retry-1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(VALID_UPDATE))
+        .andExpect(status().isUnprocessableEntity());
+  }
+
   @Test
   void givenAPatientNotExistingWhenGetPatientByIdThenReturnStatus204() throws Exception {
     //Given
@@ -143,6 +520,21 @@ public class PatientControllerTest {
         .andExpect(status().isCreated());
   }
 
+  @Test
+  void givenPossibleDuplicatesWhenAddPatientThenTheirIdsReturnedInHeader() throws Exception {
+    //Given
+    when(service.addPatient(any())).thenReturn(patient1);
+    when(duplicateService.findPossibleDuplicates(patient1))
+        .thenReturn(List.of(new PatientDuplicate(1,7,0.98), new PatientDuplicate(1,3,0.93)));
+
+    //Then
+    mockMvc.perform(post("/patientAPI/patients")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(VALID_UPDATE))
+        .andExpect(status().isCreated())
+        .andExpect(header().string(PatientController.POSSIBLE_DUPLICATES_HEADER,"7,3"));
+  }
+
   @Test
   void givenAPatientExistingWithAValidUpdateWhenUpdatePatientThenPatientUpdatedWithStatus201() throws Exception {
     //Given
@@ -156,7 +548,7 @@ public class PatientControllerTest {
         .phone("123-456")
         .build();
 
-    when(service.updatePatient(anyInt(),any())).thenReturn(patientToUpdate);
+    when(service.updatePatient(anyInt(),any(),any())).thenReturn(patientToUpdate);
 
     //When
     mockMvc.perform(put("/patientAPI/patients/1")
@@ -184,7 +576,7 @@ public class PatientControllerTest {
   @Test
   void givenAPatientNotExitingWithAValidUpdateWhenUpdatePatientThenReturn204() throws Exception {
     //Given
-    when(service.updatePatient(anyInt(),any())).thenReturn(null);
+    when(service.updatePatient(anyInt(),any(),any())).thenReturn(null);
 
     //When
     mockMvc.perform(put("/patientAPI/patients/4")
@@ -199,6 +591,93 @@ public class PatientControllerTest {
         .andExpect(status().isNoContent());
   }
 
+  @Test
+  void givenAnIfMatchHeaderWhenUpdatePatientThenPassTheExpectedVersion() throws Exception {
+    //Given
+    when(service.updatePatient(eq(1),any(),eq(4L))).thenReturn(new PatientBuilder().id(1).version(5L).build());
+
+    //When
+    mockMvc.perform(put("/patientAPI/patients/1")
+        .header(HttpHeaders.IF_MATCH,"\"1-4\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(VALID_UPDATE))
+        .andExpect(status().isCreated())
+        .andExpect(header().string(HttpHeaders.ETAG,"\"1-5\""));
+  }
+
+  @Test
+  void givenAStaleIfMatchHeaderWhenUpdatePatientThenReturnStatus412() throws Exception {
+    //Given
+    when(service.updatePatient(eq(1),any(),eq(3L))).thenThrow(new PreconditionFailedException("stale"));
+
+    //When
+    mockMvc.perform(put("/patientAPI/patients/1")
+        .header(HttpHeaders.IF_MATCH,"\"1-3\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(VALID_UPDATE))
+        .andExpect(status().isPreconditionFailed());
+  }
+
+  @Test
+  void givenAConcurrentUpdateWithoutIfMatchWhenUpdatePatientThenReturnStatus409() throws Exception {
+    //Given
+    when(service.updatePatient(eq(1),any(),isNull())).thenThrow(new OptimisticLockingFailureException("conflict"));
+
+    //When
+    mockMvc.perform(put("/patientAPI/patients/1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(VALID_UPDATE))
+        .andExpect(status().isConflict());
+  }
+
+  @Test
+  void givenAConcurrentUpdateWithIfMatchWhenUpdatePatientThenReturnStatus412() throws Exception {
+    //Given
+    when(service.updatePatient(eq(1),any(),eq(4L))).thenThrow(new OptimisticLockingFailureException("conflict"));
+
+    //When
+    mockMvc.perform(put("/patientAPI/patients/1")
+        .header(HttpHeaders.IF_MATCH,"\"1-4\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(VALID_UPDATE))
+        .andExpect(status().isPreconditionFailed());
+  }
+
+  @Test
+  void givenAnIfMatchHeaderOfAnotherPatientWhenUpdatePatientThenReturnStatus412() throws Exception {
+    //When
+    mockMvc.perform(put("/patientAPI/patients/1")
+        .header(HttpHeaders.IF_MATCH,"\"2-4\"")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(VALID_UPDATE))
+        .andExpect(status().isPreconditionFailed());
+
+    //Then
+    verify(service,never()).updatePatient(anyInt(),any(),any());
+  }
+
+  @Test
+  void givenAPatientExistingWhenPatchPatientThenReturnTrueWithStatus200() throws Exception {
+    //Given
+    when(service.patchPatient(anyInt(),any())).thenReturn(true);
+
+    //When
+    mockMvc.perform(patch("/patientAPI/patients/1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"phone\":\"111-222-3333\"}"))
+        .andExpect(status().isOk())
+        .andExpect(content().string(containsString("true")));
+  }
+
+  @Test
+  void givenAnEmptyLastNameWhenPatchPatientThenReturnStatus422() throws Exception {
+    //When
+    mockMvc.perform(patch("/patientAPI/patients/1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"lastName\":\"\"}"))
+        .andExpect(status().isUnprocessableEntity());
+  }
+
   @Test
   void givenAPatientExistingWhenDeletePatientThenPatientDeletedWithStatus200() throws Exception {
     //Given
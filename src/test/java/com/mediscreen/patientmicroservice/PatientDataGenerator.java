@@ -0,0 +1,90 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.util.NameNormalizer;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic patients in the shape of data.sql: explicit ids from 1, name keys filled in, and the id
+ * sequence moved past the seeded rows. Names are drawn from the data.sql patients so searches hit
+ * realistic prefixes; the same seed always gives the same rows.
+ */
+public class PatientDataGenerator {
+
+  static final String[] LAST_NAMES= {"Ferguson", "Rees", "Arnold", "Sharp", "Ince", "Ross", "Wilson",
+      "Buckland", "Clark", "Bailey", "Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit",
+      "Durand", "Leroy", "Moreau", "Simon", "Laurent", "Lefebvre", "Michel", "Garcia", "David", "Bertrand"};
+
+  static final String[] FIRST_NAMES= {"Lucas", "Pippa", "Edward", "Anthony", "Wendy", "Tracey", "Claire",
+      "Max", "Natalie", "Piers", "Emma", "Louis", "Jade", "Gabriel", "Louise", "Arthur", "Alice", "Jules",
+      "Chloe", "Hugo", "Lina", "Adam", "Rose", "Paul", "Anna", "Leo", "Julia"};
+
+  private static final String[] STREETS= {"Warren Street", "West Valley Farms Drive", "East Garden Ave",
+      "Hall Street", "Southampton Road", "Sulphur Springs Dr", "Cobblestone St", "Vale St", "Beechwood Road",
+      "Bumble Dr"};
+
+  private static final int BATCH_SIZE= 1000;
+
+  private final Random random;
+
+  public PatientDataGenerator(long seed) {
+    this.random= new Random(seed);
+  }
+
+  /**
+   * Inserts patients 1 to count and returns the highest id.
+   */
+  public int seed(JdbcTemplate jdbcTemplate, int count) {
+    List<Object[]> batch= new ArrayList<>(BATCH_SIZE);
+    for (int id = 1; id <= count; id++) {
+      batch.add(row(id));
+      if (batch.size()==BATCH_SIZE || id==count){
+        jdbcTemplate.batchUpdate("insert into patient (id,last_name,first_name,date_of_birth,gender,address,phone,"
+            + "last_name_key,first_name_key,version) values (?,?,?,?,?,?,?,?,?,0)", batch);
+        batch.clear();
+      }
+    }
+    jdbcTemplate.execute("alter sequence patient_id_seq restart with " + (count + 50));
+    return count;
+  }
+
+  public String lastName() {
+    return pick(LAST_NAMES);
+  }
+
+  public String firstName() {
+    return pick(FIRST_NAMES);
+  }
+
+  public LocalDate dateOfBirth() {
+    return LocalDate.of(1930,1,1).plusDays(random.nextInt(80 * 365));
+  }
+
+  public String gender() {
+    return random.nextBoolean() ? "M" : "F";
+  }
+
+  public String address() {
+    return (1 + random.nextInt(2000)) + " " + pick(STREETS);
+  }
+
+  public String phone() {
+    return String.format("%03d-%03d-%04d", random.nextInt(1000), random.nextInt(1000), random.nextInt(10000));
+  }
+
+  private Object[] row(int id) {
+    String lastName= lastName();
+    String firstName= firstName();
+    return new Object[]{id, lastName, firstName, Date.valueOf(dateOfBirth()), gender(), address(), phone(),
+        NameNormalizer.normalize(lastName), NameNormalizer.normalize(firstName)};
+  }
+
+  private String pick(String[] values) {
+    return values[random.nextInt(values.length)];
+  }
+}
@@ -0,0 +1,191 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.duplicate.PatientDuplicateMatcher;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.model.PatientDuplicate;
+import com.mediscreen.patientmicroservice.model.PatientDuplicateReport;
+import com.mediscreen.patientmicroservice.model.PatientIdentity;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.service.PatientDuplicateService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class PatientDuplicateServiceTest {
+
+  private static final LocalDate DOB= LocalDate.of(1980,1,1);
+
+  private final PatientRepository repository= mock(PatientRepository.class);
+
+  private final PatientDuplicateMatcher matcher= new PatientDuplicateMatcher(0.9,500,4);
+
+  private final PatientDuplicateService classUnderTest= new PatientDuplicateService(repository,matcher);
+
+  @AfterEach
+  void tearDown() {
+    matcher.shutdown();
+  }
+
+  @Test
+  void givenSpellingVariantsBornTheSameDayWhenFindDuplicatesThenPairReported() {
+    //Given
+    when(repository.streamIdentities()).thenReturn(Stream.of(
+        identity(1,"Dupont","Jean",DOB),
+        identity(2,"Dupond","Jean",DOB),
+        identity(3,"Dupont","Jean",LocalDate.of(1981,1,1)),
+        identity(4,"Martin","Claire",DOB)));
+
+    //When
+    PatientDuplicateReport actual= classUnderTest.findDuplicates();
+
+    //Then
+    assertThat(actual.getPatientCount()).isEqualTo(4);
+    assertThat(actual.getComparisons()).isEqualTo(1);
+    assertThat(actual.getDuplicates()).hasSize(1);
+    assertThat(actual.getDuplicates().get(0).getPatientId()).isEqualTo(1);
+    assertThat(actual.getDuplicates().get(0).getDuplicateId()).isEqualTo(2);
+  }
+
+  @Test
+  void givenFirstAndLastNameSwappedWhenFindDuplicatesThenPairReportedOnce() {
+    //Given
+    when(repository.streamIdentities()).thenReturn(Stream.of(
+        identity(1,"Lefebvre","Hugo",DOB),
+        identity(2,"Hugo","Lefèbvre",DOB)));
+
+    //When
+    PatientDuplicateReport actual= classUnderTest.findDuplicates();
+
+    //Then
+    assertThat(actual.getComparisons()).isEqualTo(1);
+    assertThat(actual.getDuplicates()).extracting(PatientDuplicate::getDuplicateId).containsExactly(2);
+  }
+
+  @Test
+  void givenRelativesSharingASurnameWhenFindDuplicatesThenComparedButNotReported() {
+    //Given
+    when(repository.streamIdentities()).thenReturn(Stream.of(
+        identity(1,"Doe","John",DOB),
+        identity(2,"Doe","Jane",DOB)));
+
+    //When
+    PatientDuplicateReport actual= classUnderTest.findDuplicates();
+
+    //Then
+    assertThat(actual.getComparisons()).isEqualTo(1);
+    assertThat(actual.getDuplicates()).isEmpty();
+  }
+
+  @Test
+  void givenALargeBlockWhenFindDuplicatesThenEveryPairComparedOnceAcrossThreads() {
+    //Given
+    List<PatientIdentity> patients= new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      patients.add(identity(i + 1,"Martin",firstName(i),DOB));
+    }
+    patients.add(identity(201,"Martinn",firstName(150),DOB));
+    when(repository.streamIdentities()).thenReturn(patients.stream());
+
+    //When
+    PatientDuplicateReport actual= classUnderTest.findDuplicates();
+
+    //Then
+    assertThat(actual.getComparisons()).isEqualTo(201L * 200 / 2);
+    assertThat(actual.getDuplicates()).anySatisfy(duplicate -> {
+      assertThat(duplicate.getPatientId()).isEqualTo(151);
+      assertThat(duplicate.getDuplicateId()).isEqualTo(201);
+    });
+  }
+
+  @Test
+  void givenABlockOverTheMaximumSizeWhenFindDuplicatesThenSkipped() {
+    //Given
+    PatientDuplicateMatcher smallBlocks= new PatientDuplicateMatcher(0.9,2,1);
+    when(repository.streamIdentities()).thenReturn(Stream.of(
+        identity(1,"Doe","John",DOB),
+        identity(2,"Doe","John",DOB),
+        identity(3,"Doe","John",DOB)));
+
+    //When
+    PatientDuplicateReport actual= new PatientDuplicateService(repository,smallBlocks).findDuplicates();
+    smallBlocks.shutdown();
+
+    //Then
+    assertThat(actual.getOversizedBlocks()).isEqualTo(2);
+    assertThat(actual.getComparisons()).isZero();
+  }
+
+  @Test
+  void givenANewPatientWhenFindPossibleDuplicatesThenMatchesBornTheSameDayReturnedBestFirst() {
+    //Given
+    Patient patient= new PatientBuilder().id(10).firstName("Élodie").lastName("Dupré").dateOfBirth(DOB).gender("F").build();
+    when(repository.findIdentitiesByDateOfBirth(DOB,PageRequest.of(0,501))).thenReturn(List.of(
+        identity(10,"Dupré","Élodie",DOB),
+        identity(3,"Dupre","Elodie",DOB),
+        identity(4,"Duprey","Elodie",DOB),
+        identity(5,"Dupré","Lucas",DOB)));
+
+    //When
+    List<PatientDuplicate> actual= classUnderTest.findPossibleDuplicates(patient);
+
+    //Then
+    assertThat(actual).extracting(PatientDuplicate::getDuplicateId).containsExactly(3,4);
+  }
+
+  @Test
+  void givenABirthDateSharedByMoreThanTheMaxBlockSizeWhenFindPossibleDuplicatesThenSkipped() {
+    //Given
+    Patient patient= new PatientBuilder().id(10).firstName("Jean").lastName("Dupont").dateOfBirth(DOB).gender("M").build();
+    List<PatientIdentity> candidates= new ArrayList<>();
+    for (int i = 0; i < 501; i++) {
+      candidates.add(identity(100 + i,"Dupont","Jean",DOB));
+    }
+    when(repository.findIdentitiesByDateOfBirth(DOB,PageRequest.of(0,501))).thenReturn(candidates);
+
+    //When
+    List<PatientDuplicate> actual= classUnderTest.findPossibleDuplicates(patient);
+
+    //Then
+    assertThat(actual).isEmpty();
+  }
+
+  /**
+   * Two letters from the index, so first names differ enough not to match each other.
+   */
+  private static String firstName(int i) {
+    return "" + (char) ('a' + i % 26) + "x" + (char) ('a' + i / 26) + "q";
+  }
+
+  private static PatientIdentity identity(int id, String lastName, String firstName, LocalDate dateOfBirth) {
+    return new PatientIdentity() {
+      @Override
+      public LocalDate getDateOfBirth() {
+        return dateOfBirth;
+      }
+
+      @Override
+      public Integer getId() {
+        return id;
+      }
+
+      @Override
+      public String getLastName() {
+        return lastName;
+      }
+
+      @Override
+      public String getFirstName() {
+        return firstName;
+      }
+    };
+  }
+}
@@ -0,0 +1,194 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.event.PatientChangeEvent;
+import com.mediscreen.patientmicroservice.event.PatientEventStream;
+import com.mediscreen.patientmicroservice.model.PatientChange;
+import com.mediscreen.patientmicroservice.model.PatientChangeEntry;
+import com.mediscreen.patientmicroservice.repository.PatientChangeRepository;
+import com.mediscreen.patientmicroservice.service.PatientChangeFeedService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PatientEventStreamTest {
+
+  PatientChangeRepository changeRepository= mock(PatientChangeRepository.class);
+  PatientChangeFeedService changeFeedService= mock(PatientChangeFeedService.class);
+
+  PatientEventStream classUnderTest;
+
+  Instant settled= Instant.now().minusSeconds(60);
+
+  @BeforeEach
+  void setUp() {
+    classUnderTest= stream(256);
+    when(changeRepository.findMaxId()).thenReturn(10L);
+    when(changeFeedService.toEntries(anyList())).thenAnswer(invocation -> invocation.<List<PatientChange>>getArgument(0)
+        .stream().map(change -> new PatientChangeEntry(change,null)).collect(Collectors.toList()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    classUnderTest.shutdown();
+  }
+
+  @Test
+  void givenASubscriberWhenNewChangesAreLoggedThenPushThemWithTheirIds() throws Exception {
+    //Given
+    RecordingEmitter emitter= new RecordingEmitter();
+    classUnderTest.subscribe(null,emitter);
+    when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(10L),any()))
+        .thenReturn(List.of(change(11,PatientChangeEvent.Type.CREATED,settled),change(12,PatientChangeEvent.Type.DELETED,settled)));
+
+    //When
+    classUnderTest.poll();
+
+    //Then
+    await(() -> emitter.events.size()==2);
+    assertThat(emitter.events.get(0)).contains("id:11").contains("event:created");
+    assertThat(emitter.events.get(1)).contains("id:12").contains("event:deleted");
+  }
+
+  @Test
+  void givenAGapInTheLogWhenPollThenDeliverChangesAfterIt() throws Exception {
+    //Given
+    RecordingEmitter emitter= new RecordingEmitter();
+    classUnderTest.subscribe(null,emitter);
+    when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(10L),any()))
+        .thenReturn(List.of(change(11,PatientChangeEvent.Type.UPDATED,Instant.now()),
+            change(13,PatientChangeEvent.Type.UPDATED,Instant.now())));
+
+    //When
+    classUnderTest.poll();
+
+    //Then
+    await(() -> emitter.events.size()==2);
+    assertThat(emitter.events.get(0)).contains("id:11");
+    assertThat(emitter.events.get(1)).contains("id:13");
+  }
+
+  @Test
+  void givenALastEventIdWhenSubscribeThenReplayMissedChangesFromTheLog() throws Exception {
+    //Given
+    when(changeRepository.findByIdGreaterThanOrderByIdAsc(eq(8L),any()))
+        .thenReturn(List.of(change(9,PatientChangeEvent.Type.UPDATED,settled),change(10,PatientChangeEvent.Type.UPDATED,settled)));
+    RecordingEmitter emitter= new RecordingEmitter();
+
+    //When
+    classUnderTest.subscribe(8L,emitter);
+
+    //Then
+    await(() -> emitter.events.size()==2);
+    assertThat(emitter.events.get(0)).contains("id:9");
+    assertThat(emitter.events.get(1)).contains("id:10");
+  }
+
+  @Test
+  void givenALastEventIdBeyondTheReplayWindowWhenSubscribeThenSendAReset() throws Exception {
+    //Given
+    when(changeRepository.findMaxId()).thenReturn(50_000L);
+    RecordingEmitter emitter= new RecordingEmitter();
+
+    //When
+    classUnderTest.subscribe(1L,emitter);
+
+    //Then
+    await(() -> emitter.events.size()==1);
+    assertThat(emitter.events.get(0)).contains("event:reset");
+  }
+
+  @Test
+  void givenASubscriberWhenHeartbeatThenSendAComment() throws Exception {
+    //Given
+    RecordingEmitter emitter= new RecordingEmitter();
+    classUnderTest.subscribe(null,emitter);
+
+    //When
+    classUnderTest.heartbeat();
+
+    //Then
+    await(() -> emitter.events.size()==1);
+    assertThat(emitter.events.get(0)).contains(":heartbeat");
+  }
+
+  @Test
+  void givenASlowSubscriberWhenItsBufferOverflowsThenDropIt() throws Exception {
+    //Given
+    classUnderTest.shutdown();
+    classUnderTest= stream(2);
+    RecordingEmitter slow= new RecordingEmitter();
+    slow.blocked= new CountDownLatch(1);
+    classUnderTest.subscribe(null,slow);
+
+    //When
+    for (int i = 0; i < 5; i++) {
+      classUnderTest.heartbeat();
+    }
+
+    //Then
+    assertThat(classUnderTest.subscriberCount()).isZero();
+    slow.blocked.countDown();
+    await(() -> slow.completed);
+  }
+
+  private PatientEventStream stream(int bufferSize) {
+    return new PatientEventStream(changeRepository,changeFeedService,Duration.ofMinutes(1),
+        Duration.ofHours(1),Duration.ofHours(1),bufferSize,10_000,2);
+  }
+
+  private PatientChange change(long id, PatientChangeEvent.Type type, Instant changedAt) {
+    PatientChange change= new PatientChange(1,type,changedAt);
+    ReflectionTestUtils.setField(change,"id",id);
+    return change;
+  }
+
+  private void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline= System.currentTimeMillis() + 5000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(condition.getAsBoolean()).isTrue();
+  }
+
+  private static class RecordingEmitter extends SseEmitter {
+
+    private final List<String> events= new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch blocked;
+    private volatile boolean completed;
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      if (blocked!=null){
+        try {
+          blocked.await();
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+      }
+      events.add(builder.build().stream().map(data -> String.valueOf(data.getData())).collect(Collectors.joining()));
+    }
+
+    @Override
+    public void complete() {
+      completed= true;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.mediscreen.patientmicroservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.service.PatientExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class PatientExportServiceTest {
+
+  private final PatientRepository repository= mock(PatientRepository.class);
+
+  private final EntityManager entityManager= mock(EntityManager.class);
+
+  private final ObjectMapper objectMapper= Jackson2ObjectMapperBuilder.json()
+      .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .build();
+
+  private final PatientExportService classUnderTest= new PatientExportService(repository,entityManager,objectMapper);
+
+  Patient patient1= new PatientBuilder()
+      .id(1)
+      .firstName("John")
+      .lastName("Doe")
+      .dateOfBirth(LocalDate.of(2022,1,1))
+      .gender("M")
+      .build();
+
+  Patient patient2= new PatientBuilder()
+      .id(2)
+      .firstName("Jane")
+      .lastName("Doe")
+      .dateOfBirth(LocalDate.of(2022,1,1))
+      .gender("F")
+      .build();
+
+  @Test
+  void givenTwoPatientsWhenExportPatientsThenWriteOneJsonLinePerPatientAndDetachThem() throws Exception {
+    //Given
+    when(repository.streamAll()).thenReturn(Stream.of(patient1,patient2));
+    ByteArrayOutputStream out= new ByteArrayOutputStream();
+
+    //When
+    long actual= classUnderTest.exportPatients(out);
+
+    //Then
+    String[] lines= out.toString(StandardCharsets.UTF_8).split("\n");
+    assertThat(actual).isEqualTo(2);
+    assertThat(lines).hasSize(2);
+    assertThat(lines[0]).startsWith("{\"id\":1,\"firstName\":\"John\"").contains("\"dateOfBirth\":\"2022-01-01\"");
+    assertThat(lines[1]).startsWith("{\"id\":2,\"firstName\":\"Jane\"");
+    verify(entityManager,times(1)).detach(patient1);
+    verify(entityManager,times(1)).detach(patient2);
+  }
+
+  @Test
+  void givenNoPatientWhenExportPatientsThenWriteNothing() throws Exception {
+    //Given
+    when(repository.streamAll()).thenReturn(Stream.empty());
+    ByteArrayOutputStream out= new ByteArrayOutputStream();
+
+    //When
+    long actual= classUnderTest.exportPatients(out);
+
+    //Then
+    assertThat(actual).isZero();
+    assertThat(out.size()).isZero();
+  }
+}
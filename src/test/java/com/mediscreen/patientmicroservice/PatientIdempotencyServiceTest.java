@@ -0,0 +1,165 @@
+package com.mediscreen.patientmicroservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mediscreen.patientmicroservice.exception.IdempotencyKeyReusedException;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.model.PatientCreation;
+import com.mediscreen.patientmicroservice.model.PatientIdempotencyKey;
+import com.mediscreen.patientmicroservice.repository.PatientIdempotencyKeyRepository;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.service.PatientIdempotencyService;
+import com.mediscreen.patientmicroservice.service.PatientService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:idempotency;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.sql.init.mode=never",
+    "patient.second-level-cache.uri=idempotency-test",
+    "patient.suggest.enabled=false"
+})
+public class PatientIdempotencyServiceTest {
+
+  @Autowired
+  private PatientIdempotencyService classUnderTest;
+
+  @Autowired
+  private PatientService patientService;
+
+  @Autowired
+  private PatientRepository patientRepository;
+
+  @Autowired
+  private PatientIdempotencyKeyRepository keyRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @BeforeEach
+  void setUp() {
+    keyRepository.deleteAll();
+  }
+
+  @Test
+  void givenAKeyUsedOnceWhenTheRequestIsRetriedThenTheFirstPatientIsReplayedWithoutAnInsert() {
+    //Given
+    PatientCreation first= classUnderTest.addPatient("retry-1", patient());
+    long patients= patientRepository.count();
+
+    //When
+    PatientCreation actual= classUnderTest.addPatient("retry-1", patient());
+
+    //Then
+    assertThat(first.isReplayed()).isFalse();
+    assertThat(actual.isReplayed()).isTrue();
+    assertThat(actual.getPatient().getId()).isEqualTo(first.getPatient().getId());
+    assertThat(actual.getPatient().getLastName()).isEqualTo("Doe");
+    assertThat(patientRepository.count()).isEqualTo(patients);
+  }
+
+  @Test
+  void givenAKeyUsedForAPatientWhenReusedForAnotherThenRejected() {
+    //Given
+    classUnderTest.addPatient("retry-2", patient());
+    Patient another= new PatientBuilder().firstName("Jane").lastName("Roe")
+        .dateOfBirth(LocalDate.of(1990,2,2)).gender("F").build();
+
+    //Then
+    assertThatThrownBy(() -> classUnderTest.addPatient("retry-2", another))
+        .isInstanceOf(IdempotencyKeyReusedException.class);
+  }
+
+  @Test
+  void givenConcurrentRequestsWithOneKeyWhenAddPatientThenASinglePatientIsInserted() throws Exception {
+    //Given
+    long patients= patientRepository.count();
+    CountDownLatch start= new CountDownLatch(1);
+    ExecutorService executor= Executors.newFixedThreadPool(8);
+    List<Future<PatientCreation>> creations= new ArrayList<>();
+    Callable<PatientCreation> request= () -> {
+      start.await();
+      return classUnderTest.addPatient("retry-3", patient());
+    };
+
+    //When
+    for (int i = 0; i < 8; i++) {
+      creations.add(executor.submit(request));
+    }
+    start.countDown();
+
+    //Then
+    List<Integer> ids= new ArrayList<>();
+    int replayed= 0;
+    for (Future<PatientCreation> creation : creations) {
+      PatientCreation actual= creation.get(10,TimeUnit.SECONDS);
+      ids.add(actual.getPatient().getId());
+      replayed+= actual.isReplayed() ? 1 : 0;
+    }
+    executor.shutdown();
+    assertThat(ids).containsOnly(ids.get(0));
+    assertThat(replayed).isEqualTo(7);
+    assertThat(patientRepository.count()).isEqualTo(patients + 1);
+  }
+
+  @Test
+  void givenAKeyStoredByAnotherInstanceWhenRetriedHereThenReplayedFromTheTable() {
+    //Given
+    PatientCreation first= classUnderTest.addPatient("retry-4", patient());
+    PatientIdempotencyService otherInstance= new PatientIdempotencyService(patientService, keyRepository,
+        transactionManager, objectMapper, Duration.ofHours(24), 100);
+    long patients= patientRepository.count();
+
+    //When
+    PatientCreation actual= otherInstance.addPatient("retry-4", patient());
+
+    //Then
+    assertThat(actual.isReplayed()).isTrue();
+    assertThat(actual.getPatient().getId()).isEqualTo(first.getPatient().getId());
+    assertThat(patientRepository.count()).isEqualTo(patients);
+  }
+
+  @Test
+  void givenKeysOlderThanTheTtlWhenPurgedThenOnlyRecentKeysAreKept() {
+    //Given
+    classUnderTest.addPatient("retry-5", patient());
+    keyRepository.save(new PatientIdempotencyKey("stale", "0", 1, "{}", Instant.now().minus(Duration.ofDays(2))));
+
+    //When
+    int actual= classUnderTest.purgeExpired();
+
+    //Then
+    assertThat(actual).isEqualTo(1);
+    assertThat(keyRepository.findAll()).extracting(PatientIdempotencyKey::getKey).containsExactly("retry-5");
+  }
+
+  private Patient patient() {
+    return new PatientBuilder().firstName("John").lastName("Doe")
+        .dateOfBirth(LocalDate.of(1980,1,1)).gender("M").build();
+  }
+}
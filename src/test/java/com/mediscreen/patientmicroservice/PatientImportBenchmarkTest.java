@@ -0,0 +1,100 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.model.PatientImportResult;
+import com.mediscreen.patientmicroservice.model.PatientImportResult.Status;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.service.PatientImportService;
+import com.mediscreen.patientmicroservice.service.PatientService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:import-benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.sql.init.mode=never"
+})
+public class PatientImportBenchmarkTest {
+
+  private static final int ROWS= Integer.getInteger("benchmark.rows",20_000);
+
+  @Autowired
+  private PatientService patientService;
+
+  @Autowired
+  private PatientImportService importService;
+
+  @Autowired
+  private PatientRepository repository;
+
+  @Test
+  void compareSingleInsertWithBulkImport() throws Exception {
+    //Given
+    insertOneByOne(ROWS / 10);
+    importInBulk(ROWS / 10);
+    repository.deleteAllInBatch();
+
+    //When
+    double singleRowsPerSecond= insertOneByOne(ROWS);
+    double bulkRowsPerSecond= importInBulk(ROWS);
+
+    //Then
+    System.out.printf("single insert: %,.0f rows/s, bulk import: %,.0f rows/s (x%.1f) for %,d rows%n",
+        singleRowsPerSecond,bulkRowsPerSecond,bulkRowsPerSecond/singleRowsPerSecond,ROWS);
+    assertThat(repository.count()).isEqualTo(2L * ROWS);
+  }
+
+  private double insertOneByOne(int rows) {
+    long start= System.nanoTime();
+    for (int i = 0; i < rows; i++) {
+      patientService.addPatient(patient(i));
+    }
+    return rowsPerSecond(rows,System.nanoTime() - start);
+  }
+
+  private double importInBulk(int rows) throws Exception {
+    StringBuilder body= new StringBuilder();
+    for (int i = 0; i < rows; i++) {
+      Patient patient= patient(i);
+      body.append("{\"firstName\":\"").append(patient.getFirstName())
+          .append("\",\"lastName\":\"").append(patient.getLastName())
+          .append("\",\"dateOfBirth\":\"").append(patient.getDateOfBirth())
+          .append("\",\"gender\":\"").append(patient.getGender()).append("\"}\n");
+    }
+    byte[] content= body.toString().getBytes(StandardCharsets.UTF_8);
+
+    long start= System.nanoTime();
+    List<PatientImportResult> results= importService.importPatients(new ByteArrayInputStream(content));
+    double rowsPerSecond= rowsPerSecond(rows,System.nanoTime() - start);
+
+    assertThat(results).allMatch(result -> result.getStatus()==Status.CREATED);
+    return rowsPerSecond;
+  }
+
+  private Patient patient(int i) {
+    return new PatientBuilder()
+        .firstName("First" + i)
+        .lastName("Last" + i)
+        .dateOfBirth(LocalDate.of(1950,1,1).plusDays(i % 20_000))
+        .gender(i % 2 == 0 ? "M" : "F")
+        .build();
+  }
+
+  private double rowsPerSecond(int rows, long nanos) {
+    return rows / (nanos / 1_000_000_000d);
+  }
+}
@@ -0,0 +1,210 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.job.PatientImportJobRunner;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.PatientImportJob;
+import com.mediscreen.patientmicroservice.model.PatientImportJobStatus;
+import com.mediscreen.patientmicroservice.model.PatientImportResult;
+import com.mediscreen.patientmicroservice.repository.PatientImportJobRepository;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.service.PatientImportJobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:importjobs;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.sql.init.mode=never",
+    "patient.second-level-cache.uri=import-jobs-test",
+    "patient.suggest.enabled=false",
+    "patient.import.batch-size=2",
+    "patient.import.jobs.directory=${java.io.tmpdir}/patient-import-jobs-test",
+    "patient.import.jobs.poll-interval=PT1H"
+})
+public class PatientImportJobServiceTest {
+
+  @Autowired
+  private PatientImportJobService classUnderTest;
+
+  @Autowired
+  private PatientImportJobRunner runner;
+
+  @Autowired
+  private PatientImportJobRepository jobRepository;
+
+  @Autowired
+  private PatientRepository patientRepository;
+
+  @Test
+  void givenACsvFileWhenSubmitThenValidRowsImportedAndRejectedRowsReported() throws Exception {
+    //Given
+    String lastName= unique("Csv");
+    String csv= "Gender,LASTNAME,firstName,dateOfBirth,address\r\n"
+        + "F," + lastName + ",Anna,1980-01-01,\"12 rue Haute, Lyon\"\r\n"
+        + "M," + lastName + ",Bruno,1981-02-03,\"Bat. B\r\n3 \"\"Les Pins\"\"\"\r\n"
+        + "," + lastName + ",Chloe,1982-03-04,\r\n"
+        + "F," + lastName + ",Diane,03/04/1983,\r\n"
+        + "M," + lastName + ",Eric,1984-05-06,\r\n";
+
+    //When
+    PatientImportJob job= classUnderTest.submit(stream(csv), PatientImportJob.Format.CSV);
+    PatientImportJobStatus actual= await(job.getId());
+
+    //Then
+    assertThat(actual.getStatus()).isEqualTo(PatientImportJob.Status.COMPLETED);
+    assertThat(actual.getRowsRead()).isEqualTo(5);
+    assertThat(actual.getCreated()).isEqualTo(3);
+    assertThat(actual.getInvalid()).isEqualTo(2);
+    assertThat(actual.getErrors()).extracting(PatientImportResult::getIndex).containsExactly(2,3);
+    assertThat(actual.getErrors().get(1).getMessage()).isEqualTo("Invalid date of birth: 03/04/1983");
+    assertThat(patients(lastName)).extracting(Patient::getAddress)
+        .containsExactlyInAnyOrder("12 rue Haute, Lyon", "Bat. B\n3 \"Les Pins\"", null);
+    assertThat(Path.of(jobRepository.findById(job.getId()).orElseThrow().getFile())).doesNotExist();
+  }
+
+  @Test
+  void givenAnNdjsonFileWhenSubmitThenEveryChunkCheckpointed() throws Exception {
+    //Given
+    String lastName= unique("Ndjson");
+    StringBuilder ndjson= new StringBuilder();
+    for (int i = 0; i < 5; i++) {
+      ndjson.append(json(lastName, "First" + i)).append('\n');
+    }
+    ndjson.append('\n').append("{\"firstName\":").append('\n');
+
+    //When
+    PatientImportJob job= classUnderTest.submit(stream(ndjson.toString()), PatientImportJob.Format.NDJSON);
+    PatientImportJobStatus actual= await(job.getId());
+
+    //Then
+    assertThat(actual.getStatus()).isEqualTo(PatientImportJob.Status.COMPLETED);
+    assertThat(actual.getRowsRead()).isEqualTo(6);
+    assertThat(actual.getCreated()).isEqualTo(5);
+    assertThat(actual.getInvalid()).isEqualTo(1);
+    assertThat(actual.getRowsPerSecond()).isGreaterThanOrEqualTo(0);
+    assertThat(jobRepository.findById(job.getId()).orElseThrow().getCheckpointOffset())
+        .isEqualTo(ndjson.toString().getBytes(StandardCharsets.UTF_8).length);
+    assertThat(patients(lastName)).hasSize(5);
+  }
+
+  @Test
+  void givenAJobWhoseWorkerStoppedWhenDispatchThenResumedFromItsCheckpoint() throws Exception {
+    //Given
+    String lastName= unique("Resume");
+    String header= "firstName,lastName,dateOfBirth,gender\n";
+    String done= "Anna," + lastName + ",1980-01-01,F\nBruno," + lastName + ",1981-01-01,M\n";
+    String remaining= "Chloe," + lastName + ",1982-01-01,F\nDiane," + lastName + ",1983-01-01,F\n";
+    PatientImportJob job= stalledJob(PatientImportJob.Format.CSV, header + done + remaining,
+        2, (header + done).getBytes(StandardCharsets.UTF_8).length, Instant.now().minus(2, ChronoUnit.HOURS));
+
+    //When
+    runner.dispatch();
+    PatientImportJobStatus actual= await(job.getId());
+
+    //Then
+    assertThat(actual.getStatus()).isEqualTo(PatientImportJob.Status.COMPLETED);
+    assertThat(actual.getRowsRead()).isEqualTo(4);
+    assertThat(actual.getCreated()).isEqualTo(4);
+    assertThat(patients(lastName)).extracting(Patient::getFirstName).containsExactlyInAnyOrder("Chloe","Diane");
+  }
+
+  @Test
+  void givenAJobOwnedByALiveWorkerWhenDispatchThenLeftToIt() throws Exception {
+    //Given
+    String lastName= unique("Live");
+    PatientImportJob job= stalledJob(PatientImportJob.Format.NDJSON, json(lastName, "Anna") + "\n", 0, 0, Instant.now());
+
+    //When
+    runner.dispatch();
+
+    //Then
+    PatientImportJob actual= jobRepository.findById(job.getId()).orElseThrow();
+    assertThat(actual.getStatus()).isEqualTo(PatientImportJob.Status.RUNNING);
+    assertThat(actual.getOwner()).isEqualTo("crashed-worker");
+    assertThat(patients(lastName)).isEmpty();
+  }
+
+  @Test
+  void givenACsvFileWithoutMandatoryColumnsWhenSubmitThenJobFailed() throws Exception {
+    //When
+    PatientImportJob job= classUnderTest.submit(stream("firstName,lastName\nAnna,Doe\n"), PatientImportJob.Format.CSV);
+    PatientImportJobStatus actual= await(job.getId());
+
+    //Then
+    assertThat(actual.getStatus()).isEqualTo(PatientImportJob.Status.FAILED);
+    assertThat(actual.getMessage()).contains("dateofbirth", "gender");
+    assertThat(actual.getRowsRead()).isZero();
+  }
+
+  @Test
+  void givenAnUnknownIdWhenGetStatusThenNull() {
+    //When
+    PatientImportJobStatus actual= classUnderTest.getStatus(UUID.randomUUID().toString());
+
+    //Then
+    assertThat(actual).isNull();
+  }
+
+  /**
+   * A job left RUNNING by another worker, its checkpoint and heartbeat as given.
+   */
+  private PatientImportJob stalledJob(PatientImportJob.Format format, String content, long rowsRead, long offset,
+                                      Instant heartbeatAt) throws IOException {
+    String id= UUID.randomUUID().toString();
+    Path file= Files.createTempFile("patient-import-job", ".tmp");
+    Files.writeString(file, content);
+    jobRepository.save(new PatientImportJob(id, format, file.toString(), Instant.now()));
+    jobRepository.claim(id, "crashed-worker", heartbeatAt, heartbeatAt,
+        PatientImportJob.Status.QUEUED, PatientImportJob.Status.RUNNING);
+    PatientImportJob job= jobRepository.findById(id).orElseThrow();
+    job.checkpoint(rowsRead, offset, (int) rowsRead, 0, 0, 100, heartbeatAt);
+    return jobRepository.save(job);
+  }
+
+  private PatientImportJobStatus await(String id) throws InterruptedException {
+    long deadline= System.currentTimeMillis() + 10_000;
+    PatientImportJobStatus status= classUnderTest.getStatus(id);
+    while (status.getFinishedAt() == null && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+      status= classUnderTest.getStatus(id);
+    }
+    return status;
+  }
+
+  private List<Patient> patients(String lastName) {
+    return patientRepository.findAll().stream()
+        .filter(patient -> lastName.equals(patient.getLastName()))
+        .collect(Collectors.toList());
+  }
+
+  private static String json(String lastName, String firstName) {
+    return "{\"firstName\":\"" + firstName + "\",\"lastName\":\"" + lastName + "\",\"dateOfBirth\":\""
+        + LocalDate.of(1990,1,1) + "\",\"gender\":\"F\"}";
+  }
+
+  private static String unique(String prefix) {
+    return prefix + UUID.randomUUID().toString().substring(0, 8);
+  }
+
+  private static ByteArrayInputStream stream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
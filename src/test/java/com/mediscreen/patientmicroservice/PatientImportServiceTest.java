@@ -0,0 +1,133 @@
+package com.mediscreen.patientmicroservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mediscreen.patientmicroservice.cache.PatientCache;
+import com.mediscreen.patientmicroservice.cache.PatientInvalidator;
+import com.mediscreen.patientmicroservice.cache.PatientResponseCache;
+import com.mediscreen.patientmicroservice.event.PatientChangeEvent;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.PatientImportResult;
+import com.mediscreen.patientmicroservice.model.PatientImportResult.Status;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.service.PatientImportService;
+import com.mediscreen.patientmicroservice.service.PatientService;
+import com.mediscreen.patientmicroservice.stats.PatientStatsCounters;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class PatientImportServiceTest {
+
+  private final PatientRepository repository= mock(PatientRepository.class);
+
+  private final EntityManager entityManager= mock(EntityManager.class);
+
+  private final PlatformTransactionManager transactionManager= mock(PlatformTransactionManager.class);
+
+  private final ObjectMapper objectMapper= Jackson2ObjectMapperBuilder.json().build();
+
+  private final ApplicationEventPublisher eventPublisher= mock(ApplicationEventPublisher.class);
+
+  private final PatientCache cache= new PatientCache(100,Duration.ofMinutes(1));
+
+  private final PatientImportService classUnderTest= new PatientImportService(new PatientService(repository,
+      cache,new PatientInvalidator(cache,mock(PatientResponseCache.class),
+      mock(EntityManagerFactory.class,RETURNS_DEEP_STUBS),false,List.of()),eventPublisher,
+      mock(PatientStatsCounters.class)),
+      entityManager,transactionManager,eventPublisher,objectMapper,2);
+
+  private final AtomicInteger sequence= new AtomicInteger();
+
+  private static final String JOHN= "{\"firstName\":\"John\",\"lastName\":\"Doe\",\"dateOfBirth\":\"2022-01-01\",\"gender\":\"M\"}";
+  private static final String JANE= "{\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"dateOfBirth\":\"2022-01-01\",\"gender\":\"F\"}";
+  private static final String NO_GENDER= "{\"firstName\":\"Dave\",\"lastName\":\"Smith\",\"dateOfBirth\":\"2022-01-01\"}";
+  private static final String BAD_DATE= "{\"firstName\":\"Dave\",\"lastName\":\"Smith\",\"dateOfBirth\":\"2022-13-01\",\"gender\":\"M\"}";
+
+  @Test
+  void givenAJsonArrayWhenImportPatientsThenEveryValidPatientIsCreatedInChunks() throws Exception {
+    //Given
+    assignIdsOnPersist();
+
+    //When
+    List<PatientImportResult> actual= classUnderTest.importPatients(body("[" + JOHN + "," + JANE + "," + JOHN + "]"));
+
+    //Then
+    assertThat(actual).extracting(PatientImportResult::getStatus)
+        .containsExactly(Status.CREATED,Status.CREATED,Status.CREATED);
+    assertThat(actual).extracting(PatientImportResult::getId).containsExactly(1,2,3);
+    verify(entityManager,times(3)).persist(any(Patient.class));
+    verify(entityManager,times(2)).flush();
+    verify(transactionManager,times(2)).commit(any());
+    verify(eventPublisher,times(3)).publishEvent(any(PatientChangeEvent.class));
+  }
+
+  @Test
+  void givenNdjsonWithInvalidRecordsWhenImportPatientsThenReportThemInRequestOrder() throws Exception {
+    //Given
+    assignIdsOnPersist();
+
+    //When
+    List<PatientImportResult> actual= classUnderTest.importPatients(
+        body(NO_GENDER + "\n" + JOHN + "\n" + BAD_DATE + "\n" + JANE + "\n"));
+
+    //Then
+    assertThat(actual).extracting(PatientImportResult::getIndex).containsExactly(0,1,2,3);
+    assertThat(actual).extracting(PatientImportResult::getStatus)
+        .containsExactly(Status.INVALID,Status.CREATED,Status.INVALID,Status.CREATED);
+    verify(entityManager,times(2)).persist(any(Patient.class));
+  }
+
+  @Test
+  void givenMalformedJsonWhenImportPatientsThenStopAndReportTheRecord() throws Exception {
+    //Given
+    assignIdsOnPersist();
+
+    //When
+    List<PatientImportResult> actual= classUnderTest.importPatients(body(JOHN + "\n{\"firstName\":"));
+
+    //Then
+    assertThat(actual).extracting(PatientImportResult::getStatus).containsExactly(Status.CREATED,Status.INVALID);
+  }
+
+  @Test
+  void givenADatabaseErrorWhenImportPatientsThenTheWholeChunkIsFailed() throws Exception {
+    //Given
+    doThrow(new PersistenceException("constraint violation")).when(entityManager).flush();
+
+    //When
+    List<PatientImportResult> actual= classUnderTest.importPatients(body(JOHN + "\n" + JANE));
+
+    //Then
+    assertThat(actual).extracting(PatientImportResult::getStatus).containsExactly(Status.FAILED,Status.FAILED);
+    assertThat(actual.get(0).getMessage()).isEqualTo("constraint violation");
+    verify(transactionManager,times(1)).rollback(any());
+    verify(eventPublisher,never()).publishEvent(any());
+  }
+
+  private void assignIdsOnPersist() {
+    doAnswer(invocation -> {
+      Patient patient= invocation.getArgument(0);
+      ReflectionTestUtils.setField(patient,"id",sequence.incrementAndGet());
+      return null;
+    }).when(entityManager).persist(any(Patient.class));
+  }
+
+  private ByteArrayInputStream body(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
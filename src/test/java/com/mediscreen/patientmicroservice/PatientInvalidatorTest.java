@@ -0,0 +1,97 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.cache.PatientCache;
+import com.mediscreen.patientmicroservice.cache.PatientInvalidationBroadcaster;
+import com.mediscreen.patientmicroservice.cache.PatientInvalidator;
+import com.mediscreen.patientmicroservice.cache.PatientResponseCache;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class PatientInvalidatorTest {
+
+  private final PatientInvalidationBroadcaster broadcaster= mock(PatientInvalidationBroadcaster.class);
+
+  private final PatientCache cache= new PatientCache(100, Duration.ofMinutes(1));
+
+  private final PatientResponseCache responseCache= new PatientResponseCache(true, DataSize.ofMegabytes(1),
+      Duration.ofMinutes(1), DataSize.ofKilobytes(1));
+
+  private final EntityManagerFactory entityManagerFactory= mock(EntityManagerFactory.class);
+
+  private final Cache secondLevelCache= mock(Cache.class);
+
+  private final PatientInvalidator classUnderTest= new PatientInvalidator(cache, responseCache, entityManagerFactory,
+      false, List.of(broadcaster));
+
+  {
+    when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+  }
+
+  private final Patient patient= new PatientBuilder().id(1).lastName("Doe").build();
+
+  @Test
+  void givenAPatientCachedWhenInvalidateThenEvictedEverywhereAndBroadcast() {
+    //Given
+    cacheEverywhere();
+
+    //When
+    classUnderTest.invalidate(1);
+
+    //Then
+    assertThat(cache.getIfPresent(1)).isEmpty();
+    assertThat(responseCache.getPatient(1, "application/json")).isNull();
+    assertThat(responseCache.getPage("first", "application/json")).isNull();
+    verify(broadcaster).broadcastInvalidation(1);
+  }
+
+  @Test
+  void givenARemoteInvalidationWhenInvalidateLocallyThenEvictedEverywhereButNotBroadcastAgain() {
+    //Given
+    cacheEverywhere();
+
+    //When
+    classUnderTest.invalidateLocally(1);
+
+    //Then
+    assertThat(cache.getIfPresent(1)).isEmpty();
+    verify(secondLevelCache).evict(Patient.class, 1);
+    assertThat(responseCache.getPatient(1, "application/json")).isNull();
+    assertThat(responseCache.getPage("first", "application/json")).isNull();
+    verify(broadcaster,never()).broadcastInvalidation(anyInt());
+  }
+
+  @Test
+  void givenAPatientAddedWhenInvalidatePagesThenPagesEvictedAndBroadcast() {
+    //Given
+    cacheEverywhere();
+
+    //When
+    classUnderTest.invalidatePages();
+
+    //Then
+    assertThat(cache.getIfPresent(1)).contains(patient);
+    assertThat(responseCache.getPatient(1, "application/json")).isNotNull();
+    assertThat(responseCache.getPage("first", "application/json")).isNull();
+    verify(broadcaster).broadcastPageInvalidation();
+  }
+
+  private void cacheEverywhere() {
+    cache.get(1, id -> Optional.of(patient));
+    byte[] body= "{}".getBytes(StandardCharsets.UTF_8);
+    responseCache.putPatient(1, responseCache.generation(), responseCache.encode("application/json", body, "\"1-0\"", null));
+    responseCache.putPage("first", responseCache.generation(), responseCache.encode("application/json", body, null, null));
+  }
+}
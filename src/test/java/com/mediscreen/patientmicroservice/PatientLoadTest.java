@@ -0,0 +1,230 @@
+package com.mediscreen.patientmicroservice;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load on the real /patientAPI endpoints, see the loadTest Gradle task. Each client is a closed
+ * loop: it sends its next request when the previous one answered, so latencies are service times under
+ * that concurrency. Configured with system properties:
+ * load.patients, load.clients, load.warmup, load.duration, load.mix and load.report-dir.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:load-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.sql.init.mode=never",
+    "patient.second-level-cache.uri=load-test",
+    "logging.level.root=warn"
+})
+public class PatientLoadTest {
+
+  private static final int PATIENTS= Integer.getInteger("load.patients",10_000);
+  private static final int CLIENTS= Integer.getInteger("load.clients",16);
+  private static final Duration WARMUP= Duration.parse(System.getProperty("load.warmup","PT5S"));
+  private static final Duration DURATION= Duration.parse(System.getProperty("load.duration","PT30S"));
+  private static final String MIX= System.getProperty("load.mix","read=60,page=10,search=15,create=5,update=10");
+  private static final Path REPORT_DIR= Paths.get(System.getProperty("load.report-dir","build/reports/load-test"));
+
+  private static final long HIGHEST_LATENCY_MICROS= Duration.ofMinutes(1).toNanos() / 1000;
+
+  enum Operation { READ, PAGE, SEARCH, CREATE, UPDATE }
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final HttpClient httpClient= HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(Duration.ofSeconds(5))
+      .build();
+
+  @Test
+  void givenSeededPatientsWhenClientsRunTheMixThenLatencyReportWritten() throws Exception {
+    //Given
+    int maxId= new PatientDataGenerator(42).seed(jdbcTemplate, PATIENTS);
+    Operation[] mix= parseMix(MIX);
+    AtomicInteger errors= new AtomicInteger();
+    AtomicInteger shed= new AtomicInteger();
+
+    //When
+    long measureFrom= System.nanoTime() + WARMUP.toNanos();
+    long end= measureFrom + DURATION.toNanos();
+    ExecutorService executor= Executors.newFixedThreadPool(CLIENTS);
+    List<Future<Map<Operation, Histogram>>> clients= new ArrayList<>();
+    for (int client = 0; client < CLIENTS; client++) {
+      int clientIndex= client;
+      clients.add(executor.submit(() -> runClient(clientIndex, mix, maxId, measureFrom, end, errors, shed)));
+    }
+    Map<Operation, Histogram> histograms= new EnumMap<>(Operation.class);
+    for (Future<Map<Operation, Histogram>> client : clients) {
+      client.get().forEach((operation, histogram) ->
+          histograms.computeIfAbsent(operation, key -> newHistogram()).add(histogram));
+    }
+    executor.shutdown();
+    writeReport(histograms, errors.get(), shed.get());
+
+    //Then
+    assertThat(errors.get()).isZero();
+    assertThat(histograms.values().stream().mapToLong(Histogram::getTotalCount).sum()).isPositive();
+  }
+
+  private Map<Operation, Histogram> runClient(int client, Operation[] mix, int maxId, long measureFrom, long end,
+                                              AtomicInteger errors, AtomicInteger shed) throws Exception {
+    Random random= new Random(client);
+    PatientDataGenerator generator= new PatientDataGenerator(client);
+    Map<Operation, Histogram> histograms= new EnumMap<>(Operation.class);
+
+    long now;
+    while ((now= System.nanoTime()) < end) {
+      Operation operation= mix[random.nextInt(mix.length)];
+      HttpRequest request= request(operation, client, random, generator, maxId);
+
+      long start= System.nanoTime();
+      HttpResponse<byte[]> response= httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+      long micros= (System.nanoTime() - start) / 1000;
+
+      if (now >= measureFrom){
+        histograms.computeIfAbsent(operation, key -> newHistogram()).recordValue(Math.min(micros, HIGHEST_LATENCY_MICROS));
+        if (response.statusCode()==503){
+          shed.incrementAndGet();
+        } else if (response.statusCode() >= 400){
+          errors.incrementAndGet();
+        }
+      }
+    }
+    return histograms;
+  }
+
+  private HttpRequest request(Operation operation, int client, Random random, PatientDataGenerator generator,
+                              int maxId) {
+    int id= 1 + random.nextInt(maxId);
+    switch (operation) {
+      case READ:
+        return get("/patients/" + id);
+      case PAGE:
+        return get("/patients?after=" + id + "&limit=50");
+      case SEARCH:
+        return get("/patients/search?lastName=" + generator.lastName().substring(0, 3) + "&size=20");
+      case CREATE:
+        return send("POST", "/patients", "{\"firstName\":\"" + generator.firstName()
+            + "\",\"lastName\":\"" + generator.lastName()
+            + "\",\"dateOfBirth\":\"" + generator.dateOfBirth()
+            + "\",\"gender\":\"" + generator.gender()
+            + "\",\"address\":\"" + generator.address()
+            + "\",\"phone\":\"" + generator.phone() + "\"}");
+      default:
+        // each client updates its own ids, concurrent updates of a row would fail on its version
+        int ownId= 1 + client + CLIENTS * random.nextInt(Math.max(1, maxId / CLIENTS));
+        return send("PATCH", "/patients/" + ownId, "{\"phone\":\"" + generator.phone() + "\"}");
+    }
+  }
+
+  private HttpRequest get(String path) {
+    return HttpRequest.newBuilder(uri(path)).header("Accept", "application/json").GET().build();
+  }
+
+  private HttpRequest send(String method, String path, String json) {
+    return HttpRequest.newBuilder(uri(path))
+        .header("Content-Type", "application/json")
+        .method(method, HttpRequest.BodyPublishers.ofString(json))
+        .build();
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://localhost:" + port + "/patientAPI" + path);
+  }
+
+  /**
+   * read=60,search=30,update=10 gives 100 slots picked uniformly.
+   */
+  private static Operation[] parseMix(String mix) {
+    List<Operation> slots= new ArrayList<>();
+    for (String entry : mix.split(",")) {
+      String[] weight= entry.trim().split("=");
+      Operation operation= Operation.valueOf(weight[0].trim().toUpperCase());
+      for (int i = 0; i < Integer.parseInt(weight[1].trim()); i++) {
+        slots.add(operation);
+      }
+    }
+    return slots.toArray(new Operation[0]);
+  }
+
+  private static Histogram newHistogram() {
+    return new Histogram(HIGHEST_LATENCY_MICROS, 3);
+  }
+
+  /**
+   * A summary table plus one .hgrm percentile distribution per operation, in milliseconds, which the
+   * HdrHistogram plotter reads.
+   */
+  private void writeReport(Map<Operation, Histogram> histograms, int errors, int shed) throws IOException {
+    Files.createDirectories(REPORT_DIR);
+    Histogram all= newHistogram();
+    histograms.values().forEach(all::add);
+
+    StringBuilder summary= new StringBuilder();
+    summary.append(String.format("patients=%d clients=%d warmup=%s duration=%s mix=%s errors=%d shed=%d%n%n",
+        PATIENTS, CLIENTS, WARMUP, DURATION, MIX, errors, shed));
+    summary.append(String.format("%-8s %10s %10s %10s %10s %10s %10s%n",
+        "op", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+    for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+      summary.append(line(entry.getKey().name().toLowerCase(), entry.getValue()));
+      writeDistribution(entry.getKey().name().toLowerCase(), entry.getValue());
+    }
+    summary.append(line("all", all));
+    writeDistribution("all", all);
+
+    Files.writeString(REPORT_DIR.resolve("summary.txt"), summary);
+    System.out.print(summary);
+  }
+
+  private String line(String name, Histogram histogram) {
+    return String.format("%-8s %10d %10.1f %10.3f %10.3f %10.3f %10.3f%n", name, histogram.getTotalCount(),
+        histogram.getTotalCount() / (DURATION.toMillis() / 1000d),
+        millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(99)),
+        millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()));
+  }
+
+  private void writeDistribution(String name, Histogram histogram) throws IOException {
+    try (PrintStream out= new PrintStream(Files.newOutputStream(REPORT_DIR.resolve(name + ".hgrm")))) {
+      histogram.outputPercentileDistribution(out, 1000.0);
+    }
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000d;
+  }
+}
@@ -0,0 +1,88 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.service.PatientService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:metrics;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.sql.init.mode=never",
+    "patient.second-level-cache.uri=metrics-test",
+    "patient.response-cache.enabled=false",
+    "patient.metrics.slow-request-threshold=0ms"
+})
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@ExtendWith(OutputCaptureExtension.class)
+public class PatientMetricsTest {
+
+  @Autowired
+  private PatientService service;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  void givenAPatientReadWhenScrapedThenLayerTimersRowsPoolAndHibernateMetricsExposed() throws Exception {
+    //Given
+    Patient patient= service.addPatient(patient());
+    mockMvc.perform(get("/patientAPI/patients/" + patient.getId())).andExpect(status().isOk());
+    mockMvc.perform(get("/patientAPI/patients")).andExpect(status().isOk());
+
+    //When
+    String actual= mockMvc.perform(get("/actuator/prometheus"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+
+    //Then
+    assertThat(actual)
+        .contains("http_server_requests_seconds_bucket{")
+        .containsPattern("patient_service_seconds_bucket\\{.*class=\"PatientService\".*method=\"getPatientById\"")
+        .containsPattern("patient_repository_seconds_count\\{.*class=\"PatientRepository\".*method=\"findById\"")
+        .containsPattern("patient_repository_rows_sum\\{.*method=\"findByIdGreaterThanOrderByIdAsc\".* 1.0")
+        .contains("hikaricp_connections_acquire_seconds_bucket{")
+        .contains("hibernate_statements_total{");
+  }
+
+  @Test
+  void givenARequestOverTheThresholdWhenServedThenTimeLoggedByLayer(CapturedOutput output) throws Exception {
+    //Given
+    Patient patient= service.addPatient(patient());
+
+    //When
+    mockMvc.perform(get("/patientAPI/patients/" + patient.getId())).andExpect(status().isOk());
+
+    //Then
+    assertThat(output.getOut())
+        .containsPattern("Slow request GET /patientAPI/patients/" + patient.getId() + " -> 200 in \\d+ ms: "
+            + "http=\\d+ controller=\\d+ service=\\d+ connection=\\d+ repository=\\d+");
+  }
+
+  private Patient patient() {
+    return new PatientBuilder()
+        .firstName("John")
+        .lastName("Doe")
+        .dateOfBirth(LocalDate.of(2022,1,1))
+        .gender("M")
+        .build();
+  }
+}
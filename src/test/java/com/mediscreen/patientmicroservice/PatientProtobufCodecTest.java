@@ -0,0 +1,75 @@
+package com.mediscreen.patientmicroservice;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.model.PatientBatch;
+import com.mediscreen.patientmicroservice.wire.PatientProtobufCodec;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PatientProtobufCodecTest {
+
+  Patient patient1= new PatientBuilder()
+      .id(1)
+      .firstName("Élodie")
+      .lastName("Fernández")
+      .dateOfBirth(LocalDate.of(1952,9,27))
+      .gender("F")
+      .address("745 West Valley Farms Drive")
+      .phone("628-423-0993")
+      .build();
+
+  Patient patient2= new PatientBuilder()
+      .id(2)
+      .firstName("Max")
+      .lastName("Buckland")
+      .dateOfBirth(LocalDate.of(1970,1,1))
+      .gender("M")
+      .build();
+
+  @Test
+  void givenAPatientWhenEncodeAndDecodeThenAllFieldsAreKept() throws IOException {
+    //When
+    Patient actual= PatientProtobufCodec.readPatient(CodedInputStream.newInstance(encode(output ->
+        PatientProtobufCodec.writePatient(patient1,output))));
+
+    //Then
+    assertThat(actual).usingRecursiveComparison().isEqualTo(patient1);
+  }
+
+  @Test
+  void givenABatchWhenEncodeAndDecodeThenPatientsAndMissingIdsAreKept() throws IOException {
+    //Given
+    PatientBatch batch= new PatientBatch(List.of(patient1,patient2),List.of(7,300000));
+
+    //When
+    PatientBatch actual= PatientProtobufCodec.readBatch(CodedInputStream.newInstance(encode(output ->
+        PatientProtobufCodec.writeBatch(batch,output))));
+
+    //Then
+    assertThat(actual.getPatients()).usingRecursiveFieldByFieldElementComparator().containsExactly(patient1,patient2);
+    assertThat(actual.getMissingIds()).containsExactly(7,300000);
+    assertThat(actual.getPatients().get(1).getDateOfBirth()).isEqualTo(LocalDate.of(1970,1,1));
+    assertThat(actual.getPatients().get(1).getAddress()).isNull();
+  }
+
+  private byte[] encode(Writer writer) throws IOException {
+    ByteArrayOutputStream bytes= new ByteArrayOutputStream();
+    CodedOutputStream output= CodedOutputStream.newInstance(bytes);
+    writer.write(output);
+    output.flush();
+    return bytes.toByteArray();
+  }
+
+  private interface Writer {
+    void write(CodedOutputStream output) throws IOException;
+  }
+}
@@ -0,0 +1,222 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.model.PatientIdentity;
+import com.mediscreen.patientmicroservice.model.PatientPatch;
+import com.mediscreen.patientmicroservice.model.PatientSearchCriteria;
+import com.mediscreen.patientmicroservice.model.PatientStatsGroup;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.repository.PatientSpecifications;
+import com.mediscreen.patientmicroservice.stats.AgeBands;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.sql.init.mode=never"
+})
+public class PatientRepositoryTest {
+
+  @Autowired
+  private PatientRepository repository;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  @BeforeEach
+  void setUp() {
+    repository.saveAll(List.of(
+        patient("Ferguson","Lucas",LocalDate.of(1968,6,22),"M"),
+        patient("Fernández","Élodie",LocalDate.of(1952,9,27),"F"),
+        patient("Ferz","Anna",LocalDate.of(1990,1,1),"F"),
+        patient("Fes","Max",LocalDate.of(1945,6,24),"M"),
+        patient("O'Brien","Pippa",LocalDate.of(1952,9,27),"F")));
+    repository.flush();
+  }
+
+  @Test
+  void givenALastNamePrefixWhenSearchThenReturnMatchingPatientsIgnoringCaseAndAccents() {
+    //Given
+    PatientSearchCriteria criteria= new PatientSearchCriteria();
+    criteria.setLastName("FER");
+
+    //When
+    List<Patient> actual= search(criteria);
+
+    //Then
+    assertThat(actual).extracting(Patient::getLastName).containsExactly("Ferguson","Fernández","Ferz");
+  }
+
+  @Test
+  void givenAPrefixWithPunctuationWhenSearchThenMatchOnNormalizedName() {
+    //Given
+    PatientSearchCriteria criteria= new PatientSearchCriteria();
+    criteria.setLastName("obr");
+
+    //When
+    List<Patient> actual= search(criteria);
+
+    //Then
+    assertThat(actual).extracting(Patient::getLastName).containsExactly("O'Brien");
+  }
+
+  @Test
+  void givenAFirstNamePrefixAndAGenderWhenSearchThenCombineFilters() {
+    //Given
+    PatientSearchCriteria criteria= new PatientSearchCriteria();
+    criteria.setFirstName("elo");
+    criteria.setGender("F");
+
+    //When
+    List<Patient> actual= search(criteria);
+
+    //Then
+    assertThat(actual).extracting(Patient::getFirstName).containsExactly("Élodie");
+  }
+
+  @Test
+  void givenAPrefixWhenSearchOnAnyNameThenMatchLastOrFirstName() {
+    //When
+    List<Patient> firstName= searchAnyName("ma");
+    List<Patient> lastName= searchAnyName("obr");
+
+    //Then
+    assertThat(firstName).extracting(Patient::getFirstName).containsExactly("Max");
+    assertThat(lastName).extracting(Patient::getLastName).containsExactly("O'Brien");
+  }
+
+  @Test
+  void givenADateOfBirthRangeWhenSearchThenReturnPatientsBornInRange() {
+    //Given
+    PatientSearchCriteria criteria= new PatientSearchCriteria();
+    criteria.setBornAfter(LocalDate.of(1950,1,1));
+    criteria.setBornBefore(LocalDate.of(1970,1,1));
+
+    //When
+    List<Patient> actual= search(criteria);
+
+    //Then
+    assertThat(actual).extracting(Patient::getLastName).containsExactly("Ferguson","Fernández","O'Brien");
+  }
+
+  @Test
+  void givenAnExactDateOfBirthWhenSearchThenReturnPatientsBornThatDay() {
+    //Given
+    PatientSearchCriteria criteria= new PatientSearchCriteria();
+    criteria.setDateOfBirth(LocalDate.of(1952,9,27));
+
+    //When
+    List<Patient> actual= search(criteria);
+
+    //Then
+    assertThat(actual).extracting(Patient::getLastName).containsExactly("Fernández","O'Brien");
+  }
+
+  @Test
+  void givenAPatchWhenPatchPatientThenUpdateOnlyPatchedColumnsAndNameKeys() {
+    //Given
+    Patient ferguson= repository.findAll().get(0);
+    ferguson.setAddress("1 Brookside St");
+    repository.saveAndFlush(ferguson);
+    PatientPatch patch= new PatientPatch();
+    patch.setLastName("Zimmer");
+    patch.setPhone("111-222-3333");
+
+    //When
+    int actual= repository.patchPatient(ferguson.getId(),patch);
+    entityManager.clear();
+
+    //Then
+    assertThat(actual).isEqualTo(1);
+    assertThat(repository.findVersionById(ferguson.getId())).contains(ferguson.getVersion() + 1);
+    Patient patched= repository.findById(ferguson.getId()).orElseThrow();
+    assertThat(patched.getLastName()).isEqualTo("Zimmer");
+    assertThat(patched.getFirstName()).isEqualTo("Lucas");
+    assertThat(patched.getAddress()).isEqualTo("1 Brookside St");
+    assertThat(patched.getPhone()).isEqualTo("111-222-3333");
+    PatientSearchCriteria criteria= new PatientSearchCriteria();
+    criteria.setLastName("zim");
+    assertThat(search(criteria)).extracting(Patient::getId).containsExactly(ferguson.getId());
+  }
+
+  @Test
+  void givenAPatientIdWhenDeletePatientByIdThenReturnTheNumberOfDeletedRows() {
+    //Given
+    int id= repository.findAll().get(0).getId();
+
+    //When
+    int deleted= repository.deletePatientById(id);
+    int deletedAgain= repository.deletePatientById(id);
+
+    //Then
+    assertThat(deleted).isEqualTo(1);
+    assertThat(deletedAgain).isZero();
+    assertThat(repository.count()).isEqualTo(4);
+  }
+
+  @Test
+  void givenADateOfBirthWhenFindIdentitiesByDateOfBirthThenReturnNamesOfPatientsBornThatDay() {
+    //When
+    List<PatientIdentity> actual= repository.findIdentitiesByDateOfBirth(LocalDate.of(1952,9,27),
+        PageRequest.of(0,10));
+
+    //Then
+    assertThat(actual).extracting(PatientIdentity::getLastName).containsExactlyInAnyOrder("Fernández","O'Brien");
+    assertThat(actual).extracting(PatientIdentity::getDateOfBirth).containsOnly(LocalDate.of(1952,9,27));
+  }
+
+  @Test
+  void givenAgeBandsWhenCountByAgeBandAndGenderThenGroupedByTheDatabase() {
+    //When
+    List<PatientStatsGroup> actual= repository.countByAgeBandAndGender(new AgeBands(18,30,60),LocalDate.of(2022,6,22));
+
+    //Then
+    assertThat(actual).extracting(PatientStatsGroup::getAgeBand,PatientStatsGroup::getGender,PatientStatsGroup::getCount)
+        .containsExactly(tuple("30-59","F",1L),tuple("30-59","M",1L),tuple("60+","F",2L),tuple("60+","M",1L));
+  }
+
+  @Test
+  void givenAPatientWhoseBirthdayIsTheDayWhenCountByAgeBandAndGenderThenInTheOlderBand() {
+    //When
+    List<PatientStatsGroup> birthday= repository.countByAgeBandAndGender(new AgeBands(54,60),LocalDate.of(2022,6,22));
+    List<PatientStatsGroup> dayBefore= repository.countByAgeBandAndGender(new AgeBands(54,60),LocalDate.of(2022,6,21));
+
+    //Then
+    assertThat(birthday).extracting(PatientStatsGroup::getAgeBand,PatientStatsGroup::getGender)
+        .contains(tuple("54-59","M")).doesNotContain(tuple("0-53","M"));
+    assertThat(dayBefore).extracting(PatientStatsGroup::getAgeBand,PatientStatsGroup::getGender)
+        .contains(tuple("0-53","M")).doesNotContain(tuple("54-59","M"));
+  }
+
+  private List<Patient> search(PatientSearchCriteria criteria) {
+    return repository.findAll(PatientSpecifications.matching(criteria),
+        PageRequest.of(0,10,Sort.by("lastNameKey","firstNameKey","id"))).getContent();
+  }
+
+  private List<Patient> searchAnyName(String prefix) {
+    return repository.findAll(PatientSpecifications.anyNameStartsWith(prefix),
+        PageRequest.of(0,10,Sort.by("lastNameKey","firstNameKey","id"))).getContent();
+  }
+
+  private Patient patient(String lastName, String firstName, LocalDate dateOfBirth, String gender) {
+    return new PatientBuilder()
+        .lastName(lastName)
+        .firstName(firstName)
+        .dateOfBirth(dateOfBirth)
+        .gender(gender)
+        .build();
+  }
+}
@@ -0,0 +1,202 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.cache.PatientResponseCache;
+import com.mediscreen.patientmicroservice.cache.PatientResponseCacheFilter;
+import com.mediscreen.patientmicroservice.controller.PatientController;
+import com.mediscreen.patientmicroservice.datasource.ReadYourWritesFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PatientResponseCacheFilterTest {
+
+  private static final String BODY= "{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\",\"gender\":\"M\"}";
+
+  private final PatientResponseCache responseCache= new PatientResponseCache(true, DataSize.ofMegabytes(1),
+      Duration.ofMinutes(1), DataSize.ofBytes(32));
+
+  private final PatientResponseCacheFilter classUnderTest= new PatientResponseCacheFilter(responseCache);
+
+  private final AtomicInteger controllerCalls= new AtomicInteger();
+
+  private final FilterChain controller= (request, response) -> {
+    controllerCalls.incrementAndGet();
+    HttpServletResponse httpResponse= (HttpServletResponse) response;
+    httpResponse.setContentType("application/json");
+    httpResponse.setHeader(HttpHeaders.ETAG, "\"1-0\"");
+    httpResponse.setHeader(PatientController.NEXT_CURSOR_HEADER, "50");
+    httpResponse.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+  };
+
+  @Test
+  void givenAPatientServedOnceWhenGetAgainThenStoredBytesAreServedWithoutTheController() throws Exception {
+    //Given
+    get("/patientAPI/patients/1", null);
+
+    //When
+    MockHttpServletResponse actual= get("/patientAPI/patients/1", null);
+
+    //Then
+    assertThat(controllerCalls.get()).isEqualTo(1);
+    assertThat(actual.getStatus()).isEqualTo(200);
+    assertThat(actual.getContentType()).isEqualTo("application/json");
+    assertThat(actual.getContentAsString()).isEqualTo(BODY);
+    assertThat(actual.getHeader(HttpHeaders.ETAG)).isEqualTo("\"1-0\"");
+    assertThat(responseCache.hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  void givenAPageServedOnceWhenGetAgainThenNextCursorIsReplayed() throws Exception {
+    //Given
+    get("/patientAPI/patients", null);
+
+    //When
+    MockHttpServletResponse actual= get("/patientAPI/patients", null);
+
+    //Then
+    assertThat(controllerCalls.get()).isEqualTo(1);
+    assertThat(actual.getHeader(PatientController.NEXT_CURSOR_HEADER)).isEqualTo("50");
+  }
+
+  @Test
+  void givenAClientAcceptingGzipWhenHitThenPrecompressedBodyIsServed() throws Exception {
+    //Given
+    get("/patientAPI/patients/1", null);
+
+    //When
+    MockHttpServletResponse actual= get("/patientAPI/patients/1", "gzip, deflate");
+
+    //Then
+    assertThat(actual.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    assertThat(actual.getHeader(HttpHeaders.ETAG)).isEqualTo("\"1-0+gzip\"");
+    assertThat(actual.getContentLength()).isEqualTo(actual.getContentAsByteArray().length);
+    assertThat(gunzip(actual.getContentAsByteArray())).isEqualTo(BODY);
+  }
+
+  @Test
+  void givenAMatchingIfNoneMatchWhenHitThenNotModified() throws Exception {
+    //Given
+    get("/patientAPI/patients/1", null);
+    MockHttpServletRequest request= new MockHttpServletRequest("GET", "/patientAPI/patients/1");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"1-0\"");
+    MockHttpServletResponse actual= new MockHttpServletResponse();
+
+    //When
+    classUnderTest.doFilter(request, actual, controller);
+
+    //Then
+    assertThat(actual.getStatus()).isEqualTo(304);
+    assertThat(actual.getContentLength()).isZero();
+  }
+
+  @Test
+  void givenTheETagOfTheIdentityBodyWhenHitWithGzipThenTheGzipBodyIsServed() throws Exception {
+    //Given
+    get("/patientAPI/patients/1", null);
+    MockHttpServletRequest request= new MockHttpServletRequest("GET", "/patientAPI/patients/1");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"1-0\"");
+    request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+    MockHttpServletResponse actual= new MockHttpServletResponse();
+
+    //When
+    classUnderTest.doFilter(request, actual, controller);
+
+    //Then
+    assertThat(actual.getStatus()).isEqualTo(200);
+    assertThat(actual.getHeader(HttpHeaders.ETAG)).isEqualTo("\"1-0+gzip\"");
+    assertThat(gunzip(actual.getContentAsByteArray())).isEqualTo(BODY);
+  }
+
+  @Test
+  void givenAPatientEvictedWhenGetThenControllerIsCalledAgain() throws Exception {
+    //Given
+    get("/patientAPI/patients/1", null);
+    get("/patientAPI/patients", null);
+
+    //When
+    responseCache.evict(1);
+    get("/patientAPI/patients/1", null);
+    get("/patientAPI/patients", null);
+
+    //Then
+    assertThat(controllerCalls.get()).isEqualTo(4);
+  }
+
+  @Test
+  void givenAClientPinnedToThePrimaryWhenGetThenTheCachedResponseIsNotServed() throws Exception {
+    //Given
+    get("/patientAPI/patients/1", null);
+    MockHttpServletRequest request= new MockHttpServletRequest("GET", "/patientAPI/patients/1");
+    request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME,
+        String.valueOf(System.currentTimeMillis() + 60_000)));
+
+    //When
+    new ReadYourWritesFilter(Duration.ofSeconds(5)).doFilter(request, new MockHttpServletResponse(),
+        (pinnedRequest, pinnedResponse) -> classUnderTest.doFilter(pinnedRequest, pinnedResponse, controller));
+
+    //Then
+    assertThat(controllerCalls.get()).isEqualTo(2);
+    assertThat(responseCache.hitCount()).isZero();
+  }
+
+  @Test
+  void givenAWriteWhileTheResponseIsEncodedWhenGetAgainThenTheStaleResponseWasNotStored() throws Exception {
+    //Given
+    FilterChain racingWrite= (request, response) -> {
+      controller.doFilter(request, response);
+      responseCache.evict(1);
+    };
+    classUnderTest.doFilter(new MockHttpServletRequest("GET", "/patientAPI/patients/1"),
+        new MockHttpServletResponse(), racingWrite);
+
+    //When
+    get("/patientAPI/patients/1", null);
+
+    //Then
+    assertThat(controllerCalls.get()).isEqualTo(2);
+  }
+
+  @Test
+  void givenOtherPatientEndpointsWhenGetThenTheyAreNotCached() throws Exception {
+    //Given
+    get("/patientAPI/patients/search", null);
+
+    //When
+    get("/patientAPI/patients/search", null);
+
+    //Then
+    assertThat(controllerCalls.get()).isEqualTo(2);
+    assertThat(responseCache.size()).isZero();
+  }
+
+  private MockHttpServletResponse get(String path, String acceptEncoding) throws Exception {
+    MockHttpServletRequest request= new MockHttpServletRequest("GET", path);
+    if (acceptEncoding!=null){
+      request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+    }
+    MockHttpServletResponse response= new MockHttpServletResponse();
+    classUnderTest.doFilter(request, response, controller);
+    return response;
+  }
+
+  private String gunzip(byte[] bytes) throws IOException {
+    try (GZIPInputStream in= new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+    }
+  }
+}
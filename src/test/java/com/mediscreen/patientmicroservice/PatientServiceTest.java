@@ -1,24 +1,70 @@
 package com.mediscreen.patientmicroservice;
 
+import com.mediscreen.patientmicroservice.cache.PatientCache;
+import com.mediscreen.patientmicroservice.cache.PatientInvalidator;
+import com.mediscreen.patientmicroservice.cache.PatientResponseCache;
+import com.mediscreen.patientmicroservice.event.PatientChangeEvent;
+import com.mediscreen.patientmicroservice.exception.PreconditionFailedException;
 import com.mediscreen.patientmicroservice.model.Patient;
 import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.model.PatientBatch;
+import com.mediscreen.patientmicroservice.model.PatientPage;
+import com.mediscreen.patientmicroservice.model.PatientPatch;
+import com.mediscreen.patientmicroservice.model.PatientSearchCriteria;
+import com.mediscreen.patientmicroservice.model.PatientStats;
+import com.mediscreen.patientmicroservice.model.PatientStatsGroup;
 import com.mediscreen.patientmicroservice.repository.PatientRepository;
 import com.mediscreen.patientmicroservice.service.PatientService;
+import com.mediscreen.patientmicroservice.stats.PatientStatsCounters;
 import org.junit.jupiter.api.Test;
-
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class PatientServiceTest {
 
   private final PatientRepository repository= mock(PatientRepository.class);
 
-  private final PatientService classUnderTest= new PatientService(repository);
+  private final PatientCache cache= new PatientCache(100, Duration.ofMinutes(1));
+
+  private final PatientResponseCache responseCache= mock(PatientResponseCache.class);
+
+  private final EntityManagerFactory entityManagerFactory= mock(EntityManagerFactory.class);
+
+  private final Cache secondLevelCache= mock(Cache.class);
+
+  private final PatientInvalidator invalidator= new PatientInvalidator(cache, responseCache, entityManagerFactory,
+      false, List.of());
+
+  private final ApplicationEventPublisher eventPublisher= mock(ApplicationEventPublisher.class);
+
+  private final PatientStatsCounters statsCounters= new PatientStatsCounters(true,new int[]{18,30});
+
+  private final PatientService classUnderTest= new PatientService(repository,cache,invalidator,eventPublisher,
+      statsCounters);
+
+  {
+    when(entityManagerFactory.getCache()).thenReturn(secondLevelCache);
+  }
 
   Patient patient1= new PatientBuilder()
       .id(1)
@@ -70,6 +116,80 @@ public class PatientServiceTest {
     assertTrue(actual.isEmpty());
   }
 
+  @Test
+  void givenMorePatientsThanTheLimitWhenGetPatientPageThenReturnPageWithNextCursor() {
+    //Given
+    when(repository.findByIdGreaterThanOrderByIdAsc(0, PageRequest.of(0,2)))
+        .thenReturn(List.of(patient1,patient2));
+
+    //When
+    PatientPage actual= classUnderTest.getPatientPage(null,1);
+
+    //Then
+    assertThat(actual.getPatients().size()).isEqualTo(1);
+    assertThat(actual.getNextCursor()).isEqualTo(1);
+    verifyAssertPatientField(actual.getPatients(),List.of(patient1));
+  }
+
+  @Test
+  void givenLastPageWhenGetPatientPageThenReturnPageWithoutNextCursor() {
+    //Given
+    when(repository.findByIdGreaterThanOrderByIdAsc(1, PageRequest.of(0,3)))
+        .thenReturn(List.of(patient2));
+
+    //When
+    PatientPage actual= classUnderTest.getPatientPage(1,2);
+
+    //Then
+    assertThat(actual.getPatients().size()).isEqualTo(1);
+    assertNull(actual.getNextCursor());
+  }
+
+  @Test
+  void givenNoOrTooLargeLimitWhenGetPatientPageThenPageSizeIsCapped() {
+    //Given
+    when(repository.findByIdGreaterThanOrderByIdAsc(anyInt(), any())).thenReturn(List.of());
+
+    //When
+    classUnderTest.getPatientPage(null,null);
+    classUnderTest.getPatientPage(null,100_000);
+
+    //Then
+    verify(repository,times(1)).findByIdGreaterThanOrderByIdAsc(0,
+        PageRequest.of(0,PatientService.DEFAULT_PAGE_SIZE + 1));
+    verify(repository,times(1)).findByIdGreaterThanOrderByIdAsc(0,
+        PageRequest.of(0,PatientService.MAX_PAGE_SIZE + 1));
+  }
+
+  @Test
+  void givenSearchCriteriaWhenSearchPatientsThenReturnPageSortedByName() {
+    //Given
+    PageRequest expectedPage= PageRequest.of(1,20,Sort.by("lastNameKey","firstNameKey","id"));
+    when(repository.findAll(ArgumentMatchers.<Specification<Patient>>any(),eq(expectedPage)))
+        .thenReturn(new PageImpl<>(List.of(patient2,patient1),expectedPage,22));
+
+    //When
+    Page<Patient> actual= classUnderTest.searchPatients(new PatientSearchCriteria(),1,20,null);
+
+    //Then
+    assertThat(actual.getTotalElements()).isEqualTo(22);
+    verifyAssertPatientField(actual.getContent(),List.of(patient2,patient1));
+  }
+
+  @Test
+  void givenASortOnDateOfBirthAndNoSizeWhenSearchPatientsThenUseDefaultPageSize() {
+    //Given
+    PageRequest expectedPage= PageRequest.of(0,PatientService.DEFAULT_PAGE_SIZE,Sort.by("dateOfBirth","id"));
+    when(repository.findAll(ArgumentMatchers.<Specification<Patient>>any(),eq(expectedPage))).thenReturn(Page.empty());
+
+    //When
+    Page<Patient> actual= classUnderTest.searchPatients(new PatientSearchCriteria(),-1,null,"dateOfBirth");
+
+    //Then
+    assertTrue(actual.isEmpty());
+    verify(repository,times(1)).findAll(ArgumentMatchers.<Specification<Patient>>any(),eq(expectedPage));
+  }
+
   @Test
   void givenPatientExistingWhenGetByIdThenReturnPatient() {
     //Given
@@ -83,6 +203,80 @@ public class PatientServiceTest {
     verify(repository,times(1)).findById(1);
   }
 
+  @Test
+  void givenPatientAlreadyReadWhenGetByIdThenReturnPatientFromCache() {
+    //Given
+    when(repository.findById(anyInt())).thenReturn(Optional.ofNullable(patient1));
+    classUnderTest.getPatientById(1);
+
+    //When
+    Optional<Patient> actual= classUnderTest.getPatientById(1);
+
+    //Then
+    verifyAssertPatientField(List.of(actual.get()),List.of(patient1));
+    verify(repository,times(1)).findById(1);
+    assertThat(cache.stats().hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  void givenPatientCachedWhenUpdatePatientThenNextGetByIdReloadsPatient() {
+    //Given
+    when(repository.findById(anyInt())).thenReturn(Optional.ofNullable(validPatient));
+    when(repository.save(any())).thenReturn(validPatient);
+    classUnderTest.getPatientById(3);
+
+    //When
+    classUnderTest.updatePatient(3,validPatient);
+    classUnderTest.getPatientById(3);
+
+    //Then
+    verify(repository,times(3)).findById(3);
+  }
+
+  @Test
+  void givenPatientCachedWhenDeletePatientThenPatientIsNoLongerCached() {
+    //Given
+    when(repository.findById(anyInt())).thenReturn(Optional.ofNullable(validPatient));
+    when(repository.deletePatientById(anyInt())).thenReturn(1);
+    classUnderTest.getPatientById(3);
+
+    //When
+    classUnderTest.deletePatient(3);
+
+    //Then
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void givenSomeIdsWhenGetPatientsByIdsThenReturnPatientsInRequestOrderAndMissingIds() {
+    //Given
+    when(repository.findAllById(any())).thenReturn(List.of(patient1,patient2));
+
+    //When
+    PatientBatch actual= classUnderTest.getPatientsByIds(List.of(2,4,1,2));
+
+    //Then
+    assertThat(actual.getPatients()).extracting(Patient::getId).containsExactly(2,1);
+    assertThat(actual.getMissingIds()).containsExactly(4);
+    verify(repository,times(1)).findAllById(Set.of(1,2,4));
+  }
+
+  @Test
+  void givenSomePatientsCachedWhenGetPatientsByIdsThenOnlyQueryTheMisses() {
+    //Given
+    when(repository.findById(anyInt())).thenReturn(Optional.ofNullable(patient1));
+    when(repository.findAllById(any())).thenReturn(List.of(patient2));
+    classUnderTest.getPatientById(1);
+
+    //When
+    PatientBatch actual= classUnderTest.getPatientsByIds(List.of(1,2));
+
+    //Then
+    assertThat(actual.getPatients()).extracting(Patient::getId).containsExactly(1,2);
+    assertTrue(actual.getMissingIds().isEmpty());
+    verify(repository,times(1)).findAllById(Set.of(2));
+  }
+
   @Test
   void givenNoPatientExistingWhenGetByIdThenReturnAnEmptyPatient() {
     //Given
@@ -106,6 +300,22 @@ public class PatientServiceTest {
 
     //Then
     verifyAssertPatientField(List.of(actual),List.of(validPatient));
+    verify(responseCache).evictPages();
+  }
+
+  @Test
+  void givenAValidPatientWhenAddPatientThenPublishCreatedEvent() {
+    //Given
+    when(repository.save(any())).thenReturn(validPatient);
+
+    //When
+    classUnderTest.addPatient(validPatient);
+
+    //Then
+    PatientChangeEvent event= captureEvent();
+    assertThat(event.getType()).isEqualTo(PatientChangeEvent.Type.CREATED);
+    assertThat(event.getPatientId()).isEqualTo(3);
+    assertThat(event.getPatient()).isSameAs(validPatient);
   }
 
   @Test
@@ -192,30 +402,206 @@ public class PatientServiceTest {
     verify(repository, times(0)).save(patientUpdated);
   }
 
+  @Test
+  void givenAStaleExpectedVersionWhenUpdatePatientThenThrowPreconditionFailed() {
+    //Given
+    when(repository.findById(anyInt())).thenReturn(Optional.of(new PatientBuilder().id(3).version(5L).build()));
+
+    //When
+    assertThrows(PreconditionFailedException.class, () -> classUnderTest.updatePatient(3,validPatient,4L));
+
+    //Then
+    verify(repository,never()).save(any());
+  }
+
+  @Test
+  void givenTheCurrentExpectedVersionWhenUpdatePatientThenPatientSaved() {
+    //Given
+    when(repository.findById(anyInt())).thenReturn(Optional.of(new PatientBuilder().id(3).version(5L).build()));
+    when(repository.save(any())).thenReturn(validPatient);
+
+    //When
+    Patient actual=classUnderTest.updatePatient(3,validPatient,5L);
+
+    //Then
+    assertThat(actual).isSameAs(validPatient);
+  }
+
+  @Test
+  void givenAPatientCachedWhenGetPatientVersionThenDoNotQueryTheDatabase() {
+    //Given
+    when(repository.findById(anyInt())).thenReturn(Optional.of(new PatientBuilder().id(3).version(5L).build()));
+    classUnderTest.getPatientById(3);
+
+    //When
+    Optional<Long> actual=classUnderTest.getPatientVersion(3);
+
+    //Then
+    assertThat(actual).contains(5L);
+    verify(repository,never()).findVersionById(anyInt());
+  }
+
+  @Test
+  void givenAPatientNotCachedWhenGetPatientVersionThenQueryOnlyTheVersion() {
+    //Given
+    when(repository.findVersionById(3)).thenReturn(Optional.of(5L));
+
+    //When
+    Optional<Long> actual=classUnderTest.getPatientVersion(3);
+
+    //Then
+    assertThat(actual).contains(5L);
+    verify(repository,never()).findById(anyInt());
+  }
+
   @Test
   void givenAPatientExistingWhenDeletePatientThenPatientDeletedAndReturnTrue() {
     //Given
-    when(repository.findById(anyInt())).thenReturn(Optional.ofNullable(validPatient));
+    when(repository.deletePatientById(anyInt())).thenReturn(1);
 
     //When
     boolean actual=classUnderTest.deletePatient(3);
 
     //Then
     assertTrue(actual);
-    verify(repository,times(1)).deleteById(3);
+    verify(repository,times(1)).deletePatientById(3);
+    verify(repository,never()).findById(anyInt());
+    verify(responseCache).evict(3);
+    verify(secondLevelCache).evict(Patient.class,3);
   }
 
   @Test
   void givenAPatientNotExistingWhenDeletePatientThenReturnFalse() {
     //Given
-    when(repository.findById(anyInt())).thenReturn(Optional.empty());
+    when(repository.deletePatientById(anyInt())).thenReturn(0);
 
     //When
     boolean actual=classUnderTest.deletePatient(3);
 
     //Then
     assertFalse(actual);
-    verify(repository,times(0)).deleteById(3);
+    verify(eventPublisher,never()).publishEvent(any());
+  }
+
+  @Test
+  void givenAPatientExistingWhenPatchPatientThenCacheEvictedAndPatchPublished() {
+    //Given
+    PatientPatch patch= new PatientPatch();
+    patch.setPhone("111-222-3333");
+    when(repository.findById(anyInt())).thenReturn(Optional.ofNullable(validPatient));
+    when(repository.patchPatient(anyInt(),any())).thenReturn(1);
+    classUnderTest.getPatientById(3);
+
+    //When
+    boolean actual=classUnderTest.patchPatient(3,patch);
+
+    //Then
+    assertTrue(actual);
+    assertThat(cache.size()).isZero();
+    verify(responseCache).evict(3);
+    verify(secondLevelCache).evict(Patient.class,3);
+    PatientChangeEvent event= captureEvent();
+    assertThat(event.getType()).isEqualTo(PatientChangeEvent.Type.UPDATED);
+    assertThat(event.getPatch()).isSameAs(patch);
+  }
+
+  @Test
+  void givenAPatientNotExistingWhenPatchPatientThenReturnFalse() {
+    //Given
+    PatientPatch patch= new PatientPatch();
+    patch.setPhone("111-222-3333");
+    when(repository.patchPatient(anyInt(),any())).thenReturn(0);
+
+    //When
+    boolean actual=classUnderTest.patchPatient(3,patch);
+
+    //Then
+    assertFalse(actual);
+    verify(eventPublisher,never()).publishEvent(any());
+  }
+
+  @Test
+  void givenAnEmptyPatchWhenPatchPatientThenNoUpdateIsIssued() {
+    //Given
+    when(repository.existsById(anyInt())).thenReturn(true);
+
+    //When
+    boolean actual=classUnderTest.patchPatient(3,new PatientPatch());
+
+    //Then
+    assertTrue(actual);
+    verify(repository,never()).patchPatient(anyInt(),any());
+    verify(eventPublisher,never()).publishEvent(any());
+  }
+
+  @Test
+  void givenStatsCountersLoadedWhenACachedPatientIsAddedPatchedAndDeletedThenCountersFollow() {
+    //Given
+    LocalDate today= LocalDate.now();
+    statsCounters.load(today, List.of());
+    when(repository.save(any())).thenReturn(validPatient);
+    when(repository.patchPatient(anyInt(),any())).thenReturn(1);
+    when(repository.deletePatientById(anyInt())).thenReturn(1);
+    PatientPatch patch= new PatientPatch();
+    patch.setDateOfBirth(today.minusYears(40));
+    Patient patientPatched= new PatientBuilder().id(3).dateOfBirth(today.minusYears(40)).gender("M").build();
+    when(repository.findById(anyInt())).thenReturn(Optional.ofNullable(validPatient)).thenReturn(Optional.of(patientPatched));
+
+    //When
+    classUnderTest.addPatient(validPatient);
+    PatientStats added= statsCounters.snapshot(today);
+    classUnderTest.getPatientById(3);
+    classUnderTest.patchPatient(3,patch);
+    PatientStats patched= statsCounters.snapshot(today);
+    classUnderTest.getPatientById(3);
+    classUnderTest.deletePatient(3);
+
+    //Then
+    assertThat(added.getGroups()).extracting(PatientStatsGroup::getAgeBand,PatientStatsGroup::getGender,
+        PatientStatsGroup::getCount).containsExactly(tuple("0-17","M",1L));
+    assertThat(patched.getGroups()).extracting(PatientStatsGroup::getAgeBand,PatientStatsGroup::getGender,
+        PatientStatsGroup::getCount).containsExactly(tuple("30+","M",1L));
+    assertThat(statsCounters.snapshot(today).getTotal()).isZero();
+  }
+
+  @Test
+  void givenStatsCountersLoadedWhenAPatchChangesTheGenderOfAPatientNotCachedThenCountersInvalidated() {
+    //Given
+    statsCounters.load(LocalDate.now(), List.of());
+    PatientPatch patch= new PatientPatch();
+    patch.setGender("F");
+    when(repository.patchPatient(3,patch)).thenReturn(1);
+
+    //When
+    classUnderTest.patchPatient(3,patch);
+
+    //Then
+    assertNull(statsCounters.snapshot(LocalDate.now()));
+  }
+
+  @Test
+  void givenAPatientExistingWhenUpdateOrDeletePatientThenPublishEvents() {
+    //Given
+    when(repository.findById(anyInt())).thenReturn(Optional.ofNullable(validPatient));
+    when(repository.save(any())).thenReturn(validPatient);
+    when(repository.deletePatientById(anyInt())).thenReturn(1);
+
+    //When
+    classUnderTest.updatePatient(3,validPatient);
+    classUnderTest.deletePatient(3);
+
+    //Then
+    ArgumentCaptor<PatientChangeEvent> events= ArgumentCaptor.forClass(PatientChangeEvent.class);
+    verify(eventPublisher,times(2)).publishEvent(events.capture());
+    assertThat(events.getAllValues()).extracting(PatientChangeEvent::getType)
+        .containsExactly(PatientChangeEvent.Type.UPDATED,PatientChangeEvent.Type.DELETED);
+    assertThat(events.getAllValues()).extracting(PatientChangeEvent::getPatientId).containsExactly(3,3);
+  }
+
+  private PatientChangeEvent captureEvent() {
+    ArgumentCaptor<PatientChangeEvent> event= ArgumentCaptor.forClass(PatientChangeEvent.class);
+    verify(eventPublisher,times(1)).publishEvent(event.capture());
+    return event.getValue();
   }
 
   private void verifyAssertPatientField(List<Patient> actual, List<Patient> expected){
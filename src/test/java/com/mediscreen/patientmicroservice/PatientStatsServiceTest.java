@@ -0,0 +1,75 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.model.PatientStats;
+import com.mediscreen.patientmicroservice.model.PatientStatsGroup;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.service.PatientStatsService;
+import com.mediscreen.patientmicroservice.stats.PatientStatsCounters;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class PatientStatsServiceTest {
+
+  private final PatientRepository repository= mock(PatientRepository.class);
+
+  private final PatientStatsCounters counters= new PatientStatsCounters(true,new int[]{18,30});
+
+  private final PatientStatsService classUnderTest= new PatientStatsService(repository,counters);
+
+  @Test
+  void givenCountersNotLoadedWhenGetStatsTwiceThenTheDatabaseIsQueriedOnce() {
+    //Given
+    when(repository.countByAgeBandAndGender(any(),any())).thenReturn(List.of(
+        new PatientStatsGroup("0-17","F",2),
+        new PatientStatsGroup("30+","M",3)));
+
+    //When
+    PatientStats first= classUnderTest.getStats();
+    counters.added(LocalDate.now().minusYears(20),"F");
+    PatientStats actual= classUnderTest.getStats();
+
+    //Then
+    assertThat(first.getSource()).isEqualTo(PatientStats.Source.DATABASE);
+    assertThat(actual.getSource()).isEqualTo(PatientStats.Source.COUNTERS);
+    assertThat(actual.getTotal()).isEqualTo(6);
+    assertThat(actual.getGroups()).extracting(PatientStatsGroup::getAgeBand).containsExactly("0-17","18-29","30+");
+    verify(repository,times(1)).countByAgeBandAndGender(any(),any());
+  }
+
+  @Test
+  void givenCountersLoadedAnotherDayWhenGetStatsThenReloadedFromTheDatabase() {
+    //Given
+    counters.load(LocalDate.now().minusDays(1),List.of(new PatientStatsGroup("30+","M",3)));
+    when(repository.countByAgeBandAndGender(any(),eq(LocalDate.now()))).thenReturn(List.of(
+        new PatientStatsGroup("30+","M",4)));
+
+    //When
+    PatientStats actual= classUnderTest.getStats();
+
+    //Then
+    assertThat(actual.getSource()).isEqualTo(PatientStats.Source.DATABASE);
+    assertThat(actual.getTotal()).isEqualTo(4);
+    assertThat(counters.snapshot(LocalDate.now()).getTotal()).isEqualTo(4);
+  }
+
+  @Test
+  void givenCountersDisabledWhenGetStatsThenAlwaysComputedByTheDatabase() {
+    //Given
+    PatientStatsService withoutCounters= new PatientStatsService(repository,new PatientStatsCounters(false,new int[]{18}));
+    when(repository.countByAgeBandAndGender(any(),any())).thenReturn(List.of());
+
+    //When
+    withoutCounters.getStats();
+    PatientStats actual= withoutCounters.getStats();
+
+    //Then
+    assertThat(actual.getSource()).isEqualTo(PatientStats.Source.DATABASE);
+    verify(repository,times(2)).countByAgeBandAndGender(any(),any());
+  }
+}
@@ -0,0 +1,121 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.model.PatientName;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.suggest.PatientSuggestIndex;
+import com.mediscreen.patientmicroservice.util.NameNormalizer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Tag("benchmark")
+public class PatientSuggestIndexBenchmarkTest {
+
+  private static final int PATIENTS= Integer.getInteger("benchmark.patients",1_000_000);
+  private static final int LOOKUPS= 100_000;
+  private static final String[] SYLLABLES= {"ba","be","bo","ca","ce","da","de","do","fa","fe","ga","gi","ha","jo",
+      "ka","la","le","li","lo","ma","me","mi","mo","na","ne","no","pa","pe","ra","re","ri","ro","sa","se","si",
+      "so","ta","te","ti","to","va","ve","vi","wa","ya","za","ber","son","ton","mann","ley","ford","ski"};
+
+  private final PatientRepository repository= mock(PatientRepository.class);
+
+  @Test
+  void measureMemoryAndLatencyOfSuggestIndex() {
+    //Given
+    Random random= new Random(42);
+    String[] lastNames= new String[PATIENTS];
+    String[] firstNames= new String[PATIENTS];
+    for (int i = 0; i < PATIENTS; i++) {
+      lastNames[i]= capitalize(name(random,2 + random.nextInt(3)));
+      firstNames[i]= capitalize(name(random,2 + random.nextInt(2)));
+    }
+    when(repository.streamNames()).thenAnswer(invocation -> IntStream.range(0,PATIENTS)
+        .mapToObj(i -> name(i + 1,lastNames[i],firstNames[i])));
+
+    long heapBefore= usedHeap();
+    PatientSuggestIndex index= new PatientSuggestIndex(repository,mock(PlatformTransactionManager.class),true,10_000);
+    long buildStart= System.nanoTime();
+    index.rebuild();
+    long buildMillis= (System.nanoTime() - buildStart) / 1_000_000;
+    long heapAfter= usedHeap();
+
+    //When
+    String[] queries= new String[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      String key= NameNormalizer.normalize(random.nextBoolean() ? lastNames[random.nextInt(PATIENTS)] : firstNames[random.nextInt(PATIENTS)]);
+      queries[i]= key.substring(0,Math.min(key.length(),1 + random.nextInt(4)));
+    }
+    for (int i = 0; i < LOOKUPS; i++) {
+      index.suggest(queries[i],10);
+    }
+    long[] latencies= new long[LOOKUPS];
+    int results= 0;
+    for (int i = 0; i < LOOKUPS; i++) {
+      long start= System.nanoTime();
+      results+= index.suggest(queries[i],10).size();
+      latencies[i]= System.nanoTime() - start;
+    }
+    Arrays.sort(latencies);
+    index.shutdown();
+
+    //Then
+    System.out.printf("suggest index: %,d patients, built in %,d ms, retained heap ~%,d MB%n",
+        PATIENTS,buildMillis,(heapAfter - heapBefore) / (1024 * 1024));
+    System.out.printf("suggest top-10 latency over %,d lookups: p50=%,d us p99=%,d us p99.9=%,d us max=%,d us%n",
+        LOOKUPS,percentile(latencies,0.50),percentile(latencies,0.99),percentile(latencies,0.999),
+        latencies[LOOKUPS - 1] / 1000);
+    assertThat(results).isPositive();
+    assertThat(index.isReady()).isTrue();
+  }
+
+  private String name(Random random, int syllables) {
+    StringBuilder name= new StringBuilder();
+    for (int i = 0; i < syllables; i++) {
+      name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+    }
+    return name.toString();
+  }
+
+  private String capitalize(String name) {
+    return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  private long percentile(long[] sortedNanos, double percentile) {
+    return sortedNanos[(int) Math.min(sortedNanos.length - 1, Math.ceil(percentile * sortedNanos.length) - 1)] / 1000;
+  }
+
+  private long usedHeap() {
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    Runtime runtime= Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private PatientName name(int id, String lastName, String firstName) {
+    return new PatientName() {
+      @Override
+      public Integer getId() {
+        return id;
+      }
+
+      @Override
+      public String getLastName() {
+        return lastName;
+      }
+
+      @Override
+      public String getFirstName() {
+        return firstName;
+      }
+    };
+  }
+}
@@ -0,0 +1,179 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.event.PatientChangeEvent;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.model.PatientName;
+import com.mediscreen.patientmicroservice.model.PatientPatch;
+import com.mediscreen.patientmicroservice.model.PatientSuggestion;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.suggest.PatientSuggestIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class PatientSuggestIndexTest {
+
+  private final PatientRepository repository= mock(PatientRepository.class);
+
+  private final PatientSuggestIndex classUnderTest= new PatientSuggestIndex(repository,
+      mock(PlatformTransactionManager.class),true,3);
+
+  @AfterEach
+  void tearDown() {
+    classUnderTest.shutdown();
+  }
+
+  @Test
+  void givenPatientsLoadedWhenSuggestThenReturnMatchesOnLastOrFirstNameOrderedByName() {
+    //Given
+    loadPatients();
+
+    //When
+    List<PatientSuggestion> actual= classUnderTest.suggest("FE",10);
+
+    //Then
+    assertTrue(classUnderTest.isReady());
+    assertThat(actual).extracting(PatientSuggestion::getId).containsExactly(4,1,2);
+    assertThat(actual.get(2).getLastName()).isEqualTo("Fernández");
+    assertThat(actual.get(2).getFirstName()).isEqualTo("Élodie");
+  }
+
+  @Test
+  void givenAPatientMatchingOnBothNamesWhenSuggestThenReturnItOnce() {
+    //Given
+    loadPatients();
+
+    //When
+    List<PatientSuggestion> actual= classUnderTest.suggest("max",10);
+
+    //Then
+    assertThat(actual).extracting(PatientSuggestion::getId).containsExactly(3);
+  }
+
+  @Test
+  void givenALimitWhenSuggestThenReturnTopKOnly() {
+    //Given
+    loadPatients();
+
+    //When
+    List<PatientSuggestion> actual= classUnderTest.suggest("f",2);
+
+    //Then
+    assertThat(actual).extracting(PatientSuggestion::getId).containsExactly(4,1);
+  }
+
+  @Test
+  void givenPatientChangesWhenSuggestThenReflectCreatedUpdatedAndDeletedPatients() {
+    //Given
+    loadPatients();
+
+    //When
+    classUnderTest.onPatientChange(PatientChangeEvent.created(
+        new PatientBuilder().id(5).lastName("Fenwick").firstName("Ada").build()));
+    classUnderTest.onPatientChange(PatientChangeEvent.updated(1,
+        new PatientBuilder().id(1).lastName("Smith").firstName("Lucas").build()));
+    classUnderTest.onPatientChange(PatientChangeEvent.deleted(2));
+
+    //Then
+    assertThat(classUnderTest.suggest("fe",10)).extracting(PatientSuggestion::getId).containsExactly(4,5);
+    assertThat(classUnderTest.suggest("smi",10)).extracting(PatientSuggestion::getId).containsExactly(1,4);
+  }
+
+  @Test
+  void givenAPatchOnLastNameWhenSuggestThenKeepFirstNameFromIndex() {
+    //Given
+    loadPatients();
+    PatientPatch patch= new PatientPatch();
+    patch.setLastName("Zimmer");
+
+    //When
+    classUnderTest.onPatientChange(PatientChangeEvent.patched(1,patch));
+
+    //Then
+    assertThat(classUnderTest.suggest("zim",10)).extracting(PatientSuggestion::getFirstName).containsExactly("Lucas");
+  }
+
+  @Test
+  void givenAPatchOnLastNameOfAPatientNotIndexedWhenSuggestThenFirstNameLoadedFromTheDatabase() {
+    //Given
+    loadPatients();
+    PatientPatch patch= new PatientPatch();
+    patch.setLastName("Zimmer");
+    when(repository.findById(9)).thenReturn(Optional.of(
+        new PatientBuilder().id(9).lastName("Zimmer").firstName("Hans").build()));
+
+    //When
+    classUnderTest.onPatientChange(PatientChangeEvent.patched(9,patch));
+
+    //Then
+    assertThat(classUnderTest.suggest("zim",10)).extracting(PatientSuggestion::getFirstName).containsExactly("Hans");
+    assertThat(classUnderTest.suggest("hans",10)).extracting(PatientSuggestion::getId).containsExactly(9);
+  }
+
+  @Test
+  void givenMoreChangesThanTheCompactionThresholdWhenSuggestThenChangesAreKept() throws Exception {
+    //Given
+    loadPatients();
+
+    //When
+    for (int id = 10; id < 20; id++) {
+      classUnderTest.put(id,"Fenton" + id,"Bob");
+    }
+    classUnderTest.remove(10);
+    Thread.sleep(200);
+
+    //Then
+    List<PatientSuggestion> actual= classUnderTest.suggest("fenton",20);
+    assertThat(actual).extracting(PatientSuggestion::getId).containsExactly(11,12,13,14,15,16,17,18,19);
+  }
+
+  @Test
+  void givenTheIndexCannotBeLoadedWhenRebuildThenIndexIsNotReady() {
+    //Given
+    when(repository.streamNames()).thenThrow(new IllegalStateException("database down"));
+
+    //When
+    classUnderTest.rebuild();
+
+    //Then
+    assertFalse(classUnderTest.isReady());
+    assertTrue(classUnderTest.suggest("fe",10).isEmpty());
+  }
+
+  private void loadPatients() {
+    when(repository.streamNames()).thenReturn(Stream.of(
+        name(1,"Ferguson","Lucas"),
+        name(2,"Fernández","Élodie"),
+        name(3,"Max","Maxwell"),
+        name(4,"Smith","Fenella")));
+    classUnderTest.rebuild();
+  }
+
+  private PatientName name(int id, String lastName, String firstName) {
+    return new PatientName() {
+      @Override
+      public Integer getId() {
+        return id;
+      }
+
+      @Override
+      public String getLastName() {
+        return lastName;
+      }
+
+      @Override
+      public String getFirstName() {
+        return firstName;
+      }
+    };
+  }
+}
@@ -0,0 +1,165 @@
+package com.mediscreen.patientmicroservice;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.wire.PatientProtobufCodec;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("benchmark")
+public class PatientWireFormatBenchmarkTest {
+
+  private static final int LIST_SIZE= 500;
+  private static final long MEASURE_NANOS= Long.getLong("benchmark.millis",2_000L) * 1_000_000;
+  private static final TypeReference<List<Patient>> PATIENT_LIST= new TypeReference<>() {};
+
+  @Test
+  void measurePayloadSizeAndThroughputOfWireFormats() throws IOException {
+    //Given
+    List<Patient> patients= patients(LIST_SIZE);
+    Patient patient= patients.get(0);
+    List<Codec> codecs= List.of(
+        jackson("json",Jackson2ObjectMapperBuilder.json().build()),
+        jackson("cbor",Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build()),
+        jackson("smile",Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build()),
+        protobuf());
+
+    //When
+    System.out.printf("%-9s %12s %12s %14s %14s %14s %14s%n","format","single B","list B",
+        "single ser/s","single de/s","list ser/s","list de/s");
+    for (Codec codec : codecs) {
+      byte[] single= codec.writePatient(patient);
+      byte[] list= codec.writePatients(patients);
+      assertThat(codec.readPatient(single).getLastName()).isEqualTo(patient.getLastName());
+      assertThat(codec.readPatients(list)).hasSize(LIST_SIZE);
+
+      System.out.printf("%-9s %,12d %,12d %,14.0f %,14.0f %,14.0f %,14.0f%n",codec.name,single.length,list.length,
+          throughput(() -> codec.writePatient(patient)),
+          throughput(() -> codec.readPatient(single)),
+          throughput(() -> codec.writePatients(patients)),
+          throughput(() -> codec.readPatients(list)));
+    }
+  }
+
+  private double throughput(Operation operation) throws IOException {
+    long warmUpEnd= System.nanoTime() + MEASURE_NANOS / 2;
+    while (System.nanoTime() < warmUpEnd) {
+      operation.run();
+    }
+    long operations= 0;
+    long start= System.nanoTime();
+    long elapsed;
+    do {
+      for (int i = 0; i < 100; i++) {
+        operation.run();
+      }
+      operations+= 100;
+      elapsed= System.nanoTime() - start;
+    } while (elapsed < MEASURE_NANOS);
+    return operations * 1e9 / elapsed;
+  }
+
+  private List<Patient> patients(int count) {
+    Random random= new Random(42);
+    String[] lastNames= {"Ferguson","Rees","Arnold","Sharp","Ince","Ross","Wilson","Buckland","Clark","Bailey"};
+    String[] firstNames= {"Lucas","Pippa","Edward","Anthony","Wendy","Tracey","Claire","Max","Natalie","Piers"};
+    List<Patient> patients= new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      patients.add(new PatientBuilder()
+          .id(i + 1)
+          .lastName(lastNames[random.nextInt(lastNames.length)])
+          .firstName(firstNames[random.nextInt(firstNames.length)])
+          .dateOfBirth(LocalDate.of(1930 + random.nextInt(80),1 + random.nextInt(12),1 + random.nextInt(28)))
+          .gender(random.nextBoolean() ? "M" : "F")
+          .address((1 + random.nextInt(999)) + " Warren Street")
+          .phone(String.format("%03d-%03d-%04d",random.nextInt(1000),random.nextInt(1000),random.nextInt(10000)))
+          .build());
+    }
+    return patients;
+  }
+
+  private Codec jackson(String name, ObjectMapper mapper) {
+    return new Codec(name) {
+      byte[] writePatient(Patient patient) throws IOException {
+        return mapper.writeValueAsBytes(patient);
+      }
+
+      byte[] writePatients(List<Patient> patients) throws IOException {
+        return mapper.writeValueAsBytes(patients);
+      }
+
+      Patient readPatient(byte[] bytes) throws IOException {
+        return mapper.readValue(bytes,Patient.class);
+      }
+
+      List<Patient> readPatients(byte[] bytes) throws IOException {
+        return mapper.readValue(bytes,PATIENT_LIST);
+      }
+    };
+  }
+
+  private Codec protobuf() {
+    return new Codec("protobuf") {
+      byte[] writePatient(Patient patient) throws IOException {
+        ByteArrayOutputStream bytes= new ByteArrayOutputStream(128);
+        CodedOutputStream output= CodedOutputStream.newInstance(bytes);
+        PatientProtobufCodec.writePatient(patient,output);
+        output.flush();
+        return bytes.toByteArray();
+      }
+
+      byte[] writePatients(List<Patient> patients) throws IOException {
+        ByteArrayOutputStream bytes= new ByteArrayOutputStream(patients.size() * 80);
+        CodedOutputStream output= CodedOutputStream.newInstance(bytes);
+        PatientProtobufCodec.writePatients(patients,output);
+        output.flush();
+        return bytes.toByteArray();
+      }
+
+      Patient readPatient(byte[] bytes) throws IOException {
+        return PatientProtobufCodec.readPatient(CodedInputStream.newInstance(bytes));
+      }
+
+      List<Patient> readPatients(byte[] bytes) throws IOException {
+        return PatientProtobufCodec.readPatients(CodedInputStream.newInstance(bytes));
+      }
+    };
+  }
+
+  private interface Operation {
+    void run() throws IOException;
+  }
+
+  private abstract static class Codec {
+
+    final String name;
+
+    Codec(String name) {
+      this.name= name;
+    }
+
+    abstract byte[] writePatient(Patient patient) throws IOException;
+
+    abstract byte[] writePatients(List<Patient> patients) throws IOException;
+
+    abstract Patient readPatient(byte[] bytes) throws IOException;
+
+    abstract List<Patient> readPatients(byte[] bytes) throws IOException;
+  }
+}
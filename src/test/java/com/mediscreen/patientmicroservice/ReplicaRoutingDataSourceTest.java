@@ -0,0 +1,186 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.datasource.ReadYourWritesFilter;
+import com.mediscreen.patientmicroservice.datasource.ReplicaRoutingDataSource;
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.model.PatientPatch;
+import com.mediscreen.patientmicroservice.service.PatientService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.servlet.http.Cookie;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.sql.init.mode=never",
+    "patient.datasource.replica-urls=" + ReplicaRoutingDataSourceTest.REPLICA_URL,
+    "patient.datasource.primary-position-query=SELECT lsn FROM wal_position",
+    "patient.datasource.replica-lag-query=SELECT CASE WHEN NOT streaming THEN NULL "
+        + "WHEN replayed_lsn >= CAST(? AS INT) THEN 0 ELSE lag_seconds END FROM replica_lag",
+    "patient.datasource.replica-lag-check-interval=PT1H",
+    "patient.suggest.enabled=false",
+    "patient.response-cache.enabled=false",
+    "patient.second-level-cache.uri=replica-routing-test"
+})
+@AutoConfigureMockMvc
+public class ReplicaRoutingDataSourceTest {
+
+  static final String REPLICA_URL= "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+  private final JdbcTemplate primary= new JdbcTemplate(
+      new DriverManagerDataSource("jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1", "sa", ""));
+  private final JdbcTemplate replica= new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+  @Autowired
+  private PatientService service;
+
+  @Autowired
+  private ReplicaRoutingDataSource routingDataSource;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    primary.update("delete from patient");
+    primary.execute("create table if not exists wal_position (lsn int)");
+    primary.update("delete from wal_position");
+    primary.update("insert into wal_position values (1)");
+    replica.execute("drop all objects");
+    primary.queryForList("script nodata", String.class).stream()
+        .filter(statement -> statement.startsWith("CREATE") && !statement.startsWith("CREATE USER"))
+        .forEach(replica::execute);
+    replica.execute("create table replica_lag (replayed_lsn int, lag_seconds int, streaming boolean)");
+    replica.update("insert into replica_lag values (1, 0, true)");
+  }
+
+  @Test
+  void givenAReplicaThatReplayedTheWritesWhenReadThenTheReplicaServesIt() {
+    //Given
+    Patient patient= service.addPatient(patient());
+    replicate(patient.getId());
+
+    //When
+    routingDataSource.checkLag();
+    List<Patient> actual= service.getAllPatient();
+
+    //Then
+    assertThat(actual).extracting(Patient::getLastName).containsExactly("Replica");
+  }
+
+  @Test
+  void givenAWriteNotYetReplayedWhenReadThenThePrimaryServesIt() {
+    //Given
+    Patient patient= service.addPatient(patient());
+    replicate(patient.getId());
+    routingDataSource.checkLag();
+    PatientPatch patch= new PatientPatch();
+    patch.setPhone("111-222-3333");
+
+    //When
+    service.patchPatient(patient.getId(), patch);
+    List<Patient> beforeReplay= service.getAllPatient();
+    routingDataSource.checkLag();
+    List<Patient> afterReplay= service.getAllPatient();
+
+    //Then
+    assertThat(beforeReplay).extracting(Patient::getLastName).containsExactly("Primary");
+    assertThat(afterReplay).extracting(Patient::getLastName).containsExactly("Replica");
+  }
+
+  @Test
+  void givenAReplicaLaggingBeyondTheMaximumWhenReadThenThePrimaryServesIt() {
+    //Given
+    Patient patient= service.addPatient(patient());
+    replicate(patient.getId());
+    primary.update("update wal_position set lsn = 2");
+    replica.update("update replica_lag set lag_seconds = 60");
+
+    //When
+    routingDataSource.checkLag();
+    List<Patient> actual= service.getAllPatient();
+
+    //Then
+    assertThat(actual).extracting(Patient::getLastName).containsExactly("Primary");
+  }
+
+  @Test
+  void givenAReplicaNoLongerReceivingThePrimaryWhenReadThenThePrimaryServesIt() {
+    //Given
+    Patient patient= service.addPatient(patient());
+    replicate(patient.getId());
+    routingDataSource.checkLag();
+    replica.update("update replica_lag set streaming = false");
+
+    //When
+    routingDataSource.checkLag();
+    List<Patient> actual= service.getAllPatient();
+
+    //Then
+    assertThat(actual).extracting(Patient::getLastName).containsExactly("Primary");
+  }
+
+  @Test
+  void givenAClientThatWroteWhenItReadsThenItsReadsStayOnThePrimary() throws Exception {
+    //Given
+    Cookie sticky= mockMvc.perform(post("/patientAPI/patients")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"firstName\":\"John\",\"lastName\":\"Primary\",\"dateOfBirth\":\"2022-01-01\",\"gender\":\"M\"}"))
+        .andExpect(status().isCreated())
+        .andReturn().getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+    replicate(primary.queryForObject("select id from patient", Integer.class));
+    routingDataSource.checkLag();
+
+    //When
+    String stickyClient= mockMvc.perform(get("/patientAPI/patients").cookie(sticky))
+        .andReturn().getResponse().getContentAsString();
+    String otherClient= mockMvc.perform(get("/patientAPI/patients"))
+        .andReturn().getResponse().getContentAsString();
+
+    //Then
+    assertThat(sticky).isNotNull();
+    assertThat(stickyClient).contains("\"lastName\":\"Primary\"");
+    assertThat(otherClient).contains("\"lastName\":\"Replica\"");
+  }
+
+  private Patient patient() {
+    return new PatientBuilder()
+        .firstName("John")
+        .lastName("Primary")
+        .dateOfBirth(LocalDate.of(2022,1,1))
+        .gender("M")
+        .build();
+  }
+
+  /**
+   * Copies the primary row to the replica under another last name, so reads show which database served them.
+   */
+  private void replicate(int id) {
+    Map<String, Object> row= primary.queryForMap("select * from patient where id = ?", id);
+    row.put("LAST_NAME", "Replica");
+    String columns= String.join(",", row.keySet());
+    String values= row.keySet().stream().map(column -> "?").collect(Collectors.joining(","));
+    replica.update("insert into patient (" + columns + ") values (" + values + ")", row.values().toArray());
+  }
+}
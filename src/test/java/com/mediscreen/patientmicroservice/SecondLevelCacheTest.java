@@ -0,0 +1,157 @@
+package com.mediscreen.patientmicroservice;
+
+import com.mediscreen.patientmicroservice.model.Patient;
+import com.mediscreen.patientmicroservice.model.Patient.PatientBuilder;
+import com.mediscreen.patientmicroservice.model.PatientPatch;
+import com.mediscreen.patientmicroservice.repository.PatientRepository;
+import com.mediscreen.patientmicroservice.service.PatientExportService;
+import com.mediscreen.patientmicroservice.service.PatientService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:second-level-cache;DB_CLOSE_DELAY=-1",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.sql.init.mode=never",
+    "patient.second-level-cache.uri=second-level-cache-test",
+    "patient.suggest.enabled=false",
+    "patient.response-cache.enabled=false"
+})
+@AutoConfigureMockMvc
+public class SecondLevelCacheTest {
+
+  @Autowired
+  private PatientService service;
+
+  @Autowired
+  private PatientRepository repository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private PatientExportService exportService;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics= entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  void givenAPatientLoadedOnceWhenReadAgainThenTheSecondLevelCacheServesIt() {
+    //Given
+    Patient patient= service.addPatient(patient());
+    repository.findById(patient.getId());
+
+    //When
+    Patient actual= repository.findById(patient.getId()).orElseThrow();
+
+    //Then
+    assertThat(actual.getLastName()).isEqualTo("Doe");
+    assertThat(statistics.getCacheRegionStatistics(Patient.CACHE_REGION).getHitCount()).isGreaterThanOrEqualTo(1);
+  }
+
+  @Test
+  void givenTwoCachedPatientsWhenOneIsPatchedThenOnlyThatOneIsEvicted() {
+    //Given
+    Patient patient= service.addPatient(patient());
+    Patient other= service.addPatient(patient());
+    repository.findById(patient.getId());
+    repository.findById(other.getId());
+    PatientPatch patch= new PatientPatch();
+    patch.setPhone("111-222-3333");
+
+    //When
+    service.patchPatient(patient.getId(), patch);
+    long hitsBefore= statistics.getCacheRegionStatistics(Patient.CACHE_REGION).getHitCount();
+    Patient actual= repository.findById(patient.getId()).orElseThrow();
+    repository.findById(other.getId());
+
+    //Then
+    assertThat(actual.getPhone()).isEqualTo("111-222-3333");
+    assertThat(actual.getVersion()).isEqualTo(patient.getVersion() + 1);
+    assertThat(entityManagerFactory.getCache().contains(Patient.class, other.getId())).isTrue();
+    assertThat(statistics.getCacheRegionStatistics(Patient.CACHE_REGION).getHitCount()).isEqualTo(hitsBefore + 1);
+  }
+
+  @Test
+  void givenACachedPatientWhenDeletedThenItIsNoLongerFound() {
+    //Given
+    Patient patient= service.addPatient(patient());
+    repository.findById(patient.getId());
+
+    //When
+    boolean deleted= service.deletePatient(patient.getId());
+
+    //Then
+    assertThat(deleted).isTrue();
+    assertThat(repository.findById(patient.getId())).isEmpty();
+  }
+
+  @Test
+  void givenAnExportWhenExportPatientsThenTheSecondLevelCacheIsLeftAlone() throws Exception {
+    //Given
+    Patient patient= service.addPatient(patient());
+    entityManagerFactory.getCache().evictAll();
+    statistics.clear();
+
+    //When
+    long actual= exportService.exportPatients(OutputStream.nullOutputStream());
+
+    //Then
+    assertThat(actual).isPositive();
+    assertThat(entityManagerFactory.getCache().contains(Patient.class, patient.getId())).isFalse();
+    assertThat(statistics.getCacheRegionStatistics(Patient.CACHE_REGION).getPutCount()).isZero();
+  }
+
+  @Test
+  void givenSecondLevelCacheHitsWhenGetStatsThenHibernateCountersAreExposed() throws Exception {
+    //Given
+    Patient patient= service.addPatient(patient());
+    repository.findById(patient.getId());
+    repository.findById(patient.getId());
+
+    //When & Then
+    mockMvc.perform(get("/patientAPI/cache/stats"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.hibernate.enabled").value(true))
+        .andExpect(jsonPath("$.hibernate.patients.hitCount").value(greaterThanOrEqualTo(1)))
+        .andExpect(jsonPath("$.hibernate.patients.putCount").value(greaterThanOrEqualTo(1)))
+        .andExpect(jsonPath("$.hibernate.patients.evictionCount").value(0))
+        .andExpect(jsonPath("$.hibernate.queries.hitCount").value(0));
+  }
+
+  private Patient patient() {
+    return new PatientBuilder()
+        .firstName("John")
+        .lastName("Doe")
+        .dateOfBirth(LocalDate.of(2022,1,1))
+        .gender("M")
+        .build();
+  }
+}